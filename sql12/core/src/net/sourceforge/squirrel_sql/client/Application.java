@@ -29,6 +29,9 @@ import java.beans.PropertyChangeListener;
 import java.io.*;
 import java.sql.DriverManager;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 import javax.swing.*;
 import javax.swing.plaf.metal.MetalLookAndFeel;
@@ -73,13 +76,16 @@ import net.sourceforge.squirrel_sql.fw.sql.SQLDriverManager;
 import net.sourceforge.squirrel_sql.fw.util.BareBonesBrowserLaunch;
 import net.sourceforge.squirrel_sql.fw.util.BaseException;
 import net.sourceforge.squirrel_sql.fw.util.ClassLoaderListener;
+import net.sourceforge.squirrel_sql.fw.util.ClassScanIndex;
 import net.sourceforge.squirrel_sql.fw.util.IMessageHandler;
+import net.sourceforge.squirrel_sql.fw.util.MyURLClassLoader;
 import net.sourceforge.squirrel_sql.fw.util.ProxyHandler;
 import net.sourceforge.squirrel_sql.fw.util.StringManager;
 import net.sourceforge.squirrel_sql.fw.util.StringManagerFactory;
 import net.sourceforge.squirrel_sql.fw.util.TaskThreadPool;
 import net.sourceforge.squirrel_sql.fw.util.log.ILogger;
 import net.sourceforge.squirrel_sql.fw.util.log.LoggerController;
+import net.sourceforge.squirrel_sql.fw.xml.XMLBeanJournal;
 import net.sourceforge.squirrel_sql.fw.xml.XMLBeanReader;
 import net.sourceforge.squirrel_sql.fw.xml.XMLBeanWriter;
 /**
@@ -141,6 +147,18 @@ class Application implements IApplication
 
 	/** Application level SQL History. */
 	private SQLHistory _sqlHistory;
+
+	/**
+	 * The SQL history journal is compacted into the SQL history file when it holds more items
+	 * than this or more than a quarter of the history.
+	 */
+	private static final int MIN_SQL_HISTORY_JOURNAL_COMPACTION_SIZE = 1000;
+
+	/** Number of items in the SQL history journal. */
+	private int _sqlHistoryJournalSize;
+
+	/** True if the SQL history journal is unusable and the history must be saved completely. */
+	private boolean _sqlHistoryRewriteRequired;
 	
 	/**
 	 * Configuration factory for WIKI tables.
@@ -690,6 +708,68 @@ class Application implements IApplication
 	{
 		if (args == null) { throw new IllegalArgumentException("ApplicationArguments == null"); }
 
+		ExecutorService startupExecutor =
+			Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()), new ThreadFactory()
+			{
+				private int _count;
+
+				public synchronized Thread newThread(Runnable r)
+				{
+					Thread t = new Thread(r, "SQuirreL startup " + (++_count));
+					t.setDaemon(true);
+					return t;
+				}
+			});
+
+		try
+		{
+			StartupTaskGraph graph = new StartupTaskGraph(startupExecutor);
+			executeStartupTasks(splash, args, graph, startupExecutor);
+			s_log.info(graph.getReport());
+		}
+		finally
+		{
+			startupExecutor.shutdown();
+		}
+	}
+
+	/**
+	 * Steps that build the UI, register actions or load plugins run on the calling thread in the order
+	 * they always had. Loading the user's settings files runs concurrently on the startupExecutor. 
+	 */
+	private void executeStartupTasks(final SquirrelSplashScreen splash, final ApplicationArguments args,
+		StartupTaskGraph graph, ExecutorService startupExecutor)
+	{
+		// Neither plugins nor the UI read these settings before the main window is shown.
+		graph.addTask("loadSQLHistory", new Runnable()
+		{
+			public void run()
+			{
+				loadSQLHistory();
+			}
+		});
+		graph.addTask("loadCellImportExportInfo", new Runnable()
+		{
+			public void run()
+			{
+				loadCellImportExportInfo();
+			}
+		});
+		graph.addTask("loadEditWhereColsInfo", new Runnable()
+		{
+			public void run()
+			{
+				loadEditWhereColsInfo();
+			}
+		});
+		graph.addTask("loadDTProperties", new Runnable()
+		{
+			public void run()
+			{
+				loadDTProperties();
+			}
+		});
+
 		indicateNewStartupTask(splash, s_stringMgr.getString("Application.splash.createSessionManager"));
 		// AliasMaintSheetFactory.initialize(this);
 		// DriverMaintSheetFactory.initialize(this);
@@ -708,52 +788,78 @@ class Application implements IApplication
 		}
 
 		UIFactory.initialize(_prefs, this);
+		MyURLClassLoader.setClassScanIndex(new ClassScanIndex(new ApplicationFiles().getClassScanIndexFile()));
 		_pluginManager = new PluginManager(this);
-		if (args.getLoadPlugins())
+		_pluginManager.setStartupExecutor(startupExecutor);
+		graph.runTask("loadPlugins", new Runnable()
 		{
-			if (null != splash && _prefs.getShowPluginFilesInSplashScreen())
+			public void run()
 			{
-				ClassLoaderListener listener = splash.getClassLoaderListener();
-				_pluginManager.setClassLoaderListener(listener);
-			}
-			
-			if (args.getPluginList() != null) {
-				_pluginManager.loadPluginsFromList(args.getPluginList());
-			} else {
-				_pluginManager.loadPlugins();
+				if (loadPlugins)
+				{
+					if (null != splash && _prefs.getShowPluginFilesInSplashScreen())
+					{
+						ClassLoaderListener listener = splash.getClassLoaderListener();
+						_pluginManager.setClassLoaderListener(listener);
+					}
+
+					if (args.getPluginList() != null) {
+						_pluginManager.loadPluginsFromList(args.getPluginList());
+					} else {
+						_pluginManager.loadPlugins();
+					}
+				}
 			}
-		}
+		});
 
       // Final argument validation after all plugins have been loaded.  This will exit if there is an unrecognized argument in the list.
       args.validateArgs(true);
 
-      indicateNewStartupTask(splash, s_stringMgr.getString("Application.splash.loadingactions"));
-		_actions = new ActionCollection(this);
+		graph.runTask("loadActions", new Runnable()
+		{
+			public void run()
+			{
+				indicateNewStartupTask(splash, s_stringMgr.getString("Application.splash.loadingactions"));
+				_actions = new ActionCollection(Application.this);
 
-		indicateNewStartupTask(splash, s_stringMgr.getString("Application.splash.loadinguseracc"));
-		_actions.loadActionKeys(_prefs.getActionKeys());
+				indicateNewStartupTask(splash, s_stringMgr.getString("Application.splash.loadinguseracc"));
+				_actions.loadActionKeys(_prefs.getActionKeys());
+			}
+		}, "loadPlugins");
 
-		indicateNewStartupTask(splash, s_stringMgr.getString("Application.splash.createjdbcmgr"));
-		_driverMgr = new SQLDriverManager();
+		graph.runTask("loadDrivers", new Runnable()
+		{
+			public void run()
+			{
+				indicateNewStartupTask(splash, s_stringMgr.getString("Application.splash.createjdbcmgr"));
+				_driverMgr = new SQLDriverManager();
 
-		// TODO: pass in a message handler so user gets error msgs.
-		indicateNewStartupTask(splash, s_stringMgr.getString("Application.splash.loadingjdbc"));
-		_appFiles = new ApplicationFiles();
+				// TODO: pass in a message handler so user gets error msgs.
+				indicateNewStartupTask(splash, s_stringMgr.getString("Application.splash.loadingjdbc"));
+				_appFiles = new ApplicationFiles();
 
-		String errMsg = FileTransformer.transform(_appFiles);
-		if (null != errMsg)
-		{
-			System.err.println(errMsg);
-			JOptionPane.showMessageDialog(null, errMsg, "SQuirreL failed to start", JOptionPane.ERROR_MESSAGE);
-			System.exit(-1);
-		}
+				String errMsg = FileTransformer.transform(_appFiles);
+				if (null != errMsg)
+				{
+					System.err.println(errMsg);
+					JOptionPane.showMessageDialog(null, errMsg, "SQuirreL failed to start", JOptionPane.ERROR_MESSAGE);
+					System.exit(-1);
+				}
 
-		_cache =
-			new DataCache(_driverMgr, _appFiles.getDatabaseDriversFile(), _appFiles.getDatabaseAliasesFile(),
-				_resources.getDefaultDriversUrl(), this);
+				_cache =
+					new DataCache(_driverMgr, _appFiles.getDatabaseDriversFile(), _appFiles.getDatabaseAliasesFile(),
+						_resources.getDefaultDriversUrl(), Application.this);
+			}
+		}, "loadActions");
 
-		indicateNewStartupTask(splash, s_stringMgr.getString("Application.splash.createWindowManager"));
-		_windowManager = new WindowManager(this, args.getUserInterfaceDebugEnabled());
+		graph.runTask("createWindowManager", new Runnable()
+		{
+			public void run()
+			{
+				indicateNewStartupTask(splash, s_stringMgr.getString("Application.splash.createWindowManager"));
+				_windowManager = new WindowManager(Application.this, args.getUserInterfaceDebugEnabled());
+			}
+		}, "loadDrivers");
 
 		// _mainFrame = new MainFrame(this);
 
@@ -765,52 +871,73 @@ class Application implements IApplication
 		String notloadingplugins = s_stringMgr.getString("Application.splash.notloadingplugins");
 		String task = (loadPlugins ? initializingPlugins : notloadingplugins);
 		indicateNewStartupTask(splash, task);
-		if (loadPlugins)
+		graph.runTask("initializePlugins", new Runnable()
 		{
-			_pluginManager.initializePlugins();
-			for (Iterator<PluginLoadInfo> it = _pluginManager.getPluginLoadInfoIterator(); it.hasNext();)
+			public void run()
 			{
-				PluginLoadInfo pli = it.next();
-				long created = pli.getCreationTime();
-				long load = pli.getLoadTime();
-				long init = pli.getInitializeTime();
-				Object[] params =
-					new Object[] { pli.getInternalName(), Long.valueOf(created), Long.valueOf(load),
-							Long.valueOf(init), Long.valueOf(created + load + init) };
-				String pluginLoadMsg = s_stringMgr.getString("Application.splash.loadplugintime", params);
-				s_log.info(pluginLoadMsg);
+				if (loadPlugins)
+				{
+					_pluginManager.initializePlugins();
+					for (Iterator<PluginLoadInfo> it = _pluginManager.getPluginLoadInfoIterator(); it.hasNext();)
+					{
+						PluginLoadInfo pli = it.next();
+						long created = pli.getCreationTime();
+						long load = pli.getLoadTime();
+						long init = pli.getInitializeTime();
+						Object[] params =
+							new Object[] { pli.getInternalName(), Long.valueOf(created), Long.valueOf(load),
+									Long.valueOf(init), Long.valueOf(created + load + init) };
+						String pluginLoadMsg = s_stringMgr.getString("Application.splash.loadplugintime", params);
+						s_log.info(pluginLoadMsg);
+					}
+				}
 			}
-		}
+		}, "createWindowManager");
+
+		// Plugins register their WIKI configurations before the user specific ones are loaded.
+		graph.addTask("loadUserSpecificWikiTableConfigurations", new Runnable()
+		{
+			public void run()
+			{
+				loadUserSpecificWikiTableConfigurations();
+			}
+		}, "initializePlugins");
 
 		// i18n[Application.splash.loadsqlhistory=Loading SQL history...]
 		indicateNewStartupTask(splash, s_stringMgr.getString("Application.splash.loadsqlhistory"));
-		loadSQLHistory();
+		graph.awaitTasks("loadSQLHistory");
 
 		// i18n[Application.splash.loadcellselections=Loading Cell Import/Export selections...]
 		indicateNewStartupTask(splash, s_stringMgr.getString("Application.splash.loadcellselections"));
-		loadCellImportExportInfo();
+		graph.awaitTasks("loadCellImportExportInfo");
 
 		// i18n[Application.splash.loadeditselections=Loading Edit 'Where' Columns selections...]
 		indicateNewStartupTask(splash, s_stringMgr.getString("Application.splash.loadeditselections"));
-		loadEditWhereColsInfo();
+		graph.awaitTasks("loadEditWhereColsInfo");
 
 		// i18n[Application.splash.loaddatatypeprops=Loading Data Type Properties...]
 		indicateNewStartupTask(splash, s_stringMgr.getString("Application.splash.loaddatatypeprops"));
-		loadDTProperties();
+		graph.awaitTasks("loadDTProperties");
 		
 		// i18n[Application.splash.loadsqlhistory=Loading user specific WIKI configurations...]
 		indicateNewStartupTask(splash, s_stringMgr.getString("Application.splash.loadUserSpecificWikiConfiguration"));
-		loadUserSpecificWikiTableConfigurations();
+		graph.awaitTasks("loadUserSpecificWikiTableConfigurations");
 
 		// i18n[Application.splash.showmainwindow=Showing main window...]
 		indicateNewStartupTask(splash, s_stringMgr.getString("Application.splash.showmainwindow"));
-		_windowManager.moveToFront(_windowManager.getMainFrame());
-		_threadPool.setParentForMessages(_windowManager.getMainFrame());
+		graph.runTask("showMainWindow", new Runnable()
+		{
+			public void run()
+			{
+				_windowManager.moveToFront(_windowManager.getMainFrame());
+				_threadPool.setParentForMessages(_windowManager.getMainFrame());
 
-		// _mainFrame.setVisible(true);
-		// _mainFrame.toFront(); // Required on Linux
+				// _mainFrame.setVisible(true);
+				// _mainFrame.toFront(); // Required on Linux
 
-		new ConnectToStartupAliasesCommand(this).execute();
+				new ConnectToStartupAliasesCommand(Application.this).execute();
+			}
+		});
 
 		if (_prefs.isFirstRun())
 		{
@@ -903,6 +1030,7 @@ class Application implements IApplication
 		{
 			// i18n[Application.error.loadsqlhistory=Unable to load SQL history from persistant storage.]
 			s_log.error(s_stringMgr.getString("Application.error.loadsqlhistory"), ex);
+			_sqlHistoryRewriteRequired = true;
 		}
 		finally
 		{
@@ -911,6 +1039,40 @@ class Application implements IApplication
 				_sqlHistory = new SQLHistory();
 			}
 		}
+
+		loadSQLHistoryJournal();
+	}
+
+	/**
+	 * Adds the SQL history items that were appended to the journal since the history was saved completely.
+	 */
+	private void loadSQLHistoryJournal()
+	{
+		_sqlHistory.markSaved();
+		try
+		{
+			XMLBeanJournal journal = new XMLBeanJournal(new ApplicationFiles().getUserSQLHistoryJournalFile());
+			List<SQLHistoryItem> items = new ArrayList<SQLHistoryItem>();
+			for (Object bean : journal.load(null))
+			{
+				items.add((SQLHistoryItem) bean);
+			}
+			_sqlHistory.addSaved(items);
+			_sqlHistoryJournalSize = items.size();
+
+			if (journal.isDamaged())
+			{
+				// Later appends would follow the damaged element and be lost on the next load.
+				s_log.warn("The SQL history journal is damaged, " + items.size() + " entries could be read. The history is rewritten.");
+				_sqlHistoryRewriteRequired = true;
+			}
+		}
+		catch (Exception ex)
+		{
+			// i18n[Application.error.loadsqlhistoryjournal=Unable to load the latest SQL history entries from persistent storage.]
+			s_log.error(s_stringMgr.getString("Application.error.loadsqlhistoryjournal"), ex);
+			_sqlHistoryRewriteRequired = true;
+		}
 	}
 	
 	/**
@@ -941,23 +1103,20 @@ class Application implements IApplication
 			// i18n[Application.error.loadsqlhistory=Unable to load SQL history from persistant storage.]
 			s_log.error(s_stringMgr.getString("Application.error.loadUserSpecificWikiConfiguration"), ex);
 		}
-		finally
-		{
-			if (_sqlHistory == null)
-			{
-				_sqlHistory = new SQLHistory();
-			}
-		}
 	}
 
 	/**
 	 * Save application level SQL history for current user.
+	 * Items added since the last save are appended to the SQL history journal. The history file
+	 * is written completely only if the history was changed otherwise or the journal has grown too large.
 	 */
 	private void saveSQLHistory()
 	{
 		// Get the history into an array.
 		try
 		{
+			ApplicationFiles appFiles = new ApplicationFiles();
+
 			if (_prefs.getSessionProperties().getLimitSQLEntryHistorySize())
 			{
 				SQLHistoryItem[] data = _sqlHistory.getData();
@@ -971,13 +1130,35 @@ class Application implements IApplication
 				}
 			}
 
-			XMLBeanWriter wtr = new XMLBeanWriter(_sqlHistory);
-			wtr.save(new ApplicationFiles().getUserSQLHistoryFile());
+			List<SQLHistoryItem> unsavedItems = _sqlHistory.takeUnsavedItems();
+			XMLBeanJournal journal = new XMLBeanJournal(appFiles.getUserSQLHistoryJournalFile());
+
+			if (!_sqlHistoryRewriteRequired && !_sqlHistory.requiresRewrite()
+				&& appFiles.getUserSQLHistoryFile().exists()
+				&& _sqlHistoryJournalSize + unsavedItems.size() <= Math.max(MIN_SQL_HISTORY_JOURNAL_COMPACTION_SIZE,
+					_sqlHistory.getData().length / 4))
+			{
+				journal.append(unsavedItems);
+				_sqlHistoryJournalSize += unsavedItems.size();
+			}
+			else
+			{
+				XMLBeanWriter wtr = new XMLBeanWriter(_sqlHistory);
+				wtr.save(appFiles.getUserSQLHistoryFile());
+				_sqlHistory.markSaved();
+
+				// If this fails the journal is read again on next startup which does no harm
+				// because adding an item that is already in the history just moves it to the end.
+				journal.delete();
+				_sqlHistoryJournalSize = 0;
+				_sqlHistoryRewriteRequired = false;
+			}
 		}
 		catch (Exception ex)
 		{
 			// i18n[Application.error.savesqlhistory=Unable to write SQL queries to persistant storage.]
 			s_log.error(s_stringMgr.getString("Application.error.savesqlhistory"), ex);
+			_sqlHistoryRewriteRequired = true;
 		}
 	}
 	
@@ -0,0 +1,251 @@
+package net.sourceforge.squirrel_sql.client;
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+
+import net.sourceforge.squirrel_sql.fw.util.log.ILogger;
+import net.sourceforge.squirrel_sql.fw.util.log.LoggerController;
+
+/**
+ * Runs the steps of the application startup.
+ *
+ * A step declares the steps it depends on and starts as soon as they have finished.
+ * Steps added by <TT>addTask()</TT> run on the executor. Steps passed to <TT>runTask()</TT>
+ * run on the calling thread, which is meant for steps that must keep their order,
+ * e.g. because they build the UI or register actions.
+ *
+ * Start and duration of each step are recorded, see <TT>getReport()</TT>.
+ */
+class StartupTaskGraph
+{
+   private static final ILogger s_log = LoggerController.createLogger(StartupTaskGraph.class);
+
+   private final ExecutorService _executor;
+   private final long _begin = System.currentTimeMillis();
+   private final LinkedHashMap<String, StartupTask> _tasks = new LinkedHashMap<String, StartupTask>();
+
+   StartupTaskGraph(ExecutorService executor)
+   {
+      _executor = executor;
+   }
+
+   /**
+    * Adds a step that runs on the executor once the steps it depends on have finished.
+    *
+    * @param dependsOn Names of steps added before.
+    */
+   void addTask(String name, Runnable runnable, String... dependsOn)
+   {
+      synchronized (this)
+      {
+         register(new StartupTask(name, runnable, dependsOn));
+      }
+      submitReadyTasks();
+   }
+
+   /**
+    * Waits for the steps this step depends on and runs it on the calling thread.
+    * Unlike the steps run on the executor an exception thrown by the step is passed on to the caller.
+    *
+    * @param dependsOn Names of steps added before.
+    */
+   void runTask(String name, Runnable runnable, String... dependsOn)
+   {
+      StartupTask task = new StartupTask(name, runnable, dependsOn);
+      task._submitted = true;
+      synchronized (this)
+      {
+         register(task);
+      }
+      awaitTasks(dependsOn);
+
+      Throwable error = task.run();
+      if (error instanceof RuntimeException)
+      {
+         throw (RuntimeException) error;
+      }
+      if (error instanceof Error)
+      {
+         throw (Error) error;
+      }
+   }
+
+   /**
+    * Waits until the specified steps have finished.
+    */
+   void awaitTasks(String... names)
+   {
+      for (String name : names)
+      {
+         StartupTask task;
+         synchronized (this)
+         {
+            task = _tasks.get(name);
+         }
+
+         try
+         {
+            task._done.await();
+         }
+         catch (InterruptedException e)
+         {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for startup task " + name, e);
+         }
+      }
+   }
+
+   /**
+    * @return One line per step with the thread it ran on, its start relative to the creation
+    * of this graph and its duration.
+    */
+   synchronized String getReport()
+   {
+      StringBuilder ret = new StringBuilder();
+      ret.append("Startup report (").append(System.currentTimeMillis() - _begin).append(" ms):");
+      for (StartupTask task : _tasks.values())
+      {
+         ret.append("\n   ").append(task._name);
+         if (0 == task._done.getCount())
+         {
+            ret.append(" [").append(task._threadName).append("]");
+            ret.append(" start: ").append(task._start - _begin).append(" ms");
+            ret.append(", duration: ").append(task._end - task._start).append(" ms");
+            if (task._failed)
+            {
+               ret.append(", FAILED");
+            }
+         }
+         else
+         {
+            ret.append(" not finished");
+         }
+      }
+      return ret.toString();
+   }
+
+   private void register(StartupTask task)
+   {
+      if (_tasks.containsKey(task._name))
+      {
+         throw new IllegalArgumentException("Duplicate startup task " + task._name);
+      }
+
+      for (String dependency : task._dependsOn)
+      {
+         if (false == _tasks.containsKey(dependency))
+         {
+            throw new IllegalArgumentException("Startup task " + task._name + " depends on unknown task " + dependency);
+         }
+      }
+
+      _tasks.put(task._name, task);
+   }
+
+   private void submitReadyTasks()
+   {
+      List<StartupTask> ready = new ArrayList<StartupTask>();
+      synchronized (this)
+      {
+         for (StartupTask task : _tasks.values())
+         {
+            if (false == task._submitted && isReady(task))
+            {
+               task._submitted = true;
+               ready.add(task);
+            }
+         }
+      }
+
+      for (final StartupTask task : ready)
+      {
+         _executor.execute(new Runnable()
+         {
+            public void run()
+            {
+               task.run();
+            }
+         });
+      }
+   }
+
+   private boolean isReady(StartupTask task)
+   {
+      for (String dependency : task._dependsOn)
+      {
+         if (0 != _tasks.get(dependency)._done.getCount())
+         {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   private class StartupTask
+   {
+      private final String _name;
+      private final Runnable _runnable;
+      private final String[] _dependsOn;
+      private final CountDownLatch _done = new CountDownLatch(1);
+
+      private boolean _submitted;
+      private String _threadName;
+      private long _start;
+      private long _end;
+      private boolean _failed;
+
+      StartupTask(String name, Runnable runnable, String[] dependsOn)
+      {
+         _name = name;
+         _runnable = runnable;
+         _dependsOn = dependsOn;
+      }
+
+      /**
+       * @return The exception thrown by the step or null.
+       */
+      Throwable run()
+      {
+         long start = System.currentTimeMillis();
+         Throwable error = null;
+         try
+         {
+            _runnable.run();
+         }
+         catch (Throwable t)
+         {
+            error = t;
+            s_log.error("Startup task " + _name + " failed", t);
+         }
+
+         synchronized (StartupTaskGraph.this)
+         {
+            _threadName = Thread.currentThread().getName();
+            _start = start;
+            _end = System.currentTimeMillis();
+            _failed = null != error;
+            _done.countDown();
+         }
+
+         submitReadyTasks();
+         return error;
+      }
+   }
+}
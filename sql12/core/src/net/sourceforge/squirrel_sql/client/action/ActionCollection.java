@@ -471,6 +471,7 @@ public class ActionCollection
 		add(new FileOpenAction(_app));
 		add(new FileOpenRecentAction(_app));
 		add(new FileAppendAction(_app));
+		add(new FileExecuteAction(_app));
 		add(new FileSaveAction(_app));
 		add(new FileSaveAsAction(_app));
       add(new FileCloseAction(_app));
@@ -0,0 +1,113 @@
+package net.sourceforge.squirrel_sql.client.gui;
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+import java.awt.BorderLayout;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.Timer;
+
+import net.sourceforge.squirrel_sql.client.IApplication;
+import net.sourceforge.squirrel_sql.fw.util.StringManager;
+import net.sourceforge.squirrel_sql.fw.util.StringManagerFactory;
+import net.sourceforge.squirrel_sql.fw.util.TaskThreadPool;
+
+/**
+ * Status bar panel showing the running and waiting tasks of the application's
+ * <TT>TaskThreadPool</TT>. The tool tip shows the statistics of each lane.
+ */
+public class TaskThreadPoolPanel extends JPanel
+{
+	private static final long serialVersionUID = 1L;
+
+	/** Internationalized strings for this class. */
+	private static final StringManager s_stringMgr =
+		StringManagerFactory.getStringManager(TaskThreadPoolPanel.class);
+
+	private final JLabel _label = new JLabel();
+
+	transient private IApplication _app;
+
+	public TaskThreadPoolPanel(IApplication app)
+	{
+		_app = app;
+
+		setLayout(new BorderLayout());
+		add(_label, BorderLayout.CENTER);
+		setBorder(null);
+
+		updateLabel();
+
+		Timer t = new Timer(1000, new ActionListener()
+		{
+			public void actionPerformed(ActionEvent e)
+			{
+				updateLabel();
+			}
+		});
+		t.start();
+	}
+
+	private void updateLabel()
+	{
+		TaskThreadPool pool = _app.getThreadPool();
+		TaskThreadPool.Statistics other = pool.getStatistics(TaskThreadPool.Priority.DEFAULT);
+		TaskThreadPool.Statistics interactive = pool.getStatistics(TaskThreadPool.Priority.INTERACTIVE);
+		TaskThreadPool.Statistics background = pool.getStatistics(TaskThreadPool.Priority.BACKGROUND);
+
+		int active = other.getActiveCount() + interactive.getActiveCount() + background.getActiveCount();
+		int queued = other.getQueuedCount() + interactive.getQueuedCount() + background.getQueuedCount();
+
+		// i18n[TaskThreadPoolPanel.tasks=Tasks: {0} running, {1} waiting]
+		_label.setText(s_stringMgr.getString("TaskThreadPoolPanel.tasks", Integer.valueOf(active), Integer.valueOf(queued)));
+
+		// i18n[TaskThreadPoolPanel.other=Other]
+		// i18n[TaskThreadPoolPanel.interactive=Interactive]
+		// i18n[TaskThreadPoolPanel.background=Background]
+		StringBuilder tip = new StringBuilder("<html>");
+		appendStatistics(tip, s_stringMgr.getString("TaskThreadPoolPanel.other"), other);
+		tip.append("<br>");
+		appendStatistics(tip, s_stringMgr.getString("TaskThreadPoolPanel.interactive"), interactive);
+		tip.append("<br>");
+		appendStatistics(tip, s_stringMgr.getString("TaskThreadPoolPanel.background"), background);
+		if (pool.isUsingVirtualThreads())
+		{
+			// i18n[TaskThreadPoolPanel.virtualThreads=Tasks run on virtual threads]
+			tip.append("<br>").append(s_stringMgr.getString("TaskThreadPoolPanel.virtualThreads"));
+		}
+		tip.append("</html>");
+		_label.setToolTipText(tip.toString());
+	}
+
+	private void appendStatistics(StringBuilder tip, String laneName, TaskThreadPool.Statistics stats)
+	{
+		Object[] params = new Object[]
+			{
+				laneName,
+				Integer.valueOf(stats.getActiveCount()),
+				Integer.valueOf(stats.getQueuedCount()),
+				Long.valueOf(stats.getCompletedCount()),
+				Long.valueOf(stats.getAverageWaitMillis()),
+				Long.valueOf(stats.getMaxWaitMillis()),
+				Long.valueOf(stats.getAverageRunMillis())
+			};
+
+		// i18n[TaskThreadPoolPanel.laneStatistics={0}: {1} running, {2} waiting, {3} completed, wait {4} ms average, {5} ms max, run {6} ms average]
+		tip.append(s_stringMgr.getString("TaskThreadPoolPanel.laneStatistics", params));
+	}
+}
@@ -160,6 +160,8 @@ public class SQLAlias implements Cloneable, Serializable, ISQLAliasExt, Comparab
 		_connectionProperties.setEnableConnectionKeepAlive(rhsConnProps.isEnableConnectionKeepAlive());
 		_connectionProperties.setKeepAliveSleepTimeSeconds(rhsConnProps.getKeepAliveSleepTimeSeconds());
 		_connectionProperties.setKeepAliveSqlStatement(rhsConnProps.getKeepAliveSqlStatement());
+		_connectionProperties.setEnableConnectionPool(rhsConnProps.isEnableConnectionPool());
+		_connectionProperties.setMaxPoolConnections(rhsConnProps.getMaxPoolConnections());
    }
 
    /**
@@ -35,6 +35,12 @@ public class SQLAliasConnectionProperties implements Serializable
    
    /** the statement to execute to keep the connection alive */
    private String keepAliveSqlStatement = "";
+
+   /** Whether or not background work uses additional pooled connections */
+   private boolean enableConnectionPool = false;
+
+   /** the maximum number of additional connections a session opens;  Default = 3 */
+   private int maxPoolConnections = 3;
       
    /**
 	 * @return the isEnableConnectionKeepAlive
@@ -82,6 +88,38 @@ public class SQLAliasConnectionProperties implements Serializable
 	public void setKeepAliveSqlStatement(String keepAliveSqlStatement)
 	{
 		this.keepAliveSqlStatement = keepAliveSqlStatement;
-	}   
+	}
+
+	/**
+	 * @return the enableConnectionPool
+	 */
+	public boolean isEnableConnectionPool()
+	{
+		return enableConnectionPool;
+	}
+
+	/**
+	 * @param enableConnectionPool the enableConnectionPool to set
+	 */
+	public void setEnableConnectionPool(boolean enableConnectionPool)
+	{
+		this.enableConnectionPool = enableConnectionPool;
+	}
+
+	/**
+	 * @return the maxPoolConnections
+	 */
+	public int getMaxPoolConnections()
+	{
+		return maxPoolConnections;
+	}
+
+	/**
+	 * @param maxPoolConnections the maxPoolConnections to set
+	 */
+	public void setMaxPoolConnections(int maxPoolConnections)
+	{
+		this.maxPoolConnections = maxPoolConnections;
+	}
    
 }
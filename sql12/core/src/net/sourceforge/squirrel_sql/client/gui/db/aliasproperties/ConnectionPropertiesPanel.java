@@ -67,6 +67,12 @@ public class ConnectionPropertiesPanel extends JPanel
 
 	private JTextArea sqlTextArea = new JTextArea();
 
+	private JCheckBox enableConnectionPoolChk = null;
+
+	private JLabel maxPoolConnectionsLabel = null;
+
+	private JSpinner maxPoolConnections = null;
+
 	public interface i18n
 	{
 		// i18n[ConnectionPropertiesPanel.enableKeepAliveMsg=Enable Keep-Alive]
@@ -84,6 +90,12 @@ public class ConnectionPropertiesPanel extends JPanel
 		// i18n[ConnectionPropertiesPanel.sleepForLabel=Sleep for]
 		String SLEEP_FOR_LABEL = s_stringMgr.getString("ConnectionPropertiesPanel.sleepForLabel");
 
+		// i18n[ConnectionPropertiesPanel.enableConnectionPool=Use additional connections for object tree, meta data and additional SQL worksheets]
+		String ENABLE_CONNECTION_POOL = s_stringMgr.getString("ConnectionPropertiesPanel.enableConnectionPool");
+
+		// i18n[ConnectionPropertiesPanel.maxPoolConnections=Maximum number of additional connections]
+		String MAX_POOL_CONNECTIONS = s_stringMgr.getString("ConnectionPropertiesPanel.maxPoolConnections");
+
 	}
 
 	private SQLAliasConnectionProperties _props = null;
@@ -117,6 +129,8 @@ public class ConnectionPropertiesPanel extends JPanel
 		{
 			_props.setEnableConnectionKeepAlive(false);
 		}
+		_props.setEnableConnectionPool(enableConnectionPoolChk.isSelected());
+		_props.setMaxPoolConnections((Integer)maxPoolConnections.getValue());
 		return _props;
 	}
 
@@ -130,6 +144,10 @@ public class ConnectionPropertiesPanel extends JPanel
 		executeLabel.setEnabled(_props.isEnableConnectionKeepAlive());
 		sqlTextArea.setEnabled(_props.isEnableConnectionKeepAlive());
 		sqlTextArea.setText(props.getKeepAliveSqlStatement());
+		enableConnectionPoolChk.setSelected(_props.isEnableConnectionPool());
+		maxPoolConnectionsLabel.setEnabled(_props.isEnableConnectionPool());
+		maxPoolConnections.setEnabled(_props.isEnableConnectionPool());
+		maxPoolConnections.setValue(props.getMaxPoolConnections());
 	
 	}
 	
@@ -162,8 +180,48 @@ public class ConnectionPropertiesPanel extends JPanel
 		prepareNewRow(gbc);
 
 		addSqlTextAreaPanel(gbc);
-		
-		
+
+		prepareNewRow(gbc);
+
+		addConnectionPoolPanel(gbc);
+	}
+
+	private void addConnectionPoolPanel(GridBagConstraints gbc)
+	{
+		enableConnectionPoolChk = new JCheckBox(i18n.ENABLE_CONNECTION_POOL);
+		enableConnectionPoolChk.addActionListener(new ActionListener()
+		{
+			@Override
+			public void actionPerformed(ActionEvent e)
+			{
+				maxPoolConnectionsLabel.setEnabled(enableConnectionPoolChk.isSelected());
+				maxPoolConnections.setEnabled(enableConnectionPoolChk.isSelected());
+			}
+		});
+
+		maxPoolConnectionsLabel = new JLabel(i18n.MAX_POOL_CONNECTIONS);
+		maxPoolConnections = new JSpinner(new SpinnerNumberModel(_props.getMaxPoolConnections(), 1, 20, 1));
+		maxPoolConnections.setPreferredSize(new Dimension(75, 25));
+
+		JPanel maxPanel = new JPanel(new GridBagLayout());
+		GridBagConstraints maxGbc = new GridBagConstraints();
+		maxGbc.anchor = GridBagConstraints.WEST;
+		maxGbc.insets = new Insets(0, 25, 0, 5);
+		maxPanel.add(maxPoolConnectionsLabel, maxGbc);
+		maxGbc.gridx = 1;
+		maxGbc.weightx = 1;
+		maxGbc.insets = new Insets(0, 0, 0, 0);
+		maxPanel.add(maxPoolConnections, maxGbc);
+
+		JPanel poolPanel = new JPanel(new GridLayout(2, 1));
+		poolPanel.add(enableConnectionPoolChk);
+		poolPanel.add(maxPanel);
+
+		gbc.weightx = 1;
+		gbc.weighty = 0;
+		gbc.fill = GridBagConstraints.HORIZONTAL;
+		gbc.insets = new Insets(5, 5, 5, 5);
+		add(poolPanel, gbc);
 	}
 
 	private void addExecuteLabel(GridBagConstraints gbc)
@@ -452,6 +452,7 @@ final class MainFrameMenuBar extends JMenuBar
       addToMenu(rsrc, FileSaveAsAction.class, menu);
       addToMenu(rsrc, FileCloseAction.class, menu);
       addToMenu(rsrc, FileAppendAction.class, menu);
+      addToMenu(rsrc, FileExecuteAction.class, menu);
       addToMenu(rsrc, FilePrintAction.class, menu);
       return menu;
    }
@@ -19,6 +19,7 @@ package net.sourceforge.squirrel_sql.client.gui.mainframe;
  */
 
 import net.sourceforge.squirrel_sql.client.gui.MemoryPanel;
+import net.sourceforge.squirrel_sql.client.gui.TaskThreadPoolPanel;
 import net.sourceforge.squirrel_sql.fw.gui.StatusBar;
 import net.sourceforge.squirrel_sql.fw.gui.TimePanel;
 import net.sourceforge.squirrel_sql.fw.util.StringManager;
@@ -51,6 +52,7 @@ public class MainFrameStatusBar extends StatusBar
 		clearText();
 
 		addJComponent(new LogPanel(app));
+		addJComponent(new TaskThreadPoolPanel(app));
 		addJComponent(new MemoryPanel(app));
 		addJComponent(new TimePanel());
 	}
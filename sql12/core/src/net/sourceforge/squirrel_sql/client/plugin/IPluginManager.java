@@ -21,6 +21,7 @@ package net.sourceforge.squirrel_sql.client.plugin;
 import java.net.URL;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 import net.sourceforge.squirrel_sql.client.gui.db.SQLAlias;
 import net.sourceforge.squirrel_sql.client.gui.db.aliasproperties.IAliasPropertiesPanelController;
@@ -110,6 +111,15 @@ public interface IPluginManager
 	 */
 	public abstract void setClassLoaderListener(ClassLoaderListener listener);
 
+	/**
+	 * Sets the executor that is used to create the plugin instances concurrently while plugins are
+	 * loaded. Loading and initializing the plugins stays sequential.
+	 * 
+	 * @param executor
+	 *           the executor to use or null to create the plugins on the calling thread.
+	 */
+	public abstract void setStartupExecutor(ExecutorService executor);
+
 	/**
 	 * Retrieve information about plugin load times
 	 * 
@@ -35,6 +35,9 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import net.sourceforge.squirrel_sql.client.ApplicationArguments;
 import net.sourceforge.squirrel_sql.client.IApplication;
@@ -54,6 +57,7 @@ import net.sourceforge.squirrel_sql.fw.util.ClassLoaderListener;
 import net.sourceforge.squirrel_sql.fw.util.MyURLClassLoader;
 import net.sourceforge.squirrel_sql.fw.util.StringManager;
 import net.sourceforge.squirrel_sql.fw.util.StringManagerFactory;
+import net.sourceforge.squirrel_sql.fw.util.TaskThreadPool;
 import net.sourceforge.squirrel_sql.fw.util.Utilities;
 import net.sourceforge.squirrel_sql.fw.util.log.ILogger;
 import net.sourceforge.squirrel_sql.fw.util.log.LoggerController;
@@ -114,6 +118,9 @@ public class PluginManager implements IPluginManager
 	/** The class that listens for notifications as archives are being loaded */
 	private ClassLoaderListener classLoaderListener = null;
 
+	/** Creates the plugin instances concurrently during loadPlugins(). May be null. */
+	private ExecutorService _startupExecutor;
+
 	/**
 	 * Ctor.
 	 * 
@@ -215,7 +222,7 @@ public class PluginManager implements IPluginManager
 				}
 				session.setPluginsfinishedLoading(true);
 			}
-		});
+		}, null, TaskThreadPool.Priority.BACKGROUND, null);
 	}
 
 	private void sendSessionStarted(ISession session, SessionPluginInfo spi, List<SessionPluginInfo> plugins)
@@ -445,11 +452,12 @@ public class PluginManager implements IPluginManager
 		_pluginsClassLoader = new MyURLClassLoader(urls);
 		_pluginsClassLoader.addClassLoaderListener(classLoaderListener);
 		Class<?>[] classes = _pluginsClassLoader.getAssignableClasses(IPlugin.class, s_log);
+		CreatedPlugin[] createdPlugins = createPlugins(classes);
 		for (int i = 0; i < classes.length; ++i)
 		{
 			try
 			{
-				loadPlugin(classes[i]);
+				loadPlugin(createdPlugins[i]);
 			} catch (Throwable th)
 			{
 				String msg = s_stringMgr.getString("PluginManager.error.loadpluginclass", classes[i].getName());
@@ -594,6 +602,14 @@ public class PluginManager implements IPluginManager
 		classLoaderListener = listener;
 	}
 
+	/**
+	 * @see net.sourceforge.squirrel_sql.client.plugin.IPluginManager#setStartupExecutor(java.util.concurrent.ExecutorService)
+	 */
+	public void setStartupExecutor(ExecutorService executor)
+	{
+		_startupExecutor = executor;
+	}
+
 	private void onWidgetOpened(WidgetEvent e)
 	{
 		IWidget widget = e.getWidget();
@@ -632,14 +648,69 @@ public class PluginManager implements IPluginManager
 		return _pluginLoadInfoColl.values().iterator();
 	}
 
+	/**
+	 * Creates the plugin instances. Creating a plugin initializes its class and so loads
+	 * the classes it references, which is independent of other plugins. So this is done
+	 * concurrently if a startup executor is set. The order of the result is the order
+	 * of pluginClasses, which is the order the plugins are loaded in.
+	 */
+	private CreatedPlugin[] createPlugins(Class<?>[] pluginClasses)
+	{
+		CreatedPlugin[] ret = new CreatedPlugin[pluginClasses.length];
+		if (null == _startupExecutor)
+		{
+			for (int i = 0; i < pluginClasses.length; ++i)
+			{
+				ret[i] = new CreatedPlugin(pluginClasses[i]);
+			}
+			return ret;
+		}
+
+		List<Future<CreatedPlugin>> futures = new ArrayList<Future<CreatedPlugin>>();
+		for (int i = 0; i < pluginClasses.length; ++i)
+		{
+			final Class<?> pluginClass = pluginClasses[i];
+			futures.add(_startupExecutor.submit(new Callable<CreatedPlugin>()
+			{
+				public CreatedPlugin call()
+				{
+					return new CreatedPlugin(pluginClass);
+				}
+			}));
+		}
+
+		for (int i = 0; i < futures.size(); ++i)
+		{
+			try
+			{
+				ret[i] = futures.get(i).get();
+			} catch (Exception e)
+			{
+				// CreatedPlugin doesn't throw, so this is an interrupt or a rejected task.
+				s_log.error("Failed to create plugin " + pluginClasses[i].getName() + " concurrently", e);
+				ret[i] = new CreatedPlugin(pluginClasses[i]);
+			}
+		}
+		return ret;
+	}
+
 	private void loadPlugin(Class<?> pluginClass)
 	{
+		loadPlugin(new CreatedPlugin(pluginClass));
+	}
+
+	private void loadPlugin(CreatedPlugin createdPlugin)
+	{
+		Class<?> pluginClass = createdPlugin.pluginClass;
 		PluginInfo pi = new PluginInfo(pluginClass.getName());
 		try
 		{
-			final PluginLoadInfo pli = new PluginLoadInfo();
-			final IPlugin plugin = (IPlugin) pluginClass.newInstance();
-			pli.pluginCreated(plugin);
+			if (null != createdPlugin.error)
+			{
+				throw createdPlugin.error;
+			}
+			final PluginLoadInfo pli = createdPlugin.pli;
+			final IPlugin plugin = createdPlugin.plugin;
 			_pluginLoadInfoColl.put(plugin.getInternalName(), pli);
 			pi.setPlugin(plugin);
 			addToPlugins(pi);
@@ -893,4 +964,29 @@ public class PluginManager implements IPluginManager
 	}
 
 
+
+	/**
+	 * A plugin instance created by createPlugins() or the error that occurred creating it.
+	 */
+	private static class CreatedPlugin
+	{
+		final Class<?> pluginClass;
+		PluginLoadInfo pli;
+		IPlugin plugin;
+		Throwable error;
+
+		CreatedPlugin(Class<?> pluginClass)
+		{
+			this.pluginClass = pluginClass;
+			try
+			{
+				pli = new PluginLoadInfo();
+				plugin = (IPlugin) pluginClass.newInstance();
+				pli.pluginCreated(plugin);
+			} catch (Throwable th)
+			{
+				error = th;
+			}
+		}
+	}
 }
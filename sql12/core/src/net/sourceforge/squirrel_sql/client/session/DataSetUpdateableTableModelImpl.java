@@ -539,6 +539,8 @@ public class DataSetUpdateableTableModelImpl implements IDataSetUpdateableTableM
           SQLUtilities.closeStatement(pstmt);
       }
 
+      _session.getQueryResultCache().tableChanged(ti.getSimpleName());
+
       if (count == -1) {
           // i18n[DataSetUpdateableTableModelImpl.error.unknownupdateerror=Unknown problem during update.\nNo count of updated rows was returned.\nDatabase may be corrupted!]
          return s_stringMgr.getString("DataSetUpdateableTableModelImpl.error.unknownupdateerror");
@@ -737,6 +739,8 @@ public class DataSetUpdateableTableModelImpl implements IDataSetUpdateableTableM
          }
       }
 
+      _session.getQueryResultCache().tableChanged(ti.getSimpleName());
+
       // for each row in table, do delete and add to number of rows deleted from DB
       for (int i = 0; i < rowData.length; i++) {
          // get WHERE clause for the selected row
@@ -931,6 +935,8 @@ public class DataSetUpdateableTableModelImpl implements IDataSetUpdateableTableM
                   ex.getMessage());
       }
 
+      _session.getQueryResultCache().tableChanged(ti.getSimpleName());
+
       if (count != 1)
           // i18n[DataSetUpdateableTableModelImpl.error.unknownerrorupdate=Unknown problem during update.\nNo count of inserted rows was returned.\nDatabase may be corrupted!]
          return s_stringMgr.getString("DataSetUpdateableTableModelImpl.error.unknownerrorupdate");
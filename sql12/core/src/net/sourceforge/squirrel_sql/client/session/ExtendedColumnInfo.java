@@ -61,6 +61,23 @@ public class ExtendedColumnInfo implements Serializable
       _qualifiedName = _cat + "." + _schem + "." + _simpleTableName + "." +_columnName;
    }
 
+   public ExtendedColumnInfo(String columnName, String columnType, int columnTypeID, int columnSize, int decimalDigits,
+                             boolean nullable, String cat, String schem, String simpleTableName, String remarks)
+   {
+      _columnName = columnName;
+      _columnType = columnType;
+      _columnTypeID = columnTypeID;
+      _columnSize = columnSize;
+      _decimalDigits = decimalDigits;
+      _remarks = remarks;
+      _nullable = nullable;
+      _cat = cat;
+      _schem = schem;
+      _simpleTableName = simpleTableName;
+
+      _qualifiedName = _cat + "." + _schem + "." + _simpleTableName + "." +_columnName;
+   }
+
    public String getColumnName()
    {
       return _columnName;
@@ -71,6 +71,37 @@ public class FileManager
    public boolean open(boolean appendToExisting)
    {
        boolean result = false;
+      File selectedFile = chooseFile();
+      if (null != selectedFile)
+      {
+          result = true;
+         if (!appendToExisting) {
+             _sqlPanelAPI.setEntireSQLScript("");
+         }
+         loadScript(selectedFile);
+         
+      }
+      return result;
+   }
+
+   /**
+    * The file is not added to the recent files. Choosing it from there would load
+    * it into the editor, which is what executing it without opening it avoids.
+    *
+    * @return The file the user chose to execute or null if the user canceled.
+    */
+   public File chooseFileToExecute()
+   {
+      File selectedFile = chooseFile();
+      if (null != selectedFile)
+      {
+         _sqlPanelAPI.getSession().getApplication().getSquirrelPreferences().setFilePreviousDir(selectedFile.getAbsolutePath());
+      }
+      return selectedFile;
+   }
+
+   private File chooseFile()
+   {
       JFileChooser chooser = _fileChooserManager.getFileChooser();
       chooser.setAccessory(new ChooserPreviewer());
 
@@ -97,15 +128,9 @@ public class FileManager
       _sqlPanelAPI.getSession().selectMainTab(ISession.IMainPanelTabIndexes.SQL_TAB);
       if (chooser.showOpenDialog(frame) == JFileChooser.APPROVE_OPTION)
       {
-          result = true;
-         File selectedFile = chooser.getSelectedFile();
-         if (!appendToExisting) {
-             _sqlPanelAPI.setEntireSQLScript("");
-         }
-         loadScript(selectedFile);
-         
+         return chooser.getSelectedFile();
       }
-      return result;
+      return null;
    }
 
    private void loadScript(File file)
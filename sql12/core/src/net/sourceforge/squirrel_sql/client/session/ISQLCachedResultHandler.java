@@ -0,0 +1,26 @@
+package net.sourceforge.squirrel_sql.client.session;
+
+import net.sourceforge.squirrel_sql.fw.datasetviewer.DataSetException;
+import net.sourceforge.squirrel_sql.fw.datasetviewer.IDataSetUpdateableTableModel;
+import net.sourceforge.squirrel_sql.fw.datasetviewer.ResultSetDataSet;
+
+/**
+ * ISQLExecuterHandlers implementing this interface display results taken from
+ * the session's QueryResultCache. For other handlers SQLExecuterTask always
+ * executes the SQL.
+ * <p/>
+ * Such handlers are expected to put the results they read into the cache
+ * if SQLExecutionInfo.getResultCacheKey() is not null.
+ */
+public interface ISQLCachedResultHandler extends ISQLExecuterHandler
+{
+   /**
+    * Called instead of sqlResultSetAvailable() if the result was taken from the cache.
+    * <p/>This callback is called from the thread that the SQLExecuter is running on.
+    *
+    * @param rsds The cached result. All rows have been read.
+    * @param info Its getResultCacheTime() tells when the result was cached.
+    */
+   void sqlCachedResultAvailable(ResultSetDataSet rsds, SQLExecutionInfo info, IDataSetUpdateableTableModel model)
+      throws DataSetException;
+}
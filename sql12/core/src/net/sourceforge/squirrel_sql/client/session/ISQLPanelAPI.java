@@ -294,6 +294,12 @@ public interface ISQLPanelAPI
 
 	void fileAppend();
 
+	/**
+	 * Lets the user choose a script file and executes its statements.
+	 * The file is not loaded into the SQL editor.
+	 */
+	void fileExecute();
+
 	void fileClose();
 
 	void fileNew();
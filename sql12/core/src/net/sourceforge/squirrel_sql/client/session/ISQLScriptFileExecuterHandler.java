@@ -0,0 +1,18 @@
+package net.sourceforge.squirrel_sql.client.session;
+
+/**
+ * ISQLExecuterHandlers implementing this interface are told about the progress
+ * when a script file is executed, see SQLExecuterTask(ISession, File, ...).
+ * In this case the number of statements is not known in advance.
+ */
+public interface ISQLScriptFileExecuterHandler extends ISQLExecuterHandler
+{
+   /**
+    * Called after each statement read from the script file.
+    * <p/>This callback is called from the thread that the SQLExecuter is running on.
+    *
+    * @param bytesRead Number of bytes of the file read so far.
+    * @param fileLength Length of the file in bytes.
+    */
+   void sqlScriptFileProgress(long bytesRead, long fileLength);
+}
@@ -158,6 +158,19 @@ public interface ISession extends IHasIdentifier
     */
    net.sourceforge.squirrel_sql.client.session.schemainfo.SchemaInfo getSchemaInfo();
 
+   /**
+    * Retrieve the cache of the results of queries executed in this session.
+    * Results are only cached if <TT>SessionProperties.getSQLResultCache()</TT> is switched on.
+    */
+   QueryResultCache getQueryResultCache();
+
+   /**
+    * Retrieve what is known about the health of the session's connection.
+    * It is updated by the connection keep-alive, see <TT>SQLAliasConnectionProperties</TT>,
+    * and may be updated by other periodic tasks, see <TT>SessionHousekeeper</TT>.
+    */
+   SessionConnectionLiveness getConnectionLiveness();
+
    /**
     * Select a tab in the main tabbed pane.
     *
@@ -398,6 +411,18 @@ public interface ISession extends IHasIdentifier
     */
    public SQLConnection createUnmanagedConnection();
 
+   /**
+    * Runs the runnable in the current thread. If the alias of this session enables
+    * additional connections, see <TT>SQLAliasConnectionProperties.isEnableConnectionPool()</TT>,
+    * {@link #getSQLConnection()} and {@link #getMetaData()} return a pooled connection
+    * in this thread while the runnable runs. The call waits if all pooled connections are in use.
+    * On the event dispatch thread the session's own connection is used.
+    * <p/>
+    * Use this only for work that doesn't depend on the transaction of the session's connection,
+    * e.g. reading meta data. Pooled connections are in auto commit mode.
+    */
+   void runWithPooledConnection(Runnable runnable);
+
    boolean isSessionWidgetActive();
 
    IMainPanelTab getSelectedMainTab();
@@ -0,0 +1,395 @@
+package net.sourceforge.squirrel_sql.client.session;
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+
+import net.sourceforge.squirrel_sql.client.session.properties.SessionProperties;
+import net.sourceforge.squirrel_sql.client.session.schemainfo.SchemaInfoUpdateCheck;
+import net.sourceforge.squirrel_sql.fw.datasetviewer.ResultSetDataSet;
+import net.sourceforge.squirrel_sql.fw.sql.ISQLConnection;
+import net.sourceforge.squirrel_sql.fw.util.log.ILogger;
+import net.sourceforge.squirrel_sql.fw.util.log.LoggerController;
+
+/**
+ * The results of SELECT statements executed in a session, see
+ * <TT>SessionProperties.getSQLResultCache()</TT>.
+ * <p/>
+ * Results are keyed by the SQL with whitespace outside of literals collapsed,
+ * the current catalog and the row limit. They expire after the configured time to live.
+ * If the estimated memory of all results exceeds the configured size the least recently
+ * used results are dropped.
+ * <p/>
+ * Executing any other statement in the session drops the results of the statements
+ * that mention the tables it changes. If the changed tables can't be determined,
+ * e.g. for procedure calls, all results are dropped.
+ * <p/>
+ * Queries that may return a different result on each execution are not cached. These are
+ * queries using the current time, random values or sequences, and queries calling functions
+ * that are not known to be free of side effects, like user defined functions.
+ * <p/>
+ * Nothing is cached or taken from the cache while the connection is not in auto commit mode.
+ * A query could see uncommitted changes of the session, and commits or rollbacks, e.g. by
+ * the session's toolbar, don't pass through <TT>statementExecuted()</TT>.
+ */
+public class QueryResultCache
+{
+   private static final ILogger s_log = LoggerController.createLogger(QueryResultCache.class);
+
+   /**
+    * Statements containing one of these words are never cached because
+    * they may change data, lock rows or return a different result on each execution.
+    */
+   private static final String[] NOT_CACHEABLE_WORDS =
+      {
+         "INTO", "INSERT", "UPDATE", "DELETE", "MERGE", "LOCK", "SHARE",
+         "NOW", "SYSDATE", "SYSTIMESTAMP", "GETDATE", "GETUTCDATE", "CURRENT_TIMESTAMP", "CURRENT_DATE",
+         "CURRENT_TIME", "LOCALTIMESTAMP", "LOCALTIME", "RAND", "RANDOM", "DBMS_RANDOM", "NEWID", "UUID",
+         "GEN_RANDOM_UUID", "NEXTVAL", "CURRVAL", "NEXT"
+      };
+
+   /**
+    * Keywords that may precede a parenthesis and functions that are free of side effects and
+    * return the same result for the same arguments. Statements calling any other function are
+    * never cached, because it may be a user defined function with side effects.
+    */
+   private static final String[] KNOWN_CALL_WORDS =
+      {
+         "SELECT", "FROM", "WHERE", "AND", "OR", "NOT", "IN", "EXISTS", "ANY", "ALL", "SOME", "AS", "ON",
+         "JOIN", "USING", "VALUES", "OVER", "FILTER", "WITHIN", "UNION", "INTERSECT", "EXCEPT", "MINUS",
+         "HAVING", "BY", "CASE", "WHEN", "THEN", "ELSE", "IS", "LIKE", "BETWEEN", "DISTINCT",
+         "COUNT", "SUM", "MIN", "MAX", "AVG", "STDDEV", "VARIANCE", "COALESCE", "NULLIF", "NVL", "NVL2",
+         "IFNULL", "ISNULL", "DECODE", "CAST", "CONVERT", "EXTRACT", "UPPER", "LOWER", "TRIM", "LTRIM",
+         "RTRIM", "SUBSTR", "SUBSTRING", "LENGTH", "LEN", "CHAR_LENGTH", "CONCAT", "REPLACE", "INSTR",
+         "POSITION", "LPAD", "RPAD", "LEFT", "RIGHT", "ROUND", "TRUNC", "FLOOR", "CEIL", "CEILING", "ABS",
+         "MOD", "POWER", "SQRT", "SIGN", "GREATEST", "LEAST", "TO_CHAR", "TO_DATE", "TO_NUMBER",
+         "TO_TIMESTAMP", "ROW_NUMBER", "RANK", "DENSE_RANK", "LAG", "LEAD", "FIRST_VALUE", "LAST_VALUE",
+         "LISTAGG", "STRING_AGG", "GROUP_CONCAT", "CHAR", "CHARACTER", "VARCHAR", "VARCHAR2", "NCHAR",
+         "NVARCHAR", "NVARCHAR2", "NUMBER", "NUMERIC", "DECIMAL", "FLOAT", "TIMESTAMP", "TIME", "BINARY",
+         "VARBINARY"
+      };
+
+   private static final Set<String> s_knownCallWords = new HashSet<String>(Arrays.asList(KNOWN_CALL_WORDS));
+
+   private final SessionProperties _props;
+
+   private final LinkedHashMap<String, CachedResult> _resultsByKey = new LinkedHashMap<String, CachedResult>(16, 0.75f, true);
+   private long _estimatedBytes;
+
+   public QueryResultCache(SessionProperties props)
+   {
+      _props = props;
+   }
+
+   /**
+    * @return The key under which the result of sql is cached or null if the result of sql
+    * is not cached. The result is not cached if caching is switched off, sql is not a query,
+    * conn is not in auto commit mode or its current catalog can't be determined.
+    */
+   public String getKey(String sql, ISQLConnection conn, int maxRows)
+   {
+      if (false == _props.getSQLResultCache() || false == isCacheable(sql))
+      {
+         return null;
+      }
+
+      try
+      {
+         if (false == conn.getAutoCommit())
+         {
+            return null;
+         }
+         return conn.getCatalog() + "\n" + maxRows + "\n" + normalize(sql);
+      }
+      catch (SQLException ex)
+      {
+         s_log.debug("Failed to get catalog or auto commit mode, result is not cached: " + sql, ex);
+         return null;
+      }
+   }
+
+   /**
+    * @return The cached result or null if there is none or it has expired.
+    */
+   public synchronized CachedResult get(String key)
+   {
+      CachedResult ret = _resultsByKey.get(key);
+      if (null != ret && ret.isExpired(_props.getSQLResultCacheTimeToLive()))
+      {
+         remove(key);
+         return null;
+      }
+      return ret;
+   }
+
+   /**
+    * Caches a completely read result. Results that are too large for the cache are ignored.
+    */
+   public synchronized void put(String key, String sql, ResultSetDataSet rsds)
+   {
+      remove(key);
+      removeExpired();
+
+      long maxBytes = 1024L * 1024L * _props.getSQLResultCacheSize();
+      long bytes = estimateBytes(rsds.getAllDataForReadOnly());
+      if (maxBytes < bytes)
+      {
+         s_log.debug("Result too large to be cached: " + sql);
+         return;
+      }
+
+      _resultsByKey.put(key, new CachedResult(rsds.createCopy(), getWords(sql), bytes));
+      _estimatedBytes += bytes;
+
+      for (Iterator<String> it = _resultsByKey.keySet().iterator(); maxBytes < _estimatedBytes && it.hasNext();)
+      {
+         _estimatedBytes -= _resultsByKey.get(it.next())._bytes;
+         it.remove();
+      }
+   }
+
+   /**
+    * Called before a statement is executed. Drops the results that may be changed by sql.
+    */
+   public synchronized void statementExecuted(String sql)
+   {
+      if (_resultsByKey.isEmpty() || isCacheable(sql))
+      {
+         return;
+      }
+
+      String[] tableNames = SchemaInfoUpdateCheck.getChangedTableSimpleNames(sql);
+      if (0 == tableNames.length)
+      {
+         clear();
+         return;
+      }
+
+      for (String tableName : tableNames)
+      {
+         tableChanged(tableName);
+      }
+   }
+
+   /**
+    * Drops the results of the statements that mention the table.
+    */
+   public synchronized void tableChanged(String simpleTableName)
+   {
+      String ucTableName = simpleTableName.toUpperCase();
+      for (Iterator<CachedResult> it = _resultsByKey.values().iterator(); it.hasNext();)
+      {
+         CachedResult result = it.next();
+         if (result._ucWords.contains(ucTableName))
+         {
+            _estimatedBytes -= result._bytes;
+            it.remove();
+         }
+      }
+   }
+
+   public synchronized void clear()
+   {
+      _resultsByKey.clear();
+      _estimatedBytes = 0;
+   }
+
+   private void remove(String key)
+   {
+      CachedResult removed = _resultsByKey.remove(key);
+      if (null != removed)
+      {
+         _estimatedBytes -= removed._bytes;
+      }
+   }
+
+   private void removeExpired()
+   {
+      for (Iterator<CachedResult> it = _resultsByKey.values().iterator(); it.hasNext();)
+      {
+         CachedResult result = it.next();
+         if (result.isExpired(_props.getSQLResultCacheTimeToLive()))
+         {
+            _estimatedBytes -= result._bytes;
+            it.remove();
+         }
+      }
+   }
+
+   static boolean isCacheable(String sql)
+   {
+      String trimmed = sql.trim().toUpperCase();
+      if (false == trimmed.startsWith("SELECT") && false == trimmed.startsWith("WITH"))
+      {
+         return false;
+      }
+
+      Set<String> calledWords = new HashSet<String>();
+      Set<String> words = getWords(sql, calledWords);
+      for (String word : NOT_CACHEABLE_WORDS)
+      {
+         if (words.contains(word))
+         {
+            return false;
+         }
+      }
+      return s_knownCallWords.containsAll(calledWords);
+   }
+
+   /**
+    * @return sql with whitespace outside of quotes collapsed to one blank.
+    */
+   static String normalize(String sql)
+   {
+      StringBuilder ret = new StringBuilder(sql.length());
+      char quote = 0;
+      boolean pendingBlank = false;
+      for (int i = 0; i < sql.length(); i++)
+      {
+         char c = sql.charAt(i);
+         if (0 == quote && Character.isWhitespace(c))
+         {
+            pendingBlank = 0 < ret.length();
+            continue;
+         }
+
+         if (pendingBlank)
+         {
+            ret.append(' ');
+            pendingBlank = false;
+         }
+         ret.append(c);
+
+         if (0 == quote && ('\'' == c || '"' == c))
+         {
+            quote = c;
+         }
+         else if (quote == c)
+         {
+            quote = 0;
+         }
+      }
+      return ret.toString();
+   }
+
+   /**
+    * @return The upper case identifiers and keywords of sql.
+    */
+   private static Set<String> getWords(String sql)
+   {
+      return getWords(sql, new HashSet<String>());
+   }
+
+   /**
+    * @param calledWords Receives the words that are followed by an opening parenthesis,
+    *                    i.e. the names of called functions and some keywords.
+    * @return The upper case identifiers and keywords of sql.
+    */
+   private static Set<String> getWords(String sql, Set<String> calledWords)
+   {
+      HashSet<String> ret = new HashSet<String>();
+      String ucSql = sql.toUpperCase();
+      int begin = -1;
+      for (int i = 0; i <= ucSql.length(); i++)
+      {
+         boolean wordChar = i < ucSql.length() && (Character.isLetterOrDigit(ucSql.charAt(i)) || 0 <= "_$#".indexOf(ucSql.charAt(i)));
+         if (wordChar && -1 == begin)
+         {
+            begin = i;
+         }
+         else if (false == wordChar && -1 != begin)
+         {
+            String word = ucSql.substring(begin, i);
+            ret.add(word);
+            int next = i;
+            while (next < ucSql.length() && Character.isWhitespace(ucSql.charAt(next)))
+            {
+               next++;
+            }
+            if (next < ucSql.length() && '(' == ucSql.charAt(next))
+            {
+               calledWords.add(word);
+            }
+            begin = -1;
+         }
+      }
+      return ret;
+   }
+
+   private static long estimateBytes(List<Object[]> rows)
+   {
+      long ret = 0;
+      for (Object[] row : rows)
+      {
+         ret += 16 + 4 * row.length;
+         for (Object value : row)
+         {
+            if (value instanceof String)
+            {
+               ret += 40 + 2 * ((String) value).length();
+            }
+            else if (value instanceof byte[])
+            {
+               ret += 16 + ((byte[]) value).length;
+            }
+            else if (null != value)
+            {
+               ret += 32;
+            }
+         }
+      }
+      return ret;
+   }
+
+   public static class CachedResult
+   {
+      private final ResultSetDataSet _rsds;
+      private final Set<String> _ucWords;
+      private final long _bytes;
+      private final Date _cacheTime = new Date();
+
+      private CachedResult(ResultSetDataSet rsds, Set<String> ucWords, long bytes)
+      {
+         _rsds = rsds;
+         _ucWords = ucWords;
+         _bytes = bytes;
+      }
+
+      /**
+       * @return A data set with its own cursor each time it is called.
+       */
+      public ResultSetDataSet createDataSet()
+      {
+         return _rsds.createCopy();
+      }
+
+      public Date getCacheTime()
+      {
+         return _cacheTime;
+      }
+
+      private boolean isExpired(int timeToLiveSeconds)
+      {
+         return _cacheTime.getTime() + 1000L * timeToLiveSeconds < System.currentTimeMillis();
+      }
+   }
+}
@@ -27,10 +27,18 @@ package net.sourceforge.squirrel_sql.client.session;
  * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
  */
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.sql.BatchUpdateException;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.SQLWarning;
+import java.sql.Savepoint;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.regex.Pattern;
 
 import javax.swing.SwingUtilities;
 
@@ -41,7 +49,9 @@ import net.sourceforge.squirrel_sql.fw.datasetviewer.*;
 import net.sourceforge.squirrel_sql.fw.sql.IQueryTokenizer;
 import net.sourceforge.squirrel_sql.fw.sql.ISQLConnection;
 import net.sourceforge.squirrel_sql.fw.sql.ITableInfo;
+import net.sourceforge.squirrel_sql.fw.sql.QueryTokenizer;
 import net.sourceforge.squirrel_sql.fw.sql.TableInfo;
+import net.sourceforge.squirrel_sql.fw.util.IOUtilitiesImpl;
 import net.sourceforge.squirrel_sql.fw.util.StringManager;
 import net.sourceforge.squirrel_sql.fw.util.StringManagerFactory;
 import net.sourceforge.squirrel_sql.fw.util.log.ILogger;
@@ -60,6 +70,9 @@ public class SQLExecuterTask implements Runnable, IDataSetUpdateableTableModel
    /** Logger for this class. */
    private static final ILogger s_log = LoggerController.createLogger(SQLExecuterTask.class);
 
+   /** Clauses that make DML statements return a result set. */
+   private static final Pattern RESULT_RETURNING_CLAUSE = Pattern.compile("\\b(RETURNING|OUTPUT)\\b");
+
    private static final StringManager s_stringMgr =
        StringManagerFactory.getStringManager(SQLExecuterTask.class);
 
@@ -72,6 +85,11 @@ public class SQLExecuterTask implements Runnable, IDataSetUpdateableTableModel
 
    /** SQL passed in to be executed. */
    private String _sql;
+
+   /** Script file passed in to be executed instead of _sql. */
+   private File _scriptFile;
+   private FileInputStream _scriptFileInputStream;
+
    private boolean _stopExecution = false;
 
    private int _currentQueryIndex = 0;
@@ -83,6 +101,8 @@ public class SQLExecuterTask implements Runnable, IDataSetUpdateableTableModel
    private boolean schemaCheck = true;
    private StatementWrapper _statementWrapper;
    private String _tableToBeEdited;
+   private String _lastExecutedStatement;
+   private boolean _usePooledConnection;
 
    public SQLExecuterTask(ISession session, String sql,ISQLExecuterHandler handler)
    {
@@ -117,6 +137,33 @@ public class SQLExecuterTask implements Runnable, IDataSetUpdateableTableModel
       _dataSetUpdateableTableModel.setSession(_session);
    }
 
+   /**
+    * Executes the statements of a script file. The file is read piecewise while
+    * the statements are executed. So it is never held in memory as a whole.
+    * <p/>
+    * The statements are split by a QueryTokenizer configured like the session's tokenizer.
+    * The number of statements is not known in advance, sqlStatementCount() is called with -1.
+    * Handlers implementing ISQLScriptFileExecuterHandler are told about the progress.
+    */
+   public SQLExecuterTask(ISession session, File scriptFile, ISQLExecuterHandler handler, ISQLExecutionListener[] executionListeners)
+   {
+      _session = session;
+      _schemaInfoUpdateCheck = new SchemaInfoUpdateCheck(_session);
+      _scriptFile = scriptFile;
+
+      IQueryTokenizer sessionTokenizer = _session.getQueryTokenizer();
+      _tokenizer = new QueryTokenizer(sessionTokenizer.getSQLStatementSeparator(),
+                                      sessionTokenizer.getLineCommentBegin(),
+                                      sessionTokenizer.isRemoveMultiLineComment());
+      _handler = handler;
+      if (_handler == null) {
+          _handler = new DefaultSQLExecuterHandler(session);
+      }
+      _executionListeners = executionListeners;
+      _dataSetUpdateableTableModel = new DataSetUpdateableTableModelImpl();
+      _dataSetUpdateableTableModel.setSession(_session);
+   }
+
    public void setExecutionListeners(ISQLExecutionListener[] executionListeners) {
        _executionListeners = executionListeners;
    }
@@ -133,16 +180,43 @@ public class SQLExecuterTask implements Runnable, IDataSetUpdateableTableModel
        schemaCheck = aBoolean;
    }
 
+   /**
+    * @param usePooledConnection If true and the session is in auto commit mode the SQL is executed
+    * on a pooled connection of the session if there is one, see <TT>ISession.runWithPooledConnection()</TT>.
+    */
+   public void setUsePooledConnection(boolean usePooledConnection)
+   {
+      _usePooledConnection = usePooledConnection;
+   }
+
    public void run()
    {
-       if (_sql == null) {
+      if (_usePooledConnection && _session.getProperties().getAutoCommit())
+      {
+         _session.runWithPooledConnection(new Runnable()
+         {
+            public void run()
+            {
+               execute();
+            }
+         });
+      }
+      else
+      {
+         execute();
+      }
+   }
+
+   private void execute()
+   {
+       if (_sql == null && _scriptFile == null) {
            if (s_log.isDebugEnabled()) {
                s_log.debug("init(): expected non-null sql.  Skipping execution");
            }
            return;
        }
 
-      String lastExecutedStatement = null;
+      _lastExecutedStatement = null;
       int statementCount = 0;
       final SessionProperties props = _session.getProperties();
 
@@ -150,6 +224,12 @@ public class SQLExecuterTask implements Runnable, IDataSetUpdateableTableModel
 
       try
       {
+         if (null != _scriptFile)
+         {
+            _scriptFileInputStream = new FileInputStream(_scriptFile);
+            ((QueryTokenizer) _tokenizer).setScriptToTokenize(new InputStreamReader(_scriptFileInputStream));
+         }
+
          final ISQLConnection conn = _session.getSQLConnection();
          _statementWrapper = new StatementWrapper(conn.createStatement(), _session);
 
@@ -166,7 +246,13 @@ public class SQLExecuterTask implements Runnable, IDataSetUpdateableTableModel
                _statementWrapper.setMaxRows();
             }
 
-            if(_tokenizer.getQueryCount() == 0)
+            // In batch mode runs of consecutive DML statements are collected
+            // and sent to the database by one executeBatch() call.
+            final boolean useBatch = props.getSQLBatchMode() && conn.getSQLMetaData().supportsBatchUpdates();
+            final int batchSize = Math.max(1, props.getSQLBatchSize());
+            ArrayList<String> batchSqls = new ArrayList<String>();
+
+            if(false == _tokenizer.hasQuery())
             {
                throw new IllegalArgumentException("No SQL selected for execution.");
             }
@@ -176,14 +262,52 @@ public class SQLExecuterTask implements Runnable, IDataSetUpdateableTableModel
             int processedStatementCount = 0;
             statementCount = _tokenizer.getQueryCount();
 
-            _handler.sqlStatementCount(statementCount);
+            _handler.sqlStatementCount(null == _scriptFile ? statementCount : -1);
 
             while (_tokenizer.hasQuery() && !_stopExecution)
             {
                String querySql = _tokenizer.nextQuery();
+
+               if (null != _scriptFile)
+               {
+                  // The number of statements in a file is not known in advance.
+                  // Reading ahead one statement tells if this is the last one.
+                  _tokenizer.hasQuery();
+                  statementCount = _tokenizer.getQueryCount();
+                  fireScriptFileProgress();
+               }
+
                if (querySql != null)
                {
                   ++processedStatementCount;
+
+                  if (useBatch && isBatchableStatement(querySql))
+                  {
+                     if (batchSqls.isEmpty() && false == correctlySupportsMaxRows && _statementWrapper.isMaxRowsWasSet())
+                     {
+                        _statementWrapper.closeIfContinueReadIsNotActive();
+                        _statementWrapper = new StatementWrapper(conn.createStatement(), _session);
+                     }
+
+                     batchSqls.add(querySql);
+                     if (batchSize <= batchSqls.size())
+                     {
+                        if (!processBatch(batchSqls, processedStatementCount, statementCount, sqlExecErrorMsgs))
+                        {
+                           break;
+                        }
+                     }
+                     continue;
+                  }
+
+                  if (false == batchSqls.isEmpty())
+                  {
+                     if (!processBatch(batchSqls, processedStatementCount - 1, statementCount, sqlExecErrorMsgs))
+                     {
+                        break;
+                     }
+                  }
+
                   if (_handler != null)
                   {
                      _handler.sqlToBeExecuted(querySql);
@@ -205,46 +329,18 @@ public class SQLExecuterTask implements Runnable, IDataSetUpdateableTableModel
                      }
                   }
 
-                  try
-                  {
-                     lastExecutedStatement = querySql;
-
-                     if (!processQuery(querySql, processedStatementCount, statementCount, _statementWrapper))
-                     {
-                        break;
-                     }
-                  }
-                  catch (SQLException ex)
+                  if (!processQueryHandlingErrors(querySql, processedStatementCount, statementCount, sqlExecErrorMsgs))
                   {
-                     // If the user has cancelled the query, don't bother logging
-                     // an error message.  It is likely that the cancel request
-                     // interfered with the attempt to fetch results from the
-                     // ResultSet, which is to be expected when the Statement is
-                     // closed.  So, let's not bug the user with obvious error
-                     // messages that we can do nothing about.
-                     if (_stopExecution) {
-                         break;
-                     } else {
-                         if (props.getAbortOnError())
-                         {
-                            throw ex;
-                         }
-                         else
-                         {
-                            if(1 < statementCount)
-                            {
-                               sqlExecErrorMsgs.add(handleError(ex, "Error occurred in:\n" + lastExecutedStatement));
-                            }
-                            else
-                            {
-                               sqlExecErrorMsgs.add(handleError(ex, null));
-                            }
-                         }
-                     }
+                     break;
                   }
                }
             }
 
+            if (false == batchSqls.isEmpty() && false == _stopExecution)
+            {
+               processBatch(batchSqls, processedStatementCount, statementCount, sqlExecErrorMsgs);
+            }
+
          }
          finally
          {
@@ -255,7 +351,7 @@ public class SQLExecuterTask implements Runnable, IDataSetUpdateableTableModel
       {
          if(props.getAbortOnError() && 1 < statementCount)
          {
-            sqlExecErrorMsgs.add(handleError(ex, "Error occurred in:\n" + lastExecutedStatement));
+            sqlExecErrorMsgs.add(handleError(ex, "Error occurred in:\n" + _lastExecutedStatement));
          }
          else
          {
@@ -291,7 +387,7 @@ public class SQLExecuterTask implements Runnable, IDataSetUpdateableTableModel
          }
          if (_handler != null)
          {
-            _handler.sqlCloseExecutionHandler(sqlExecErrorMsgs, lastExecutedStatement);
+            _handler.sqlCloseExecutionHandler(sqlExecErrorMsgs, _lastExecutedStatement);
          }
 
          if (schemaCheck) {
@@ -306,6 +402,19 @@ public class SQLExecuterTask implements Runnable, IDataSetUpdateableTableModel
          }
 
          fireExecutionListenersFinshed();
+
+         if (null != _scriptFileInputStream)
+         {
+            new IOUtilitiesImpl().closeInputStream(_scriptFileInputStream);
+         }
+      }
+   }
+
+   private void fireScriptFileProgress() throws IOException
+   {
+      if (_handler instanceof ISQLScriptFileExecuterHandler)
+      {
+         ((ISQLScriptFileExecuterHandler) _handler).sqlScriptFileProgress(_scriptFileInputStream.getChannel().position(), _scriptFile.length());
       }
    }
 
@@ -341,6 +450,28 @@ public class SQLExecuterTask implements Runnable, IDataSetUpdateableTableModel
 		                  "SELECT".length()));
 	}
 
+   /**
+    * Returns a boolean indicating whether or not the specified querySql may be
+    * executed as part of a JDBC batch. Only plain DML is batched because
+    * anything that may return a result set would make executeBatch() fail
+    * or its result would be lost. So DML with a RETURNING or OUTPUT clause
+    * is not batched.
+    *
+    * @param querySql
+    *           the SQL statement to check
+    * @return true if it is an INSERT, UPDATE, DELETE or MERGE statement without
+    *         RETURNING or OUTPUT clause; false otherwise.
+    */
+   private boolean isBatchableStatement(String querySql)
+   {
+      String trimmed = querySql.trim().toUpperCase();
+      if (false == trimmed.startsWith("INSERT") && false == trimmed.startsWith("UPDATE") && false == trimmed.startsWith("DELETE") && false == trimmed.startsWith("MERGE"))
+      {
+         return false;
+      }
+      return false == RESULT_RETURNING_CLAUSE.matcher(trimmed).find();
+   }
+
    public void cancel()
    {
       if(_stopExecution)
@@ -361,11 +492,359 @@ public class SQLExecuterTask implements Runnable, IDataSetUpdateableTableModel
       }
    }
 
+   /**
+    * Executes one statement via {@link #processQuery(String, int, int, StatementWrapper)}.
+    * If the statement fails and abort on error is not set the error is added to sqlExecErrorMsgs.
+    *
+    * @return false if execution should stop.
+    */
+   private boolean processQueryHandlingErrors(String querySql, int processedStatementCount, int statementCount, ArrayList<String> sqlExecErrorMsgs) throws SQLException
+   {
+      try
+      {
+         _lastExecutedStatement = querySql;
+
+         return processQuery(querySql, processedStatementCount, statementCount, _statementWrapper);
+      }
+      catch (SQLException ex)
+      {
+         return handleQueryError(ex, querySql, statementCount, sqlExecErrorMsgs);
+      }
+   }
+
+   /**
+    * @return false if execution should stop.
+    * @throws SQLException ex if abort on error is set.
+    */
+   private boolean handleQueryError(SQLException ex, String querySql, int statementCount, ArrayList<String> sqlExecErrorMsgs) throws SQLException
+   {
+      // If the user has cancelled the query, don't bother logging
+      // an error message.  It is likely that the cancel request
+      // interfered with the attempt to fetch results from the
+      // ResultSet, which is to be expected when the Statement is
+      // closed.  So, let's not bug the user with obvious error
+      // messages that we can do nothing about.
+      if (_stopExecution)
+      {
+         return false;
+      }
+
+      _lastExecutedStatement = querySql;
+
+      if (_session.getProperties().getAbortOnError())
+      {
+         throw ex;
+      }
+
+      if(1 < statementCount)
+      {
+         sqlExecErrorMsgs.add(handleError(ex, "Error occurred in:\n" + querySql));
+      }
+      else
+      {
+         sqlExecErrorMsgs.add(handleError(ex, null));
+      }
+      return true;
+   }
+
+   /**
+    * Sends the collected statements to the database by one executeBatch() call.
+    * Afterwards the handler is informed about each statement as if it had been executed on its own,
+    * so that update counts and errors are reported for the statement they belong to.
+    * Statements the driver did not execute because an earlier statement of the batch failed
+    * are executed one by one.
+    * <p/>
+    * If the driver rejects the batch by a plain SQLException some of its statements may have
+    * been executed anyway. They are executed one by one only if the connection is in a
+    * transaction and could be rolled back to a savepoint set before the batch. Otherwise the
+    * error is reported and execution stops, so that no statement is applied twice.
+    *
+    * @param batchSqls The statements to execute. The list is cleared by this method.
+    * @param lastStatementIndex The index of the last statement in batchSqls within the script.
+    * @return false if execution should stop.
+    */
+   private boolean processBatch(ArrayList<String> batchSqls, int lastStatementIndex, int statementCount, ArrayList<String> sqlExecErrorMsgs) throws SQLException
+   {
+      ArrayList<String> sqls = new ArrayList<String>(batchSqls);
+      batchSqls.clear();
+
+      int firstStatementIndex = lastStatementIndex - sqls.size() + 1;
+
+      int[] updateCounts;
+      SQLException batchException = null;
+
+      final SQLExecutionInfo firstExInfo = new SQLExecutionInfo(_currentQueryIndex + 1, sqls.get(0), _statementWrapper.getMaxRows(), _tableToBeEdited);
+      final boolean inTransaction = isInTransaction();
+      Savepoint savepoint = inTransaction ? setSavepoint() : null;
+      try
+      {
+         for (String sql : sqls)
+         {
+            _session.getQueryResultCache().statementExecuted(sql);
+            _statementWrapper.addBatch(sql);
+         }
+         updateCounts = _statementWrapper.executeBatch();
+      }
+      catch (BatchUpdateException ex)
+      {
+         if (rollbackToSavepoint(savepoint))
+         {
+            // Nothing of the batch remains applied and the transaction can go on.
+            // Executing the statements one by one below will report the error.
+            updateCounts = new int[0];
+         }
+         else
+         {
+            batchException = ex;
+            updateCounts = null == ex.getUpdateCounts() ? new int[0] : ex.getUpdateCounts();
+         }
+      }
+      catch (SQLException ex)
+      {
+         if (false == rollbackToSavepoint(savepoint))
+         {
+            _lastExecutedStatement = sqls.get(sqls.size() - 1);
+            if (_session.getProperties().getAbortOnError())
+            {
+               throw ex;
+            }
+            sqlExecErrorMsgs.add(handleError(ex, "Error occurred in a batch of " + sqls.size() + " statements. "
+               + "Some of them may have been executed, so execution stops. The batch began with:\n" + sqls.get(0)));
+            return false;
+         }
+
+         // Nothing of the batch remains applied. Executing the statements
+         // one by one below will report the error for the right statement.
+         updateCounts = new int[0];
+      }
+      finally
+      {
+         try
+         {
+            _statementWrapper.clearBatch();
+         }
+         catch (Throwable th)
+         {
+            s_log.debug("Driver doesn't handle Statement.clearBatch()", th);
+         }
+         releaseSavepoint(savepoint);
+      }
+      firstExInfo.sqlExecutionComplete();
+
+      handleAllWarnings(_session.getSQLConnection(), _statementWrapper);
+
+      SQLException abortException = null;
+      String abortSql = null;
+
+      for (int i = 0; i < sqls.size(); i++)
+      {
+         if (_stopExecution)
+         {
+            return false;
+         }
+
+         String sql = sqls.get(i);
+         int processedStatementCount = firstStatementIndex + i;
+
+         if (_handler != null)
+         {
+            _handler.sqlToBeExecuted(sql);
+         }
+
+         if (i < updateCounts.length && Statement.EXECUTE_FAILED != updateCounts[i])
+         {
+            ++_currentQueryIndex;
+            SQLExecutionInfo exInfo = firstExInfo;
+            if (0 < i)
+            {
+               exInfo = new SQLExecutionInfo(_currentQueryIndex, sql, _statementWrapper.getMaxRows(), _tableToBeEdited);
+               exInfo.sqlExecutionComplete();
+            }
+
+            if (_handler != null)
+            {
+               // Statement.SUCCESS_NO_INFO is reported like an unknown update count.
+               _handler.sqlDataUpdated(Math.max(0, updateCounts[i]));
+            }
+
+            fireExecutionListeners(sql);
+
+            if (_handler != null)
+            {
+               _handler.sqlExecutionComplete(exInfo, processedStatementCount, statementCount);
+            }
+
+            _dataSetUpdateableTableModel.setTableInfo(null);
+            if (schemaCheck)
+            {
+               _schemaInfoUpdateCheck.addExecutionInfo(exInfo);
+            }
+         }
+         else if (i < updateCounts.length)
+         {
+            // The driver continued processing after this statement failed.
+            // The statements following it have been executed, so they are reported before aborting.
+            ++_currentQueryIndex;
+            if (_session.getProperties().getAbortOnError())
+            {
+               if (null == abortException)
+               {
+                  abortException = batchException;
+                  abortSql = sql;
+               }
+            }
+            else if (!handleQueryError(batchException, sql, statementCount, sqlExecErrorMsgs))
+            {
+               return false;
+            }
+         }
+         else if (i == updateCounts.length && null != batchException)
+         {
+            // The driver stopped processing the batch at this statement.
+            ++_currentQueryIndex;
+            if (inTransaction && false == _stopExecution)
+            {
+               // The database may have aborted the transaction, PostgreSQL does. Executing
+               // the remaining statements would only report further errors.
+               _lastExecutedStatement = sql;
+               if (_session.getProperties().getAbortOnError())
+               {
+                  throw batchException;
+               }
+               sqlExecErrorMsgs.add(handleError(batchException, "Error occurred in:\n" + sql
+                  + "\nThe database may have aborted the transaction, so execution stops."));
+               return false;
+            }
+            if (!handleQueryError(batchException, sql, statementCount, sqlExecErrorMsgs))
+            {
+               return false;
+            }
+         }
+         else if (null != batchException && inTransaction)
+         {
+            // A statement of the batch failed, see above.
+            break;
+         }
+         else
+         {
+            // Not executed by the batch, execute it on its own.
+            if (!processQueryHandlingErrors(sql, processedStatementCount, statementCount, sqlExecErrorMsgs))
+            {
+               return false;
+            }
+         }
+      }
+
+      if (null != abortException)
+      {
+         _lastExecutedStatement = abortSql;
+         throw abortException;
+      }
+
+      if (null != batchException && inTransaction)
+      {
+         _lastExecutedStatement = sqls.get(Math.min(updateCounts.length, sqls.size() - 1));
+         return false;
+      }
+
+      _lastExecutedStatement = sqls.get(sqls.size() - 1);
+      return true;
+   }
+
+   /**
+    * @return true if the connection is not in auto commit mode or if that can't be determined.
+    */
+   private boolean isInTransaction()
+   {
+      try
+      {
+         return false == _session.getSQLConnection().getAutoCommit();
+      }
+      catch (Throwable th)
+      {
+         s_log.debug("Failed to get auto commit mode before batch", th);
+         return true;
+      }
+   }
+
+   /**
+    * @return A savepoint if the connection supports savepoints, else null.
+    */
+   private Savepoint setSavepoint()
+   {
+      try
+      {
+         ISQLConnection conn = _session.getSQLConnection();
+         if (false == conn.getSQLMetaData().supportsSavepoints())
+         {
+            return null;
+         }
+         return conn.getConnection().setSavepoint();
+      }
+      catch (Throwable th)
+      {
+         s_log.debug("Failed to set savepoint before batch", th);
+         return null;
+      }
+   }
+
+   /**
+    * @return true if the connection was rolled back to savepoint.
+    */
+   private boolean rollbackToSavepoint(Savepoint savepoint)
+   {
+      if (null == savepoint)
+      {
+         return false;
+      }
+
+      try
+      {
+         _session.getSQLConnection().getConnection().rollback(savepoint);
+         return true;
+      }
+      catch (Throwable th)
+      {
+         s_log.error("Failed to roll back to savepoint after batch failed", th);
+         return false;
+      }
+   }
+
+   private void releaseSavepoint(Savepoint savepoint)
+   {
+      if (null == savepoint)
+      {
+         return;
+      }
+
+      try
+      {
+         _session.getSQLConnection().getConnection().releaseSavepoint(savepoint);
+      }
+      catch (Throwable th)
+      {
+         s_log.debug("Driver doesn't handle Connection.releaseSavepoint()", th);
+      }
+   }
+
    private boolean processQuery(String sql, int processedStatementCount, int statementCount, StatementWrapper statementWrapper) throws SQLException
    {
       ++_currentQueryIndex;
 
       final SQLExecutionInfo exInfo = new SQLExecutionInfo(	_currentQueryIndex, sql, statementWrapper.getMaxRows(), _tableToBeEdited);
+
+      QueryResultCache resultCache = _session.getQueryResultCache();
+      resultCache.statementExecuted(sql);
+      if (_handler instanceof ISQLCachedResultHandler)
+      {
+         exInfo.setResultCacheKey(resultCache.getKey(sql, _session.getSQLConnection(), statementWrapper.getMaxRows()));
+         QueryResultCache.CachedResult cachedResult = null == exInfo.getResultCacheKey() ? null : resultCache.get(exInfo.getResultCacheKey());
+         if (null != cachedResult)
+         {
+            return processCachedResult(cachedResult, exInfo, processedStatementCount, statementCount);
+         }
+      }
+
       boolean firstResultIsResultSet = statementWrapper.execute(sql);
       exInfo.sqlExecutionComplete();
 
@@ -475,7 +954,42 @@ public class SQLExecuterTask implements Runnable, IDataSetUpdateableTableModel
          inFirstLoop = false;
       }
 
-      fireExecutionListeners(sql);
+      queryProcessed(exInfo, processedStatementCount, statementCount);
+      return true;
+   }
+
+   /**
+    * Shows a result taken from the session's QueryResultCache instead of executing the query.
+    *
+    * @return false if execution should stop.
+    */
+   private boolean processCachedResult(QueryResultCache.CachedResult cachedResult, SQLExecutionInfo exInfo, int processedStatementCount, int statementCount)
+   {
+      exInfo.sqlExecutionComplete();
+      exInfo.setResultCacheTime(cachedResult.getCacheTime());
+
+      if (_stopExecution)
+      {
+         return false;
+      }
+
+      try
+      {
+         ((ISQLCachedResultHandler) _handler).sqlCachedResultAvailable(cachedResult.createDataSet(), exInfo, this);
+      }
+      catch (DataSetException ex)
+      {
+         _session.showMessage(ex);
+         s_log.error("Error showing cached result for SQL: " + exInfo.getSQL(), ex);
+      }
+
+      queryProcessed(exInfo, processedStatementCount, statementCount);
+      return true;
+   }
+
+   private void queryProcessed(SQLExecutionInfo exInfo, int processedStatementCount, int statementCount)
+   {
+      fireExecutionListeners(exInfo.getSQL());
 
       if (_handler != null)
       {
@@ -496,8 +1010,6 @@ public class SQLExecuterTask implements Runnable, IDataSetUpdateableTableModel
       if (schemaCheck) {
           _schemaInfoUpdateCheck.addExecutionInfo(exInfo);
       }
-
-      return true;
    }
 
 
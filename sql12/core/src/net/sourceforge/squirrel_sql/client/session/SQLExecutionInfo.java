@@ -49,6 +49,12 @@ public class SQLExecutionInfo
 
    private String _tableToBeEdited;
 
+   /** Key of the result in the session's <TT>QueryResultCache</TT>. Null if the result is not cached. */
+   private String _resultCacheKey;
+
+   /** If the result was taken from the session's <TT>QueryResultCache</TT> the time it was cached. */
+   private Date _resultCacheTime;
+
 
    /**
 	 * ctor specifying the SQL being executed and the query index. Defaults SQL
@@ -170,4 +176,28 @@ public class SQLExecutionInfo
    {
       return _tableToBeEdited;
    }
+
+   public String getResultCacheKey()
+   {
+      return _resultCacheKey;
+   }
+
+   public void setResultCacheKey(String resultCacheKey)
+   {
+      _resultCacheKey = resultCacheKey;
+   }
+
+   /**
+    * @return The time the result was cached if it was taken from the session's
+    * <TT>QueryResultCache</TT> instead of the database, else null.
+    */
+   public Date getResultCacheTime()
+   {
+      return _resultCacheTime;
+   }
+
+   public void setResultCacheTime(Date resultCacheTime)
+   {
+      _resultCacheTime = resultCacheTime;
+   }
 }
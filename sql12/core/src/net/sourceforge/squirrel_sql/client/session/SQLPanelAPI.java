@@ -106,6 +106,7 @@ public class SQLPanelAPI implements ISQLPanelAPI
       _toolsPopupController.addAction("filesave", ac.get(FileSaveAction.class));
       _toolsPopupController.addAction("filesaveas", ac.get(FileSaveAsAction.class));
       _toolsPopupController.addAction("fileappend", ac.get(FileAppendAction.class));
+      _toolsPopupController.addAction("fileexecute", ac.get(FileExecuteAction.class));
       _toolsPopupController.addAction("fileclose", ac.get(FileCloseAction.class));
       _toolsPopupController.addAction("fileprint", ac.get(FilePrintAction.class));
 
@@ -224,6 +225,18 @@ public class SQLPanelAPI implements ISQLPanelAPI
    }
    
    
+   /* (non-Javadoc)
+    * @see net.sourceforge.squirrel_sql.client.session.ISQLPanelAPI#fileExecute()
+    */
+   public void fileExecute()
+   {
+      File file = _fileManager.chooseFileToExecute();
+      if (null != file)
+      {
+         _panel.getSQLExecPanel().executeSQLFile(file);
+      }
+   }
+
    /* (non-Javadoc)
     * @see net.sourceforge.squirrel_sql.client.session.ISQLPanelAPI#fileClose()
     */
@@ -33,6 +33,7 @@ import java.util.Hashtable;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.swing.Action;
 import javax.swing.JComponent;
@@ -109,6 +110,15 @@ class Session implements ISession
    /** Properties for this session. */
    private SessionProperties _props;
 
+   /** Results of queries executed in this session. */
+   private QueryResultCache _queryResultCache;
+
+   /** Additional connections, null if the alias doesn't use them. */
+   private volatile SessionConnectionPool _connectionPool;
+
+   /** The pooled connection used by the current thread instead of <TT>_conn</TT>. */
+   private final ThreadLocal<SQLConnection> _pooledConnection = new ThreadLocal<SQLConnection>();
+
    /**
     * Objects stored in session. Each entry is a <TT>Map</TT>
     * keyed by <TT>IPlugin.getInternalName()</TT>. Each <TT>Map</TT>
@@ -138,6 +148,12 @@ class Session implements ISession
    /** flag to track whether or not the table data has been loaded in the object tree */
    private boolean _finishedLoading = false;
 
+   /**
+    * Set by either the schema info load task when it starts or by close(), whichever comes first.
+    * If close() comes first, the task doesn't run and close() releases the threads waiting for it.
+    */
+   private final AtomicBoolean _schemaInfoLoadClaimed = new AtomicBoolean(false);
+
    /** flag to track whether or not the plugins have finished loading for this new session */
    private boolean _pluginsFinishedLoading = false;
 
@@ -149,7 +165,8 @@ class Session implements ISession
    /** The default exception formatter */
    private DefaultExceptionFormatter formatter = new DefaultExceptionFormatter();
    
-   private SessionConnectionKeepAlive _sessionConnectionKeepAlive = null;
+   private SessionHousekeeper.PeriodicTask _keepAliveTask = null;
+   private SessionConnectionLiveness _connectionLiveness = new SessionConnectionLiveness();
    private SimpleSessionListenerManager _simpleSessionListenerManager;
 
    /**
@@ -215,25 +232,52 @@ class Session implements ISession
       setupTitle();
 
       _props = (SessionProperties)_app.getSquirrelPreferences().getSessionProperties().clone();
+      _queryResultCache = new QueryResultCache(_props);
 
       _connLis = new SQLConnectionListener();
       _conn.addPropertyChangeListener(_connLis);
 
         checkDriverVersion();
 
+      createConnectionPoolIfNecessary();
+
       // Start loading table/column info about the current database.
       _app.getThreadPool().addTask(new Runnable()
       {
          public void run()
          {
+            if (false == _schemaInfoLoadClaimed.compareAndSet(false, true))
+            {
+               return;
+            }
             _schemaInfo.initialLoad(Session.this);
             _finishedLoading = true;
          }
-      });
+      }, "Load schema info (" + _alias.getName() + ")", TaskThreadPool.Priority.BACKGROUND, this);
       startKeepAliveTaskIfNecessary();
       _simpleSessionListenerManager = new SimpleSessionListenerManager(app, this);
    }
 
+   private void createConnectionPoolIfNecessary()
+   {
+      SQLAliasConnectionProperties connProps = _alias.getConnectionProperties();
+
+      if (connProps.isEnableConnectionPool())
+      {
+         _connectionPool = new SessionConnectionPool(this, connProps.getMaxPoolConnections());
+      }
+   }
+
+   private void closeConnectionPoolIfNecessary()
+   {
+      SessionConnectionPool connectionPool = _connectionPool;
+      _connectionPool = null;
+      if (null != connectionPool)
+      {
+         connectionPool.close();
+      }
+   }
+
    private void startKeepAliveTaskIfNecessary() {
       SQLAliasConnectionProperties connProps = _alias.getConnectionProperties();
 
@@ -252,15 +296,17 @@ class Session implements ISession
          }
 
 
-         _sessionConnectionKeepAlive = new SessionConnectionKeepAlive(_conn, sleepMillis, keepAliveSql, _alias.getName());
+         SessionConnectionKeepAlive keepAlive =
+            new SessionConnectionKeepAlive(_conn, sleepMillis, keepAliveSql, _alias.getName(), _connectionLiveness);
 
-         _app.getThreadPool().addTask(_sessionConnectionKeepAlive, "Session Connection Keep-Alive (" + _alias.getName() + ")");
+         _keepAliveTask = SessionHousekeeper.schedule("Session Connection Keep-Alive (" + _alias.getName() + ")", keepAlive, sleepMillis);
       }         	
    }
    
    private void stopKeepAliveTaskIfNecessary() {
-   	if (_sessionConnectionKeepAlive != null) {
-   		_sessionConnectionKeepAlive.setStopped(true);
+   	if (_keepAliveTask != null) {
+   		_keepAliveTask.cancel();
+   		_keepAliveTask = null;
    	}
    }
    
@@ -280,6 +326,13 @@ class Session implements ISession
       		s_log.debug("Closing session: " + _id);
       	}
       	stopKeepAliveTaskIfNecessary();
+         _app.getThreadPool().cancelTasks(this);
+         if (_schemaInfoLoadClaimed.compareAndSet(false, true))
+         {
+            // The load was cancelled before it started.
+            _schemaInfo.initialLoadCancelled();
+         }
+         _queryResultCache.clear();
          if (null != _conn)
          {
             // _conn is null when session is closed after reconnect (ctrl t) failure.
@@ -418,9 +471,46 @@ class Session implements ISession
    public ISQLConnection getSQLConnection()
    {
         checkThread();
+      SQLConnection pooledConnection = _pooledConnection.get();
+      if (null != pooledConnection)
+      {
+         return pooledConnection;
+      }
       return _conn;
    }
 
+   /**
+    * @see net.sourceforge.squirrel_sql.client.session.ISession#runWithPooledConnection(Runnable)
+    */
+   public void runWithPooledConnection(Runnable runnable)
+   {
+      SessionConnectionPool connectionPool = _connectionPool;
+      if (null == connectionPool || null != _pooledConnection.get() || SwingUtilities.isEventDispatchThread())
+      {
+         // Waiting for a pooled connection would block the UI.
+         runnable.run();
+         return;
+      }
+
+      SQLConnection pooledConnection = connectionPool.borrow();
+      if (null == pooledConnection)
+      {
+         runnable.run();
+         return;
+      }
+
+      _pooledConnection.set(pooledConnection);
+      try
+      {
+         runnable.run();
+      }
+      finally
+      {
+         _pooledConnection.remove();
+         connectionPool.giveBack(pooledConnection);
+      }
+   }
+
    /**
     * @return <TT>ISQLDriver</TT> for this session.
     */
@@ -450,6 +540,16 @@ class Session implements ISession
       return _schemaInfo;
    }
 
+   public QueryResultCache getQueryResultCache()
+   {
+      return _queryResultCache;
+   }
+
+   public SessionConnectionLiveness getConnectionLiveness()
+   {
+      return _connectionLiveness;
+   }
+
    public synchronized Object getPluginObject(IPlugin plugin, String key)
    {
       if (plugin == null)
@@ -524,6 +624,7 @@ class Session implements ISession
 
    public synchronized void closeSQLConnection() throws SQLException
    {
+      closeConnectionPoolIfNecessary();
       if (_conn != null)
       {
       	stopKeepAliveTaskIfNecessary();
@@ -567,6 +668,7 @@ class Session implements ISession
       }
       final OpenConnectionCommand cmd = new OpenConnectionCommand(_app, _alias,
                                  _user, _password, connState.getConnectionProperties());
+      _queryResultCache.clear();
       try
       {
          closeSQLConnection();
@@ -609,6 +711,7 @@ class Session implements ISession
          }
          
          _conn = cmd.getSQLConnection();
+         _connectionLiveness = new SessionConnectionLiveness();
          if (connState != null)
          {
             connState.restoreState(_conn, _msgHandler);
@@ -618,6 +721,7 @@ class Session implements ISession
          _msgHandler.showMessage(msg);
          _app.getSessionManager().fireReconnected(this);
          startKeepAliveTaskIfNecessary();
+         createConnectionPoolIfNecessary();
       }
       catch (Throwable th)
       {
@@ -1087,6 +1191,12 @@ class Session implements ISession
          {
             setupTitle();
          }
+
+         SessionConnectionPool connectionPool = _connectionPool;
+         if (null != connectionPool && ISQLConnection.IPropertyNames.CATALOG.equals(propName))
+         {
+            connectionPool.setCatalog((String) evt.getNewValue());
+         }
       }
    }
 
@@ -1204,6 +1314,10 @@ class Session implements ISession
      * @see net.sourceforge.squirrel_sql.client.session.ISession#getMetaData()
      */
     public ISQLDatabaseMetaData getMetaData() {
+        SQLConnection pooledConnection = _pooledConnection.get();
+        if (pooledConnection != null) {
+            return pooledConnection.getSQLMetaData();
+        }
         if (_conn != null) {
             return _conn.getSQLMetaData();
         } else {
@@ -19,6 +19,8 @@
 
 package net.sourceforge.squirrel_sql.client.session;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Statement;
 
 import net.sourceforge.squirrel_sql.fw.sql.ISQLConnection;
@@ -28,8 +30,12 @@ import net.sourceforge.squirrel_sql.fw.util.log.ILogger;
 import net.sourceforge.squirrel_sql.fw.util.log.LoggerController;
 
 /**
- * This class will loop continuously, pausing for a configurable amount of time and executing a configurable
- * SQL statement against a given SQLConnection.
+ * Executes a configurable SQL statement against a given SQLConnection to keep it alive.
+ * It is run periodically by <TT>SessionHousekeeper</TT>. If the connection was used by
+ * something else during the last period the statement is not executed.
+ * The outcome of each execution is recorded in a <TT>SessionConnectionLiveness</TT>.
+ * The statement times out after one period, so a dead connection doesn't hold a
+ * thread of the housekeeper for long.
  */
 public class SessionConnectionKeepAlive implements Runnable
 {
@@ -42,54 +48,77 @@ public class SessionConnectionKeepAlive implements Runnable
 
 	private final String sql;
 
-	private volatile boolean isStopped = false;
-
 	private final String aliasName;
-	
-	public SessionConnectionKeepAlive(ISQLConnection con, long sleepMillis, String sql, String aliasName)
+
+	private final SessionConnectionLiveness liveness;
+
+	/** The last used time of the connection after our last execution. */
+	private long lastOwnUseTime = -1;
+
+	public SessionConnectionKeepAlive(ISQLConnection con, long sleepMillis, String sql, String aliasName,
+		SessionConnectionLiveness liveness)
 	{
 		if (sleepMillis < 1000) { 
 			throw new IllegalArgumentException("Sleep time must be at least 1000ms(1 second)"); 
 		}
 		this.sleepMillis = sleepMillis;
-		Utilities.checkNull("SessionConnectionKeepAlive", "con", con, "sql", sql);
+		Utilities.checkNull("SessionConnectionKeepAlive", "con", con, "sql", sql, "liveness", liveness);
 		sqlConn = con;
 		this.sql = sql;
 		this.aliasName = aliasName;
-	}
-
-	public void setStopped(boolean isStopped)
-	{
-		this.isStopped = isStopped;
+		this.liveness = liveness;
 	}
 
 	@Override
 	public void run()
 	{
-		while (!isStopped)
+		long lastUsedTime = sqlConn.getLastUsedTime();
+		if (lastUsedTime != lastOwnUseTime && System.currentTimeMillis() - lastUsedTime < sleepMillis)
 		{
-			Statement stmt = null;
-			try
-			{
-				stmt = sqlConn.createStatement();
-				if (s_log.isInfoEnabled()) {
-					s_log.info("SessionConnectionKeepAlive ("+aliasName+") running SQL: "+sql);
-				}
-				stmt.executeQuery(sql);
-			}
-			catch (Throwable t)
-			{
-				s_log.error("run: unexpected exception while executing sql (" + sql + "): " + t.getMessage(), t);
+			if (s_log.isDebugEnabled()) {
+				s_log.debug("SessionConnectionKeepAlive ("+aliasName+") skipped, connection was used recently");
 			}
-			finally
-			{
-				SQLUtilities.closeStatement(stmt);
+			return;
+		}
+
+		Statement stmt = null;
+		ResultSet rs = null;
+		try
+		{
+			long begin = System.currentTimeMillis();
+			stmt = sqlConn.createStatement();
+			setQueryTimeout(stmt);
+			if (s_log.isInfoEnabled()) {
+				s_log.info("SessionConnectionKeepAlive ("+aliasName+") running SQL: "+sql);
 			}
-			// Always sleep at the end of the loop. In case we are stopped, we want to know that
-			// immediately before executing the sql statement.
-			Utilities.sleep(sleepMillis);
+			rs = stmt.executeQuery(sql);
+			liveness.recordSuccess(System.currentTimeMillis() - begin);
 		}
+		catch (Throwable t)
+		{
+			liveness.recordFailure(t);
+			s_log.error("run: unexpected exception while executing sql (" + sql + "): " + t.getMessage(), t);
+		}
+		finally
+		{
+			SQLUtilities.closeResultSet(rs);
+			SQLUtilities.closeStatement(stmt);
+			lastOwnUseTime = sqlConn.getLastUsedTime();
+		}
+	}
 
+	private void setQueryTimeout(Statement stmt)
+	{
+		try
+		{
+			stmt.setQueryTimeout((int) Math.max(1, sleepMillis / 1000));
+		}
+		catch (SQLException e)
+		{
+			if (s_log.isDebugEnabled()) {
+				s_log.debug("SessionConnectionKeepAlive ("+aliasName+") driver doesn't support query timeouts: "+e.getMessage());
+			}
+		}
 	}
 
 }
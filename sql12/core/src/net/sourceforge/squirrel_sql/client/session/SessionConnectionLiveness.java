@@ -0,0 +1,98 @@
+package net.sourceforge.squirrel_sql.client.session;
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+/**
+ * What is known about the health of a session's connection from the checks made on it,
+ * e.g. by <TT>SessionConnectionKeepAlive</TT>. Periodic tasks may record their own checks.
+ */
+public class SessionConnectionLiveness
+{
+   /** Weight of the latest check in the average latency. */
+   private static final double AVERAGE_WEIGHT = 0.2;
+
+   private long _lastCheckTime;
+   private boolean _alive = true;
+   private long _lastLatencyMillis = -1;
+   private double _averageLatencyMillis = -1;
+   private int _consecutiveFailures;
+   private String _lastFailure;
+
+   /**
+    * Records a successful check that took latencyMillis.
+    */
+   public synchronized void recordSuccess(long latencyMillis)
+   {
+      _lastCheckTime = System.currentTimeMillis();
+      _alive = true;
+      _lastLatencyMillis = latencyMillis;
+      _averageLatencyMillis = _averageLatencyMillis < 0 ? latencyMillis : AVERAGE_WEIGHT * latencyMillis + (1 - AVERAGE_WEIGHT) * _averageLatencyMillis;
+      _consecutiveFailures = 0;
+   }
+
+   public synchronized void recordFailure(Throwable t)
+   {
+      _lastCheckTime = System.currentTimeMillis();
+      _alive = false;
+      ++_consecutiveFailures;
+      _lastFailure = t.toString();
+   }
+
+   /**
+    * @return false if the last check failed. true if it succeeded or there was no check yet.
+    */
+   public synchronized boolean isAlive()
+   {
+      return _alive;
+   }
+
+   /**
+    * @return Time in millis of the last check, 0 if there was none.
+    */
+   public synchronized long getLastCheckTime()
+   {
+      return _lastCheckTime;
+   }
+
+   /**
+    * @return Latency of the last successful check, -1 if there was none.
+    */
+   public synchronized long getLastLatencyMillis()
+   {
+      return _lastLatencyMillis;
+   }
+
+   /**
+    * @return Exponentially weighted average latency of the successful checks, -1 if there was none.
+    */
+   public synchronized long getAverageLatencyMillis()
+   {
+      return Math.round(_averageLatencyMillis);
+   }
+
+   public synchronized int getConsecutiveFailures()
+   {
+      return _consecutiveFailures;
+   }
+
+   /**
+    * @return Description of the error of the last failed check, null if no check failed.
+    */
+   public synchronized String getLastFailure()
+   {
+      return _lastFailure;
+   }
+}
@@ -0,0 +1,250 @@
+package net.sourceforge.squirrel_sql.client.session;
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.concurrent.Semaphore;
+
+import net.sourceforge.squirrel_sql.fw.sql.SQLConnection;
+import net.sourceforge.squirrel_sql.fw.util.log.ILogger;
+import net.sourceforge.squirrel_sql.fw.util.log.LoggerController;
+
+/**
+ * Additional connections of a session for work that must not wait for the session's
+ * own connection, see <TT>ISession.runWithPooledConnection()</TT>.
+ * <p/>
+ * Connections are opened on demand with the alias, user and password of the session,
+ * up to the maximum configured in <TT>SQLAliasConnectionProperties</TT>. They are in
+ * auto commit mode. When all connections are in use callers wait in the order they arrived.
+ * <p/>
+ * If opening a connection fails the pool stops opening connections and callers
+ * use the session's own connection.
+ */
+public class SessionConnectionPool
+{
+   private static final ILogger s_log = LoggerController.createLogger(SessionConnectionPool.class);
+
+   private final ISession _session;
+   private final Semaphore _permits;
+   private final LinkedList<SQLConnection> _idleConnections = new LinkedList<SQLConnection>();
+
+   /** The catalog of the session's own connection. Applied to connections when they are borrowed. */
+   private volatile String _catalog;
+
+   private volatile boolean _closed;
+   private volatile boolean _openFailed;
+
+   SessionConnectionPool(ISession session, int maxConnections)
+   {
+      _session = session;
+      _permits = new Semaphore(Math.max(1, maxConnections), true);
+   }
+
+   /**
+    * Waits for a connection if all connections are in use.
+    *
+    * @return A connection that must be given back by <TT>giveBack()</TT> or null
+    * if the pool is closed or can't open connections.
+    */
+   SQLConnection borrow()
+   {
+      if (_closed || _openFailed)
+      {
+         return null;
+      }
+
+      try
+      {
+         _permits.acquire();
+      }
+      catch (InterruptedException e)
+      {
+         Thread.currentThread().interrupt();
+         return null;
+      }
+
+      SQLConnection ret = null;
+      try
+      {
+         ret = pollIdleConnection();
+         if (null == ret)
+         {
+            ret = openConnection();
+         }
+
+         if (null != ret)
+         {
+            applyCatalog(ret);
+         }
+         return ret;
+      }
+      finally
+      {
+         if (null == ret)
+         {
+            _permits.release();
+         }
+      }
+   }
+
+   /**
+    * Returns a connection obtained by <TT>borrow()</TT> to the pool.
+    */
+   void giveBack(SQLConnection conn)
+   {
+      try
+      {
+         boolean keep = false;
+         synchronized (_idleConnections)
+         {
+            if (false == _closed && false == isClosed(conn))
+            {
+               _idleConnections.addFirst(conn);
+               keep = true;
+            }
+         }
+
+         if (false == keep)
+         {
+            closeConnection(conn);
+         }
+      }
+      finally
+      {
+         _permits.release();
+      }
+   }
+
+   /**
+    * Called when the catalog of the session's own connection changes.
+    */
+   void setCatalog(String catalog)
+   {
+      _catalog = catalog;
+   }
+
+   /**
+    * Closes the idle connections. Borrowed connections are closed when they are given back.
+    */
+   void close()
+   {
+      ArrayList<SQLConnection> toClose;
+      synchronized (_idleConnections)
+      {
+         _closed = true;
+         toClose = new ArrayList<SQLConnection>(_idleConnections);
+         _idleConnections.clear();
+      }
+
+      for (SQLConnection conn : toClose)
+      {
+         closeConnection(conn);
+      }
+   }
+
+   private SQLConnection pollIdleConnection()
+   {
+      for (;;)
+      {
+         SQLConnection conn;
+         synchronized (_idleConnections)
+         {
+            conn = _idleConnections.poll();
+         }
+
+         if (null == conn || false == isClosed(conn))
+         {
+            return conn;
+         }
+         s_log.info("Discarding closed pooled connection of alias " + _session.getAlias().getName());
+      }
+   }
+
+   private SQLConnection openConnection()
+   {
+      SQLConnection ret = _session.createUnmanagedConnection();
+      if (null == ret)
+      {
+         // The error has been shown by createUnmanagedConnection().
+         _openFailed = true;
+         return null;
+      }
+
+      try
+      {
+         ret.setAutoCommit(true);
+      }
+      catch (SQLException e)
+      {
+         s_log.error("Failed to switch pooled connection to auto commit", e);
+         closeConnection(ret);
+         _openFailed = true;
+         return null;
+      }
+
+      if (s_log.isDebugEnabled())
+      {
+         s_log.debug("Opened pooled connection of alias " + _session.getAlias().getName());
+      }
+      return ret;
+   }
+
+   private void applyCatalog(SQLConnection conn)
+   {
+      String catalog = _catalog;
+      if (null == catalog)
+      {
+         return;
+      }
+
+      try
+      {
+         if (false == catalog.equals(conn.getCatalog()))
+         {
+            conn.setCatalog(catalog);
+         }
+      }
+      catch (SQLException e)
+      {
+         s_log.error("Failed to set catalog " + catalog + " on pooled connection", e);
+      }
+   }
+
+   private static boolean isClosed(SQLConnection conn)
+   {
+      try
+      {
+         return null == conn.getConnection() || conn.getConnection().isClosed();
+      }
+      catch (SQLException e)
+      {
+         return true;
+      }
+   }
+
+   private static void closeConnection(SQLConnection conn)
+   {
+      try
+      {
+         conn.close();
+      }
+      catch (SQLException e)
+      {
+         s_log.error("Error closing pooled connection", e);
+      }
+   }
+}
@@ -0,0 +1,203 @@
+package net.sourceforge.squirrel_sql.client.session;
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.sourceforge.squirrel_sql.fw.util.log.ILogger;
+import net.sourceforge.squirrel_sql.fw.util.log.LoggerController;
+
+/**
+ * Runs the periodic tasks of all sessions, e.g. <TT>SessionConnectionKeepAlive</TT>,
+ * on shared threads instead of one sleeping thread per task.
+ * <p/>
+ * The tasks are not timed individually. Every <TT>TICK_MILLIS</TT> a single timer thread
+ * hands the tasks that are due to the worker threads. A task that hangs, e.g. on a dead
+ * connection, blocks only its own worker thread. Idle workers end after a while, so
+ * usually only a few exist.
+ * <p/>
+ * The next start of a task is its period after it finished, varied by up to
+ * <TT>JITTER_PERCENT</TT> so that tasks with equal periods spread out.
+ * A task that is still running when it is due again is not started twice.
+ */
+public class SessionHousekeeper
+{
+   private static final ILogger s_log = LoggerController.createLogger(SessionHousekeeper.class);
+
+   /** Granularity of the periods of the tasks. */
+   private static final long TICK_MILLIS = 1000;
+
+   private static final int JITTER_PERCENT = 10;
+
+   private static final long IDLE_WORKER_TIMEOUT_SECONDS = 60;
+
+   private static final CopyOnWriteArrayList<PeriodicTask> s_tasks = new CopyOnWriteArrayList<PeriodicTask>();
+
+   private static final Random s_random = new Random();
+
+   private static final ScheduledThreadPoolExecutor s_timer;
+
+   private static final ThreadPoolExecutor s_workers;
+
+   static
+   {
+      s_timer = new ScheduledThreadPoolExecutor(1, new ThreadFactory()
+      {
+         public Thread newThread(Runnable r)
+         {
+            Thread t = new Thread(r, "Session housekeeping timer");
+            t.setDaemon(true);
+            return t;
+         }
+      });
+
+      // A task is never started twice at the same time, so there are at most as many workers as tasks.
+      s_workers = new ThreadPoolExecutor(0, Integer.MAX_VALUE, IDLE_WORKER_TIMEOUT_SECONDS, TimeUnit.SECONDS,
+         new SynchronousQueue<Runnable>(), new ThreadFactory()
+         {
+            private final AtomicInteger _count = new AtomicInteger();
+
+            public Thread newThread(Runnable r)
+            {
+               Thread t = new Thread(r, "Session housekeeping " + _count.incrementAndGet());
+               t.setDaemon(true);
+               return t;
+            }
+         });
+
+      s_timer.scheduleWithFixedDelay(new Runnable()
+      {
+         public void run()
+         {
+            startDueTasks();
+         }
+      }, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+   }
+
+   private SessionHousekeeper()
+   {
+   }
+
+   /**
+    * Runs task every periodMillis until the returned task is cancelled.
+    * The first run is one period from now.
+    *
+    * @param name Used in log messages.
+    */
+   public static PeriodicTask schedule(String name, Runnable task, long periodMillis)
+   {
+      PeriodicTask ret = new PeriodicTask(name, task, periodMillis);
+      s_tasks.add(ret);
+      return ret;
+   }
+
+   private static void startDueTasks()
+   {
+      long now = System.currentTimeMillis();
+      for (final PeriodicTask task : s_tasks)
+      {
+         if (task.startIfDue(now))
+         {
+            s_workers.execute(new Runnable()
+            {
+               public void run()
+               {
+                  task.run();
+               }
+            });
+         }
+      }
+   }
+
+   private static long getNextDueTime(long periodMillis)
+   {
+      long jitter = periodMillis * JITTER_PERCENT / 100;
+      long offset = 0 < jitter ? (long) (s_random.nextDouble() * 2 * jitter) - jitter : 0;
+      return System.currentTimeMillis() + periodMillis + offset;
+   }
+
+   public static class PeriodicTask
+   {
+      private final String _name;
+      private final Runnable _task;
+      private final long _periodMillis;
+
+      private long _nextDueTime;
+      private boolean _running;
+      private volatile boolean _cancelled;
+
+      private PeriodicTask(String name, Runnable task, long periodMillis)
+      {
+         _name = name;
+         _task = task;
+         _periodMillis = periodMillis;
+         _nextDueTime = getNextDueTime(periodMillis);
+      }
+
+      /**
+       * The task is not started anymore. A run in progress is not interrupted.
+       */
+      public void cancel()
+      {
+         _cancelled = true;
+         s_tasks.remove(this);
+      }
+
+      public boolean isCancelled()
+      {
+         return _cancelled;
+      }
+
+      private synchronized boolean startIfDue(long now)
+      {
+         if (_running || _cancelled || now < _nextDueTime)
+         {
+            return false;
+         }
+         _running = true;
+         return true;
+      }
+
+      private void run()
+      {
+         try
+         {
+            if (false == _cancelled)
+            {
+               _task.run();
+            }
+         }
+         catch (Throwable t)
+         {
+            s_log.error("Error in periodic session task " + _name, t);
+         }
+         finally
+         {
+            synchronized (this)
+            {
+               _running = false;
+               _nextDueTime = getNextDueTime(_periodMillis);
+            }
+         }
+      }
+   }
+}
@@ -165,6 +165,21 @@ public class StatementWrapper implements StatementCallback
       return _statement.execute(sql);
    }
 
+   public void addBatch(String sql) throws SQLException
+   {
+      _statement.addBatch(sql);
+   }
+
+   public int[] executeBatch() throws SQLException
+   {
+      return _statement.executeBatch();
+   }
+
+   public void clearBatch() throws SQLException
+   {
+      _statement.clearBatch();
+   }
+
    public int getUpdateCount() throws SQLException
    {
       if(isContinueReadActive() && _hasReturnedResultSet)
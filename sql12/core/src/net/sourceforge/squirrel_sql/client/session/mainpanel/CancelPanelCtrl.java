@@ -19,9 +19,15 @@ class CancelPanelCtrl
 
    /**
     * Total number of queries that will be executed.
+    * -1 if unknown, e.g. when a script file is executed.
     */
    private int _queryCount;
 
+   /**
+    * Percentage of the script file read so far.
+    */
+   private int _scriptFileProgressPercent;
+
    /**
     * Number of the query currently being executed (starts from 1).
     */
@@ -64,12 +70,25 @@ class CancelPanelCtrl
       {
          public void run()
          {
-            // i18n[SQLResultExecuterPanel.currentSQLLabel={0} of {1} - {2}]
-            String label =
-                  s_stringMgr.getString("SQLResultExecuterPanel.currentSQLLabel",
-                        new Object[]{String.valueOf(_currentQueryIndex),
-                              String.valueOf(_queryCount),
-                              sql});
+            String label;
+            if (0 > _queryCount)
+            {
+               // i18n[SQLResultExecuterPanel.currentScriptFileSQLLabel={0} ({1}% of file) - {2}]
+               label =
+                     s_stringMgr.getString("SQLResultExecuterPanel.currentScriptFileSQLLabel",
+                           new Object[]{String.valueOf(_currentQueryIndex),
+                                 String.valueOf(_scriptFileProgressPercent),
+                                 sql});
+            }
+            else
+            {
+               // i18n[SQLResultExecuterPanel.currentSQLLabel={0} of {1} - {2}]
+               label =
+                     s_stringMgr.getString("SQLResultExecuterPanel.currentSQLLabel",
+                           new Object[]{String.valueOf(_currentQueryIndex),
+                                 String.valueOf(_queryCount),
+                                 sql});
+            }
 
             _panel.sqlLbl.setText(label);
          }
@@ -98,6 +117,11 @@ class CancelPanelCtrl
       _currentQueryIndex = 0;
    }
 
+   void setScriptFileProgress(int percent)
+   {
+      _scriptFileProgressPercent = percent;
+   }
+
    int getTotalCount()
    {
       return _queryCount;
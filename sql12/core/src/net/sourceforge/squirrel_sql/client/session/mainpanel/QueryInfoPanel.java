@@ -37,7 +37,16 @@ public class QueryInfoPanel extends JPanel
       _queryScrollPane.scrollRectToVisible(new Rectangle(0,0,1,1));
 
       displayRowCount(rowCount);
-      _executedLbl.setText(exInfo.getSQLExecutionStartTime().toString());
+      if (null == exInfo.getResultCacheTime())
+      {
+         _executedLbl.setText(exInfo.getSQLExecutionStartTime().toString());
+      }
+      else
+      {
+         // i18n[ResultTab.servedFromCache={0}, served from cache, cached {1}]
+         _executedLbl.setText(s_stringMgr.getString("ResultTab.servedFromCache",
+               exInfo.getSQLExecutionStartTime().toString(), exInfo.getResultCacheTime().toString()));
+      }
       _elapsedLbl.setText(formatElapsedTime(exInfo));
    }
 
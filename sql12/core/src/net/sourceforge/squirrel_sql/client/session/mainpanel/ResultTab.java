@@ -374,11 +374,17 @@ public class ResultTab extends JPanel implements IHasIdentifier, IResultTab
 	public String getTitle()
 	{
 		String title = _sql;
-		if (title.length() < 20)
+		if (title.length() >= 20)
 		{
-			return title;
+			title = title.substring(0, 15);
 		}
-		return title.substring(0, 15);
+
+		if (null != _exInfo && null != _exInfo.getResultCacheTime())
+		{
+			// i18n[ResultTab.cachedTitle=(cached) {0}]
+			title = s_stringMgr.getString("ResultTab.cachedTitle", title);
+		}
+		return title;
 	}
 
    public void closeTab()
@@ -405,7 +411,7 @@ public class ResultTab extends JPanel implements IHasIdentifier, IResultTab
          _sql = "";
 
          _sqlResultExecuterPanelFacade.closeResultTab(this);
-         _rsds.closeStatementAndResultSet();
+         _rsds.dispose();
       }
       finally
       {
@@ -11,9 +11,11 @@ import net.sourceforge.squirrel_sql.fw.sql.SQLExecutionException;
 import net.sourceforge.squirrel_sql.fw.util.StringManager;
 import net.sourceforge.squirrel_sql.fw.util.StringManagerFactory;
 import net.sourceforge.squirrel_sql.fw.util.StringUtilities;
+import net.sourceforge.squirrel_sql.fw.util.TaskThreadPool;
 import net.sourceforge.squirrel_sql.fw.util.log.ILogger;
 import net.sourceforge.squirrel_sql.fw.util.log.LoggerController;
 
+import java.io.File;
 import java.sql.SQLWarning;
 import java.text.NumberFormat;
 import java.util.ArrayList;
@@ -21,7 +23,7 @@ import java.util.ArrayList;
 /**
  * This class is the handler for the execution of sql against the SQLExecuterPanel
  */
-class SQLExecutionHandler implements ISQLExecuterHandler
+class SQLExecutionHandler implements ISQLScriptFileExecuterHandler, ISQLCachedResultHandler
 {
    private static final ILogger s_log =
         LoggerController.createLogger(SQLExecutionHandler.class);
@@ -78,12 +80,31 @@ class SQLExecutionHandler implements ISQLExecuterHandler
                               ISQLExecutionHandlerListener executionHandlerListener,
                               ISQLExecutionListener[] executionListeners,
                               String tableToBeEdited)
+   {
+      this(resultTabToReplace,
+            session,
+            sql,
+            executionHandlerListener,
+            executionListeners, tableToBeEdited, false);
+   }
+
+   /**
+    * @param usePooledConnection See <TT>SQLExecuterTask.setUsePooledConnection()</TT>
+    */
+   public SQLExecutionHandler(IResultTab resultTabToReplace,
+                              ISession session,
+                              String sql,
+                              ISQLExecutionHandlerListener executionHandlerListener,
+                              ISQLExecutionListener[] executionListeners,
+                              String tableToBeEdited,
+                              boolean usePooledConnection)
    {
       _session = session;
       _executionHandlerListener = executionHandlerListener;
 
 
       _executer = new SQLExecuterTask(_session, sql, this, executionListeners, tableToBeEdited);
+      _executer.setUsePooledConnection(usePooledConnection);
       SquirrelPreferences prefs = _session.getApplication().getSquirrelPreferences();
 
       if (prefs.getLargeScriptStmtCount() > 0
@@ -93,8 +114,29 @@ class SQLExecutionHandler implements ISQLExecuterHandler
          setLargeScript(true);
       }
 
+      startExecution(resultTabToReplace);
+   }
+
+   /**
+    * Executes the statements of a script file without loading it into the SQL editor.
+    */
+   public SQLExecutionHandler(ISession session,
+                              File scriptFile,
+                              ISQLExecutionHandlerListener executionHandlerListener)
+   {
+      _session = session;
+      _executionHandlerListener = executionHandlerListener;
+
+      // Script files are treated like large scripts. Execution listeners are left out,
+      // e.g. the SQL history would keep all statements of the file otherwise.
+      _executer = new SQLExecuterTask(_session, scriptFile, this, new ISQLExecutionListener[0]);
+      setLargeScript(true);
 
+      startExecution(null);
+   }
 
+   private void startExecution(IResultTab resultTabToReplace)
+   {
       _resultTabToReplace = resultTabToReplace;
       CancelPanelListener listener = new CancelPanelListener()
       {
@@ -111,13 +153,13 @@ class SQLExecutionHandler implements ISQLExecuterHandler
          }
       };
 
-      _cancelPanelCtrl = new CancelPanelCtrl(listener, session);
+      _cancelPanelCtrl = new CancelPanelCtrl(listener, _session);
       _executionHandlerListener.setCancelPanel(_cancelPanelCtrl);
 
 
 
 
-      _session.getApplication().getThreadPool().addTask(_executer);
+      _session.getApplication().getThreadPool().addTask(_executer, null, TaskThreadPool.Priority.INTERACTIVE, _session);
    }
 
    private void onCancelRequested()
@@ -165,6 +207,11 @@ class SQLExecutionHandler implements ISQLExecuterHandler
       {
          return true;
       }
+      if (0 > total)
+      {
+         // The number of statements of a script file is not known
+         total = Integer.MAX_VALUE;
+      }
       boolean result = true;
       // Back-off a bit after a hundred updates to allow the UI to update
       if (total > 200 && current > 100 && current % 10 != 0)
@@ -417,11 +464,18 @@ class SQLExecutionHandler implements ISQLExecuterHandler
 		   }
 		   DialectType dialectType =
 				   DialectFactory.getDialectType(_session.getMetaData());
+		   rsds.setUseColumnarStorage(props.getSQLColumnarResultStorage());
+		   rsds.setSpillToDisk(props.getSQLSpillResultsToDisk());
 
          // rsds.setContentsTabResultSet() reads the result set. So results processing on the DB is over
          // and this time is measured. None is interested in the time that it takes us to render Swing tables ...
 		   info.resultsProcessingComplete(rsds.setSqlExecutionTabResultSet(rs, null, dialectType));
 
+		   if (null != info.getResultCacheKey() && rsds.isAllResultsRead() && false == props.getSQLSpillResultsToDisk())
+		   {
+			   _session.getQueryResultCache().put(info.getResultCacheKey(), info.getSQL(), rsds);
+		   }
+
 		   _executionHandlerListener.addResultsTab(info, rsds, rsmdds, model, _resultTabToReplace);
 
       }finally{
@@ -433,6 +487,13 @@ class SQLExecutionHandler implements ISQLExecuterHandler
    	}
    }
 
+   public void sqlCachedResultAvailable(ResultSetDataSet cachedRsds, SQLExecutionInfo info, IDataSetUpdateableTableModel model)
+         throws DataSetException
+   {
+      info.resultsProcessingComplete(cachedRsds.currentRowCount());
+      _executionHandlerListener.addResultsTab(info, cachedRsds, null, model, _resultTabToReplace);
+   }
+
    public void sqlExecutionWarning(SQLWarning warn)
    {
       _session.showMessage(warn);
@@ -443,6 +504,11 @@ class SQLExecutionHandler implements ISQLExecuterHandler
       _cancelPanelCtrl.setQueryCount(statementCount);
    }
 
+   public void sqlScriptFileProgress(long bytesRead, long fileLength)
+   {
+      _cancelPanelCtrl.setScriptFileProgress(0 == fileLength ? 100 : (int) (100 * bytesRead / fileLength));
+   }
+
    public void sqlCloseExecutionHandler(ArrayList<String> sqlExecErrorMsgs, String lastExecutedStatement)
    {
       _executionHandlerListener.removeCancelPanel(_cancelPanelCtrl, _resultTabToReplace);
@@ -19,16 +19,26 @@ package net.sourceforge.squirrel_sql.client.session.mainpanel;
  */
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 /**
  * This class represents SQL history.
  *
+ * To save the history without writing all of it the items added since the last
+ * save are kept, see <TT>takeUnsavedItems()</TT>.
+ *
  * @author <A HREF="mailto:colbell@users.sourceforge.net">Colin Bell</A>
  */
 public class SQLHistory
 {
 	private List<SQLHistoryItem> _history = new ArrayList<SQLHistoryItem>();
 
+	/** Items added since the last save, in the order they were added. */
+	private List<SQLHistoryItem> _unsavedItems = new ArrayList<SQLHistoryItem>();
+
+	/** True if the history was changed other than by adding items since the last save. */
+	private boolean _rewriteRequired;
+
 	public SQLHistory()
 	{
 		super();
@@ -44,6 +54,8 @@ public class SQLHistory
 	{
 		_history.clear();
 		_history.addAll(Arrays.asList(data));
+		_unsavedItems.clear();
+		_rewriteRequired = true;
 	}
 
 
@@ -55,11 +67,75 @@ public class SQLHistory
 		}
 
 		// Make sure no duplicates are kept in history.
-		while (_history.remove(obj))
+		// The executions of the removed duplicates are counted for the new item.
+		int executionCount = 1;
+		for (int ix = _history.indexOf(obj); ix != -1; ix = _history.indexOf(obj))
 		{
-			// Empty body.
+			executionCount += _history.remove(ix).getExecutionCount();
 		}
+		obj.setExecutionCount(executionCount);
 
 		_history.add(obj);
+		_unsavedItems.add(obj);
+	}
+
+	/**
+	 * Adds items that have been saved before. The result is the same as calling
+	 * <TT>add()</TT> for each item but doesn't scan the history for each of them.
+	 */
+	public synchronized void addSaved(List<SQLHistoryItem> items)
+	{
+		// Only the last occurrence of an item is kept.
+		HashSet<SQLHistoryItem> itemSet = new HashSet<SQLHistoryItem>();
+		List<SQLHistoryItem> lastOccurrences = new ArrayList<SQLHistoryItem>();
+		for (int i = items.size() - 1; i >= 0; --i)
+		{
+			if (itemSet.add(items.get(i)))
+			{
+				lastOccurrences.add(items.get(i));
+			}
+		}
+
+		List<SQLHistoryItem> history = new ArrayList<SQLHistoryItem>(_history.size() + lastOccurrences.size());
+		for (SQLHistoryItem item : _history)
+		{
+			if (!itemSet.contains(item))
+			{
+				history.add(item);
+			}
+		}
+		for (int i = lastOccurrences.size() - 1; i >= 0; --i)
+		{
+			history.add(lastOccurrences.get(i));
+		}
+		_history = history;
+	}
+
+	/**
+	 * @return The items added since the last save. They are no longer considered unsaved.
+	 */
+	public synchronized List<SQLHistoryItem> takeUnsavedItems()
+	{
+		List<SQLHistoryItem> ret = _unsavedItems;
+		_unsavedItems = new ArrayList<SQLHistoryItem>();
+		return ret;
+	}
+
+	/**
+	 * @return true if the history must be saved completely because it was changed other
+	 * than by adding items.
+	 */
+	public synchronized boolean requiresRewrite()
+	{
+		return _rewriteRequired;
+	}
+
+	/**
+	 * Called after the history was loaded or saved completely.
+	 */
+	public synchronized void markSaved()
+	{
+		_unsavedItems.clear();
+		_rewriteRequired = false;
 	}
 }
@@ -32,12 +32,16 @@ import net.sourceforge.squirrel_sql.fw.gui.MemoryComboBox;
  */
 public class SQLHistoryComboBox extends MemoryComboBox
 {
+	@SuppressWarnings("unchecked") // MemoryComboBox is a raw JComboBox.
 	public SQLHistoryComboBox(boolean useSharedModel)
 	{
 		super();
 		setModel(new SQLHistoryComboBoxModel(useSharedModel));
 		setRenderer(new Renderer());
 
+		// Without a prototype the combobox measures each history item to compute its size.
+		setPrototypeDisplayValue(new SQLHistoryItem("SELECT * FROM", null));
+
 		addActionListener(new ActionListener()
 		{
 			public void actionPerformed(ActionEvent e)
@@ -13,6 +13,7 @@ import javax.swing.event.ListSelectionListener;
 import javax.swing.event.ListSelectionEvent;
 import javax.swing.*;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.prefs.Preferences;
 import static java.lang.Math.*;
 import java.awt.event.*;
@@ -29,8 +30,14 @@ public class SQLHistoryController
 
 
    private SQLHistoryDlg _dlg;
+   private ArrayList<SQLHistoryItem> _items;
    private ArrayList<SQLHistoryItemWrapper> _sqlHistoryItemWrappers;
+   private String _aliasName;
+
+   /** Built when the first filter is applied. */
+   private SQLHistoryIndex _index;
    private boolean _dontReactToChkFiltered;
+   private boolean _resettingFilterControls;
    private ISQLPanelAPI _sqlPanelAPI;
 
    private JPopupMenu _popUp = new JPopupMenu();
@@ -40,7 +47,9 @@ public class SQLHistoryController
    public SQLHistoryController(ISession session, ISQLPanelAPI sqlPanelAPI, ArrayList<SQLHistoryItem> items)
    {
       _sqlPanelAPI = sqlPanelAPI;
+      _items = items;
       _sqlHistoryItemWrappers = SQLHistoryItemWrapper.wrap(items);
+      _aliasName = session.getAlias().getName();
       _dlg = new SQLHistoryDlg((JFrame) SessionUtils.getOwningFrame(session), session.getActiveSessionWindow().getTitle());
 
       GUIUtils.centerWithinParent(_dlg);
@@ -158,6 +167,22 @@ public class SQLHistoryController
          }
       });
 
+      _dlg.chkCurrentAliasOnly.addActionListener(new ActionListener()
+      {
+         public void actionPerformed(ActionEvent e)
+         {
+            onApplyFilter();
+         }
+      });
+
+      _dlg.cboPeriodItems.addActionListener(new ActionListener()
+      {
+         public void actionPerformed(ActionEvent e)
+         {
+            onApplyFilter();
+         }
+      });
+
       _dlg.btnClose.addActionListener(new ActionListener()
       {
          public void actionPerformed(ActionEvent e)
@@ -237,6 +262,18 @@ public class SQLHistoryController
       }
       else
       {
+         // All items are shown, so the controls must not restrict them either.
+         try
+         {
+            _resettingFilterControls = true;
+            _dlg.chkCurrentAliasOnly.setSelected(false);
+            _dlg.cboPeriodItems.setSelectedItem(SQLHistoryDlg.PeriodCboItems.ANY_TIME);
+         }
+         finally
+         {
+            _resettingFilterControls = false;
+         }
+
          SortableTableModel stm = (SortableTableModel) _dlg.tblHistoryItems.getModel();
          SqlHistoryTableModel tm = (SqlHistoryTableModel) stm.getActualModel();
          
@@ -249,42 +286,64 @@ public class SQLHistoryController
 
    private void onApplyFilter()
    {
+      if(_resettingFilterControls)
+      {
+         return;
+      }
+
       SortableTableModel stm = (SortableTableModel) _dlg.tblHistoryItems.getModel();
       SqlHistoryTableModel tm = (SqlHistoryTableModel) stm.getActualModel();
 
-      if(_dlg.chkFiltered.isSelected())
+      if(null == _index)
       {
-          ArrayList<SQLHistoryItemWrapper> clone = 
-              new ArrayList<SQLHistoryItemWrapper>(_sqlHistoryItemWrappers);
-         tm.setData(clone);
+         _index = new SQLHistoryIndex(_items);
       }
 
+      String aliasName = _dlg.chkCurrentAliasOnly.isSelected() ? _aliasName : null;
+      SQLHistoryDlg.PeriodCboItems period = (SQLHistoryDlg.PeriodCboItems) _dlg.cboPeriodItems.getSelectedItem();
+      BitSet candidates = _index.getPositions(aliasName, period.getUsedSince());
+
+      String filter = _dlg.txtFilter.getText();
+      SQLHistoryDlg.FilterCboItems sel = (SQLHistoryDlg.FilterCboItems) _dlg.cboFilterItems.getSelectedItem();
 
-      ArrayList<SQLHistoryItemWrapper> toRemove = new ArrayList<SQLHistoryItemWrapper>();
-      for (SQLHistoryItemWrapper itemWrapper : tm.getData())
+      ArrayList<SQLHistoryItemWrapper> matches;
+      boolean ranked = false;
+      if(null == filter || 0 == filter.length())
       {
-         if(false == matchesFilter(itemWrapper))
-         {
-            toRemove.add(itemWrapper);
-         }
+         matches = getWrappers(candidates);
       }
-
-
-      boolean filtered;
-      if(0 < toRemove.size())
+      else if(SQLHistoryDlg.FilterCboItems.WORDS == sel)
       {
-         tm.removeData(toRemove);
-         filtered = true;
+         matches = new ArrayList<SQLHistoryItemWrapper>();
+         for (int pos : _index.searchWords(filter, candidates))
+         {
+            matches.add(getWrapper(pos));
+         }
+         ranked = true;
       }
       else
       {
-         filtered = false;
+         if(SQLHistoryDlg.FilterCboItems.REG_EX != sel)
+         {
+            candidates = _index.getTrigramCandidates(filter.toUpperCase(), candidates);
+         }
+
+         for (int pos = candidates.nextSetBit(0); pos >= 0; pos = candidates.nextSetBit(pos + 1))
+         {
+            if(false == matchesFilter(filter, sel, _index.getUpperCaseSQL(pos)))
+            {
+               candidates.clear(pos);
+            }
+         }
+         matches = getWrappers(candidates);
       }
 
+      tm.setData(matches);
+
       try
       {
          _dontReactToChkFiltered = true;
-         _dlg.chkFiltered.setSelected(filtered);
+         _dlg.chkFiltered.setSelected(ranked || matches.size() < _sqlHistoryItemWrappers.size());
       }
       finally
       {
@@ -292,31 +351,42 @@ public class SQLHistoryController
       }
    }
 
-   private boolean matchesFilter(SQLHistoryItemWrapper itemWrapper)
+   /**
+    * @return The wrappers of the items at the positions in the order of _sqlHistoryItemWrappers.
+    */
+   private ArrayList<SQLHistoryItemWrapper> getWrappers(BitSet positions)
    {
-      String filter = _dlg.txtFilter.getText();
-
-      if(null == filter || 0 == filter.length())
+      ArrayList<SQLHistoryItemWrapper> ret = new ArrayList<SQLHistoryItemWrapper>(positions.cardinality());
+      for (int pos = positions.length() - 1; pos >= 0; pos = positions.previousSetBit(pos - 1))
       {
-         return true;
+         ret.add(getWrapper(pos));
       }
+      return ret;
+   }
+
+   private SQLHistoryItemWrapper getWrapper(int pos)
+   {
+      // _sqlHistoryItemWrappers is in reverse order of _items.
+      return _sqlHistoryItemWrappers.get(_sqlHistoryItemWrappers.size() - 1 - pos);
+   }
 
+   private boolean matchesFilter(String filter, SQLHistoryDlg.FilterCboItems sel, String upperCaseSQL)
+   {
       String ucfilter;
 
-      SQLHistoryDlg.FilterCboItems sel = (SQLHistoryDlg.FilterCboItems) _dlg.cboFilterItems.getSelectedItem();
       switch (sel)
       {
          case CONTAINS:
             ucfilter = filter.toUpperCase();
-            return -1 < itemWrapper.getUpperCaseSQL().indexOf(ucfilter);
+            return -1 < upperCaseSQL.indexOf(ucfilter);
          case STARTS_WITH:
             ucfilter = filter.toUpperCase();
-            return itemWrapper.getUpperCaseSQL().startsWith(ucfilter);
+            return upperCaseSQL.startsWith(ucfilter);
          case ENDS_WITH:
             ucfilter = filter.toUpperCase();
-            return itemWrapper.getUpperCaseSQL().endsWith(ucfilter);
+            return upperCaseSQL.endsWith(ucfilter);
          case REG_EX:
-            return itemWrapper.getUpperCaseSQL().matches(filter);
+            return upperCaseSQL.matches(filter);
       }
 
       throw new IllegalArgumentException("How can I ever get here?????");
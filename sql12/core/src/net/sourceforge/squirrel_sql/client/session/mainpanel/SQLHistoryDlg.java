@@ -8,6 +8,8 @@ import net.sourceforge.squirrel_sql.fw.gui.SortableTableModel;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.util.Calendar;
+import java.util.Date;
 import java.util.prefs.Preferences;
 
 public class SQLHistoryDlg extends JDialog
@@ -27,6 +29,8 @@ public class SQLHistoryDlg extends JDialog
    JButton btnApplyFilter;
    JComboBox cboFilterItems;
    JCheckBox chkFiltered;
+   JCheckBox chkCurrentAliasOnly;
+   JComboBox<PeriodCboItems> cboPeriodItems;
    JSplitPane splSpilt;
    JTextArea txtSQL;
 
@@ -143,6 +147,24 @@ public class SQLHistoryDlg extends JDialog
       ret.add(btnClose, gbc);
 
 
+      gbc = new GridBagConstraints(0,1,1,1,0,0,GridBagConstraints.WEST, GridBagConstraints.NONE, new Insets(5,5,0,5),0,0);
+      // i18n[SQLHistoryDlg.lastUsed=Last used]
+      ret.add(new JLabel(s_stringMgr.getString("SQLHistoryDlg.lastUsed")), gbc);
+
+      gbc = new GridBagConstraints(1,1,1,1,0,0,GridBagConstraints.WEST, GridBagConstraints.HORIZONTAL, new Insets(5,5,0,5),0,0);
+      cboPeriodItems = new JComboBox<PeriodCboItems>();
+      ret.add(cboPeriodItems, gbc);
+      for (PeriodCboItems periodCboItem : PeriodCboItems.values())
+      {
+         cboPeriodItems.addItem(periodCboItem);
+      }
+
+      gbc = new GridBagConstraints(2,1,1,1,0,0,GridBagConstraints.WEST, GridBagConstraints.NONE, new Insets(5,5,0,5),0,0);
+      // i18n[SQLHistoryDlg.currentAliasOnly=Current alias only]
+      chkCurrentAliasOnly = new JCheckBox(s_stringMgr.getString("SQLHistoryDlg.currentAliasOnly"));
+      ret.add(chkCurrentAliasOnly, gbc);
+
+
       return ret;
    }
 
@@ -177,7 +199,10 @@ public class SQLHistoryDlg extends JDialog
       ENDS_WITH (s_stringMgr.getString("SQLHistoryDlg.filterCboEndsWith")),
 
       // i18n[SQLHistoryDlg.filterCboRegEx=regular exp]
-      REG_EX (s_stringMgr.getString("SQLHistoryDlg.filterCboRegEx"));
+      REG_EX (s_stringMgr.getString("SQLHistoryDlg.filterCboRegEx")),
+
+      // i18n[SQLHistoryDlg.filterCboWords=has words starting with]
+      WORDS (s_stringMgr.getString("SQLHistoryDlg.filterCboWords"));
       private String _name;
 
 
@@ -194,4 +219,49 @@ public class SQLHistoryDlg extends JDialog
    }
 
 
+   static enum PeriodCboItems
+   {
+      // i18n[SQLHistoryDlg.periodCboAnyTime=any time]
+      ANY_TIME (s_stringMgr.getString("SQLHistoryDlg.periodCboAnyTime"), -1),
+
+      // i18n[SQLHistoryDlg.periodCboToday=today]
+      TODAY (s_stringMgr.getString("SQLHistoryDlg.periodCboToday"), 0),
+
+      // i18n[SQLHistoryDlg.periodCboLastWeek=within the last 7 days]
+      LAST_WEEK (s_stringMgr.getString("SQLHistoryDlg.periodCboLastWeek"), 6),
+
+      // i18n[SQLHistoryDlg.periodCboLastMonth=within the last 30 days]
+      LAST_MONTH (s_stringMgr.getString("SQLHistoryDlg.periodCboLastMonth"), 29),
+
+      // i18n[SQLHistoryDlg.periodCboLastYear=within the last 365 days]
+      LAST_YEAR (s_stringMgr.getString("SQLHistoryDlg.periodCboLastYear"), 364);
+
+      private String _name;
+      private int _daysBeforeToday;
+
+      PeriodCboItems(String name, int daysBeforeToday)
+      {
+         _name = name;
+         _daysBeforeToday = daysBeforeToday;
+      }
+
+      /**
+       * @return A date on the first day of the period or null for any time.
+       */
+      Date getUsedSince()
+      {
+         if (_daysBeforeToday < 0)
+         {
+            return null;
+         }
+         Calendar cal = Calendar.getInstance();
+         cal.add(Calendar.DAY_OF_MONTH, -_daysBeforeToday);
+         return cal.getTime();
+      }
+
+      public String toString()
+      {
+         return _name;
+      }
+   }
 }
@@ -0,0 +1,344 @@
+package net.sourceforge.squirrel_sql.client.session.mainpanel;
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Full text index of the SQL history items shown in the SQL history dialog.
+ *
+ * Items are identified by their position in the list the index was built from.
+ * The index maps
+ * <UL>
+ * <LI>each trigram of the upper case SQL to the items containing it. Only items that contain
+ * all trigrams of a search string need to be compared to it.</LI>
+ * <LI>each word of the upper case SQL to the items containing it. The words are sorted
+ * so that the words starting with a search word are found by a range lookup.</LI>
+ * <LI>each alias name and each day of last usage to its items.</LI>
+ * </UL>
+ *
+ * The position lists are ascending because items are added in the order of the list.
+ */
+class SQLHistoryIndex
+{
+   private static final int[] NO_POSITIONS = new int[0];
+
+   private final List<SQLHistoryItem> _items;
+   private final String[] _upperCaseSQLs;
+
+   private final HashMap<Long, Positions> _positionsByTrigram = new HashMap<Long, Positions>();
+   private final TreeMap<String, Positions> _positionsByWord = new TreeMap<String, Positions>();
+   private final HashMap<String, Positions> _positionsByAlias = new HashMap<String, Positions>();
+   private final TreeMap<Long, Positions> _positionsByDay = new TreeMap<Long, Positions>();
+
+   SQLHistoryIndex(List<SQLHistoryItem> items)
+   {
+      _items = items;
+      _upperCaseSQLs = new String[items.size()];
+
+      Calendar cal = Calendar.getInstance();
+      for (int pos = 0; pos < items.size(); pos++)
+      {
+         SQLHistoryItem item = items.get(pos);
+         _upperCaseSQLs[pos] = item.getSQL().toUpperCase();
+
+         indexTrigrams(pos, _upperCaseSQLs[pos]);
+         indexWords(pos, _upperCaseSQLs[pos]);
+         getPositions(_positionsByAlias, item.getAliasName()).add(pos);
+
+         if (null != item.getLastUsageTime())
+         {
+            getPositions(_positionsByDay, getDayStart(cal, item.getLastUsageTime())).add(pos);
+         }
+      }
+   }
+
+   /**
+    * @return The upper case SQL of the item at pos, the same string the item is searched in.
+    */
+   String getUpperCaseSQL(int pos)
+   {
+      return _upperCaseSQLs[pos];
+   }
+
+   /**
+    * @param aliasName Only items of this alias are returned. null means all aliases.
+    * @param usedSince Only items last used on the day of this date or later are returned. null means any time.
+    * @return The positions of the items that match both restrictions.
+    */
+   BitSet getPositions(String aliasName, Date usedSince)
+   {
+      BitSet ret = new BitSet(_items.size());
+      if (null == aliasName)
+      {
+         ret.set(0, _items.size());
+      }
+      else
+      {
+         Positions aliasPositions = _positionsByAlias.get(aliasName);
+         if (null == aliasPositions)
+         {
+            return ret;
+         }
+         aliasPositions.addTo(ret);
+      }
+
+      if (null != usedSince)
+      {
+         BitSet usedPositions = new BitSet(_items.size());
+         Long firstDay = getDayStart(Calendar.getInstance(), usedSince);
+         for (Positions dayPositions : _positionsByDay.tailMap(firstDay).values())
+         {
+            dayPositions.addTo(usedPositions);
+         }
+         ret.and(usedPositions);
+      }
+      return ret;
+   }
+
+   /**
+    * @param ucText Upper case text.
+    * @param candidates Positions of the items to search.
+    * @return Positions of the items among the candidates whose upper case SQL contains
+    * all trigrams of ucText. The caller must check the item text for a match.
+    * If ucText is shorter than a trigram all candidates are returned.
+    */
+   BitSet getTrigramCandidates(String ucText, BitSet candidates)
+   {
+      BitSet ret = (BitSet) candidates.clone();
+      if (ucText.length() < 3)
+      {
+         return ret;
+      }
+
+      ArrayList<Positions> trigramPositions = new ArrayList<Positions>();
+      for (int i = 0; i + 3 <= ucText.length(); i++)
+      {
+         Positions positions = _positionsByTrigram.get(getTrigram(ucText, i));
+         if (null == positions)
+         {
+            ret.clear();
+            return ret;
+         }
+         trigramPositions.add(positions);
+      }
+
+      // Start with the rarest trigram to keep the candidates few.
+      Collections.sort(trigramPositions, new Comparator<Positions>()
+      {
+         public int compare(Positions p1, Positions p2)
+         {
+            return p1.size() - p2.size();
+         }
+      });
+
+      for (Positions positions : trigramPositions)
+      {
+         BitSet trigramBits = new BitSet(_items.size());
+         positions.addTo(trigramBits);
+         ret.and(trigramBits);
+         if (ret.isEmpty())
+         {
+            break;
+         }
+      }
+      return ret;
+   }
+
+   /**
+    * Searches items containing words that start with the words of text.
+    * An item matches if each of the words of text starts a word of its SQL.
+    *
+    * @param candidates Positions of the items to search.
+    * @return Positions of the matching items, best matches first. Items are ranked by the
+    * number of search words that match a word completely, then by the number of executions
+    * and then by recency.
+    */
+   int[] searchWords(String text, BitSet candidates)
+   {
+      List<String> searchWords = getWords(text.toUpperCase());
+      if (searchWords.isEmpty())
+      {
+         return NO_POSITIONS;
+      }
+
+      BitSet matches = (BitSet) candidates.clone();
+      final int[] exactMatchCounts = new int[_items.size()];
+      for (String searchWord : searchWords)
+      {
+         BitSet wordMatches = new BitSet(_items.size());
+         for (Map.Entry<String, Positions> entry : _positionsByWord.subMap(searchWord, searchWord + Character.MAX_VALUE).entrySet())
+         {
+            entry.getValue().addTo(wordMatches);
+            if (entry.getKey().length() == searchWord.length())
+            {
+               entry.getValue().increment(exactMatchCounts);
+            }
+         }
+         matches.and(wordMatches);
+      }
+
+      Integer[] ranked = new Integer[matches.cardinality()];
+      for (int pos = matches.nextSetBit(0), i = 0; pos >= 0; pos = matches.nextSetBit(pos + 1))
+      {
+         ranked[i++] = pos;
+      }
+
+      Arrays.sort(ranked, new Comparator<Integer>()
+      {
+         public int compare(Integer pos1, Integer pos2)
+         {
+            if (exactMatchCounts[pos1] != exactMatchCounts[pos2])
+            {
+               return exactMatchCounts[pos2] - exactMatchCounts[pos1];
+            }
+
+            int execCount1 = _items.get(pos1).getExecutionCount();
+            int execCount2 = _items.get(pos2).getExecutionCount();
+            if (execCount1 != execCount2)
+            {
+               return execCount2 - execCount1;
+            }
+            return pos2 - pos1;
+         }
+      });
+
+      int[] ret = new int[ranked.length];
+      for (int i = 0; i < ranked.length; i++)
+      {
+         ret[i] = ranked[i];
+      }
+      return ret;
+   }
+
+   private void indexTrigrams(int pos, String ucSQL)
+   {
+      for (int i = 0; i + 3 <= ucSQL.length(); i++)
+      {
+         getPositions(_positionsByTrigram, getTrigram(ucSQL, i)).add(pos);
+      }
+   }
+
+   private void indexWords(int pos, String ucSQL)
+   {
+      for (String word : getWords(ucSQL))
+      {
+         getPositions(_positionsByWord, word).add(pos);
+      }
+   }
+
+   /**
+    * @return The maximal sequences of letters, digits and underscores in ucText.
+    */
+   private static List<String> getWords(String ucText)
+   {
+      ArrayList<String> ret = new ArrayList<String>();
+      int begin = -1;
+      for (int i = 0; i <= ucText.length(); i++)
+      {
+         boolean wordChar = i < ucText.length() && (Character.isLetterOrDigit(ucText.charAt(i)) || '_' == ucText.charAt(i));
+         if (wordChar && -1 == begin)
+         {
+            begin = i;
+         }
+         else if (false == wordChar && -1 != begin)
+         {
+            ret.add(ucText.substring(begin, i));
+            begin = -1;
+         }
+      }
+      return ret;
+   }
+
+   private static Long getTrigram(String str, int begin)
+   {
+      return ((long) str.charAt(begin) << 32) | ((long) str.charAt(begin + 1) << 16) | str.charAt(begin + 2);
+   }
+
+   private static Long getDayStart(Calendar cal, Date date)
+   {
+      cal.setTime(date);
+      cal.set(Calendar.HOUR_OF_DAY, 0);
+      cal.set(Calendar.MINUTE, 0);
+      cal.set(Calendar.SECOND, 0);
+      cal.set(Calendar.MILLISECOND, 0);
+      return cal.getTimeInMillis();
+   }
+
+   private static <K> Positions getPositions(Map<K, Positions> positionsByKey, K key)
+   {
+      Positions ret = positionsByKey.get(key);
+      if (null == ret)
+      {
+         ret = new Positions();
+         positionsByKey.put(key, ret);
+      }
+      return ret;
+   }
+
+   /**
+    * Ascending list of item positions without duplicates.
+    */
+   private static class Positions
+   {
+      private int[] _positions = new int[2];
+      private int _size;
+
+      void add(int pos)
+      {
+         if (0 < _size && _positions[_size - 1] == pos)
+         {
+            return;
+         }
+
+         if (_size == _positions.length)
+         {
+            _positions = Arrays.copyOf(_positions, 2 * _size);
+         }
+         _positions[_size++] = pos;
+      }
+
+      int size()
+      {
+         return _size;
+      }
+
+      void addTo(BitSet bits)
+      {
+         for (int i = 0; i < _size; i++)
+         {
+            bits.set(_positions[i]);
+         }
+      }
+
+      void increment(int[] countsByPosition)
+      {
+         for (int i = 0; i < _size; i++)
+         {
+            ++countsByPosition[_positions[i]];
+         }
+      }
+   }
+}
@@ -43,11 +43,15 @@ public class SQLHistoryItem implements Serializable, Cloneable
 
    /**
 	 * Cleaned up vesion of the SQL. Appropriate for displaying in
-	 * a combobox.
+	 * a combobox. Created when first needed because most items of a
+	 * long history are never displayed.
 	 */
 	private String _shortSql;
    private String _aliasName;
 
+   /** Number of times the SQL was executed. */
+   private int _executionCount = 1;
+
    /**
 	 * Default ctor.
 	 */
@@ -135,6 +139,10 @@ public class SQLHistoryItem implements Serializable, Cloneable
     @Override
 	public String toString()
 	{
+		if (_shortSql == null)
+		{
+			_shortSql = StringUtilities.cleanString(_sql);
+		}
 		return _shortSql;
 	}
 
@@ -164,7 +172,7 @@ public class SQLHistoryItem implements Serializable, Cloneable
 		}
 
 		_sql = sql.trim();
-		_shortSql = StringUtilities.cleanString(sql);
+		_shortSql = null;
 	}
 
    public Date getLastUsageTime()
@@ -187,4 +195,14 @@ public class SQLHistoryItem implements Serializable, Cloneable
    {
       this._aliasName = _aliasName;
    }
+
+   public int getExecutionCount()
+   {
+      return _executionCount;
+   }
+
+   public void setExecutionCount(int executionCount)
+   {
+      _executionCount = executionCount;
+   }
 }
@@ -25,6 +25,9 @@ public class SQLHistoryItemWrapper
          // i18n[SQLHistoryItemWrapper.lastUsed=Last used]
          s_stringMgr.getString("SQLHistoryItemWrapper.aliasName"),
 
+         // i18n[SQLHistoryItemWrapper.executionCount=Executions]
+         s_stringMgr.getString("SQLHistoryItemWrapper.executionCount"),
+
          // i18n[SQLHistoryItemWrapper.sql=SQL]
          s_stringMgr.getString("SQLHistoryItemWrapper.sql"),
       };
@@ -55,13 +58,12 @@ public class SQLHistoryItemWrapper
 
    public static int getSQLColIx()
    {
-      return 3;
+      return 4;
    }
 
 
    private SQLHistoryItem _item;
    private int _index;
-   private String _upperCaseSQL;
    private String _lastUsageTimeString;
    
 
@@ -69,12 +71,6 @@ public class SQLHistoryItemWrapper
    {
       _item = item;
       _index = index;
-      _upperCaseSQL = item.getSQL().toUpperCase();
-
-      if(null != _item.getLastUsageTime())
-      {
-         _lastUsageTimeString = LAST_USAGE_DATE_FORMAT.format(_item.getLastUsageTime());
-      }
    }
 
    public Object getColum(int column)
@@ -83,17 +79,23 @@ public class SQLHistoryItemWrapper
       switch(column)
       {
          case 0: return _index;
-         case 1: return _lastUsageTimeString;
+         case 1: return getLastUsageTimeString();
          case 2: return _item.getAliasName();
-         case 3: return _item.getSQL();
+         case 3: return _item.getExecutionCount();
+         case 4: return _item.getSQL();
          default: throw new IllegalArgumentException("Unknown colum index " + column);
 
       }
    }
 
 
-   public String getUpperCaseSQL()
+   private String getLastUsageTimeString()
    {
-      return _upperCaseSQL;
+      // Formatted when first displayed because most rows of a long history are never displayed.
+      if(null == _lastUsageTimeString && null != _item.getLastUsageTime())
+      {
+         _lastUsageTimeString = LAST_USAGE_DATE_FORMAT.format(_item.getLastUsageTime());
+      }
+      return _lastUsageTimeString;
    }
 }
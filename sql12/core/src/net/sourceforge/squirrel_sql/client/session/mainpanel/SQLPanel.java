@@ -191,6 +191,8 @@ public class SQLPanel extends JPanel
 		createGUI();
 		propertiesHaveChanged(null);
 		_sqlExecPanel = new SQLResultExecuterPanel(session, true);
+		// Worksheets other than the one of the session window may run on additional connections.
+		_sqlExecPanel.setUsePooledConnection(false == isInMainSessionWindow);
 		_sqlExecPanel.addSQLExecutionListener(_sqlExecutorHistoryListener);
 		addExecutor(_sqlExecPanel);
 		_panelAPI = new SQLPanelAPI(this);
@@ -46,6 +46,7 @@ import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.io.File;
 import java.sql.SQLException;
 import java.util.ArrayList;
 /**
@@ -63,6 +64,7 @@ public class SQLResultExecuterPanel extends JPanel
    private static final StringManager s_stringMgr =
         StringManagerFactory.getStringManager(SQLResultExecuterPanel.class);
    private boolean _showRerun;
+   private boolean _usePooledConnection;
 
    static interface i18n {
         // i18n[SQLResultExecuterPanel.exec=Executing SQL]
@@ -113,6 +115,14 @@ public class SQLResultExecuterPanel extends JPanel
 		propertiesHaveChanged(null);
 	}
 
+   /**
+    * @param usePooledConnection See <TT>SQLExecuterTask.setUsePooledConnection()</TT>
+    */
+   public void setUsePooledConnection(boolean usePooledConnection)
+   {
+      _usePooledConnection = usePooledConnection;
+   }
+
    private SQLResultExecuterPanelFacade createSQLResultExecuterPanelFacade()
    {
       return new SQLResultExecuterPanelFacade()
@@ -299,10 +309,19 @@ public class SQLResultExecuterPanel extends JPanel
 
          ISQLExecutionHandlerListener executionHandlerListener = createSQLExecutionHandlerListener();
 
-         new SQLExecutionHandler((IResultTab)null, _session, sql, executionHandlerListener, executionListeners, tableToBeEdited);
+         new SQLExecutionHandler((IResultTab)null, _session, sql, executionHandlerListener, executionListeners, tableToBeEdited, _usePooledConnection);
       }
    }
 
+   /**
+    * Executes the statements of a script file without loading it into the SQL editor.
+    */
+   public void executeSQLFile(File scriptFile)
+   {
+      removeErrorPanels();
+      new SQLExecutionHandler(_session, scriptFile, createSQLExecutionHandlerListener());
+   }
+
    private ISQLExecutionHandlerListener createSQLExecutionHandlerListener()
    {
       return
@@ -362,7 +381,7 @@ public class SQLResultExecuterPanel extends JPanel
 
    private void rerunSQL(String sql, IResultTab resultTab)
    {
-      new SQLExecutionHandler(resultTab, _session, sql, createSQLExecutionHandlerListener(), new ISQLExecutionListener[0]);
+      new SQLExecutionHandler(resultTab, _session, sql, createSQLExecutionHandlerListener(), new ISQLExecutionListener[0], null, _usePooledConnection);
    }
 
 
@@ -50,6 +50,7 @@ import net.sourceforge.squirrel_sql.client.gui.db.SQLAliasColorProperties;
 import net.sourceforge.squirrel_sql.client.gui.session.SessionColoringUtil;
 import net.sourceforge.squirrel_sql.client.session.ISession;
 import net.sourceforge.squirrel_sql.client.session.action.*;
+import net.sourceforge.squirrel_sql.client.session.mainpanel.objecttree.expanders.TableRowCountLoader;
 import net.sourceforge.squirrel_sql.fw.gui.CursorChanger;
 import net.sourceforge.squirrel_sql.fw.gui.GUIUtils;
 import net.sourceforge.squirrel_sql.fw.id.IIdentifier;
@@ -312,7 +313,14 @@ class ObjectTree extends JTree
          {
             if (reloadSchemaInfo)
             {
-               _session.getSchemaInfo().reloadAll();
+               if (_session.getProperties().getIncrementalSchemaRefresh())
+               {
+                  _session.getSchemaInfo().reloadChangedSchemas();
+               }
+               else
+               {
+                  _session.getSchemaInfo().reloadAll();
+               }
             }
 
 
@@ -350,6 +358,7 @@ class ObjectTree extends JTree
          }
       }
       ObjectTreeNode root = _model.getRootObjectTreeNode();
+      TableRowCountLoader.invalidateRowCounts(_session);
       root.removeAllChildren();
       fireObjectTreeCleared();
       startExpandingTree(root, false, selectedPathNames, false);
@@ -380,11 +389,13 @@ class ObjectTree extends JTree
 
       if (parent != null)
       {
+         TableRowCountLoader.invalidateRowCounts(_session, (ObjectTreeNode) parent);
          parent.removeAllChildren();
          startExpandingTree((ObjectTreeNode) parent, false, selectedPathNames, true);
       }
       else
       {
+         TableRowCountLoader.invalidateRowCounts(_session, nodes[0]);
          nodes[0].removeAllChildren();
          startExpandingTree(nodes[0], false, selectedPathNames, true);
       }
@@ -89,6 +89,7 @@ public class ObjectTreeModel extends DefaultTreeModel
 		{
 			throw new IllegalArgumentException("ISession == null");
 		}
+		((RootNode) getRoot())._model = this;
 
 		// Standard expanders.
         session.getApplication().getThreadPool().addTask(new Runnable() {
@@ -232,6 +233,23 @@ public class ObjectTreeModel extends DefaultTreeModel
 		return (ObjectTreeNode)getRoot();
 	}
 
+	/**
+	 * Let the model of the tree that node belongs to know that node has changed.
+	 * Nothing happens if node has been removed from its tree or not been added yet.
+	 * Must be called on the event dispatch thread.
+	 */
+	static void fireNodeChanged(ObjectTreeNode node)
+	{
+		if (node.getRoot() instanceof RootNode)
+		{
+			ObjectTreeModel model = ((RootNode) node.getRoot())._model;
+			if (null != model)
+			{
+				model.nodeChanged(node);
+			}
+		}
+	}
+
 	/**
 	 * Get the collection of expanders for the passed node type. If one
 	 * doesn't exist then create an empty one.
@@ -371,6 +389,8 @@ public class ObjectTreeModel extends DefaultTreeModel
    {
       private static final long serialVersionUID = 1L;
 
+      private ObjectTreeModel _model;
+
       RootNode(ISession session)
       {
          super(session, createDbo(session));
@@ -24,6 +24,7 @@ import javax.swing.*;
 import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.MutableTreeNode;
 
+import net.sourceforge.squirrel_sql.fw.gui.GUIUtils;
 import net.sourceforge.squirrel_sql.fw.id.IIdentifier;
 import net.sourceforge.squirrel_sql.fw.sql.DatabaseObjectType;
 import net.sourceforge.squirrel_sql.fw.sql.IDatabaseObjectInfo;
@@ -192,6 +193,22 @@ public class ObjectTreeNode extends DefaultMutableTreeNode
       return _dboInfo.getDatabaseObjectType().getIcon();
    }
 
+   /**
+    * Changes the text displayed for this node, e.g. when information that is
+    * loaded in the background arrives. May be called from any thread.
+    */
+   public void setDisplayText(final String text)
+   {
+      GUIUtils.processOnSwingEventThread(new Runnable()
+      {
+         public void run()
+         {
+            setUserObject(text);
+            ObjectTreeModel.fireNodeChanged(ObjectTreeNode.this);
+         }
+      });
+   }
+
 /**
  * @return the noChildrenFoundWithExpander
  */
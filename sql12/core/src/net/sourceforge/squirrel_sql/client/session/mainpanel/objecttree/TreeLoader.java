@@ -62,7 +62,21 @@ public class TreeLoader
 		_selectParentNode= selectParentNode;
 	}
 
+	/**
+	 * Loads the children on a pooled connection of the session if there is one.
+	 */
 	void execute()
+	{
+		this.session.runWithPooledConnection(new Runnable()
+		{
+			public void run()
+			{
+				load();
+			}
+		});
+	}
+
+	private void load()
 	{
 		try
 		{
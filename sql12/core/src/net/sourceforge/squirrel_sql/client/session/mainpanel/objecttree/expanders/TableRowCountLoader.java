@@ -0,0 +1,351 @@
+package net.sourceforge.squirrel_sql.client.session.mainpanel.objecttree.expanders;
+
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.sourceforge.squirrel_sql.client.session.ISession;
+import net.sourceforge.squirrel_sql.client.session.mainpanel.objecttree.ObjectTreeNode;
+import net.sourceforge.squirrel_sql.fw.dialects.DialectFactory;
+import net.sourceforge.squirrel_sql.fw.id.IIdentifier;
+import net.sourceforge.squirrel_sql.fw.sql.IDatabaseObjectInfo;
+import net.sourceforge.squirrel_sql.fw.sql.ISQLConnection;
+import net.sourceforge.squirrel_sql.fw.sql.SQLUtilities;
+import net.sourceforge.squirrel_sql.fw.util.log.ILogger;
+import net.sourceforge.squirrel_sql.fw.util.log.LoggerController;
+
+/**
+ * Loads the row counts displayed for the tables in the object tree in the background,
+ * so that the tree shows the tables right away.
+ *
+ * Estimates from the database's statistics, see <TT>HibernateDialect.getRowCountEstimateSQL()</TT>,
+ * are displayed first. If <TT>SessionProperties.getExactRowCount()</TT> is switched on the rows are
+ * counted afterwards. Counts are cached per alias for some minutes. Refreshing the object
+ * tree drops the cached counts of the refreshed nodes, see <TT>invalidateRowCounts()</TT>.
+ *
+ * The tables of an expanded node are loaded one after the other by one task on a pooled
+ * connection of the session if there is one, see <TT>ISession.runWithPooledConnection()</TT>.
+ * Tasks run on a pool of at most <TT>MAX_LOADER_THREADS</TT> threads.
+ */
+public class TableRowCountLoader
+{
+	/** Logger for this class. */
+	private static final ILogger s_log = LoggerController.createLogger(TableRowCountLoader.class);
+
+	private static final long ROW_COUNT_TIME_TO_LIVE_MILLIS = 5 * 60 * 1000;
+
+	private static final int MAX_LOADER_THREADS = 2;
+
+	/** Row counts by qualified table name by alias. */
+	private static final ConcurrentHashMap<IIdentifier, ConcurrentHashMap<String, RowCount>> s_rowCountsByAlias =
+		new ConcurrentHashMap<IIdentifier, ConcurrentHashMap<String, RowCount>>();
+
+	private static final ThreadPoolExecutor s_executor;
+
+	static
+	{
+		s_executor = new ThreadPoolExecutor(MAX_LOADER_THREADS, MAX_LOADER_THREADS, 60, TimeUnit.SECONDS,
+			new LinkedBlockingQueue<Runnable>(), new ThreadFactory()
+			{
+				private final AtomicInteger _count = new AtomicInteger();
+
+				public Thread newThread(Runnable r)
+				{
+					Thread t = new Thread(r, "Row count loader " + _count.incrementAndGet());
+					t.setDaemon(true);
+					return t;
+				}
+			});
+		s_executor.allowCoreThreadTimeOut(true);
+	}
+
+	private TableRowCountLoader()
+	{
+	}
+
+	/**
+	 * @return The text to display for the table before its row count is loaded. It contains
+	 * the cached row count if there is one.
+	 */
+	static String getDisplayText(ISession session, IDatabaseObjectInfo dbinfo)
+	{
+		RowCount rowCount = getCachedRowCount(session, dbinfo);
+		if (null == rowCount)
+		{
+			return dbinfo.getSimpleName();
+		}
+		return rowCount.getDisplayText(dbinfo);
+	}
+
+	/**
+	 * Loads the row counts of the tables represented by nodes in the background
+	 * and displays them in the nodes.
+	 */
+	static void loadRowCounts(final ISession session, final List<ObjectTreeNode> nodes)
+	{
+		s_executor.execute(new Runnable()
+		{
+			public void run()
+			{
+				session.runWithPooledConnection(new Runnable()
+				{
+					public void run()
+					{
+						try
+						{
+							List<ObjectTreeNode> toCount = loadEstimates(session, nodes);
+							countRows(session, toCount);
+						}
+						catch (Throwable t)
+						{
+							s_log.error("Error loading row counts", t);
+						}
+					}
+				});
+			}
+		});
+	}
+
+	/**
+	 * Drops the cached row counts of the tables in the subtree of node,
+	 * so that they are loaded again when the node is expanded.
+	 */
+	public static void invalidateRowCounts(ISession session, ObjectTreeNode node)
+	{
+		ConcurrentHashMap<String, RowCount> rowCounts = s_rowCountsByAlias.get(session.getAlias().getIdentifier());
+		if (null == rowCounts)
+		{
+			return;
+		}
+
+		for (Enumeration<?> e = node.breadthFirstEnumeration(); e.hasMoreElements();)
+		{
+			IDatabaseObjectInfo dbinfo = ((ObjectTreeNode) e.nextElement()).getDatabaseObjectInfo();
+			if (null != dbinfo && null != dbinfo.getQualifiedName())
+			{
+				rowCounts.remove(dbinfo.getQualifiedName());
+			}
+		}
+	}
+
+	/**
+	 * Drops all cached row counts of the session's alias.
+	 */
+	public static void invalidateRowCounts(ISession session)
+	{
+		s_rowCountsByAlias.remove(session.getAlias().getIdentifier());
+	}
+
+	/**
+	 * @return The nodes whose rows need to be counted.
+	 */
+	private static List<ObjectTreeNode> loadEstimates(ISession session, List<ObjectTreeNode> nodes)
+	{
+		final boolean exact = session.getProperties().getExactRowCount();
+		final List<ObjectTreeNode> toCount = new ArrayList<ObjectTreeNode>();
+		String estimateSQL = DialectFactory.getDialect(session.getMetaData()).getRowCountEstimateSQL();
+
+		PreparedStatement estimateStmt = null;
+		try
+		{
+			for (ObjectTreeNode node : nodes)
+			{
+				if (session.isClosed())
+				{
+					break;
+				}
+
+				IDatabaseObjectInfo dbinfo = node.getDatabaseObjectInfo();
+				RowCount cached = getCachedRowCount(session, dbinfo);
+				if (null != cached && (cached._exact || false == exact))
+				{
+					continue;
+				}
+
+				if (null == cached && null != estimateSQL)
+				{
+					try
+					{
+						if (null == estimateStmt)
+						{
+							estimateStmt = session.getSQLConnection().prepareStatement(estimateSQL);
+						}
+						RowCount estimate = readEstimate(estimateStmt, dbinfo);
+						if (null != estimate)
+						{
+							putRowCount(session, dbinfo, estimate);
+							node.setDisplayText(estimate.getDisplayText(dbinfo));
+						}
+					}
+					catch (SQLException ex)
+					{
+						s_log.info("Row count estimate query failed. No more estimates will be read for this node.", ex);
+						estimateSQL = null;
+					}
+				}
+
+				if (exact)
+				{
+					toCount.add(node);
+				}
+			}
+		}
+		finally
+		{
+			SQLUtilities.closeStatement(estimateStmt);
+		}
+		return toCount;
+	}
+
+	private static RowCount readEstimate(PreparedStatement estimateStmt, IDatabaseObjectInfo dbinfo) throws SQLException
+	{
+		String schemaName = null != dbinfo.getSchemaName() ? dbinfo.getSchemaName() : dbinfo.getCatalogName();
+		estimateStmt.setString(1, schemaName);
+		estimateStmt.setString(2, dbinfo.getSimpleName());
+		ResultSet rs = estimateStmt.executeQuery();
+		try
+		{
+			if (rs.next())
+			{
+				long nbrRows = rs.getLong(1);
+				if (false == rs.wasNull() && 0 <= nbrRows)
+				{
+					return new RowCount(nbrRows, false);
+				}
+			}
+			return null;
+		}
+		finally
+		{
+			SQLUtilities.closeResultSet(rs);
+		}
+	}
+
+	private static void countRows(ISession session, List<ObjectTreeNode> nodes) throws SQLException
+	{
+		if (nodes.isEmpty())
+		{
+			return;
+		}
+
+		final ISQLConnection conn = session.getSQLConnection();
+		Statement stmt = null;
+		try
+		{
+			stmt = conn.createStatement();
+			for (ObjectTreeNode node : nodes)
+			{
+				if (session.isClosed())
+				{
+					break;
+				}
+
+				IDatabaseObjectInfo dbinfo = node.getDatabaseObjectInfo();
+				try
+				{
+					ResultSet rs = stmt.executeQuery("select count(*) from " + dbinfo.getQualifiedName());
+					try
+					{
+						long nbrRows = 0;
+						if (rs.next())
+						{
+							nbrRows = rs.getLong(1);
+						}
+						RowCount rowCount = new RowCount(nbrRows, true);
+						putRowCount(session, dbinfo, rowCount);
+						node.setDisplayText(rowCount.getDisplayText(dbinfo));
+					}
+					finally
+					{
+						SQLUtilities.closeResultSet(rs);
+					}
+				}
+				catch (SQLException ex)
+				{
+					s_log.error("Error retrieving row count for: " + dbinfo.getQualifiedName(), ex);
+				}
+			}
+		}
+		finally
+		{
+			SQLUtilities.closeStatement(stmt);
+		}
+	}
+
+	private static RowCount getCachedRowCount(ISession session, IDatabaseObjectInfo dbinfo)
+	{
+		ConcurrentHashMap<String, RowCount> rowCounts = s_rowCountsByAlias.get(session.getAlias().getIdentifier());
+		if (null == rowCounts)
+		{
+			return null;
+		}
+
+		RowCount ret = rowCounts.get(dbinfo.getQualifiedName());
+		if (null != ret && ret._time + ROW_COUNT_TIME_TO_LIVE_MILLIS < System.currentTimeMillis())
+		{
+			rowCounts.remove(dbinfo.getQualifiedName(), ret);
+			return null;
+		}
+		return ret;
+	}
+
+	private static void putRowCount(ISession session, IDatabaseObjectInfo dbinfo, RowCount rowCount)
+	{
+		IIdentifier aliasId = session.getAlias().getIdentifier();
+		ConcurrentHashMap<String, RowCount> rowCounts = s_rowCountsByAlias.get(aliasId);
+		if (null == rowCounts)
+		{
+			s_rowCountsByAlias.putIfAbsent(aliasId, new ConcurrentHashMap<String, RowCount>());
+			rowCounts = s_rowCountsByAlias.get(aliasId);
+		}
+		rowCounts.put(dbinfo.getQualifiedName(), rowCount);
+	}
+
+	private static class RowCount
+	{
+		private final long _nbrRows;
+		private final boolean _exact;
+		private final long _time = System.currentTimeMillis();
+
+		RowCount(long nbrRows, boolean exact)
+		{
+			_nbrRows = nbrRows;
+			_exact = exact;
+		}
+
+		/**
+		 * @return The table name followed by the row count. Estimates are marked by a tilde.
+		 */
+		String getDisplayText(IDatabaseObjectInfo dbinfo)
+		{
+			StringBuilder buf = new StringBuilder(dbinfo.getSimpleName());
+			buf.append(" (").append(_exact ? "" : "~").append(_nbrRows).append(")");
+			return buf.toString();
+		}
+	}
+}
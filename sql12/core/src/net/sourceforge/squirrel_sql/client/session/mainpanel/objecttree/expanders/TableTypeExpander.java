@@ -19,18 +19,12 @@ package net.sourceforge.squirrel_sql.client.session.mainpanel.objecttree.expande
  * License along with this library; if not, write to the Free Software
  * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
  */
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
 
 import net.sourceforge.squirrel_sql.fw.sql.IDatabaseObjectInfo;
-import net.sourceforge.squirrel_sql.fw.sql.ISQLConnection;
 import net.sourceforge.squirrel_sql.fw.sql.ITableInfo;
-import net.sourceforge.squirrel_sql.fw.sql.SQLUtilities;
-import net.sourceforge.squirrel_sql.fw.util.log.ILogger;
-import net.sourceforge.squirrel_sql.fw.util.log.LoggerController;
 
 import net.sourceforge.squirrel_sql.client.session.ISession;
 import net.sourceforge.squirrel_sql.client.session.schemainfo.ObjFilterMatcher;
@@ -44,9 +38,6 @@ import net.sourceforge.squirrel_sql.client.session.mainpanel.objecttree.ObjectTr
  */
 public class TableTypeExpander implements INodeExpander
 {
-	/** Logger for this class. */
-	private static ILogger s_log = LoggerController.createLogger(TableTypeExpander.class);
-
 	/**
 	 * Create the child nodes for the passed parent node and return them. Note that this method should
 	 * <B>not</B> actually add the child nodes to the parent node as this is taken care of in the caller.
@@ -61,74 +52,39 @@ public class TableTypeExpander implements INodeExpander
 		throws SQLException
 	{
 		final List<ObjectTreeNode> childNodes = new ArrayList<ObjectTreeNode>();
-		Statement stmt = null;
-		try
-		{
-			final IDatabaseObjectInfo parentDbinfo = parentNode.getDatabaseObjectInfo();
-			final ISQLConnection conn = session.getSQLConnection();
-			final String catalogName = parentDbinfo.getCatalogName();
-			final String schemaName = parentDbinfo.getSchemaName();
-			final String tableType = parentDbinfo.getSimpleName();
+		final IDatabaseObjectInfo parentDbinfo = parentNode.getDatabaseObjectInfo();
+		final String catalogName = parentDbinfo.getCatalogName();
+		final String schemaName = parentDbinfo.getSchemaName();
+		final String tableType = parentDbinfo.getSimpleName();
 
-			String[] types = tableType != null ? new String[] { tableType } : null;
-			session.getSchemaInfo().waitTillTablesLoaded();
-			final ITableInfo[] tables =
-				session.getSchemaInfo().getITableInfos(catalogName, schemaName,
-					new ObjFilterMatcher(session.getProperties()), types);
+		String[] types = tableType != null ? new String[] { tableType } : null;
+		session.getSchemaInfo().waitTillTablesLoaded();
+		final ITableInfo[] tables =
+			session.getSchemaInfo().getITableInfos(catalogName, schemaName,
+				new ObjFilterMatcher(session.getProperties()), types);
 
-			if (session.getProperties().getShowRowCount())
+		final boolean showRowCount = session.getProperties().getShowRowCount();
+		for (int i = 0; i < tables.length; ++i)
+		{
+			ObjectTreeNode child = new ObjectTreeNode(session, tables[i]);
+			if (showRowCount)
 			{
-				stmt = conn.createStatement();
+				child.setUserObject(TableRowCountLoader.getDisplayText(session, tables[i]));
 			}
-
-			for (int i = 0; i < tables.length; ++i)
+			else
 			{
-				ObjectTreeNode child = new ObjectTreeNode(session, tables[i]);
-				child.setUserObject(getNodeDisplayText(stmt, tables[i]));
-				childNodes.add(child);
+				child.setUserObject(tables[i].getSimpleName());
 			}
+			childNodes.add(child);
 		}
-		finally
+
+		if (showRowCount && 0 < childNodes.size())
 		{
-			SQLUtilities.closeStatement(stmt);
+			// Row counts are filled in when they are loaded.
+			TableRowCountLoader.loadRowCounts(session, childNodes);
 		}
 
 		return childNodes;
 	}
 
-	private String getNodeDisplayText(Statement rowCountStmt, IDatabaseObjectInfo dbinfo)
-	{
-		if (rowCountStmt != null)
-		{
-			try
-			{
-				ResultSet rs = rowCountStmt.executeQuery("select count(*) from " + dbinfo.getQualifiedName());
-				try
-				{
-					long nbrRows = 0;
-					if (rs.next())
-					{
-						nbrRows = rs.getLong(1);
-					}
-					StringBuilder buf = new StringBuilder(dbinfo.getSimpleName());
-					buf.append(" (").append(nbrRows).append(")");
-					return buf.toString();
-				}
-				finally
-				{
-					SQLUtilities.closeResultSet(rs);
-				}
-			}
-			catch (SQLException ex)
-			{
-				s_log.error("Error retrieving row count for: " + dbinfo.getQualifiedName(), ex);
-				return dbinfo.getSimpleName();
-			}
-		}
-		else
-		{
-			return dbinfo.getSimpleName();
-		}
-	}
-
 }
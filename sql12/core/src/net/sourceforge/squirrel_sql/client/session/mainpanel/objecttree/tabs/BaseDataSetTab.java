@@ -23,6 +23,7 @@ import net.sourceforge.squirrel_sql.fw.datasetviewer.DataSetException;
 import net.sourceforge.squirrel_sql.fw.datasetviewer.DataSetScrollingPanel;
 import net.sourceforge.squirrel_sql.fw.datasetviewer.IDataSet;
 import net.sourceforge.squirrel_sql.fw.datasetviewer.IDataSetUpdateableModel;
+import net.sourceforge.squirrel_sql.fw.util.TaskThreadPool;
 import net.sourceforge.squirrel_sql.fw.util.log.ILogger;
 import net.sourceforge.squirrel_sql.fw.util.log.LoggerController;
 
@@ -126,16 +127,22 @@ public abstract class BaseDataSetTab extends BaseObjectTab
          @Override
 		public void run()
          {
-            try
+            session.runWithPooledConnection(new Runnable()
             {
-               getComponent().load(createDataSet(), new DefaultDataModelImplementationDetails(session));
-            }
-            catch (DataSetException e)
-            {
-               s_log.error("", e);
-            }
+               public void run()
+               {
+                  try
+                  {
+                     getComponent().load(createDataSet(), new DefaultDataModelImplementationDetails(session));
+                  }
+                  catch (DataSetException e)
+                  {
+                     s_log.error("", e);
+                  }
+               }
+            });
          }
-      });
+      }, null, TaskThreadPool.Priority.INTERACTIVE, session);
 
    }
 
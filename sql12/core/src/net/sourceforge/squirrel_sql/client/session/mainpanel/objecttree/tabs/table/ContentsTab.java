@@ -284,6 +284,8 @@ public class ContentsTab extends BaseTableTab
             // info to the ResultSet to override what it got from the ResultSetMetaData.
             final ResultSetDataSet rsds = new ResultSetDataSet(md.getColumnInfo(getTableInfo()));
             rsds.setLimitDataRead(true);
+            rsds.setUseColumnarStorage(getSession().getProperties().getSQLColumnarResultStorage());
+            rsds.setSpillToDisk(getSession().getProperties().getSQLSpillResultsToDisk());
 
             // to allow the fw to save and reload user options related to
             // specific columns, we construct a unique name for the table
@@ -151,7 +151,7 @@ public class OverviewCtrl implements LazyTabControllerCtrl
          return;
       }
 
-      initScales(_overviewHolder.getDataScaleTable().getAllRows(), _overviewHolder.getDataScaleTable().getColumnDisplayDefinitions(), true);
+      initScales(_overviewHolder.getDataScaleTable().getColumnIndexes(), _overviewHolder.getDataScaleTable().getColumnDisplayDefinitions(), true);
    }
 
    private void onCreateBarChart()
@@ -347,7 +347,7 @@ public class OverviewCtrl implements LazyTabControllerCtrl
       DataSetDefinition dataSetDefinition = rsds.getDataSetDefinition();
       ColumnDisplayDefinition[] columnDefinitions = dataSetDefinition.getColumnDefinitions();
 
-      initScales(rows, columnDefinitions, false);
+      initScales(new ColumnIndexes(rows), columnDefinitions, false);
    }
 
    private void onIntervalSelected(Interval interval, ColumnDisplayDefinition[] columnDefinitions, JButton intervalButtonClicked)
@@ -356,19 +356,18 @@ public class OverviewCtrl implements LazyTabControllerCtrl
       {
          _overviewHolder.doClickTracing(intervalButtonClicked);
 
-         List<Object[]> rows = interval.getResultRows();
-         initScales(rows, columnDefinitions, false);
+         initScales(interval.getResultColumnIndexes(), columnDefinitions, false);
       }
    }
 
 
-   private void initScales(List<Object[]> rows, final ColumnDisplayDefinition[] columnDefinitions, boolean keepFormerParent)
+   private void initScales(ColumnIndexes columnIndexes, final ColumnDisplayDefinition[] columnDefinitions, boolean keepFormerParent)
    {
       CallDepthComboModel selectedCallDepth = (CallDepthComboModel) _overviewPanel.cboCallDepth.getSelectedItem();
 
-      if(0 == rows.size())
+      if(0 == columnIndexes.getRows().size())
       {
-         initScaleTable(new DataScale[0], rows, columnDefinitions, keepFormerParent, selectedCallDepth);
+         initScaleTable(new DataScale[0], columnIndexes, columnDefinitions, keepFormerParent, selectedCallDepth);
          return;
       }
 
@@ -405,10 +404,10 @@ public class OverviewCtrl implements LazyTabControllerCtrl
 
       for (int i = 0; i < columnDefinitions.length; i++)
       {
-         scales[i] = new ScaleFactory(rows, i, columnDefinitions[i], selectedCallDepth.getCallDepth()).createScale(dataScaleListener);
+         scales[i] = new ScaleFactory(columnIndexes, i, columnDefinitions[i], selectedCallDepth.getCallDepth()).createScale(dataScaleListener);
       }
 
-      initScaleTable(scales, rows, columnDefinitions, keepFormerParent, selectedCallDepth);
+      initScaleTable(scales, columnIndexes, columnDefinitions, keepFormerParent, selectedCallDepth);
    }
 
    private void onShowIntervalDetails(String intervalDetailsHtml, Point dialogLocation)
@@ -416,10 +415,10 @@ public class OverviewCtrl implements LazyTabControllerCtrl
       new IntervalDetailsController(intervalDetailsHtml, GUIUtils.getOwningFrame(_overviewPanel), dialogLocation);
    }
 
-   private void initScaleTable(DataScale[] scales, List<Object[]> rows, ColumnDisplayDefinition[] columnDefinitions, boolean keepFormerParent, CallDepthComboModel callDepth)
+   private void initScaleTable(DataScale[] scales, ColumnIndexes columnIndexes, ColumnDisplayDefinition[] columnDefinitions, boolean keepFormerParent, CallDepthComboModel callDepth)
    {
       DataScaleTableModel dataScaleTableModel = new DataScaleTableModel(scales, callDepth);
-      DataScaleTable dataScaleTable = new DataScaleTable(dataScaleTableModel, rows, columnDefinitions);
+      DataScaleTable dataScaleTable = new DataScaleTable(dataScaleTableModel, columnIndexes, columnDefinitions);
 
       TableColumnModel tcm = new DefaultTableColumnModel();
       dataScaleTable.setColumnModel(tcm);
@@ -3,40 +3,22 @@ package net.sourceforge.squirrel_sql.client.session.mainpanel.overview.datascale
 import net.sourceforge.squirrel_sql.fw.datasetviewer.ColumnDisplayDefinition;
 
 import java.util.Comparator;
-import java.util.List;
 
 public class BooleanIndexedColumn extends IndexedColumn
 {
 
-   public BooleanIndexedColumn(List<Object[]> rows, int colIx, ColumnDisplayDefinition colDef)
+   public BooleanIndexedColumn(ColumnIndexes columnIndexes, int colIx, ColumnDisplayDefinition colDef)
    {
-      super(rows, colIx, colDef);
+      super(columnIndexes, colIx, colDef);
 
-      Comparator comparator = new Comparator<Object>()
+      initIx(new Comparator<Object>()
       {
          @Override
-         public int compare(Object ix1, Object ix2)
+         public int compare(Object o1, Object o2)
          {
-            if( ix1 instanceof NoIx && ix2 instanceof NoIx)
-            {
-               return compareBoolean(((NoIx) ix1).get(), ((NoIx) ix2).get());
-            }
-            else if(ix1 instanceof NoIx)
-            {
-               return compareBoolean(((NoIx) ix1).get(), getRow((Integer) ix2));
-            }
-            else if(ix2 instanceof NoIx)
-            {
-               return compareBoolean(getRow((Integer) ix1), ((NoIx) ix2).get());
-            }
-            else
-            {
-               return compareBoolean(getRow((Integer) ix1), getRow((Integer) ix2));
-            }
+            return compareBoolean(o1, o2);
          }
-      };
-
-      sortIx(comparator);
+      });
 
    }
 
@@ -0,0 +1,197 @@
+package net.sourceforge.squirrel_sql.client.session.mainpanel.overview.datascale;
+
+import net.sourceforge.squirrel_sql.fw.util.PermutationSort;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Sorted index of one column of a list of rows.
+ *
+ * _sortedRows holds the row indexes in the order of the column's values.
+ * _valueIds holds for each position of _sortedRows the number of the distinct value found there.
+ * Because _valueIds is ascending the interval of equal values around a position and
+ * the number of distinct values between two positions are found without comparing values.
+ *
+ * The min/max summary are the positions returned by getMinNonNullPos() and getMaxPos().
+ * There is no precomputed histogram. The intervals of a DataScale are its histogram: their
+ * borders depend on the column type and the drill-down, see ScaleFactory, and the number
+ * of rows per interval is found by a binary search in this index.
+ */
+class ColumnIndex
+{
+   private final int[] _sortedRows;
+   private final int[] _valueIds;
+   private final int _nullCount;
+
+   private ColumnIndex(int[] sortedRows, int[] valueIds, int nullCount)
+   {
+      _sortedRows = sortedRows;
+      _valueIds = valueIds;
+      _nullCount = nullCount;
+   }
+
+   /**
+    * @param valueComparator Compares column values. Must sort null values first.
+    */
+   static ColumnIndex build(List<Object[]> rows, int colIx, final Comparator<Object> valueComparator)
+   {
+      final Object[] values = new Object[rows.size()];
+      int nullCount = 0;
+      for (int i = 0; i < values.length; i++)
+      {
+         values[i] = rows.get(i)[colIx];
+         if(null == values[i])
+         {
+            ++nullCount;
+         }
+      }
+
+      int[] sortedRows = PermutationSort.sort(values.length, new PermutationSort.IndexComparator()
+      {
+         @Override
+         public int compare(int ix1, int ix2)
+         {
+            return valueComparator.compare(values[ix1], values[ix2]);
+         }
+      });
+
+      int[] valueIds = new int[sortedRows.length];
+      for (int i = 1; i < sortedRows.length; i++)
+      {
+         if(0 == valueComparator.compare(values[sortedRows[i - 1]], values[sortedRows[i]]))
+         {
+            valueIds[i] = valueIds[i - 1];
+         }
+         else
+         {
+            valueIds[i] = valueIds[i - 1] + 1;
+         }
+      }
+
+      return new ColumnIndex(sortedRows, valueIds, nullCount);
+   }
+
+   /**
+    * Creates the index for a subset of the rows this index was built for. No values are compared.
+    *
+    * @param rowsToSubsetRows Maps the row indexes of this index to row indexes of the subset. -1 if the row is not in the subset.
+    * @param subsetSize Number of rows in the subset.
+    */
+   ColumnIndex subset(int[] rowsToSubsetRows, int subsetSize)
+   {
+      int[] sortedRows = new int[subsetSize];
+      int[] valueIds = new int[subsetSize];
+      int nullCount = 0;
+
+      int k = 0;
+      int lastPos = -1;
+      for (int i = 0; i < _sortedRows.length; i++)
+      {
+         int subsetRow = rowsToSubsetRows[_sortedRows[i]];
+         if(-1 == subsetRow)
+         {
+            continue;
+         }
+
+         sortedRows[k] = subsetRow;
+         if(0 < k)
+         {
+            valueIds[k] = valueIds[k - 1] + (_valueIds[i] == _valueIds[lastPos] ? 0 : 1);
+         }
+         lastPos = i;
+
+         if(i < _nullCount)
+         {
+            ++nullCount;
+         }
+         ++k;
+      }
+
+      return new ColumnIndex(sortedRows, valueIds, nullCount);
+   }
+
+   int size()
+   {
+      return _sortedRows.length;
+   }
+
+   int getRowIx(int pos)
+   {
+      return _sortedRows[pos];
+   }
+
+   int getNullCount()
+   {
+      return _nullCount;
+   }
+
+   /**
+    * @return The position of the smallest value that is not null. -1 if all values are null.
+    */
+   int getMinNonNullPos()
+   {
+      return _nullCount < _sortedRows.length ? _nullCount : -1;
+   }
+
+   /**
+    * @return The position of the largest value. -1 if the index is empty.
+    */
+   int getMaxPos()
+   {
+      return _sortedRows.length - 1;
+   }
+
+   /**
+    * @return The last position that holds the same value as pos.
+    */
+   int getLastPosOfValue(int pos)
+   {
+      int valueId = _valueIds[pos];
+
+      int low = pos;
+      int high = _valueIds.length - 1;
+      while (low < high)
+      {
+         int mid = (low + high + 1) >>> 1;
+         if(_valueIds[mid] == valueId)
+         {
+            low = mid;
+         }
+         else
+         {
+            high = mid - 1;
+         }
+      }
+      return low;
+   }
+
+   /**
+    * @return The first position that holds the same value as pos.
+    */
+   int getFirstPosOfValue(int pos)
+   {
+      int valueId = _valueIds[pos];
+
+      int low = 0;
+      int high = pos;
+      while (low < high)
+      {
+         int mid = (low + high) >>> 1;
+         if(_valueIds[mid] == valueId)
+         {
+            high = mid;
+         }
+         else
+         {
+            low = mid + 1;
+         }
+      }
+      return low;
+   }
+
+   int countDistinctValues(int firstPos, int lastPos)
+   {
+      return _valueIds[lastPos] - _valueIds[firstPos] + 1;
+   }
+}
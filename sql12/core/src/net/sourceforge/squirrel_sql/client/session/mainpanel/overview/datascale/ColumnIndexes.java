@@ -0,0 +1,78 @@
+package net.sourceforge.squirrel_sql.client.session.mainpanel.overview.datascale;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Caches the ColumnIndex of each column of a list of rows.
+ *
+ * A ColumnIndexes for the rows of an interval is created by subset(). Its indexes are
+ * derived from the indexes of the parent, which avoids sorting again when drilling down.
+ */
+public class ColumnIndexes
+{
+   private List<Object[]> _rows;
+   private HashMap<Integer, ColumnIndex> _indexByColIx = new HashMap<Integer, ColumnIndex>();
+
+   private ColumnIndexes _parent;
+   private int[] _parentRowsToRows;
+
+   public ColumnIndexes(List<Object[]> rows)
+   {
+      _rows = rows;
+   }
+
+   private ColumnIndexes(ColumnIndexes parent, int[] parentRowIxs)
+   {
+      _parent = parent;
+
+      _rows = new ArrayList<Object[]>(parentRowIxs.length);
+      _parentRowsToRows = new int[parent._rows.size()];
+      Arrays.fill(_parentRowsToRows, -1);
+      for (int i = 0; i < parentRowIxs.length; i++)
+      {
+         _rows.add(parent._rows.get(parentRowIxs[i]));
+         _parentRowsToRows[parentRowIxs[i]] = i;
+      }
+   }
+
+   public List<Object[]> getRows()
+   {
+      return _rows;
+   }
+
+   /**
+    * @param parentRowIxs Indexes of the rows of this ColumnIndexes the subset is made of.
+    */
+   ColumnIndexes subset(int[] parentRowIxs)
+   {
+      return new ColumnIndexes(this, parentRowIxs);
+   }
+
+   /**
+    * The valueComparator is used only when the index is not cached yet.
+    * Callers must pass comparators of the same order for the same column.
+    */
+   synchronized ColumnIndex getColumnIndex(int colIx, Comparator<Object> valueComparator)
+   {
+      ColumnIndex ret = _indexByColIx.get(colIx);
+
+      if(null == ret)
+      {
+         if(null != _parent)
+         {
+            ret = _parent.getColumnIndex(colIx, valueComparator).subset(_parentRowsToRows, _rows.size());
+         }
+         else
+         {
+            ret = ColumnIndex.build(_rows, colIx, valueComparator);
+         }
+         _indexByColIx.put(colIx, ret);
+      }
+
+      return ret;
+   }
+}
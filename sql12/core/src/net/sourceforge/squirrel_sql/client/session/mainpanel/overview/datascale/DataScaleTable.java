@@ -21,6 +21,7 @@ public class DataScaleTable extends SortableTable
    private static final StringManager s_stringMgr = StringManagerFactory.getStringManager(DataScaleTable.class);
 
 
+   private ColumnIndexes _columnIndexes;
    private List<Object[]> _allRows;
    private ColumnDisplayDefinition[] _columnDefinitions;
 
@@ -28,10 +29,11 @@ public class DataScaleTable extends SortableTable
    private DataScaleTable _kid;
    private DataSetViewerTablePanel _kidSimpleTable;
 
-   public DataScaleTable(DataScaleTableModel dataScaleTableModel, List<Object[]> allRows, ColumnDisplayDefinition[] columnDefinitions)
+   public DataScaleTable(DataScaleTableModel dataScaleTableModel, ColumnIndexes columnIndexes, ColumnDisplayDefinition[] columnDefinitions)
    {
       super(dataScaleTableModel);
-      _allRows = allRows;
+      _columnIndexes = columnIndexes;
+      _allRows = columnIndexes.getRows();
       _columnDefinitions = columnDefinitions;
 
       setAutoResizeMode(JTable.AUTO_RESIZE_OFF);
@@ -112,6 +114,11 @@ public class DataScaleTable extends SortableTable
       return _allRows;
    }
 
+   public ColumnIndexes getColumnIndexes()
+   {
+      return _columnIndexes;
+   }
+
    public ColumnDisplayDefinition[] getColumnDisplayDefinitions()
    {
       return _columnDefinitions;
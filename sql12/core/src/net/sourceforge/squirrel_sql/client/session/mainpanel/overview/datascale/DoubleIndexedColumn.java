@@ -3,44 +3,29 @@ package net.sourceforge.squirrel_sql.client.session.mainpanel.overview.datascale
 import net.sourceforge.squirrel_sql.fw.datasetviewer.ColumnDisplayDefinition;
 
 import java.util.Comparator;
-import java.util.List;
 
 public class DoubleIndexedColumn extends IndexedColumn
 {
-   private DoubleRange _doubleRange = new DoubleRange();
+   private double _minNonNull = 0;
 
-   public DoubleIndexedColumn(List<Object[]> rows, int colIx, ColumnDisplayDefinition colDef)
+   public DoubleIndexedColumn(ColumnIndexes columnIndexes, int colIx, ColumnDisplayDefinition colDef)
    {
-      super(rows, colIx, colDef);
+      super(columnIndexes, colIx, colDef);
 
-      Comparator comparator = new Comparator<Object>()
+      initIx(new Comparator<Object>()
       {
          @Override
-         public int compare(Object ix1, Object ix2)
+         public int compare(Object o1, Object o2)
          {
-            if( ix1 instanceof NoIx && ix2 instanceof NoIx)
-            {
-               return compareDouble(((NoIx) ix1).get(), ((NoIx) ix2).get());
-            }
-            else if(ix1 instanceof NoIx)
-            {
-               return compareDouble(((NoIx) ix1).get(), getRow((Integer) ix2));
-            }
-            else if(ix2 instanceof NoIx)
-            {
-               return compareDouble(getRow((Integer) ix1), ((NoIx) ix2).get());
-            }
-            else
-            {
-               return compareDouble(getRow((Integer) ix1), getRow((Integer) ix2));
-            }
+            return compareDouble(o1, o2);
          }
-      };
-
-      _doubleRange.beginInit();
-      sortIx(comparator);
-      _doubleRange.endInit();
+      });
 
+      Object minNonNull = getMinNonNull();
+      if(null != minNonNull)
+      {
+         _minNonNull = ((Number)minNonNull).doubleValue();
+      }
    }
 
 
@@ -59,9 +44,6 @@ public class DoubleIndexedColumn extends IndexedColumn
 
       }
 
-      _doubleRange.init(d1);
-      _doubleRange.init(d2);
-
       if(d1 == null && d2 != null)
       {
          return -1;
@@ -113,7 +95,7 @@ public class DoubleIndexedColumn extends IndexedColumn
       Double doubleMin;
       if(null == min)
       {
-         doubleMin = _doubleRange.getMin() - 1;
+         doubleMin = _minNonNull - 1;
       }
       else
       {
@@ -123,7 +105,7 @@ public class DoubleIndexedColumn extends IndexedColumn
       Double doubleMax;
       if(null == max)
       {
-         doubleMax = _doubleRange.getMin() - 1;
+         doubleMax = _minNonNull - 1;
       }
       else
       {
@@ -133,56 +115,4 @@ public class DoubleIndexedColumn extends IndexedColumn
 
       return doubleMin + ((doubleMax - doubleMin) / 2);
    }
-
-   private static class DoubleRange
-   {
-      private double _max = 0;
-      private double _min = 0;
-      private boolean _initializing;
-      private boolean _isInit;
-
-      public void init(Double d)
-      {
-         if(false == _initializing)
-         {
-            return;
-         }
-
-
-         if(null == d)
-         {
-            return;
-         }
-
-
-         if(false == _isInit)
-         {
-            _min = d;
-            _max = d;
-            _isInit = true;
-         }
-
-         _min = Math.min(_min, d);
-         _max = Math.max(_max, d);
-
-
-
-      }
-
-      public double getMin()
-      {
-         return _min;
-      }
-
-      void beginInit()
-      {
-         _initializing = true;
-      }
-
-      void endInit()
-      {
-         _initializing = false;
-      }
-
-   }
 }
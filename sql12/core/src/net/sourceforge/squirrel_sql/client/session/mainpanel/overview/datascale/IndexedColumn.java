@@ -4,35 +4,54 @@ import net.sourceforge.squirrel_sql.fw.datasetviewer.ColumnDisplayDefinition;
 import net.sourceforge.squirrel_sql.fw.datasetviewer.cellcomponent.CellComponentFactory;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 
 public abstract class IndexedColumn
 {
-   private ArrayList<Integer> _ix;
+   private ColumnIndexes _columnIndexes;
+   private ColumnIndex _ix;
    private List<Object[]> _rows;
    private int _colIx;
    private ColumnDisplayDefinition _colDef;
+   private Comparator<Object> _valueComparator;
    private Comparator _comparator;
 
-   public IndexedColumn(List<Object[]> rows, int colIx, ColumnDisplayDefinition colDef)
+   public IndexedColumn(ColumnIndexes columnIndexes, int colIx, ColumnDisplayDefinition colDef)
    {
-      _rows = rows;
+      _columnIndexes = columnIndexes;
+      _rows = columnIndexes.getRows();
       _colIx = colIx;
       _colDef = colDef;
-      _ix = new ArrayList<Integer>(rows.size());
+   }
+
+   /**
+    * @param valueComparator Compares the values of the column. Must sort null values first.
+    * As the index may be sorted in parallel the comparator must not have side effects.
+    */
+   protected void initIx(final Comparator<Object> valueComparator)
+   {
+      _valueComparator = valueComparator;
+      _ix = _columnIndexes.getColumnIndex(_colIx, valueComparator);
 
-      for (int i = 0; i < rows.size(); i++)
+      // Compares row indexes (Integer) or values (NoIx)
+      _comparator = new Comparator<Object>()
       {
-         _ix.add(i);
-      }
+         @Override
+         public int compare(Object ix1, Object ix2)
+         {
+            return valueComparator.compare(toValue(ix1), toValue(ix2));
+         }
+      };
    }
 
-   protected void sortIx(Comparator comparator)
+   private Object toValue(Object ixOrNoIx)
    {
-      _comparator = comparator;
-      Collections.sort(_ix, _comparator);
+      if(ixOrNoIx instanceof NoIx)
+      {
+         return ((NoIx) ixOrNoIx).get();
+      }
+      return getRow((Integer) ixOrNoIx);
    }
 
    public int getColumnIndex()
@@ -42,7 +61,7 @@ public abstract class IndexedColumn
 
    public Object get(int ix)
    {
-      return _rows.get(_ix.get(ix))[_colIx];
+      return _rows.get(_ix.getRowIx(ix))[_colIx];
    }
 
    public Object getRow(Integer rowIx)
@@ -52,14 +71,35 @@ public abstract class IndexedColumn
 
    public int getRowIx(int ix)
    {
-      return _ix.get(ix);
+      return _ix.getRowIx(ix);
    }
 
 
 
    public int binarySearch(Object border)
    {
-      return Collections.binarySearch(_ix, new NoIx(border), _comparator);
+      int low = 0;
+      int high = _ix.size() - 1;
+
+      while (low <= high)
+      {
+         int mid = (low + high) >>> 1;
+         int cmp = _valueComparator.compare(get(mid), border);
+
+         if (cmp < 0)
+         {
+            low = mid + 1;
+         }
+         else if (cmp > 0)
+         {
+            high = mid - 1;
+         }
+         else
+         {
+            return mid;
+         }
+      }
+      return -(low + 1);
    }
 
    public String getColumnName()
@@ -69,12 +109,25 @@ public abstract class IndexedColumn
 
    public Object getMin()
    {
-      return _rows.get(_ix.get(0))[_colIx];
+      return get(0);
    }
 
    public Object getMax()
    {
-      return _rows.get(_ix.get(_ix.size() - 1))[_colIx];
+      return get(_ix.getMaxPos());
+   }
+
+   /**
+    * @return The smallest value that is not null. null if the column contains null values only.
+    */
+   protected Object getMinNonNull()
+   {
+      int pos = _ix.getMinNonNullPos();
+      if(-1 == pos)
+      {
+         return null;
+      }
+      return get(pos);
    }
 
    public int size()
@@ -84,38 +137,19 @@ public abstract class IndexedColumn
 
    public int getLastIndexOfVal(int startIx)
    {
-      int ret = startIx;
-
-      for (int i = startIx + 1; i < _ix.size(); i++)
-      {
-         if(0 != _comparator.compare(new NoIx(get(startIx)), new NoIx(get(i))) )
-         {
-            break;
-         }
-
-         ++ret;
-      }
-
-      return ret;
+      return _ix.getLastPosOfValue(startIx);
    }
 
    public int getFirstIndexOfVal(int startIx)
    {
-      for (int i = startIx - 1; 0 <= i ; i--)
-      {
-         if(0 != _comparator.compare(new NoIx(get(startIx)), new NoIx(get(i))) )
-         {
-            return i;
-         }
-      }
-
-      return 0;
+      // Returns the last index of the preceding value.
+      return Math.max(0, _ix.getFirstPosOfValue(startIx) - 1);
    }
 
 
    public int compareObjects(Object o1, Object o2)
    {
-      return _comparator.compare(new NoIx(o1), new NoIx(o2));
+      return _valueComparator.compare(o1, o2);
    }
 
 
@@ -138,12 +172,27 @@ public abstract class IndexedColumn
 
       for(int i= firstIx; i <= lastIx; ++i)
       {
-         ret.add(_rows.get(_ix.get(i)));
+         ret.add(_rows.get(_ix.getRowIx(i)));
       }
 
       return ret;
    }
 
+   /**
+    * @return Index cache for the rows returned by getResultRows(firstIx, lastIx).
+    */
+   public ColumnIndexes getResultColumnIndexes(int firstIx, int lastIx)
+   {
+      int[] rowIxs = new int[lastIx - firstIx + 1];
+
+      for(int i= firstIx; i <= lastIx; ++i)
+      {
+         rowIxs[i - firstIx] = _ix.getRowIx(i);
+      }
+
+      return _columnIndexes.subset(rowIxs);
+   }
+
    public ColumnDisplayDefinition getColumnDisplayDefinition()
    {
       return _colDef;
@@ -153,20 +202,7 @@ public abstract class IndexedColumn
 
    public int countDistinctValsForInterval(int firstIx, int lastIx)
    {
-      int count = 1;
-      int firstIxOfCurrentValue = getRowIx(firstIx);
-
-      // We assume that values returned by get(i) are sorted.
-      for(int i=firstIx; i <= lastIx; ++i)
-      {
-         if(0 != _comparator.compare(firstIxOfCurrentValue, getRowIx(i)))
-         {
-            ++count;
-            firstIxOfCurrentValue = getRowIx(i);
-         }
-      }
-
-      return count;
+      return _ix.countDistinctValues(firstIx, lastIx);
    }
 
    public int countDistinctValsForColumn()
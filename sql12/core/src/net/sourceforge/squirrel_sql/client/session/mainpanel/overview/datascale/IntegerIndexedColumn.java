@@ -3,45 +3,29 @@ package net.sourceforge.squirrel_sql.client.session.mainpanel.overview.datascale
 import net.sourceforge.squirrel_sql.fw.datasetviewer.ColumnDisplayDefinition;
 
 import java.util.Comparator;
-import java.util.List;
 
 public class IntegerIndexedColumn extends IndexedColumn
 {
-   private IntegerRange _intRange = new IntegerRange();
+   private int _minNonNull = 0;
 
-   public IntegerIndexedColumn(List<Object[]> rows, int colIx, ColumnDisplayDefinition colDef)
+   public IntegerIndexedColumn(ColumnIndexes columnIndexes, int colIx, ColumnDisplayDefinition colDef)
    {
-      super(rows, colIx, colDef);
+      super(columnIndexes, colIx, colDef);
 
-      Comparator comparator = new Comparator<Object>()
+      initIx(new Comparator<Object>()
       {
          @Override
-         public int compare(Object ix1, Object ix2)
+         public int compare(Object o1, Object o2)
          {
-            if( ix1 instanceof NoIx && ix2 instanceof NoIx)
-            {
-               return compareInteger(((NoIx) ix1).get(), ((NoIx) ix2).get());
-            }
-            else if(ix1 instanceof NoIx)
-            {
-               return compareInteger(((NoIx) ix1).get(), getRow((Integer) ix2));
-            }
-            else if(ix2 instanceof NoIx)
-            {
-               return compareInteger(getRow((Integer) ix1), ((NoIx) ix2).get());
-            }
-            else
-            {
-               return compareInteger(getRow((Integer) ix1), getRow((Integer) ix2));
-            }
+            return compareInteger(o1, o2);
          }
-      };
-
-      _intRange.beginInit();
-      sortIx(comparator);
-      _intRange.endInit();
-
+      });
 
+      Object minNonNull = getMinNonNull();
+      if(null != minNonNull)
+      {
+         _minNonNull = ((Number)minNonNull).intValue();
+      }
    }
 
 
@@ -59,9 +43,6 @@ public class IntegerIndexedColumn extends IndexedColumn
          i2 = ((Number)o2).intValue();
       }
 
-      _intRange.init(i1);
-      _intRange.init(i2);
-
       if(i1 == null && i2 != null)
       {
          return -1;
@@ -111,7 +92,7 @@ public class IntegerIndexedColumn extends IndexedColumn
       Integer intMin;
       if(null == min)
       {
-         intMin = _intRange.getMin() - 1;
+         intMin = _minNonNull - 1;
       }
       else
       {
@@ -121,7 +102,7 @@ public class IntegerIndexedColumn extends IndexedColumn
       Integer intMax;
       if(null == max)
       {
-         intMax = _intRange.getMin() - 1;
+         intMax = _minNonNull - 1;
       }
       else
       {
@@ -131,56 +112,4 @@ public class IntegerIndexedColumn extends IndexedColumn
 
       return intMin + ((intMax - intMin) / 2);
    }
-
-   private static class IntegerRange
-   {
-      private int _max = 0;
-      private int _min = 0;
-      private boolean _initializing;
-
-      private boolean _isInit;
-
-
-      public void init(Integer i)
-      {
-
-         if(false == _initializing)
-         {
-            return;
-         }
-
-         if(null == i)
-         {
-            return;
-         }
-
-
-         if(false == _isInit)
-         {
-            _min = i;
-            _max = i;
-            _isInit = true;
-         }
-
-         _min = Math.min(_min, i);
-         _max = Math.max(_max, i);
-
-      }
-
-      public int getMin()
-      {
-         return _min;
-      }
-
-      void beginInit()
-      {
-         _initializing = true;
-      }
-
-      void endInit()
-      {
-         _initializing = false;
-      }
-
-   }
 }
@@ -195,6 +195,11 @@ public class Interval
       return _indexedColumn.getResultRows(_firstIx, _lastIx);
    }
 
+   public ColumnIndexes getResultColumnIndexes()
+   {
+      return _indexedColumn.getResultColumnIndexes(_firstIx, _lastIx);
+   }
+
    public boolean containsAllRows()
    {
       return getLen() == _indexedColumn.size();
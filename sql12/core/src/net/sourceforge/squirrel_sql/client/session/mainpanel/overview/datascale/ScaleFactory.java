@@ -17,7 +17,15 @@ public class ScaleFactory
 
    public ScaleFactory(List<Object[]> rows, int colIx, ColumnDisplayDefinition colDef, int callDepth)
    {
-      _indexedColumn = IndexedColumnFactory.create(rows, colIx, colDef);
+      this(new ColumnIndexes(rows), colIx, colDef, callDepth);
+   }
+
+   /**
+    * @param columnIndexes Should be shared by all ScaleFactories of the same rows.
+    */
+   public ScaleFactory(ColumnIndexes columnIndexes, int colIx, ColumnDisplayDefinition colDef, int callDepth)
+   {
+      _indexedColumn = IndexedColumnFactory.create(columnIndexes, colIx, colDef);
       _callDepth = callDepth;
    }
 
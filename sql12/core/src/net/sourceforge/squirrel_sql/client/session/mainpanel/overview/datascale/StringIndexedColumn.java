@@ -3,7 +3,6 @@ package net.sourceforge.squirrel_sql.client.session.mainpanel.overview.datascale
 import net.sourceforge.squirrel_sql.fw.datasetviewer.ColumnDisplayDefinition;
 
 import java.util.Comparator;
-import java.util.List;
 
 
 /**
@@ -13,38 +12,26 @@ public class StringIndexedColumn extends IndexedColumn
 {
    private CharRange _charRange = new CharRange();
 
-   public StringIndexedColumn(List<Object[]> rows, int colIx, ColumnDisplayDefinition colDef)
+   public StringIndexedColumn(ColumnIndexes columnIndexes, int colIx, ColumnDisplayDefinition colDef)
    {
-      super(rows, colIx, colDef);
+      super(columnIndexes, colIx, colDef);
 
-      Comparator comparator = new Comparator<Object>()
+      initIx(new Comparator<Object>()
       {
          @Override
-         public int compare(Object ix1, Object ix2)
+         public int compare(Object o1, Object o2)
          {
-            if( ix1 instanceof NoIx && ix2 instanceof NoIx)
-            {
-               return compareString(((NoIx) ix1).get(), ((NoIx) ix2).get());
-            }
-            else if(ix1 instanceof NoIx)
-            {
-               return compareString(((NoIx) ix1).get(), getRow((Integer) ix2));
-            }
-            else if(ix2 instanceof NoIx)
-            {
-               return compareString(getRow((Integer) ix1), ((NoIx) ix2).get());
-            }
-            else
-            {
-               return compareString(getRow((Integer) ix1), getRow((Integer) ix2));
-            }
+            return compareString(o1, o2);
          }
-      };
+      });
 
       _charRange.beginInit();
-      sortIx(comparator);
+      for (int i = 0; i < size(); i = getLastIndexOfVal(i) + 1)
+      {
+         Object val = get(i);
+         _charRange.init(null == val ? null : val.toString());
+      }
       _charRange.endInit();
-
    }
 
    private int compareString(Object o1, Object o2)
@@ -61,9 +48,6 @@ public class StringIndexedColumn extends IndexedColumn
          s2 = o2.toString();
       }
 
-      _charRange.init(s1);
-      _charRange.init(s2);
-
       if(s1 == null && s2 != null)
       {
          return -1;
@@ -5,44 +5,29 @@ import net.sourceforge.squirrel_sql.fw.datasetviewer.ColumnDisplayDefinition;
 import java.sql.Timestamp;
 import java.util.Comparator;
 import java.util.Date;
-import java.util.List;
 
 public class TimestampIndexedColumn extends IndexedColumn
 {
-   private LongRange _longRange = new LongRange();
+   private long _minNonNull = System.currentTimeMillis();
 
-   public TimestampIndexedColumn(List<Object[]> rows, int colIx, ColumnDisplayDefinition colDef)
+   public TimestampIndexedColumn(ColumnIndexes columnIndexes, int colIx, ColumnDisplayDefinition colDef)
    {
-      super(rows, colIx, colDef);
+      super(columnIndexes, colIx, colDef);
 
-      Comparator comparator = new Comparator<Object>()
+      initIx(new Comparator<Object>()
       {
          @Override
-         public int compare(Object ix1, Object ix2)
+         public int compare(Object o1, Object o2)
          {
-            if( ix1 instanceof NoIx && ix2 instanceof NoIx)
-            {
-               return compareUtilDate(((NoIx) ix1).get(), ((NoIx) ix2).get());
-            }
-            else if(ix1 instanceof NoIx)
-            {
-               return compareUtilDate(((NoIx) ix1).get(), getRow((Integer) ix2));
-            }
-            else if(ix2 instanceof NoIx)
-            {
-               return compareUtilDate(getRow((Integer) ix1), ((NoIx) ix2).get());
-            }
-            else
-            {
-               return compareUtilDate(getRow((Integer) ix1), getRow((Integer) ix2));
-            }
+            return compareUtilDate(o1, o2);
          }
-      };
-
-      _longRange.beginInit();
-      sortIx(comparator);
-      _longRange.endInit();
+      });
 
+      Object minNonNull = getMinNonNull();
+      if(null != minNonNull)
+      {
+         _minNonNull = ((Date)minNonNull).getTime();
+      }
    }
 
 
@@ -60,9 +45,6 @@ public class TimestampIndexedColumn extends IndexedColumn
          t2 = ((Date)o2).getTime();
       }
 
-      _longRange.init(t1);
-      _longRange.init(t2);
-
 
       if(t1 == null && t2 != null)
       {
@@ -161,7 +143,7 @@ public class TimestampIndexedColumn extends IndexedColumn
       Long longMin;
       if(null == min)
       {
-         longMin = _longRange.getMin() - 1;
+         longMin = _minNonNull - 1;
       }
       else
       {
@@ -171,7 +153,7 @@ public class TimestampIndexedColumn extends IndexedColumn
       Long longMax;
       if(null == max)
       {
-         longMax = _longRange.getMin() - 1;
+         longMax = _minNonNull - 1;
       }
       else
       {
@@ -181,54 +163,4 @@ public class TimestampIndexedColumn extends IndexedColumn
 
       return new Timestamp(longMin + ((longMax - longMin) / 2));
    }
-
-   private static class LongRange
-   {
-      private long _max = System.currentTimeMillis();
-      private long _min = _max;
-      private boolean _initializing;
-      private boolean _isInit;
-
-      public void init(Long l)
-      {
-         if(false == _initializing)
-         {
-            return;
-         }
-
-
-         if(null == l)
-         {
-            return;
-         }
-
-
-         if(false == _isInit)
-         {
-            _min = l;
-            _max = l;
-            _isInit = true;
-         }
-
-         _min = Math.min(_min, l);
-         _max = Math.max(_max, l);
-
-      }
-
-      public long getMin()
-      {
-         return _min;
-      }
-
-      void beginInit()
-      {
-         _initializing = true;
-      }
-
-      void endInit()
-      {
-         _initializing = false;
-      }
-
-   }
 }
\ No newline at end of file
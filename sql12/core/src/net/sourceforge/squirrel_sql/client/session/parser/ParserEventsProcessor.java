@@ -15,6 +15,7 @@ import net.sourceforge.squirrel_sql.client.session.parser.kernel.ErrorInfo;
 import net.sourceforge.squirrel_sql.client.session.parser.kernel.ParserThread;
 import net.sourceforge.squirrel_sql.client.session.parser.kernel.ParsingFinishedListener;
 import net.sourceforge.squirrel_sql.client.session.parser.kernel.TableAliasInfo;
+import net.sourceforge.squirrel_sql.client.session.schemainfo.SchemaInfoUpdateListener;
 import net.sourceforge.squirrel_sql.fw.util.BaseRuntimeException;
 
 public class ParserEventsProcessor implements IParserEventsProcessor
@@ -27,6 +28,7 @@ public class ParserEventsProcessor implements IParserEventsProcessor
    private ISQLPanelAPI _sqlPanelApi;
 	private KeyAdapter _triggerParserKeyListener;
    private boolean _processingEnded;
+   private SchemaInfoUpdateListener _schemaInfoUpdateListener;
 
    public ParserEventsProcessor(ISQLPanelAPI sqlPanelApi, ISession session)
    {
@@ -86,6 +88,11 @@ public class ParserEventsProcessor implements IParserEventsProcessor
 
       _sqlPanelApi.getSQLEntryPanel().getTextComponent().removeKeyListener(_triggerParserKeyListener);
 
+      if(null != _schemaInfoUpdateListener)
+      {
+         _session.getSchemaInfo().removeSchemaInfoUpdateListener(_schemaInfoUpdateListener);
+      }
+
 		if (_parserTimer != null)
 		{
 			_parserTimer.stop();
@@ -166,6 +173,18 @@ public class ParserEventsProcessor implements IParserEventsProcessor
 
 		_sqlPanelApi.getSQLEntryPanel().getTextComponent().addKeyListener(_triggerParserKeyListener);
 
+      // The parser checks table names. Statements parsed before
+      // the schema changed must be parsed again.
+      _schemaInfoUpdateListener = new SchemaInfoUpdateListener()
+      {
+         public void schemaInfoUpdated()
+         {
+            _parserThread.clearStatementCache();
+            triggerParser();
+         }
+      };
+      _session.getSchemaInfo().addSchemaInfoUpdateListener(_schemaInfoUpdateListener);
+
       // No more automatic restarts because
       // key events will restart the parser from now on.
       _parserTimer.setRepeats(false);
@@ -32,6 +32,7 @@ import net.sourceforge.squirrel_sql.fw.util.log.LoggerController;
 
 import java.text.CharacterIterator;
 import java.text.StringCharacterIterator;
+import java.util.HashMap;
 import java.util.Vector;
 
 /**
@@ -42,6 +43,10 @@ import java.util.Vector;
  * <em>Unfortunately, it depends on the generated parser/scanner and therefore
  * cannot be generalized, unless the generated classes are made to implement public
  * interfaces</em>
+ *
+ * The text is split into statements at semicolons. Each statement is parsed on its own
+ * and its results are kept until the next run. Statements whose text did not change
+ * since the last run are not parsed again, only their positions are adjusted.
  */
 public final class ParserThread extends Thread
 {
@@ -65,6 +70,13 @@ public final class ParserThread extends Thread
 	private Vector<ErrorInfo> _workingErrorInfos = new Vector<ErrorInfo>();
 	private ErrorInfo[] _lastRunErrorInfos = new ErrorInfo[0];
 
+   /**
+    * Parse results of the statements of the last run by statement text.
+    */
+   private HashMap<String, StatementParseResult> _lastRunResultsByStatementText =
+      new HashMap<String, StatementParseResult>();
+   private volatile boolean _clearStatementCache;
+
 
 	private volatile boolean _exitThread;
 	private ParsingFinishedListener _parsingFinishedListener;
@@ -368,6 +380,14 @@ public final class ParserThread extends Thread
 		}
 	}
 
+	/**
+	 * Makes the next run parse all statements again, e.g. because tables were created or dropped.
+	 */
+	public void clearStatementCache()
+	{
+		_clearStatementCache = true;
+	}
+
 	public void setParsingFinishedListener(ParsingFinishedListener parsingFinishedListener)
 	{
 		_parsingFinishedListener = parsingFinishedListener;
@@ -380,11 +400,16 @@ public final class ParserThread extends Thread
 		{
 			while(true)
 			{
+				String text;
 				synchronized(this)
 				{
-					this.wait();
-					_workingString = _pendingString;
-					_workingBuffer = new IncrementalBuffer(new StringCharacterIterator(_workingString));
+					// A text that was notified while we were parsing is parsed right away.
+					while(null == _pendingString && false == _exitThread)
+					{
+						this.wait();
+					}
+					text = _pendingString;
+					_pendingString = null;
 				}
 
 				if(_exitThread)
@@ -392,44 +417,42 @@ public final class ParserThread extends Thread
 					break;
 				}
 
-				//////////////////////////////////////////////////////////////
-				// On Errors we restart the parser behind the error
-				_errorDetected = false;
-				runParser();
-				while(_errorDetected)
+				if(_clearStatementCache)
+				{
+					_clearStatementCache = false;
+					_lastRunResultsByStatementText.clear();
+				}
+
+				Vector<TableAliasInfo> tableAliasInfos = new Vector<TableAliasInfo>();
+				Vector<ErrorInfo> errorInfos = new Vector<ErrorInfo>();
+				HashMap<String, StatementParseResult> resultsByStatementText = new HashMap<String, StatementParseResult>();
+
+				int[][] statementIntervals = calculateStatementIntervals(text);
+				for (int i = 0; i < statementIntervals.length; i++)
 				{
-					if(_workingString.length() > _nextStatBegin)
+					String statementText = text.substring(statementIntervals[i][0], statementIntervals[i][1]);
+
+					StatementParseResult result = resultsByStatementText.get(statementText);
+					if(null == result)
 					{
-						_workingString = _workingString.substring(_nextStatBegin, _workingString.length());
-						if("".equals(_workingString.trim()))
-						{
-							break;
-						}
+						result = _lastRunResultsByStatementText.get(statementText);
 					}
-					else
+					if(null == result)
 					{
-						break;
+						result = parseStatement(statementText);
 					}
+					resultsByStatementText.put(statementText, result);
 
-					_lastParserRunOffset += _nextStatBegin;
-					_workingBuffer = new IncrementalBuffer(new StringCharacterIterator(_workingString));
-
-					_errorDetected = false;
-					runParser();
+					result.addTo(statementIntervals[i][0], tableAliasInfos, errorInfos);
 				}
-
-				//
-				////////////////////////////////////////////////////////////
+				_lastRunResultsByStatementText = resultsByStatementText;
 
 
 				///////////////////////////////////////////////////////////
 				// We are through with parsing. Now we store the outcome
 				// in _lastRun... and tell the listeners.
-				_lastRunTableAliasInfos = _workingTableAliasInfos.toArray(new TableAliasInfo[_workingTableAliasInfos.size()]);
-				_lastRunErrorInfos = _workingErrorInfos.toArray(new ErrorInfo[_workingErrorInfos.size()]);
-				_workingTableAliasInfos.clear();
-				_workingErrorInfos.clear();
-				_lastParserRunOffset = 0;
+				_lastRunTableAliasInfos = tableAliasInfos.toArray(new TableAliasInfo[tableAliasInfos.size()]);
+				_lastRunErrorInfos = errorInfos.toArray(new ErrorInfo[errorInfos.size()]);
 				if(null != _parsingFinishedListener)
 				{
 					_parsingFinishedListener.parsingFinished();
@@ -457,6 +480,120 @@ public final class ParserThread extends Thread
 		}
 	}
 
+	private StatementParseResult parseStatement(String statementText)
+	{
+		_workingString = statementText;
+		_workingBuffer = new IncrementalBuffer(new StringCharacterIterator(_workingString));
+		_lastParserRunOffset = 0;
+
+		//////////////////////////////////////////////////////////////
+		// On Errors we restart the parser behind the error
+		_errorDetected = false;
+		runParser();
+		while(_errorDetected)
+		{
+			if(_workingString.length() > _nextStatBegin)
+			{
+				_workingString = _workingString.substring(_nextStatBegin, _workingString.length());
+				if("".equals(_workingString.trim()))
+				{
+					break;
+				}
+			}
+			else
+			{
+				break;
+			}
+
+			_lastParserRunOffset += _nextStatBegin;
+			_workingBuffer = new IncrementalBuffer(new StringCharacterIterator(_workingString));
+
+			_errorDetected = false;
+			runParser();
+		}
+		//
+		////////////////////////////////////////////////////////////
+
+		StatementParseResult ret = new StatementParseResult(
+			_workingTableAliasInfos.toArray(new TableAliasInfo[_workingTableAliasInfos.size()]),
+			_workingErrorInfos.toArray(new ErrorInfo[_workingErrorInfos.size()]));
+
+		_workingTableAliasInfos.clear();
+		_workingErrorInfos.clear();
+		_lastParserRunOffset = 0;
+
+		return ret;
+	}
+
+   /**
+    * Splits text at semicolons that are not inside comments or literals.
+    * Whitespace and comments in front of a statement do not belong to its interval.
+    * So edits between statements don't cause the statements to be parsed again.
+    *
+    * @return Begin (inclusive) and end (exclusive) of the statements
+    */
+   static int[][] calculateStatementIntervals(String text)
+   {
+      Vector<int[]> ret = new Vector<int[]>();
+
+      int begin = -1;
+      int end = -1;
+      int i = 0;
+      while(i < text.length())
+      {
+         char c = text.charAt(i);
+
+         if('-' == c && i + 1 < text.length() && '-' == text.charAt(i + 1))
+         {
+            int lineEnd = text.indexOf('\n', i);
+            i = -1 == lineEnd ? text.length() : lineEnd + 1;
+            continue;
+         }
+
+         if('/' == c && i + 1 < text.length() && '*' == text.charAt(i + 1))
+         {
+            int commentEnd = text.indexOf("*/", i + 2);
+            i = -1 == commentEnd ? text.length() : commentEnd + 2;
+            continue;
+         }
+
+         if(Character.isWhitespace(c))
+         {
+            ++i;
+            continue;
+         }
+
+         if(-1 == begin)
+         {
+            begin = i;
+         }
+
+         if('\'' == c || '"' == c)
+         {
+            int literalEnd = text.indexOf(c, i + 1);
+            i = -1 == literalEnd ? text.length() : literalEnd + 1;
+            end = i;
+            continue;
+         }
+
+         ++i;
+         end = i;
+
+         if(';' == c)
+         {
+            ret.add(new int[]{begin, end});
+            begin = -1;
+         }
+      }
+
+      if(-1 != begin)
+      {
+         ret.add(new int[]{begin, end});
+      }
+
+      return ret.toArray(new int[ret.size()][]);
+   }
+
 	private void runParser()
 	{
 		_errors.reset();
@@ -653,6 +790,36 @@ public final class ParserThread extends Thread
       }
    }
 
+	/**
+	 * The outcome of parsing one statement. Positions are relative to the statement begin.
+	 */
+	private static class StatementParseResult
+	{
+		private TableAliasInfo[] _tableAliasInfos;
+		private ErrorInfo[] _errorInfos;
+
+		StatementParseResult(TableAliasInfo[] tableAliasInfos, ErrorInfo[] errorInfos)
+		{
+			_tableAliasInfos = tableAliasInfos;
+			_errorInfos = errorInfos;
+		}
+
+		void addTo(int statementBegin, Vector<TableAliasInfo> tableAliasInfos, Vector<ErrorInfo> errorInfos)
+		{
+			for (int i = 0; i < _tableAliasInfos.length; i++)
+			{
+				TableAliasInfo buf = _tableAliasInfos[i];
+				tableAliasInfos.add(new TableAliasInfo(buf.aliasName, buf.tableName, buf.statBegin + statementBegin));
+			}
+
+			for (int i = 0; i < _errorInfos.length; i++)
+			{
+				ErrorInfo buf = _errorInfos[i];
+				errorInfos.add(new ErrorInfo(buf.message, buf.beginPos + statementBegin, buf.endPos + statementBegin));
+			}
+		}
+	}
+
 	/**
 	 * error stream which simply saves the error codes and line info
 	 * circularily in an array of fixed size, and notifies a listener
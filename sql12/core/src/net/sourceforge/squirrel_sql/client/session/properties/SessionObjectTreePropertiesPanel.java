@@ -168,6 +168,8 @@ public class SessionObjectTreePropertiesPanel
 		private IntegerField _contentsNbrRowsToShowField = new IntegerField(5);
 		private JCheckBox _contentsLimitRowsChk = new JCheckBox(i18n.LIMIT_ROWS_CONTENTS);
 		private JCheckBox _showRowCountChk = new JCheckBox(i18n.SHOW_ROW_COUNT);
+		// i18n[sessionPropertiesPanel.exactRowCount=Count rows exactly after showing estimated Row Counts]
+		private JCheckBox _exactRowCountChk = new JCheckBox(s_stringMgr.getString("sessionPropertiesPanel.exactRowCount"));
       private JTextField _catalogFilterInclude = new JTextField();
       private JTextField _catalogFilterExclude = new JTextField();
 		private JTextField _schemaFilterInclude = new JTextField();
@@ -176,6 +178,9 @@ public class SessionObjectTreePropertiesPanel
 		private JTextField _objectFilterExclude = new JTextField();
 		// i18n[sessionPropertiesPanel.loadSchemasCatalogs=Load Schemas/Catalogs into object tree]
 		private JCheckBox _loadSchemasCatalogsChk = new JCheckBox(s_stringMgr.getString("sessionPropertiesPanel.loadSchemasCatalogs"));
+		// i18n[sessionPropertiesPanel.incrementalSchemaRefresh=Refresh reloads only Schemas that changed]
+		private JCheckBox _incrementalSchemaRefreshChk = new JCheckBox(s_stringMgr.getString("sessionPropertiesPanel.incrementalSchemaRefresh"));
+		private IntegerField _schemaLoadingConnectionsField = new IntegerField(3);
 
 		/**
 		 * This object will update the status of the GUI controls as the user
@@ -194,7 +199,10 @@ public class SessionObjectTreePropertiesPanel
 			_contentsNbrRowsToShowField.setInt(props.getContentsNbrRowsToShow());
 			_contentsLimitRowsChk.setSelected(props.getContentsLimitRows());
 			_showRowCountChk.setSelected(props.getShowRowCount());
+			_exactRowCountChk.setSelected(props.getExactRowCount());
 			_loadSchemasCatalogsChk.setSelected(props.getLoadSchemasCatalogs());
+			_incrementalSchemaRefreshChk.setSelected(props.getIncrementalSchemaRefresh());
+			_schemaLoadingConnectionsField.setInt(props.getSchemaLoadingConnections());
          _catalogFilterInclude.setText(props.getCatalogFilterInclude());
          _schemaFilterInclude.setText(props.getSchemaFilterInclude());
          _objectFilterInclude.setText(props.getObjectFilterInclude());
@@ -209,10 +217,16 @@ public class SessionObjectTreePropertiesPanel
 		{
 			props.setContentsNbrRowsToShow(_contentsNbrRowsToShowField.getInt());
 			props.setContentsLimitRows(_contentsLimitRowsChk.isSelected());
+			props.setIncrementalSchemaRefresh(_incrementalSchemaRefreshChk.isSelected());
+			props.setSchemaLoadingConnections(Math.max(1, _schemaLoadingConnectionsField.getInt()));
 
          final boolean oldShowRowCount = props.getShowRowCount();
          final boolean newShowRowCount = _showRowCountChk.isSelected();
          props.setShowRowCount(newShowRowCount);
+
+         final boolean oldExactRowCount = props.getExactRowCount();
+         final boolean newExactRowCount = _exactRowCountChk.isSelected();
+         props.setExactRowCount(newExactRowCount);
          // detect whether or not the object tree needs refreshing by comparing
          // old value to new and see if they changed.
 
@@ -244,6 +258,7 @@ public class SessionObjectTreePropertiesPanel
          if (
                oldLoadSchemasCatalogs != newLoadSchemasCatalogs ||
                oldShowRowCount != newShowRowCount ||
+               oldExactRowCount != newExactRowCount ||
 
               !StringUtils.equals(oldCatalogFilterInclude, newCatalogFilterInclude) ||
               !StringUtils.equals(oldSchemaFilterInclude, newSchemaFilterInclude) ||
@@ -261,6 +276,7 @@ public class SessionObjectTreePropertiesPanel
 		private void updateControlStatus()
 		{
 			_contentsNbrRowsToShowField.setEnabled(_contentsLimitRowsChk.isSelected());
+			_exactRowCountChk.setEnabled(_showRowCountChk.isSelected());
 		}
 
 		private void createGUI()
@@ -290,6 +306,7 @@ public class SessionObjectTreePropertiesPanel
 			gbc.anchor = GridBagConstraints.CENTER;
 
 			_contentsLimitRowsChk.addChangeListener(_controlMediator);
+			_showRowCountChk.addChangeListener(_controlMediator);
 
 			_contentsNbrRowsToShowField.setColumns(5);
 
@@ -302,6 +319,24 @@ public class SessionObjectTreePropertiesPanel
 			gbc.gridx = 0;
 			pnl.add(_showRowCountChk, gbc);
 
+			++gbc.gridy; // new line
+			gbc.gridx = 0;
+			pnl.add(_exactRowCountChk, gbc);
+
+			++gbc.gridy; // new line
+			gbc.gridx = 0;
+			pnl.add(_incrementalSchemaRefreshChk, gbc);
+
+			++gbc.gridy; // new line
+			gbc.gridx = 0;
+			gbc.gridwidth = 2;
+			// i18n[sessionPropertiesPanel.schemaLoadingConnections=Connections used to load Schemas in parallel:]
+			pnl.add(new JLabel(s_stringMgr.getString("sessionPropertiesPanel.schemaLoadingConnections")), gbc);
+			gbc.gridwidth = 1;
+			gbc.gridx+=2;
+			pnl.add(_schemaLoadingConnectionsField, gbc);
+			gbc.gridwidth = GridBagConstraints.REMAINDER;
+
 			++gbc.gridy; // new line
 			gbc.gridx = 0;
 			gbc.gridwidth = 2;
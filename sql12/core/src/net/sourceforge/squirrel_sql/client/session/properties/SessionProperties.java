@@ -76,6 +76,7 @@ public class SessionProperties implements Cloneable, Serializable, ISessionPrope
       String SQL_ENTRY_HISTORY_SIZE = "sqlEntryHistorySize";
       String SHOW_RESULTS_META_DATA = "showResultsMetaData";
       String SHOW_ROW_COUNT = "showRowCount";
+      String EXACT_ROW_COUNT = "exactRowCount";
       String SHOW_TOOL_BAR = "showToolBar";
       String SQL_SHARE_HISTORY = "sqlShareHistory";
       String SQL_EXECUTION_TAB_PLACEMENT = "sqlExecutionTabPlacement";
@@ -95,6 +96,15 @@ public class SessionProperties implements Cloneable, Serializable, ISessionPrope
       String SQL_FETCH_SIZE = "sqlFetchSize";
       String ALLOW_CTRL_B_JUMP_TO_OBJECT_TREE = "AllowCtrlBJumpToObjectTree";
       String ALLOW_CTRL_MOUSE_CLICK_JUMP_TO_OBJECT_TREE = "AllowCtrlMouseClickJumpToObjectTree";
+      String SQL_BATCH_MODE = "sqlBatchMode";
+      String SQL_BATCH_SIZE = "sqlBatchSize";
+      String SQL_COLUMNAR_RESULT_STORAGE = "sqlColumnarResultStorage";
+      String SQL_SPILL_RESULTS_TO_DISK = "sqlSpillResultsToDisk";
+      String SQL_RESULT_CACHE = "sqlResultCache";
+      String SQL_RESULT_CACHE_TIME_TO_LIVE = "sqlResultCacheTimeToLive";
+      String SQL_RESULT_CACHE_SIZE = "sqlResultCacheSize";
+      String INCREMENTAL_SCHEMA_REFRESH = "incrementalSchemaRefresh";
+      String SCHEMA_LOADING_CONNECTIONS = "schemaLoadingConnections";
    }
 
    private static final FontInfo DEFAULT_FONT_INFO =
@@ -168,6 +178,12 @@ public class SessionProperties implements Cloneable, Serializable, ISessionPrope
     */
    private boolean _showRowCount = false;
 
+   /**
+    * <TT>true</TT> if the row counts displayed in object tree are counted exactly
+    * after estimates from the database's statistics have been shown.
+    */
+   private boolean _exactRowCount = true;
+
    /** <TT>true</TT> if toolbar should be shown. */
    private boolean _showToolbar = true;
 
@@ -273,6 +289,64 @@ public class SessionProperties implements Cloneable, Serializable, ISessionPrope
 
     private boolean _allowCtrlMouseClickJumpToObjectTree = true;
 
+   /**
+    * If <TT>true</TT> runs of consecutive INSERT, UPDATE, DELETE and MERGE
+    * statements of a script are sent to the database using
+    * Statement.addBatch()/executeBatch().
+    */
+   private boolean _sqlBatchMode = false;
+
+   /**
+    * The maximum number of statements sent in one JDBC batch.
+    * Only applicable if <TT>_sqlBatchMode</TT> is true.
+    */
+   private int _sqlBatchSize = 100;
+
+   /**
+    * If <TT>true</TT> the rows of SQL results and table contents are
+    * stored column by column in primitive arrays instead of one object
+    * per value.
+    */
+   private boolean _sqlColumnarResultStorage = false;
+
+   /**
+    * If <TT>true</TT> only a bounded number of rows of SQL results and
+    * table contents is kept in memory, the other rows are written to a
+    * temporary file.
+    */
+   private boolean _sqlSpillResultsToDisk = false;
+
+   /**
+    * If <TT>true</TT> the results of SELECT statements are kept for the session
+    * and shown again when the same statement is executed again.
+    */
+   private boolean _sqlResultCache = false;
+
+   /**
+    * Number of seconds a result stays in the session's result cache.
+    * Only applicable if <TT>_sqlResultCache</TT> is true.
+    */
+   private int _sqlResultCacheTimeToLive = 300;
+
+   /**
+    * Maximum estimated memory in MB used by the session's result cache.
+    * Only applicable if <TT>_sqlResultCache</TT> is true.
+    */
+   private int _sqlResultCacheSize = 50;
+
+   /**
+    * If <TT>true</TT> refreshing the object tree reloads only the schemas
+    * that changed since they were loaded.
+    */
+   private boolean _incrementalSchemaRefresh = false;
+
+   /**
+    * Number of connections used to load the schemas' tables and procedures.
+    * If greater than one, additional connections are opened and the schemas
+    * are loaded in parallel.
+    */
+   private int _schemaLoadingConnections = 1;
+
    /**
     * Default ctor.
     */
@@ -602,6 +676,159 @@ public class SessionProperties implements Cloneable, Serializable, ISessionPrope
       }
    }
 
+   public boolean getSQLBatchMode()
+   {
+      return _sqlBatchMode;
+   }
+
+   public void setSQLBatchMode(boolean value)
+   {
+      if (_sqlBatchMode != value)
+      {
+         final boolean oldValue = _sqlBatchMode;
+         _sqlBatchMode = value;
+         getPropertyChangeReporter().firePropertyChange(
+            IPropertyNames.SQL_BATCH_MODE,
+            oldValue, _sqlBatchMode);
+      }
+   }
+
+   public int getSQLBatchSize()
+   {
+      return _sqlBatchSize;
+   }
+
+   public void setSQLBatchSize(int value)
+   {
+      if (_sqlBatchSize != value)
+      {
+         final int oldValue = _sqlBatchSize;
+         _sqlBatchSize = value;
+         getPropertyChangeReporter().firePropertyChange(
+            IPropertyNames.SQL_BATCH_SIZE,
+            oldValue, _sqlBatchSize);
+      }
+   }
+
+   public boolean getSQLColumnarResultStorage()
+   {
+      return _sqlColumnarResultStorage;
+   }
+
+   public void setSQLColumnarResultStorage(boolean value)
+   {
+      if (_sqlColumnarResultStorage != value)
+      {
+         final boolean oldValue = _sqlColumnarResultStorage;
+         _sqlColumnarResultStorage = value;
+         getPropertyChangeReporter().firePropertyChange(
+            IPropertyNames.SQL_COLUMNAR_RESULT_STORAGE,
+            oldValue, _sqlColumnarResultStorage);
+      }
+   }
+
+   public boolean getSQLSpillResultsToDisk()
+   {
+      return _sqlSpillResultsToDisk;
+   }
+
+   public void setSQLSpillResultsToDisk(boolean value)
+   {
+      if (_sqlSpillResultsToDisk != value)
+      {
+         final boolean oldValue = _sqlSpillResultsToDisk;
+         _sqlSpillResultsToDisk = value;
+         getPropertyChangeReporter().firePropertyChange(
+            IPropertyNames.SQL_SPILL_RESULTS_TO_DISK,
+            oldValue, _sqlSpillResultsToDisk);
+      }
+   }
+
+   public boolean getSQLResultCache()
+   {
+      return _sqlResultCache;
+   }
+
+   public void setSQLResultCache(boolean value)
+   {
+      if (_sqlResultCache != value)
+      {
+         final boolean oldValue = _sqlResultCache;
+         _sqlResultCache = value;
+         getPropertyChangeReporter().firePropertyChange(
+            IPropertyNames.SQL_RESULT_CACHE,
+            oldValue, _sqlResultCache);
+      }
+   }
+
+   public int getSQLResultCacheTimeToLive()
+   {
+      return _sqlResultCacheTimeToLive;
+   }
+
+   public void setSQLResultCacheTimeToLive(int value)
+   {
+      if (_sqlResultCacheTimeToLive != value)
+      {
+         final int oldValue = _sqlResultCacheTimeToLive;
+         _sqlResultCacheTimeToLive = value;
+         getPropertyChangeReporter().firePropertyChange(
+            IPropertyNames.SQL_RESULT_CACHE_TIME_TO_LIVE,
+            oldValue, _sqlResultCacheTimeToLive);
+      }
+   }
+
+   public int getSQLResultCacheSize()
+   {
+      return _sqlResultCacheSize;
+   }
+
+   public void setSQLResultCacheSize(int value)
+   {
+      if (_sqlResultCacheSize != value)
+      {
+         final int oldValue = _sqlResultCacheSize;
+         _sqlResultCacheSize = value;
+         getPropertyChangeReporter().firePropertyChange(
+            IPropertyNames.SQL_RESULT_CACHE_SIZE,
+            oldValue, _sqlResultCacheSize);
+      }
+   }
+
+   public boolean getIncrementalSchemaRefresh()
+   {
+      return _incrementalSchemaRefresh;
+   }
+
+   public void setIncrementalSchemaRefresh(boolean value)
+   {
+      if (_incrementalSchemaRefresh != value)
+      {
+         final boolean oldValue = _incrementalSchemaRefresh;
+         _incrementalSchemaRefresh = value;
+         getPropertyChangeReporter().firePropertyChange(
+            IPropertyNames.INCREMENTAL_SCHEMA_REFRESH,
+            oldValue, _incrementalSchemaRefresh);
+      }
+   }
+
+   public int getSchemaLoadingConnections()
+   {
+      return _schemaLoadingConnections;
+   }
+
+   public void setSchemaLoadingConnections(int value)
+   {
+      if (_schemaLoadingConnections != value)
+      {
+         final int oldValue = _schemaLoadingConnections;
+         _schemaLoadingConnections = value;
+         getPropertyChangeReporter().firePropertyChange(
+            IPropertyNames.SCHEMA_LOADING_CONNECTIONS,
+            oldValue, _schemaLoadingConnections);
+      }
+   }
+
    public boolean getContentsLimitRows()
    {
       return _contentsLimitRows;
@@ -761,6 +988,25 @@ public class SessionProperties implements Cloneable, Serializable, ISessionPrope
          oldValue, _showRowCount);
    }
 
+   /**
+    * Return whether the row counts displayed in object tree are counted
+    * exactly by <TT>select count(*)</TT>. If not only the estimates from
+    * the database's statistics are displayed.
+    */
+   public boolean getExactRowCount()
+   {
+      return _exactRowCount;
+   }
+
+   public synchronized void setExactRowCount(boolean data)
+   {
+      final boolean oldValue = _exactRowCount;
+      _exactRowCount = data;
+      getPropertyChangeReporter().firePropertyChange(
+         IPropertyNames.EXACT_ROW_COUNT,
+         oldValue, _exactRowCount);
+   }
+
    /**
     * Return the string used to represent a Start of Line Comment in SQL.
     */
@@ -63,6 +63,8 @@ public class SessionPropertiesBeanInfo extends SimpleBeanInfo
 							"getMetaDataOutputClassName", "setMetaDataOutputClassName"),
 						new PropertyDescriptor(IPropNames.SHOW_ROW_COUNT, SessionProperties.class,
 							"getShowRowCount", "setShowRowCount"),
+						new PropertyDescriptor(IPropNames.EXACT_ROW_COUNT, SessionProperties.class,
+							"getExactRowCount", "setExactRowCount"),
 						new PropertyDescriptor(IPropNames.SHOW_TOOL_BAR, SessionProperties.class, "getShowToolBar",
 							"setShowToolBar"),
 						new PropertyDescriptor(IPropNames.SQL_LIMIT_ROWS, SessionProperties.class,
@@ -144,7 +146,34 @@ public class SessionPropertiesBeanInfo extends SimpleBeanInfo
                         "getAllowCtrlBJumpToObjectTree", "setAllowCtrlBJumpToObjectTree"),
 
                   new PropertyDescriptor(IPropNames.ALLOW_CTRL_MOUSE_CLICK_JUMP_TO_OBJECT_TREE, SessionProperties.class,
-                        "getAllowCtrlMouseClickJumpToObjectTree", "setAllowCtrlMouseClickJumpToObjectTree")
+                        "getAllowCtrlMouseClickJumpToObjectTree", "setAllowCtrlMouseClickJumpToObjectTree"),
+
+                  new PropertyDescriptor(IPropNames.SQL_BATCH_MODE, SessionProperties.class,
+                        "getSQLBatchMode", "setSQLBatchMode"),
+
+                  new PropertyDescriptor(IPropNames.SQL_BATCH_SIZE, SessionProperties.class,
+                        "getSQLBatchSize", "setSQLBatchSize"),
+
+                  new PropertyDescriptor(IPropNames.SQL_COLUMNAR_RESULT_STORAGE, SessionProperties.class,
+                        "getSQLColumnarResultStorage", "setSQLColumnarResultStorage"),
+
+                  new PropertyDescriptor(IPropNames.SQL_SPILL_RESULTS_TO_DISK, SessionProperties.class,
+                        "getSQLSpillResultsToDisk", "setSQLSpillResultsToDisk"),
+
+                  new PropertyDescriptor(IPropNames.SQL_RESULT_CACHE, SessionProperties.class,
+                        "getSQLResultCache", "setSQLResultCache"),
+
+                  new PropertyDescriptor(IPropNames.SQL_RESULT_CACHE_TIME_TO_LIVE, SessionProperties.class,
+                        "getSQLResultCacheTimeToLive", "setSQLResultCacheTimeToLive"),
+
+                  new PropertyDescriptor(IPropNames.SQL_RESULT_CACHE_SIZE, SessionProperties.class,
+                        "getSQLResultCacheSize", "setSQLResultCacheSize"),
+
+                  new PropertyDescriptor(IPropNames.INCREMENTAL_SCHEMA_REFRESH, SessionProperties.class,
+                        "getIncrementalSchemaRefresh", "setIncrementalSchemaRefresh"),
+
+                  new PropertyDescriptor(IPropNames.SCHEMA_LOADING_CONNECTIONS, SessionProperties.class,
+                        "getSchemaLoadingConnections", "setSchemaLoadingConnections")
             };
 
 			return result;
@@ -141,6 +141,16 @@ public class SessionSQLPropertiesPanel
       private JCheckBox _limitSQLResultTabsChk = new JCheckBox(s_stringMgr.getString("SessionSQLPropertiesPanel.limitsqlresulttabs"));
       private IntegerField _limitSQLResultTabsField = new IntegerField(5);
 
+      private JCheckBox _batchModeChk = new JCheckBox(s_stringMgr.getString("SessionSQLPropertiesPanel.batchMode"));
+      private IntegerField _batchSizeField = new IntegerField(5);
+
+      private JCheckBox _columnarResultStorageChk = new JCheckBox(s_stringMgr.getString("SessionSQLPropertiesPanel.columnarResultStorage"));
+      private JCheckBox _spillResultsToDiskChk = new JCheckBox(s_stringMgr.getString("SessionSQLPropertiesPanel.spillResultsToDisk"));
+
+      private JCheckBox _resultCacheChk = new JCheckBox(s_stringMgr.getString("SessionSQLPropertiesPanel.resultCache"));
+      private IntegerField _resultCacheTimeToLiveField = new IntegerField(5);
+      private IntegerField _resultCacheSizeField = new IntegerField(5);
+
 		/** Label displaying the selected font. */
 		private JLabel _fontLbl = new JLabel();
 
@@ -229,6 +239,16 @@ public class SessionSQLPropertiesPanel
 			_limitSQLResultTabsChk.setSelected(props.getLimitSQLResultTabs());
 			_limitSQLResultTabsField.setInt(props.getSqlResultTabLimit());
 
+			_batchModeChk.setSelected(props.getSQLBatchMode());
+			_batchSizeField.setInt(props.getSQLBatchSize());
+
+			_columnarResultStorageChk.setSelected(props.getSQLColumnarResultStorage());
+			_spillResultsToDiskChk.setSelected(props.getSQLSpillResultsToDisk());
+
+			_resultCacheChk.setSelected(props.getSQLResultCache());
+			_resultCacheTimeToLiveField.setInt(props.getSQLResultCacheTimeToLive());
+			_resultCacheSizeField.setInt(props.getSQLResultCacheSize());
+
 			_showResultsMetaChk.setSelected(props.getShowResultsMetaData());
 
 			FontInfo fi = props.getFontInfo();
@@ -284,6 +304,37 @@ public class SessionSQLPropertiesPanel
             props.setSqlResultTabLimit(_limitSQLResultTabsField.getInt());
          }
 
+			props.setSQLBatchMode(_batchModeChk.isSelected());
+         if(0 >= _batchSizeField.getInt())
+         {
+            props.setSQLBatchSize(100);
+         }
+         else
+         {
+            props.setSQLBatchSize(_batchSizeField.getInt());
+         }
+
+			props.setSQLColumnarResultStorage(_columnarResultStorageChk.isSelected());
+			props.setSQLSpillResultsToDisk(_spillResultsToDiskChk.isSelected());
+
+			props.setSQLResultCache(_resultCacheChk.isSelected());
+         if(0 >= _resultCacheTimeToLiveField.getInt())
+         {
+            props.setSQLResultCacheTimeToLive(300);
+         }
+         else
+         {
+            props.setSQLResultCacheTimeToLive(_resultCacheTimeToLiveField.getInt());
+         }
+         if(0 >= _resultCacheSizeField.getInt())
+         {
+            props.setSQLResultCacheSize(50);
+         }
+         else
+         {
+            props.setSQLResultCacheSize(_resultCacheSizeField.getInt());
+         }
+
 			props.setShowResultsMetaData(_showResultsMetaChk.isSelected());
 		}
 
@@ -294,6 +345,11 @@ public class SessionSQLPropertiesPanel
 
          _limitSQLResultTabsField.setEnabled(_limitSQLResultTabsChk.isSelected());
 
+         _batchSizeField.setEnabled(_batchModeChk.isSelected());
+
+         _resultCacheTimeToLiveField.setEnabled(_resultCacheChk.isSelected());
+         _resultCacheSizeField.setEnabled(_resultCacheChk.isSelected());
+
 			// If this session doesn't share SQL history with other sessions
 			// then disable the controls that relate to SQL History.
 			final boolean shareSQLHistory = _shareSQLHistoryChk.isSelected();
@@ -335,6 +391,12 @@ public class SessionSQLPropertiesPanel
          _limitSQLResultTabsChk.addChangeListener(_controlMediator);
          _limitSQLResultTabsField.setColumns(5);
 
+         _batchModeChk.addChangeListener(_controlMediator);
+         _batchSizeField.setColumns(5);
+
+         _resultCacheChk.addChangeListener(_controlMediator);
+         _resultCacheTimeToLiveField.setColumns(5);
+         _resultCacheSizeField.setColumns(5);
 
 			gbc.gridx = 0;
 			gbc.gridy = 0;
@@ -385,6 +447,49 @@ public class SessionSQLPropertiesPanel
 			gbc.gridwidth = GridBagConstraints.REMAINDER;
 			pnl.add(_abortOnErrorChk, gbc);
 
+         ++gbc.gridy; // new line
+         gbc.gridx = 0;
+         gbc.gridwidth = 2;
+         pnl.add(_batchModeChk, gbc);
+         gbc.gridwidth = 1;
+         gbc.gridx+=2;
+         pnl.add(_batchSizeField, gbc);
+         ++gbc.gridx;
+         gbc.gridwidth = GridBagConstraints.REMAINDER;
+         pnl.add(new JLabel(s_stringMgr.getString("SessionSQLPropertiesPanel.statements")), gbc);
+
+         ++gbc.gridy; // new line
+         gbc.gridx = 0;
+         gbc.gridwidth = GridBagConstraints.REMAINDER;
+         pnl.add(_columnarResultStorageChk, gbc);
+
+         ++gbc.gridy; // new line
+         gbc.gridx = 0;
+         gbc.gridwidth = GridBagConstraints.REMAINDER;
+         pnl.add(_spillResultsToDiskChk, gbc);
+
+         ++gbc.gridy; // new line
+         gbc.gridx = 0;
+         gbc.gridwidth = 2;
+         pnl.add(_resultCacheChk, gbc);
+         gbc.gridwidth = 1;
+         gbc.gridx+=2;
+         pnl.add(_resultCacheTimeToLiveField, gbc);
+         ++gbc.gridx;
+         gbc.gridwidth = GridBagConstraints.REMAINDER;
+         pnl.add(new JLabel(s_stringMgr.getString("SessionSQLPropertiesPanel.seconds")), gbc);
+
+         ++gbc.gridy; // new line
+         gbc.gridx = 0;
+         gbc.gridwidth = 2;
+         pnl.add(new JLabel(s_stringMgr.getString("SessionSQLPropertiesPanel.resultCacheSize"), SwingConstants.RIGHT), gbc);
+         gbc.gridwidth = 1;
+         gbc.gridx+=2;
+         pnl.add(_resultCacheSizeField, gbc);
+         ++gbc.gridx;
+         gbc.gridwidth = GridBagConstraints.REMAINDER;
+         pnl.add(new JLabel(s_stringMgr.getString("SessionSQLPropertiesPanel.megabytes")), gbc);
+
 			++gbc.gridy; // new line
 			gbc.gridx = 0;
 			gbc.gridwidth = GridBagConstraints.REMAINDER;
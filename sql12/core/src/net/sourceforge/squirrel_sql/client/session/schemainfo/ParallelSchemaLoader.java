@@ -0,0 +1,193 @@
+package net.sourceforge.squirrel_sql.client.session.schemainfo;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.sourceforge.squirrel_sql.client.gui.db.SchemaLoadInfo;
+import net.sourceforge.squirrel_sql.client.session.ISession;
+import net.sourceforge.squirrel_sql.fw.sql.IProcedureInfo;
+import net.sourceforge.squirrel_sql.fw.sql.ITableInfo;
+import net.sourceforge.squirrel_sql.fw.sql.SQLConnection;
+import net.sourceforge.squirrel_sql.fw.sql.SQLDatabaseMetaData;
+import net.sourceforge.squirrel_sql.fw.util.log.ILogger;
+import net.sourceforge.squirrel_sql.fw.util.log.LoggerController;
+
+/**
+ * Loads the tables and procedures of several Schemas in parallel.
+ *
+ * Besides the Session's connection additional connections to the Alias are opened.
+ * Each thread of the pool uses one of these connections at a time. The loaded
+ * Schemas are handed to the caller's thread in the order they complete,
+ * so merging them into the SchemaInfoCache needs no further synchronization.
+ */
+class ParallelSchemaLoader
+{
+   private static final ILogger s_log = LoggerController.createLogger(ParallelSchemaLoader.class);
+
+   private static final AtomicInteger s_threadCount = new AtomicInteger();
+
+   static class SchemaLoadResult
+   {
+      SchemaLoadInfo schemaLoadInfo;
+      ITableInfo[] tables = new ITableInfo[0];
+      IProcedureInfo[] procedures = new IProcedureInfo[0];
+   }
+
+   static interface SchemaLoadedCallback
+   {
+      /**
+       * Called on the thread that called load().
+       *
+       * @param loadedCount Number of Schemas loaded so far including this one.
+       */
+      void schemaLoaded(SchemaLoadResult result, int loadedCount);
+   }
+
+   private ISession _session;
+   private SQLDatabaseMetaData _sessionDmd;
+   private int _connectionCount;
+
+   /**
+    * @param sessionDmd Meta data of the Session's connection. It is used by one of the threads.
+    * @param connectionCount Maximum number of connections used including the Session's connection.
+    */
+   ParallelSchemaLoader(ISession session, SQLDatabaseMetaData sessionDmd, int connectionCount)
+   {
+      _session = session;
+      _sessionDmd = sessionDmd;
+      _connectionCount = connectionCount;
+   }
+
+   void load(SchemaLoadInfo[] schemaLoadInfos, SchemaLoadedCallback callback)
+   {
+      int wantedConnections = Math.min(_connectionCount, schemaLoadInfos.length);
+
+      ArrayList<SQLConnection> additionalConnections = new ArrayList<SQLConnection>();
+      final BlockingQueue<SQLDatabaseMetaData> freeDmds = new LinkedBlockingQueue<SQLDatabaseMetaData>();
+      freeDmds.add(_sessionDmd);
+
+      ExecutorService executorService = null;
+      try
+      {
+         for (int i = 1; i < wantedConnections; i++)
+         {
+            // If opening a connection fails an error message was shown already.
+            // We go on with the connections we have.
+            SQLConnection conn = _session.createUnmanagedConnection();
+            if(null == conn)
+            {
+               break;
+            }
+            additionalConnections.add(conn);
+            freeDmds.add(conn.getSQLMetaData());
+         }
+
+         executorService = Executors.newFixedThreadPool(freeDmds.size(), new ThreadFactory()
+         {
+            public Thread newThread(Runnable r)
+            {
+               Thread t = new Thread(r, "Schema loader " + s_threadCount.incrementAndGet());
+               t.setDaemon(true);
+               return t;
+            }
+         });
+
+         CompletionService<SchemaLoadResult> completionService =
+            new ExecutorCompletionService<SchemaLoadResult>(executorService);
+
+         for (final SchemaLoadInfo schemaLoadInfo : schemaLoadInfos)
+         {
+            completionService.submit(new Callable<SchemaLoadResult>()
+            {
+               public SchemaLoadResult call() throws Exception
+               {
+                  SQLDatabaseMetaData dmd = freeDmds.take();
+                  try
+                  {
+                     return loadSchema(dmd, schemaLoadInfo);
+                  }
+                  finally
+                  {
+                     freeDmds.add(dmd);
+                  }
+               }
+            });
+         }
+
+         for (int i = 0; i < schemaLoadInfos.length; i++)
+         {
+            try
+            {
+               callback.schemaLoaded(completionService.take().get(), i + 1);
+            }
+            catch (ExecutionException e)
+            {
+               s_log.error("Failed to load Schema", e.getCause());
+            }
+         }
+      }
+      catch (InterruptedException e)
+      {
+         s_log.info("Parallel loading of Schemas interrupted", e);
+         Thread.currentThread().interrupt();
+      }
+      finally
+      {
+         if(null != executorService)
+         {
+            executorService.shutdownNow();
+         }
+
+         for (SQLConnection conn : additionalConnections)
+         {
+            try
+            {
+               conn.close();
+            }
+            catch (SQLException e)
+            {
+               s_log.error("Failed to close Schema loading connection", e);
+            }
+         }
+      }
+   }
+
+   private SchemaLoadResult loadSchema(SQLDatabaseMetaData dmd, SchemaLoadInfo schemaLoadInfo)
+   {
+      SchemaLoadResult ret = new SchemaLoadResult();
+      ret.schemaLoadInfo = schemaLoadInfo;
+
+      try
+      {
+         ret.tables = dmd.getTables(null, schemaLoadInfo.schemaName, null, schemaLoadInfo.tableTypes, null);
+      }
+      catch (Throwable th)
+      {
+         s_log.error("failed to load table names of Schema " + schemaLoadInfo.schemaName, th);
+      }
+
+      if(schemaLoadInfo.loadProcedures)
+      {
+         try
+         {
+            ret.procedures = dmd.getProcedures(null, schemaLoadInfo.schemaName, null, null);
+         }
+         catch (Throwable th)
+         {
+            s_log.error("Failed to load stored procedures of Schema " + schemaLoadInfo.schemaName, th);
+         }
+      }
+
+      return ret;
+   }
+}
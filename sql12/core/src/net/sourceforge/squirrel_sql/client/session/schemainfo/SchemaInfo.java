@@ -21,10 +21,13 @@ package net.sourceforge.squirrel_sql.client.session.schemainfo;
  * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
  */
 import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.List;
@@ -41,6 +44,7 @@ import net.sourceforge.squirrel_sql.client.session.ISession;
 import net.sourceforge.squirrel_sql.client.session.schemainfo.ObjFilterMatcher;
 import net.sourceforge.squirrel_sql.client.session.event.SessionAdapter;
 import net.sourceforge.squirrel_sql.client.session.event.SessionEvent;
+import net.sourceforge.squirrel_sql.fw.dialects.DialectFactory;
 import net.sourceforge.squirrel_sql.fw.gui.GUIUtils;
 import net.sourceforge.squirrel_sql.fw.sql.DataTypeInfo;
 import net.sourceforge.squirrel_sql.fw.sql.DatabaseObjectType;
@@ -52,10 +56,12 @@ import net.sourceforge.squirrel_sql.fw.sql.ProcedureInfo;
 import net.sourceforge.squirrel_sql.fw.sql.ProgressCallBack;
 import net.sourceforge.squirrel_sql.fw.sql.ProgressCallBackAdaptor;
 import net.sourceforge.squirrel_sql.fw.sql.SQLDatabaseMetaData;
+import net.sourceforge.squirrel_sql.fw.sql.SQLUtilities;
 import net.sourceforge.squirrel_sql.fw.sql.TableColumnInfo;
 import net.sourceforge.squirrel_sql.fw.sql.TableInfo;
 import net.sourceforge.squirrel_sql.fw.util.StringManager;
 import net.sourceforge.squirrel_sql.fw.util.StringManagerFactory;
+import net.sourceforge.squirrel_sql.fw.util.TaskThreadPool;
 import net.sourceforge.squirrel_sql.fw.util.log.ILogger;
 import net.sourceforge.squirrel_sql.fw.util.log.LoggerController;
 
@@ -173,6 +179,17 @@ public class SchemaInfo
    }
 
 
+   /**
+    * Called instead of <TT>initialLoad()</TT> when the session is closed before the load started.
+    * Releases the threads waiting for schemas, tables or stored procedures to be loaded.
+    */
+   public void initialLoadCancelled()
+   {
+      notifySchemasAndCatalogsLoad();
+      notifyTablesLoaded();
+      notifyStoredProceduresLoaded();
+   }
+
    public void initialLoad(ISession session)
    {
       _session = session;
@@ -242,6 +259,282 @@ public class SchemaInfo
    	});
    }
       
+   /**
+    * Reloads the tables and procedures of the Schemas that changed since they were loaded.
+    * Schema independent data and the columns of unchanged Schemas stay cached.
+    *
+    * A Schema is regarded as unchanged if the fingerprint query of the Session's dialect
+    * returns the same value as when the Schema was loaded last. If the dialect doesn't provide
+    * such a query the Schema's table and procedure names are read and compared to the cached ones.
+    * In this case changed columns of existing tables are not detected.
+    *
+    * Listeners implementing SchemaInfoDeltaListener are told what changed.
+    */
+   public void reloadChangedSchemas()
+   {
+      if(false == _loaded)
+      {
+         reloadAll();
+         return;
+      }
+
+      synchronized (this)
+      {
+         if(_loading)
+         {
+            return;
+         }
+         _loading = true;
+      }
+
+      final SchemaInfoDelta delta = new SchemaInfoDelta();
+      try
+      {
+         _dmd = _session.getSQLConnection().getSQLMetaData();
+         _dmd.clearCache();
+
+         setProgress(i18n.LOADING_SCHEMAS_MSG, 0);
+         privateLoadCatalogs();
+         privateLoadSchemas();
+
+         String fingerprintSQL = DialectFactory.getDialect(_dmd).getSchemaFingerprintSQL();
+
+         SchemaLoadInfo[] schemaLoadInfos = getSchemaLoadInfosBySchema();
+         HashSet<String> schemaNames = new HashSet<String>();
+         for (int i = 0; i < schemaLoadInfos.length; i++)
+         {
+            String schemaName = schemaLoadInfos[i].schemaName;
+            schemaNames.add(schemaName);
+
+            setProgress(i18n.LOADING_TABLES_MSG + (null == schemaName ? "" : " (" + schemaName + ")"), MAX_PROGRESS * (i + 1) / (schemaLoadInfos.length + 1));
+
+            String fingerprint = null;
+            if(null != fingerprintSQL && null != schemaName)
+            {
+               try
+               {
+                  fingerprint = fetchSchemaFingerprint(fingerprintSQL, schemaName);
+               }
+               catch (SQLException e)
+               {
+                  s_log.info("Schema fingerprint query failed. Will compare object names instead.", e);
+                  fingerprintSQL = null;
+               }
+            }
+
+            if(null != fingerprint && fingerprint.equals(_schemaInfoCache.getSchemaFingerprint(schemaName)))
+            {
+               continue;
+            }
+
+            reloadSchema(schemaLoadInfos[i], null != fingerprint, delta);
+            _schemaInfoCache.writeSchemaFingerprint(schemaName, fingerprint);
+         }
+
+         if(false == schemaNames.contains(null))
+         {
+            removeObjectsOfDroppedSchemas(schemaNames, delta);
+         }
+      }
+      catch (Throwable th)
+      {
+         s_log.error("Failed to reload changed schemas", th);
+      }
+      finally
+      {
+         if (_session.getSessionSheet() != null)
+         {
+            _session.getSessionSheet().setStatusBarProgressFinished();
+         }
+         _loading = false;
+      }
+
+      if(false == delta.isEmpty())
+      {
+         fireSchemaInfoUpdate(delta);
+      }
+   }
+
+   /**
+    * Like SchemaInfoCache.getMatchingSchemaLoadInfos() but the "load all Schemas" entry is
+    * split into one entry per Schema.
+    */
+   private SchemaLoadInfo[] getSchemaLoadInfosBySchema()
+   {
+      SchemaLoadInfo[] schemaLoadInfos = _schemaInfoCache.getMatchingSchemaLoadInfos(null);
+      List<String> schemas = _schemaInfoCache.getSchemasForReadOnly();
+
+      if(1 != schemaLoadInfos.length || null != schemaLoadInfos[0].schemaName || schemas.isEmpty())
+      {
+         return schemaLoadInfos;
+      }
+
+      ArrayList<SchemaLoadInfo> ret = new ArrayList<SchemaLoadInfo>();
+      for (String schema : schemas)
+      {
+         SchemaLoadInfo buf = new SchemaLoadInfo(schemaLoadInfos[0].tableTypes);
+         buf.schemaName = schema;
+         buf.loadProcedures = schemaLoadInfos[0].loadProcedures;
+         ret.add(buf);
+      }
+      return ret.toArray(new SchemaLoadInfo[ret.size()]);
+   }
+
+   private String fetchSchemaFingerprint(String fingerprintSQL, String schemaName) throws SQLException
+   {
+      PreparedStatement stat = null;
+      ResultSet res = null;
+      try
+      {
+         stat = _session.getSQLConnection().prepareStatement(fingerprintSQL);
+         int paramCount = fingerprintSQL.length() - fingerprintSQL.replace("?", "").length();
+         for (int i = 1; i <= paramCount; i++)
+         {
+            stat.setString(i, schemaName);
+         }
+
+         res = stat.executeQuery();
+         if(res.next())
+         {
+            return res.getString(1);
+         }
+         return null;
+      }
+      finally
+      {
+         SQLUtilities.closeResultSet(res);
+         SQLUtilities.closeStatement(stat);
+      }
+   }
+
+   /**
+    * Reads the Schema's tables and procedures from the database and applies the differences
+    * to the cache.
+    *
+    * @param columnsMayHaveChanged If true the cached columns of all the Schema's tables are removed.
+    */
+   private void reloadSchema(SchemaLoadInfo schemaLoadInfo, boolean columnsMayHaveChanged, SchemaInfoDelta delta) throws SQLException
+   {
+      String schemaName = schemaLoadInfo.schemaName;
+      boolean changed = columnsMayHaveChanged;
+
+      if(0 < schemaLoadInfo.tableTypes.length)
+      {
+         HashMap<String, ITableInfo> cachedTables = new HashMap<String, ITableInfo>();
+         for (ITableInfo ti : _schemaInfoCache.getITableInfosForReadOnly())
+         {
+            if((null == schemaName || schemaName.equals(ti.getSchemaName()))
+               && SchemaInfoCache.containsType(schemaLoadInfo.tableTypes, ti.getType()))
+            {
+               cachedTables.put(ti.getQualifiedName() + "/" + ti.getType(), ti);
+            }
+         }
+
+         ITableInfo[] tables = _dmd.getTables(null, schemaName, null, schemaLoadInfo.tableTypes, null);
+
+         ArrayList<ITableInfo> added = new ArrayList<ITableInfo>();
+         for (ITableInfo ti : tables)
+         {
+            ITableInfo cached = cachedTables.remove(ti.getQualifiedName() + "/" + ti.getType());
+            if(null == cached)
+            {
+               added.add(ti);
+            }
+            else if(columnsMayHaveChanged)
+            {
+               _schemaInfoCache.clearColumns(cached.getSimpleName());
+            }
+         }
+
+         if(false == cachedTables.isEmpty())
+         {
+            _schemaInfoCache.removeFromTableCache(new HashSet<ITableInfo>(cachedTables.values()));
+            delta.getRemovedTables().addAll(cachedTables.values());
+            changed = true;
+         }
+
+         if(false == added.isEmpty())
+         {
+            _schemaInfoCache.writeToTableCache(added.toArray(new ITableInfo[added.size()]));
+            delta.getAddedTables().addAll(added);
+            changed = true;
+         }
+      }
+
+      if(schemaLoadInfo.loadProcedures)
+      {
+         HashMap<String, IProcedureInfo> cachedProcedures = new HashMap<String, IProcedureInfo>();
+         synchronized(_schemaInfoCache.getIProcedureInfosForReadOnly())
+         {
+            for (IProcedureInfo pi : _schemaInfoCache.getIProcedureInfosForReadOnly().keySet())
+            {
+               if(null == schemaName || schemaName.equals(pi.getSchemaName()))
+               {
+                  cachedProcedures.put(pi.getQualifiedName(), pi);
+               }
+            }
+         }
+
+         IProcedureInfo[] procedures = _dmd.getProcedures(null, schemaName, null, null);
+
+         for (IProcedureInfo pi : procedures)
+         {
+            if(null == cachedProcedures.remove(pi.getQualifiedName()))
+            {
+               _schemaInfoCache.writeToProcedureCache(pi);
+               delta.getAddedProcedures().add(pi);
+               changed = true;
+            }
+         }
+
+         if(false == cachedProcedures.isEmpty())
+         {
+            _schemaInfoCache.removeFromProcedureCache(cachedProcedures.values());
+            delta.getRemovedProcedures().addAll(cachedProcedures.values());
+            changed = true;
+         }
+      }
+
+      if(changed)
+      {
+         delta.getChangedSchemas().add(schemaName);
+      }
+   }
+
+   private void removeObjectsOfDroppedSchemas(HashSet<String> schemaNames, SchemaInfoDelta delta)
+   {
+      HashSet<String> droppedSchemas = new HashSet<String>();
+
+      HashSet<ITableInfo> toRemove = new HashSet<ITableInfo>();
+      for (ITableInfo ti : _schemaInfoCache.getITableInfosForReadOnly())
+      {
+         if(null != ti.getSchemaName() && false == schemaNames.contains(ti.getSchemaName()))
+         {
+            toRemove.add(ti);
+            droppedSchemas.add(ti.getSchemaName());
+         }
+      }
+
+      ArrayList<IProcedureInfo> proceduresToRemove = new ArrayList<IProcedureInfo>();
+      synchronized(_schemaInfoCache.getIProcedureInfosForReadOnly())
+      {
+         for (IProcedureInfo pi : _schemaInfoCache.getIProcedureInfosForReadOnly().keySet())
+         {
+            if(null != pi.getSchemaName() && false == schemaNames.contains(pi.getSchemaName()))
+            {
+               proceduresToRemove.add(pi);
+               droppedSchemas.add(pi.getSchemaName());
+            }
+         }
+      }
+
+      _schemaInfoCache.removeFromTableCache(toRemove);
+      delta.getRemovedTables().addAll(toRemove);
+      _schemaInfoCache.removeFromProcedureCache(proceduresToRemove);
+      delta.getRemovedProcedures().addAll(proceduresToRemove);
+      delta.getChangedSchemas().addAll(droppedSchemas);
+   }
+
    private void privateLoadAll()
    {
       synchronized (this)
@@ -345,12 +638,23 @@ public class SchemaInfo
             s_log.error("Error loading functions", ex);
          }
 
-         progress = loadTables(null, null, null, null, progress);
-         notifyTablesLoaded();
+         SchemaLoadInfo[] schemaLoadInfos = getSchemaLoadInfosBySchema();
+         int schemaLoadingConnections = _session.getProperties().getSchemaLoadingConnections();
+         if(1 < schemaLoadingConnections && 1 < schemaLoadInfos.length)
+         {
+            progress = loadTablesAndStoredProceduresParallel(schemaLoadInfos, schemaLoadingConnections, progress);
+            notifyTablesLoaded();
+            notifyStoredProceduresLoaded();
+         }
+         else
+         {
+            progress = loadTables(null, null, null, null, progress);
+            notifyTablesLoaded();
 
 
-         progress = loadStoredProcedures(null, null, null, progress);
-         notifyStoredProceduresLoaded();
+            progress = loadStoredProcedures(null, null, null, progress);
+            notifyStoredProceduresLoaded();
+         }
 
       }
       finally
@@ -397,6 +701,55 @@ public class SchemaInfo
    }
 
 
+   /**
+    * Loads tables and procedures of the Schemas using several connections.
+    * Each Schema is written to the cache and published to the SchemaInfoDeltaListeners
+    * as soon as it is loaded.
+    */
+   private int loadTablesAndStoredProceduresParallel(SchemaLoadInfo[] schemaLoadInfos, int connectionCount, int progress)
+   {
+      long start = 0, finish = 0;
+      if (s_log.isDebugEnabled()) {
+          s_log.debug(i18n.LOADING_TABLES_MSG + " (parallel)");
+          start = System.currentTimeMillis();
+      }
+
+      final int beginProgress = getLoadMethodProgress(progress++);
+      final int endProgress = getLoadMethodProgress(++progress);
+      final int schemaCount = schemaLoadInfos.length;
+      setProgress(i18n.LOADING_TABLES_MSG, beginProgress);
+
+      ParallelSchemaLoader.SchemaLoadedCallback callback = new ParallelSchemaLoader.SchemaLoadedCallback()
+      {
+         public void schemaLoaded(ParallelSchemaLoader.SchemaLoadResult result, int loadedCount)
+         {
+            _schemaInfoCache.writeToTableCache(result.tables);
+            for (int i = 0; i < result.procedures.length; i++)
+            {
+               _schemaInfoCache.writeToProcedureCache(result.procedures[i]);
+            }
+
+            String schemaName = result.schemaLoadInfo.schemaName;
+            setProgress(i18n.LOADING_TABLES_MSG + " (" + schemaName + ")",
+                        beginProgress + (endProgress - beginProgress) * loadedCount / schemaCount);
+
+            SchemaInfoDelta delta = new SchemaInfoDelta();
+            delta.getChangedSchemas().add(schemaName);
+            delta.getAddedTables().addAll(Arrays.asList(result.tables));
+            delta.getAddedProcedures().addAll(Arrays.asList(result.procedures));
+            fireSchemaLoaded(delta);
+         }
+      };
+
+      new ParallelSchemaLoader(_session, _dmd, connectionCount).load(schemaLoadInfos, callback);
+
+      if (s_log.isDebugEnabled()) {
+          finish = System.currentTimeMillis();
+          s_log.debug("Tables and stored procedures loaded in " + (finish - start) + " ms");
+      }
+      return progress;
+   }
+
    private int loadStoredProcedures(String catalog, String schema, String procNamePattern, int progress)
    {
       
@@ -1265,7 +1618,7 @@ public class SchemaInfo
                   }
 
                }
-            });
+            }, null, TaskThreadPool.Priority.BACKGROUND, _session);
          }
          else
          {
@@ -1519,6 +1872,54 @@ public class SchemaInfo
 
    }
 
+   private void fireSchemaInfoUpdate(final SchemaInfoDelta delta)
+   {
+      SwingUtilities.invokeLater(new Runnable()
+      {
+         public void run()
+         {
+            SchemaInfoUpdateListener[] listeners = 
+                _listeners.toArray(new SchemaInfoUpdateListener[0]);
+
+            for (int i = 0; i < listeners.length; i++)
+            {
+               if(listeners[i] instanceof SchemaInfoDeltaListener)
+               {
+                  ((SchemaInfoDeltaListener)listeners[i]).schemaInfoChanged(delta);
+               }
+               else
+               {
+                  listeners[i].schemaInfoUpdated();
+               }
+            }
+         }
+      });
+   }
+
+   /**
+    * Publishes a single loaded Schema during the initial load. Only SchemaInfoDeltaListeners are
+    * notified, the others get the usual schemaInfoUpdated() call when loading is finished.
+    */
+   private void fireSchemaLoaded(final SchemaInfoDelta delta)
+   {
+      SwingUtilities.invokeLater(new Runnable()
+      {
+         public void run()
+         {
+            SchemaInfoUpdateListener[] listeners =
+                _listeners.toArray(new SchemaInfoUpdateListener[0]);
+
+            for (int i = 0; i < listeners.length; i++)
+            {
+               if(listeners[i] instanceof SchemaInfoDeltaListener)
+               {
+                  ((SchemaInfoDeltaListener)listeners[i]).schemaInfoChanged(delta);
+               }
+            }
+         }
+      });
+   }
+
    public void addSchemaInfoUpdateListener(SchemaInfoUpdateListener l)
    {
       _listeners.remove(l);
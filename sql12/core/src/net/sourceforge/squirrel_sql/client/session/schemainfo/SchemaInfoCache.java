@@ -4,12 +4,15 @@ import java.io.Serializable;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
@@ -26,16 +29,9 @@ import net.sourceforge.squirrel_sql.fw.util.log.ILogger;
 import net.sourceforge.squirrel_sql.fw.util.log.LoggerController;
 
 /**
- * This class is Serializable and yet doesn't declare serialVersionUID.  This is done intentionally so that 
- * the SchemaInfoCacheSerializer can detect incompatible class changes (by catching Exception when attempting
- * to read the serialized file).  This was deemed to be a less error-prone way of handling changes to this
- * class file's definition, then having to remember to consider whether or not serialVersionUID should be 
- * incremented for any given change.  Therefore, it is very important to not introduce a serialVersionUID
- * class member, as forgetting to update it might lead to undetected incompatible class changes that don't 
- * manifest themselves during de-serialization, but occur later in the application when missing members are
- * invoked (for example).  This more conservative approach can lead to the serialized file being removed upon
- * installing a newer version of SQuirreL more often than necessary, but it seemed to us to be better than the 
- * alternative.
+ * The cache is stored by SchemaInfoCacheSerializer in the binary format described in
+ * SchemaInfoCacheFormat. When data is added to this class that needs to be stored,
+ * SchemaInfoCacheFormat and its version number must be changed accordingly.
  */
 @SuppressWarnings("serial")
 public class SchemaInfoCache implements Serializable
@@ -90,6 +86,13 @@ public class SchemaInfoCache implements Serializable
    
    private Hashtable<CaseInsensitiveString, List<IProcedureInfo>> _procedureInfosBySimpleName = 
        new Hashtable<CaseInsensitiveString, List<IProcedureInfo>>();
+
+   /**
+    * Schema fingerprints computed by the dialect when the Schema's objects were loaded.
+    * See SchemaInfo.reloadChangedSchemas()
+    */
+   private Map<String, String> _schemaFingerprints =
+       Collections.synchronizedMap(new HashMap<String, String>());
    //
    ///////////////////////////////////////////////////////////////////////////
 
@@ -296,24 +299,33 @@ public class SchemaInfoCache implements Serializable
       // Doug Lea, in this post: 
       // http://osdir.com/ml/java.jsr.166-concurrency/2004-06/msg00001.html
       //
-      // Here we copy the existing internal array into a new array that
-      // is large enough to hold the original and new elements.  Then sort it.  
-      // And finally, create a new CopyOnWriteArrayList with the sorted array.
-      
-      /* Now, create an array large enough to hold the original and the new */
-      int currSize = _iTableInfos.size();
-      ITableInfo[] tableArr = 
-         _iTableInfos.toArray(new ITableInfo[currSize+infos.length]);
-      /* 
-       * Append the new tables to the new array, starting at the end of the 
-       * original 
-       */
-      for (int i = 0; i < infos.length; i++) {
-         tableArr[currSize + i] = infos[i];
+      // Here we copy the existing internal array, which is sorted already,
+      // and merge the sorted new elements into it. Sorting only the new
+      // elements matters when tables are written Schema by Schema.
+      // Finally, create a new CopyOnWriteArrayList with the merged array.
+      TableInfoSimpleNameComparator comparator = new TableInfoSimpleNameComparator();
+
+      ITableInfo[] currArr = _iTableInfos.toArray(new ITableInfo[0]);
+      ITableInfo[] newArr = infos.clone();
+      Arrays.sort(newArr, comparator);
+
+      ITableInfo[] tableArr = new ITableInfo[currArr.length + newArr.length];
+      int i = 0, j = 0, k = 0;
+      while (i < currArr.length && j < newArr.length) {
+         // Equal names keep insertion order, as Arrays.sort() did.
+         if (comparator.compare(newArr[j], currArr[i]) < 0) {
+            tableArr[k++] = newArr[j++];
+         } else {
+            tableArr[k++] = currArr[i++];
+         }
       }
-      
-      /* Sort it and store in a new CopyOnWriteArrayList */
-      Arrays.sort(tableArr, new TableInfoSimpleNameComparator());
+      while (i < currArr.length) {
+         tableArr[k++] = currArr[i++];
+      }
+      while (j < newArr.length) {
+         tableArr[k++] = newArr[j++];
+      }
+
       _iTableInfos = new CopyOnWriteArrayList<ITableInfo>(tableArr);
    }
    
@@ -331,6 +343,86 @@ public class SchemaInfoCache implements Serializable
    }
 
 
+   /**
+    * Removes the specified ITableInfos, which must have been taken from this cache, and
+    * the columns of the tables.
+    */
+   void removeFromTableCache(Collection<ITableInfo> infos)
+   {
+      // One copy of the CopyOnWriteArrayList only.
+      _iTableInfos.removeAll(infos);
+
+      for (ITableInfo ti : infos)
+      {
+         CaseInsensitiveString ciSimpleTableName = new CaseInsensitiveString(ti.getSimpleName());
+         List<ITableInfo> tableInfos = _tableInfosBySimpleName.get(ciSimpleTableName);
+         if(null != tableInfos)
+         {
+            tableInfos.remove(ti);
+            if(0 == tableInfos.size())
+            {
+               _tableInfosBySimpleName.remove(ciSimpleTableName);
+               _tableNames.remove(ciSimpleTableName);
+            }
+         }
+
+         _schemaInfoColumnCache.clearColumns(ciSimpleTableName);
+      }
+   }
+
+   /**
+    * Removes the specified IProcedureInfos, which must have been taken from this cache.
+    */
+   void removeFromProcedureCache(Collection<IProcedureInfo> infos)
+   {
+      for (IProcedureInfo pi : infos)
+      {
+         _iProcedureInfos.remove(pi);
+
+         CaseInsensitiveString ciSimpleName = new CaseInsensitiveString(pi.getSimpleName());
+         List<IProcedureInfo> procedureInfos = _procedureInfosBySimpleName.get(ciSimpleName);
+         if(null != procedureInfos)
+         {
+            procedureInfos.remove(pi);
+            if(0 == procedureInfos.size())
+            {
+               _procedureInfosBySimpleName.remove(ciSimpleName);
+               _procedureNames.remove(ciSimpleName);
+            }
+         }
+      }
+   }
+
+   void clearColumns(String simpleTableName)
+   {
+      _schemaInfoColumnCache.clearColumns(new CaseInsensitiveString(simpleTableName));
+   }
+
+   String getSchemaFingerprint(String schemaName)
+   {
+      return _schemaFingerprints.get(schemaName);
+   }
+
+   /**
+    * @param fingerprint null removes the Schema's fingerprint
+    */
+   void writeSchemaFingerprint(String schemaName, String fingerprint)
+   {
+      if(null == fingerprint)
+      {
+         _schemaFingerprints.remove(schemaName);
+      }
+      else
+      {
+         _schemaFingerprints.put(schemaName, fingerprint);
+      }
+   }
+
+   Map<String, String> getSchemaFingerprintsForReadOnly()
+   {
+      return _schemaFingerprints;
+   }
+
    public void writeToProcedureCache(IProcedureInfo procedure)
    {
       String proc = procedure.getSimpleName();
@@ -361,6 +453,16 @@ public class SchemaInfoCache implements Serializable
       _schemaInfoColumnCache.writeColumsNotAccessible(th, tableName);
    }
 
+   void restoreColumns(ExtendedColumnInfo[] ecis, String simpleTableName)
+   {
+      _schemaInfoColumnCache.writeColumsToCache(ecis, new CaseInsensitiveString(simpleTableName));
+   }
+
+   void restoreColumnsNotAccessible(String simpleTableName)
+   {
+      _schemaInfoColumnCache.restoreColumnsNotAccessible(simpleTableName);
+   }
+
 
 
    void initialLoadDone()
@@ -375,6 +477,16 @@ public class SchemaInfoCache implements Serializable
       _schemaPropsCacheIsBasedOn = null;
    }
 
+   SQLAliasSchemaProperties getSchemaPropsCacheIsBasedOn()
+   {
+      return _schemaPropsCacheIsBasedOn;
+   }
+
+   void setSchemaPropsCacheIsBasedOn(SQLAliasSchemaProperties schemaPropsCacheIsBasedOn)
+   {
+      _schemaPropsCacheIsBasedOn = schemaPropsCacheIsBasedOn;
+   }
+
    void prepareSerialization()
    {
       _schemaPropsCacheIsBasedOn = _session.getAlias().getSchemaProperties();
@@ -396,12 +508,14 @@ public class SchemaInfoCache implements Serializable
          for (int i = 0; i < tableTypeCombis.length; i++)
          {
             clearTables(null, tableTypeCombis[i].schemaName, null, tableTypeCombis[i].types);
+            _schemaFingerprints.remove(tableTypeCombis[i].schemaName);
          }
 
          String[] procedureSchemas = _schemaPropsCacheIsBasedOn.fetchAllSchemaProceduresNotToBeCached();
          for (int i = 0; i < procedureSchemas.length; i++)
          {
             clearStoredProcedures(null, procedureSchemas[i], null);
+            _schemaFingerprints.remove(procedureSchemas[i]);
          }
 
 
@@ -427,6 +541,8 @@ public class SchemaInfoCache implements Serializable
       _iProcedureInfos.clear();
       _procedureInfosBySimpleName.clear();
 
+      _schemaFingerprints.clear();
+
       _schemas.clear();
 
    }
@@ -626,40 +742,24 @@ public class SchemaInfoCache implements Serializable
       return _schemaInfoColumnCache.getExtColumnInfosByColumnNameForReadOnly();
    }
 
-   Map<CaseInsensitiveString, String> getProcedureNamesForReadOnly()
+   Map<CaseInsensitiveString, List<ExtendedColumnInfo>> getExtendedColumnInfosByTableNameForReadOnly()
    {
-      return _procedureNames;
+      return _schemaInfoColumnCache.getExtendedColumnInfosByTableNameForReadOnly();
    }
 
-   Map<IProcedureInfo, IProcedureInfo> getIProcedureInfosForReadOnly()
+   Set<CaseInsensitiveString> getTablesWithInaccessibleColumnsForReadOnly()
    {
-      return _iProcedureInfos;
+      return _schemaInfoColumnCache.getTablesWithInaccessibleColumnsForReadOnly();
    }
 
-   /**
-    * When SchemaInfoCache has been deserialized the the constants in DatabaseObjectType
-    * still come from the last serialisation. Thus the == operator won't work
-    * unless we replace the DatabaseObjectTypes
-    *
-    */
-   void replaceDatabaseObjectTypeConstantObjectsByConstantObjectsOfThisVM()
+   Map<CaseInsensitiveString, String> getProcedureNamesForReadOnly()
    {
-      for (ITableInfo iTableInfo : _iTableInfos)
-      {
-         if(iTableInfo instanceof TableInfo)
-         {
-            ((TableInfo)iTableInfo).replaceDatabaseObjectTypeConstantObjectsByConstantObjectsOfThisVM();
-         }
-      }
-
-      for (IProcedureInfo iProcedureInfo : _iProcedureInfos.keySet())
-      {
-         if(iProcedureInfo instanceof DatabaseObjectInfo)
-         {
-            ((DatabaseObjectInfo)iProcedureInfo).replaceDatabaseObjectTypeConstantObjectsByConstantObjectsOfThisVM(DatabaseObjectType.PROCEDURE);
-         }
-      }
+      return _procedureNames;
+   }
 
+   Map<IProcedureInfo, IProcedureInfo> getIProcedureInfosForReadOnly()
+   {
+      return _iProcedureInfos;
    }
 
    /**
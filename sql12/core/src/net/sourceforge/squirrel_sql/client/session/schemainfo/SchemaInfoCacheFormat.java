@@ -0,0 +1,559 @@
+package net.sourceforge.squirrel_sql.client.session.schemainfo;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.sourceforge.squirrel_sql.client.gui.db.SQLAliasSchemaDetailProperties;
+import net.sourceforge.squirrel_sql.client.gui.db.SQLAliasSchemaProperties;
+import net.sourceforge.squirrel_sql.client.session.ExtendedColumnInfo;
+import net.sourceforge.squirrel_sql.fw.sql.IProcedureInfo;
+import net.sourceforge.squirrel_sql.fw.sql.ITableInfo;
+import net.sourceforge.squirrel_sql.fw.sql.ProcedureInfo;
+import net.sourceforge.squirrel_sql.fw.sql.TableInfo;
+
+/**
+ * Binary file format of the schema cache.
+ *
+ * The file starts with a magic number and a format version followed by a table
+ * of all strings used in the file. Every other record refers to strings by their
+ * index into this table, so names like schemas, types or catalogs are stored once only.
+ * Then follows a length prefixed section holding the schema independent data and an index
+ * of the per schema sections that hold the tables, procedures and columns of one schema.
+ * All positions are absolute, so the file can be read positionally or memory mapped, and
+ * sections of schemas that are not needed are never read.
+ *
+ * Whenever the content of a record changes VERSION must be increased. Files of another
+ * version are ignored and will be overwritten when the cache is stored the next time.
+ */
+class SchemaInfoCacheFormat
+{
+   private static final int MAGIC = 0x53514348; // "SQCH"
+   static final int VERSION = 2;
+
+   private static final int NULL_STRING = -1;
+
+   private static final int HEADER_LENGTH = 16;
+
+   static void write(SchemaInfoCache cache, File file) throws IOException
+   {
+      StringTableBuilder strings = new StringTableBuilder();
+
+      DataBuffer global = new DataBuffer();
+      writeGlobalSection(cache, global, strings);
+
+      Map<String, SchemaSection> sections = createSchemaSections(cache, strings);
+
+      // Header, string table and section index need to be known to compute section positions.
+      byte[] stringData = strings.getData();
+      long pos = HEADER_LENGTH + 4L * strings.size() + stringData.length + 4 + global.size() + 4 + 16L * sections.size();
+
+      DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 65536));
+      try
+      {
+         dos.writeInt(MAGIC);
+         dos.writeInt(VERSION);
+         dos.writeInt(strings.size());
+         dos.writeInt(stringData.length);
+         strings.writeOffsets(dos);
+         dos.write(stringData);
+
+         dos.writeInt(global.size());
+         global.writeTo(dos);
+
+         dos.writeInt(sections.size());
+         for (SchemaSection section : sections.values())
+         {
+            dos.writeInt(section.schemaIndex);
+            dos.writeLong(pos);
+            dos.writeInt(section.data.size());
+            pos += section.data.size();
+         }
+
+         for (SchemaSection section : sections.values())
+         {
+            section.data.writeTo(dos);
+         }
+      }
+      finally
+      {
+         dos.close();
+      }
+   }
+
+   /**
+    * @param schemaFilter Names of the schemas to read. Data of schemas not contained is skipped.
+    * null means all schemas are read.
+    */
+   static SchemaInfoCache read(File file, Set<String> schemaFilter) throws IOException
+   {
+      RandomAccessFile raf = new RandomAccessFile(file, "r");
+      try
+      {
+         FileChannel channel = raf.getChannel();
+
+         ByteBuffer header = readFully(channel, 0, HEADER_LENGTH);
+         if(MAGIC != header.getInt())
+         {
+            throw new IOException("Not a schema cache file: " + file.getPath());
+         }
+         int version = header.getInt();
+         if(VERSION != version)
+         {
+            throw new IOException("Schema cache file version " + version + " is not supported: " + file.getPath());
+         }
+
+         int stringCount = header.getInt();
+         int stringDataLength = header.getInt();
+         StringTable strings = new StringTable(readFully(channel, HEADER_LENGTH, 4 * stringCount + stringDataLength), stringCount);
+
+         long pos = HEADER_LENGTH + 4L * stringCount + stringDataLength;
+         int globalLength = readFully(channel, pos, 4).getInt();
+         pos += 4;
+
+         SchemaInfoCache ret = new SchemaInfoCache();
+         readGlobalSection(ret, readFully(channel, pos, globalLength), strings);
+         pos += globalLength;
+
+         int sectionCount = readFully(channel, pos, 4).getInt();
+         ByteBuffer index = readFully(channel, pos + 4, 16 * sectionCount);
+
+         ArrayList<ITableInfo> tableInfos = new ArrayList<ITableInfo>();
+         for (int i = 0; i < sectionCount; i++)
+         {
+            String schemaName = strings.get(index.getInt());
+            long sectionPos = index.getLong();
+            int sectionLength = index.getInt();
+
+            if(null != schemaFilter && null != schemaName && false == schemaFilter.contains(schemaName))
+            {
+               continue;
+            }
+
+            readSchemaSection(ret, readFully(channel, sectionPos, sectionLength), strings, tableInfos);
+         }
+
+         ret.writeToTableCache(tableInfos.toArray(new ITableInfo[tableInfos.size()]));
+
+         return ret;
+      }
+      finally
+      {
+         raf.close();
+      }
+   }
+
+   private static ByteBuffer readFully(FileChannel channel, long pos, int length) throws IOException
+   {
+      ByteBuffer ret = ByteBuffer.allocate(length);
+      while(ret.hasRemaining())
+      {
+         if(0 > channel.read(ret, pos + ret.position()))
+         {
+            throw new EOFException("Schema cache file is truncated");
+         }
+      }
+      ret.flip();
+      return ret;
+   }
+
+   private static void writeGlobalSection(SchemaInfoCache cache, DataBuffer out, StringTableBuilder strings) throws IOException
+   {
+      SQLAliasSchemaProperties props = cache.getSchemaPropsCacheIsBasedOn();
+      out.writeBoolean(null != props);
+      if(null != props)
+      {
+         out.writeInt(props.getGlobalState());
+         out.writeBoolean(props.isCacheSchemaIndependentMetaData());
+
+         SQLAliasSchemaDetailProperties[] details = props.getSchemaDetails();
+         out.writeInt(details.length);
+         for (SQLAliasSchemaDetailProperties detail : details)
+         {
+            out.writeInt(strings.indexOf(detail.getSchemaName()));
+            out.writeInt(detail.getTable());
+            out.writeInt(detail.getView());
+            out.writeInt(detail.getProcedure());
+         }
+      }
+
+      writeStrings(cache.getCatalogsForReadOnly(), out, strings);
+      writeStrings(cache.getSchemasForReadOnly(), out, strings);
+      writeStrings(cache.getKeywordsForReadOnly().values(), out, strings);
+      writeStrings(cache.getDataTypesForReadOnly().values(), out, strings);
+
+      Map<CaseInsensitiveString, String> functions = cache.getFunctionsForReadOnly();
+      synchronized(functions)
+      {
+         writeStrings(functions.values(), out, strings);
+      }
+
+      ArrayList<String> inaccessible = new ArrayList<String>();
+      Set<CaseInsensitiveString> tablesWithInaccessibleColumns = cache.getTablesWithInaccessibleColumnsForReadOnly();
+      synchronized(tablesWithInaccessibleColumns)
+      {
+         for (CaseInsensitiveString tableName : tablesWithInaccessibleColumns)
+         {
+            inaccessible.add(tableName.toString());
+         }
+      }
+      writeStrings(inaccessible, out, strings);
+
+      Map<String, String> fingerprints = cache.getSchemaFingerprintsForReadOnly();
+      synchronized(fingerprints)
+      {
+         out.writeInt(fingerprints.size());
+         for (Map.Entry<String, String> entry : fingerprints.entrySet())
+         {
+            out.writeInt(strings.indexOf(entry.getKey()));
+            out.writeInt(strings.indexOf(entry.getValue()));
+         }
+      }
+   }
+
+   private static void readGlobalSection(SchemaInfoCache cache, ByteBuffer in, StringTable strings)
+   {
+      if(0 != in.get())
+      {
+         SQLAliasSchemaProperties props = new SQLAliasSchemaProperties();
+         props.setGlobalState(in.getInt());
+         props.setCacheSchemaIndependentMetaData(0 != in.get());
+
+         SQLAliasSchemaDetailProperties[] details = new SQLAliasSchemaDetailProperties[in.getInt()];
+         for (int i = 0; i < details.length; i++)
+         {
+            details[i] = new SQLAliasSchemaDetailProperties();
+            details[i].setSchemaName(strings.get(in.getInt()));
+            details[i].setTable(in.getInt());
+            details[i].setView(in.getInt());
+            details[i].setProcedure(in.getInt());
+         }
+         props.setSchemaDetails(details);
+
+         cache.setSchemaPropsCacheIsBasedOn(props);
+      }
+
+      cache.writeCatalogs(readStrings(in, strings));
+      cache.writeSchemas(readStrings(in, strings));
+      cache.writeKeywords(toCaseInsensitiveTable(readStrings(in, strings)));
+      cache.writeDataTypes(toCaseInsensitiveTable(readStrings(in, strings)));
+      cache.writeFunctions(toCaseInsensitiveTable(readStrings(in, strings)));
+
+      for (String tableName : readStrings(in, strings))
+      {
+         cache.restoreColumnsNotAccessible(tableName);
+      }
+
+      int fingerprintCount = in.getInt();
+      for (int i = 0; i < fingerprintCount; i++)
+      {
+         cache.writeSchemaFingerprint(strings.get(in.getInt()), strings.get(in.getInt()));
+      }
+   }
+
+   private static Map<String, SchemaSection> createSchemaSections(SchemaInfoCache cache, StringTableBuilder strings) throws IOException
+   {
+      LinkedHashMap<String, SchemaSection> sections = new LinkedHashMap<String, SchemaSection>();
+
+      List<ITableInfo> tableInfos = cache.getITableInfosForReadOnly();
+      for (ITableInfo ti : tableInfos)
+      {
+         SchemaSection section = getSection(sections, ti.getSchemaName(), strings);
+         section.tables.writeInt(strings.indexOf(ti.getCatalogName()));
+         section.tables.writeInt(strings.indexOf(ti.getSchemaName()));
+         section.tables.writeInt(strings.indexOf(ti.getSimpleName()));
+         section.tables.writeInt(strings.indexOf(ti.getQualifiedName()));
+         section.tables.writeInt(strings.indexOf(ti.getType()));
+         section.tables.writeInt(strings.indexOf(ti.getRemarks()));
+         ++section.tableCount;
+      }
+
+      Map<IProcedureInfo, IProcedureInfo> procedureInfos = cache.getIProcedureInfosForReadOnly();
+      synchronized(procedureInfos)
+      {
+         for (IProcedureInfo pi : procedureInfos.keySet())
+         {
+            SchemaSection section = getSection(sections, pi.getSchemaName(), strings);
+            section.procedures.writeInt(strings.indexOf(pi.getCatalogName()));
+            section.procedures.writeInt(strings.indexOf(pi.getSchemaName()));
+            section.procedures.writeInt(strings.indexOf(pi.getSimpleName()));
+            section.procedures.writeInt(strings.indexOf(pi.getQualifiedName()));
+            section.procedures.writeInt(strings.indexOf(pi.getRemarks()));
+            section.procedures.writeInt(pi.getProcedureType());
+            ++section.procedureCount;
+         }
+      }
+
+      Map<CaseInsensitiveString, List<ExtendedColumnInfo>> columnsByTableName = cache.getExtendedColumnInfosByTableNameForReadOnly();
+      synchronized(columnsByTableName)
+      {
+         for (Map.Entry<CaseInsensitiveString, List<ExtendedColumnInfo>> entry : columnsByTableName.entrySet())
+         {
+            List<ExtendedColumnInfo> ecis = entry.getValue();
+            SchemaSection section = getSection(sections, ecis.isEmpty() ? null : ecis.get(0).getSchema(), strings);
+
+            section.columns.writeInt(strings.indexOf(entry.getKey().toString()));
+            section.columns.writeInt(ecis.size());
+            for (ExtendedColumnInfo eci : ecis)
+            {
+               section.columns.writeInt(strings.indexOf(eci.getColumnName()));
+               section.columns.writeInt(strings.indexOf(eci.getColumnType()));
+               section.columns.writeInt(eci.getColumnTypeID());
+               section.columns.writeInt(eci.getColumnSize());
+               section.columns.writeInt(eci.getDecimalDigits());
+               section.columns.writeBoolean(eci.isNullable());
+               section.columns.writeInt(strings.indexOf(eci.getCatalog()));
+               section.columns.writeInt(strings.indexOf(eci.getSchema()));
+               section.columns.writeInt(strings.indexOf(eci.getRemarks()));
+            }
+            ++section.columnTableCount;
+         }
+      }
+
+      for (SchemaSection section : sections.values())
+      {
+         section.complete();
+      }
+
+      return sections;
+   }
+
+   private static SchemaSection getSection(Map<String, SchemaSection> sections, String schemaName, StringTableBuilder strings)
+   {
+      SchemaSection ret = sections.get(schemaName);
+      if(null == ret)
+      {
+         ret = new SchemaSection(strings.indexOf(schemaName));
+         sections.put(schemaName, ret);
+      }
+      return ret;
+   }
+
+   private static void readSchemaSection(SchemaInfoCache cache, ByteBuffer in, StringTable strings, List<ITableInfo> tableInfos)
+   {
+      int tableCount = in.getInt();
+      for (int i = 0; i < tableCount; i++)
+      {
+         String catalog = strings.get(in.getInt());
+         String schema = strings.get(in.getInt());
+         String simpleName = strings.get(in.getInt());
+         String qualifiedName = strings.get(in.getInt());
+         String type = strings.get(in.getInt());
+         String remarks = strings.get(in.getInt());
+         tableInfos.add(new TableInfo(catalog, schema, simpleName, type, remarks, qualifiedName));
+      }
+
+      int procedureCount = in.getInt();
+      for (int i = 0; i < procedureCount; i++)
+      {
+         String catalog = strings.get(in.getInt());
+         String schema = strings.get(in.getInt());
+         String simpleName = strings.get(in.getInt());
+         String qualifiedName = strings.get(in.getInt());
+         String remarks = strings.get(in.getInt());
+         int procType = in.getInt();
+         cache.writeToProcedureCache(new ProcedureInfo(catalog, schema, simpleName, remarks, procType, qualifiedName));
+      }
+
+      int columnTableCount = in.getInt();
+      for (int i = 0; i < columnTableCount; i++)
+      {
+         String tableName = strings.get(in.getInt());
+         ExtendedColumnInfo[] ecis = new ExtendedColumnInfo[in.getInt()];
+         for (int j = 0; j < ecis.length; j++)
+         {
+            String columnName = strings.get(in.getInt());
+            String columnType = strings.get(in.getInt());
+            int columnTypeID = in.getInt();
+            int columnSize = in.getInt();
+            int decimalDigits = in.getInt();
+            boolean nullable = 0 != in.get();
+            String catalog = strings.get(in.getInt());
+            String schema = strings.get(in.getInt());
+            String remarks = strings.get(in.getInt());
+            ecis[j] = new ExtendedColumnInfo(columnName, columnType, columnTypeID, columnSize, decimalDigits, nullable, catalog, schema, tableName, remarks);
+         }
+         cache.restoreColumns(ecis, tableName);
+      }
+   }
+
+   private static void writeStrings(Collection<String> values, DataBuffer out, StringTableBuilder strings) throws IOException
+   {
+      out.writeInt(values.size());
+      for (String value : values)
+      {
+         out.writeInt(strings.indexOf(value));
+      }
+   }
+
+   private static String[] readStrings(ByteBuffer in, StringTable strings)
+   {
+      String[] ret = new String[in.getInt()];
+      for (int i = 0; i < ret.length; i++)
+      {
+         ret[i] = strings.get(in.getInt());
+      }
+      return ret;
+   }
+
+   private static Hashtable<CaseInsensitiveString, String> toCaseInsensitiveTable(String[] values)
+   {
+      Hashtable<CaseInsensitiveString, String> ret = new Hashtable<CaseInsensitiveString, String>();
+      for (String value : values)
+      {
+         ret.put(new CaseInsensitiveString(value), value);
+      }
+      return ret;
+   }
+
+   private static class DataBuffer extends DataOutputStream
+   {
+      DataBuffer()
+      {
+         super(new ByteArrayOutputStream());
+      }
+
+      void writeTo(DataOutputStream dos) throws IOException
+      {
+         ((ByteArrayOutputStream)out).writeTo(dos);
+      }
+   }
+
+   private static class SchemaSection
+   {
+      final int schemaIndex;
+
+      final DataBuffer tables = new DataBuffer();
+      int tableCount;
+      final DataBuffer procedures = new DataBuffer();
+      int procedureCount;
+      final DataBuffer columns = new DataBuffer();
+      int columnTableCount;
+
+      final DataBuffer data = new DataBuffer();
+
+      SchemaSection(int schemaIndex)
+      {
+         this.schemaIndex = schemaIndex;
+      }
+
+      void complete() throws IOException
+      {
+         data.writeInt(tableCount);
+         tables.writeTo(data);
+         data.writeInt(procedureCount);
+         procedures.writeTo(data);
+         data.writeInt(columnTableCount);
+         columns.writeTo(data);
+      }
+   }
+
+   /**
+    * Interns the strings of the file while writing.
+    */
+   private static class StringTableBuilder
+   {
+      private HashMap<String, Integer> _indexByString = new HashMap<String, Integer>();
+      private DataBuffer _offsets = new DataBuffer();
+      private ByteArrayOutputStream _data = new ByteArrayOutputStream();
+
+      int indexOf(String s)
+      {
+         if(null == s)
+         {
+            return NULL_STRING;
+         }
+
+         Integer ret = _indexByString.get(s);
+         if(null == ret)
+         {
+            ret = _indexByString.size();
+            _indexByString.put(s, ret);
+
+            try
+            {
+               _offsets.writeInt(_data.size());
+               _data.write(s.getBytes("UTF-8"));
+            }
+            catch (IOException e)
+            {
+               throw new RuntimeException(e);
+            }
+         }
+         return ret;
+      }
+
+      int size()
+      {
+         return _indexByString.size();
+      }
+
+      void writeOffsets(DataOutputStream dos) throws IOException
+      {
+         _offsets.writeTo(dos);
+      }
+
+      byte[] getData()
+      {
+         return _data.toByteArray();
+      }
+   }
+
+   /**
+    * Decodes strings on first access only, so strings used by skipped sections cost nothing.
+    */
+   private static class StringTable
+   {
+      private final ByteBuffer _buf;
+      private final String[] _strings;
+      private final int _dataStart;
+
+      StringTable(ByteBuffer buf, int count)
+      {
+         _buf = buf;
+         _strings = new String[count];
+         _dataStart = 4 * count;
+      }
+
+      String get(int index)
+      {
+         if(NULL_STRING == index)
+         {
+            return null;
+         }
+
+         String ret = _strings[index];
+         if(null == ret)
+         {
+            int begin = _buf.getInt(4 * index);
+            int end = index + 1 < _strings.length ? _buf.getInt(4 * (index + 1)) : _buf.limit() - _dataStart;
+
+            try
+            {
+               ret = new String(_buf.array(), _dataStart + begin, end - begin, "UTF-8");
+            }
+            catch (IOException e)
+            {
+               throw new RuntimeException(e);
+            }
+            _strings[index] = ret;
+         }
+         return ret;
+      }
+   }
+}
@@ -1,24 +1,23 @@
 package net.sourceforge.squirrel_sql.client.session.schemainfo;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.io.ObjectStreamClass;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Hashtable;
+import java.util.Set;
 
 import net.sourceforge.squirrel_sql.client.IApplication;
 import net.sourceforge.squirrel_sql.client.gui.db.ISQLAliasExt;
 import net.sourceforge.squirrel_sql.client.gui.db.SQLAlias;
 import net.sourceforge.squirrel_sql.client.session.ISession;
+import net.sourceforge.squirrel_sql.client.session.SessionManager;
 import net.sourceforge.squirrel_sql.client.util.ApplicationFiles;
 import net.sourceforge.squirrel_sql.fw.id.IIdentifier;
 import net.sourceforge.squirrel_sql.fw.sql.ISQLAlias;
 import net.sourceforge.squirrel_sql.fw.util.IMessageHandler;
 import net.sourceforge.squirrel_sql.fw.util.StringManager;
 import net.sourceforge.squirrel_sql.fw.util.StringManagerFactory;
+import net.sourceforge.squirrel_sql.fw.util.TaskThreadPool;
 import net.sourceforge.squirrel_sql.fw.util.log.ILogger;
 import net.sourceforge.squirrel_sql.fw.util.log.LoggerController;
 
@@ -72,22 +71,7 @@ public class SchemaInfoCacheSerializer
 
       try
       {
-         FileInputStream fis = new FileInputStream(schemaCacheFile);
-         ObjectInputStream ois = new ObjectInputStream(fis)
-         {
-            protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException
-            {
-               ClassLoader loader = SchemaInfoCache.class.getClassLoader();
-               return Class.forName(desc.getName(), false, loader);
-            }
-         };
-         SchemaInfoCache ret = (SchemaInfoCache) ois.readObject();
-         ois.close();
-         fis.close();
-
-         ret.replaceDatabaseObjectTypeConstantObjectsByConstantObjectsOfThisVM();
-
-         return ret;
+         return SchemaInfoCacheFormat.read(schemaCacheFile, getSchemasToLoad(session));
       }
       catch (Exception e)
       {
@@ -96,6 +80,22 @@ public class SchemaInfoCacheSerializer
       }
    }
 
+   /**
+    * Schemas not allowed by the Alias' schema filter are never used by the Session.
+    * So their cached data doesn't need to be read.
+    *
+    * @return null if all schemas are to be loaded.
+    */
+   private static Set<String> getSchemasToLoad(ISession session)
+   {
+      SessionManager sessionMgr = session.getApplication().getSessionManager();
+      if(sessionMgr.areAllSchemasAllowed(session))
+      {
+         return null;
+      }
+      return new HashSet<String>(Arrays.asList(sessionMgr.getAllowedSchemas(session)));
+   }
+
    public static void store(final ISession session, final SchemaInfoCache schemaInfoCache)
    {
 
@@ -106,7 +106,7 @@ public class SchemaInfoCacheSerializer
          {
             privateStore(schemaInfoCache, session);
          }
-      });
+      }, null, TaskThreadPool.Priority.BACKGROUND, null);
 
    }
 
@@ -130,11 +130,14 @@ public class SchemaInfoCacheSerializer
 
          schemaInfoCache.prepareSerialization();
 
-         FileOutputStream fos = new FileOutputStream(schemaCacheFile);
-         ObjectOutputStream oOut = new ObjectOutputStream(fos);
-         oOut.writeObject(schemaInfoCache);
-         oOut.close();
-         fos.close();
+         // Write to a temporary file first so that a failed write doesn't leave a broken cache file.
+         File tempFile = new File(schemaCacheFile.getPath() + ".tmp");
+         SchemaInfoCacheFormat.write(schemaInfoCache, tempFile);
+         if(schemaCacheFile.exists() && false == schemaCacheFile.delete() || false == tempFile.renameTo(schemaCacheFile))
+         {
+            tempFile.delete();
+            s_log.error("Failed to replace Schema cache file " + schemaCacheFile.getPath());
+         }
 
          // i18n[SchemaInfoCacheSerializer.endStore=Finished writing schema cache for Alias{0}. file: {1}]
          msgHandler.showMessage(s_stringMgr.getString("SchemaInfoCacheSerializer.endStore", params));
@@ -25,10 +25,20 @@ public class SchemaInfoColumnCache implements Serializable
 
    void writeColumsToCache(TableColumnInfo[] infos, CaseInsensitiveString simpleTableName)
    {
-      ArrayList<ExtendedColumnInfo> ecisInTable = new ArrayList<ExtendedColumnInfo>();
+      ExtendedColumnInfo[] ecis = new ExtendedColumnInfo[infos.length];
       for (int i = 0; i < infos.length; i++)
       {
-         ExtendedColumnInfo eci = new ExtendedColumnInfo(infos[i], simpleTableName.toString());
+         ecis[i] = new ExtendedColumnInfo(infos[i], simpleTableName.toString());
+      }
+      writeColumsToCache(ecis, simpleTableName);
+   }
+
+   void writeColumsToCache(ExtendedColumnInfo[] ecis, CaseInsensitiveString simpleTableName)
+   {
+      ArrayList<ExtendedColumnInfo> ecisInTable = new ArrayList<ExtendedColumnInfo>();
+      for (int i = 0; i < ecis.length; i++)
+      {
+         ExtendedColumnInfo eci = ecis[i];
          ecisInTable.add(eci);
 
          CaseInsensitiveString ciColName = new CaseInsensitiveString(eci.getColumnName());
@@ -100,4 +110,19 @@ public class SchemaInfoColumnCache implements Serializable
    {
       return _extendedColumnInfosByTableName.get(cissTableName);
    }
+
+   Map<CaseInsensitiveString, List<ExtendedColumnInfo>> getExtendedColumnInfosByTableNameForReadOnly()
+   {
+      return _extendedColumnInfosByTableName;
+   }
+
+   Set<CaseInsensitiveString> getTablesWithInaccessibleColumnsForReadOnly()
+   {
+      return _tablesWithInaccessibleColumns;
+   }
+
+   void restoreColumnsNotAccessible(String simpleTableName)
+   {
+      _tablesWithInaccessibleColumns.add(new CaseInsensitiveString(simpleTableName));
+   }
 }
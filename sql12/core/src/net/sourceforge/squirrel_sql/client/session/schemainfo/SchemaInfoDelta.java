@@ -0,0 +1,54 @@
+package net.sourceforge.squirrel_sql.client.session.schemainfo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.sourceforge.squirrel_sql.fw.sql.IProcedureInfo;
+import net.sourceforge.squirrel_sql.fw.sql.ITableInfo;
+
+/**
+ * Describes the changes found by SchemaInfo.reloadChangedSchemas().
+ */
+public class SchemaInfoDelta
+{
+   private ArrayList<String> _changedSchemas = new ArrayList<String>();
+   private ArrayList<ITableInfo> _addedTables = new ArrayList<ITableInfo>();
+   private ArrayList<ITableInfo> _removedTables = new ArrayList<ITableInfo>();
+   private ArrayList<IProcedureInfo> _addedProcedures = new ArrayList<IProcedureInfo>();
+   private ArrayList<IProcedureInfo> _removedProcedures = new ArrayList<IProcedureInfo>();
+
+   /**
+    * @return Names of the Schemas that were reloaded. A null entry stands for all objects
+    * of Databases that don't support Schemas.
+    * The columns of all tables in these Schemas may have changed, too.
+    */
+   public List<String> getChangedSchemas()
+   {
+      return _changedSchemas;
+   }
+
+   public List<ITableInfo> getAddedTables()
+   {
+      return _addedTables;
+   }
+
+   public List<ITableInfo> getRemovedTables()
+   {
+      return _removedTables;
+   }
+
+   public List<IProcedureInfo> getAddedProcedures()
+   {
+      return _addedProcedures;
+   }
+
+   public List<IProcedureInfo> getRemovedProcedures()
+   {
+      return _removedProcedures;
+   }
+
+   public boolean isEmpty()
+   {
+      return _changedSchemas.isEmpty();
+   }
+}
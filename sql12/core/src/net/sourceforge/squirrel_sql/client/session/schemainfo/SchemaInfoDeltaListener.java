@@ -0,0 +1,11 @@
+package net.sourceforge.squirrel_sql.client.session.schemainfo;
+
+/**
+ * SchemaInfoUpdateListeners implementing this interface are told which objects
+ * changed when SchemaInfo reloaded only the Schemas that changed.
+ * All other updates are still reported by schemaInfoUpdated().
+ */
+public interface SchemaInfoDeltaListener extends SchemaInfoUpdateListener
+{
+   void schemaInfoChanged(SchemaInfoDelta delta);
+}
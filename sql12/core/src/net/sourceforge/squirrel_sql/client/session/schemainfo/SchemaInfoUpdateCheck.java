@@ -49,6 +49,24 @@ public class SchemaInfoUpdateCheck
    private static final Pattern PATTERN_DROP_FUNCTION = Pattern.compile("DROP\\s+FUNCTION\\s+([A-Z0-9_\\.\"]+)");
 
 
+   private static final Pattern PATTERN_DML_INSERT = Pattern.compile("^INSERT\\s+INTO\\s+([A-Z0-9_\\.\"]+)");
+   private static final Pattern PATTERN_DML_UPDATE = Pattern.compile("^UPDATE\\s+([A-Z0-9_\\.\"]+)");
+   private static final Pattern PATTERN_DML_DELETE = Pattern.compile("^DELETE\\s+(?:FROM\\s+)?([A-Z0-9_\\.\"]+)");
+   private static final Pattern PATTERN_DML_MERGE = Pattern.compile("^MERGE\\s+INTO\\s+([A-Z0-9_\\.\"]+)");
+   private static final Pattern PATTERN_TRUNCATE_TABLE = Pattern.compile("^TRUNCATE\\s+TABLE\\s+([A-Z0-9_\\.\"]+)");
+
+   /**
+    * Patterns of statements that change the content or the definition of the table they name.
+    */
+   private static final Pattern[] PATTERNS_CHANGED_TABLE =
+      {
+         PATTERN_DML_INSERT, PATTERN_DML_UPDATE, PATTERN_DML_DELETE, PATTERN_DML_MERGE, PATTERN_TRUNCATE_TABLE,
+         PATTERN_CREATE_TABLE, PATTERN_ALTER_TABLE, PATTERN_INSERT_INTO, PATTERN_CREATE_OR_REPLACE_VIEW,
+         PATTERN_CREATE_VIEW, PATTERN_CREATE_MATERIALIZED_VIEW, PATTERN_ALTER_VIEW,
+         PATTERN_DROP_TABLE, PATTERN_DROP_MATERIALIZED_VIEW, PATTERN_DROP_VIEW
+      };
+
+
    private Set<IDatabaseObjectInfo> _updateDatabaseObjectInfos = 
        new HashSet<IDatabaseObjectInfo>();
    private Set<String> _dropTableSimpleNames = new HashSet<String>();
@@ -63,6 +81,28 @@ public class SchemaInfoUpdateCheck
       _dmd = _session.getSQLConnection().getSQLMetaData();
    }
 
+   /**
+    * @return The upper case simple names of the tables and views whose content or definition
+    * sql changes. Empty if sql is none of the standard DML and table/view DDL statements.
+    */
+   public static String[] getChangedTableSimpleNames(String sql)
+   {
+      String upperSql = sql.trim().toUpperCase();
+
+      for (Pattern pattern : PATTERNS_CHANGED_TABLE)
+      {
+         Matcher matcher = pattern.matcher(upperSql);
+         if(matcher.find())
+         {
+            String[] splits = matcher.group(1).split("\\.");
+            String simpleName = removeQuotes(splits[splits.length - 1]);
+            return new String[]{simpleName};
+         }
+      }
+
+      return new String[0];
+   }
+
    public void addExecutionInfo(SQLExecutionInfo exInfo)
    {
       if(null == exInfo || null == exInfo.getSQL())
@@ -294,7 +334,7 @@ public class SchemaInfoUpdateCheck
       }
    }
 
-   private String removeQuotes(String simpleName)
+   private static String removeQuotes(String simpleName)
    {
       if(simpleName.startsWith("\""))
       {
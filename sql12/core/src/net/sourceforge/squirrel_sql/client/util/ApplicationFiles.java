@@ -237,6 +237,14 @@ public class ApplicationFiles
  		return new File(_userSettingsDir + File.separator + "sql_history.xml");
  	}
 
+ 	/**
+ 	 * @return SQL queries executed since the SQL history file was written completely
+ 	 */
+ 	public File getUserSQLHistoryJournalFile()
+ 	{
+ 		return new File(_userSettingsDir + File.separator + "sql_history_journal.xml");
+ 	}
+
 	public File getSquirrelHomeDir()
 	{
 		return _squirrelHomeDir;
@@ -371,6 +379,14 @@ public class ApplicationFiles
 		return new File(_squirrelHomeDir.getPath() + File.separator + "lib" + File.separator + "fw.jar");		
 	}
 	
+	/**
+	 * @return file that caches the plugin and JDBC driver classes found in jar files.
+	 */
+	public File getClassScanIndexFile()
+	{
+		return new File(_userSettingsDir + File.separator + "classScanIndex.properties");
+	}
+
 	/**
  	 * @return serialized List containing user specific configurations for WIKI tables. 
  	 */
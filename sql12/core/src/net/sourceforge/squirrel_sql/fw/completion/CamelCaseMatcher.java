@@ -30,6 +30,24 @@ public class CamelCaseMatcher
       return false;
    }
 
+   /**
+    * Returns the first characters of the camel case substrings of str, e.g. "WKP" for "WKvPos".
+    * matchesCamelCase(testString, dbObjectName) can only be true if the initials of testString
+    * are a prefix of the initials of dbObjectName.
+    */
+   public static String getCamelCaseInitials(String str)
+   {
+      StringBuilder ret = new StringBuilder();
+
+      int[] buf = new int[]{0};
+      for(String sub = getNextCamelCaseSubstring(str, buf); null != sub; sub = getNextCamelCaseSubstring(str, buf))
+      {
+         ret.append(sub.charAt(0));
+      }
+
+      return ret.toString();
+   }
+
    private static String getNextCamelCaseSubstring(String str, int[] nextBegPos)
    {
       if(0 == str.length())
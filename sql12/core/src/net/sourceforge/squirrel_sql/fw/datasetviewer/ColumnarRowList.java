@@ -0,0 +1,595 @@
+package net.sourceforge.squirrel_sql.fw.datasetviewer;
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.RandomAccess;
+
+/**
+ * A list of rows that stores its data column by column.
+ *
+ * Integer, long, double, date and timestamp values are kept in primitive
+ * arrays with a bitmap for nulls, short character columns are dictionary
+ * encoded. The storage of a column is chosen from the SQL type of its
+ * <TT>ColumnDisplayDefinition</TT>. If a value does not fit the storage of
+ * its column, e.g. because a plugin reads the column into another class or
+ * an error message was put into the cell, the column falls back to storing
+ * the objects. So rows are always returned exactly as they were added.
+ *
+ * The rows returned by <TT>get()</TT> are copies. To change a value use
+ * <TT>setValue()</TT> or <TT>set()</TT>, and use <TT>getValue()</TT> to
+ * read single values without creating a row.
+ */
+public class ColumnarRowList extends AbstractList<Object[]> implements IRowStore, RandomAccess
+{
+   private static final int INITIAL_CAPACITY = 16;
+
+   private final Column[] _columns;
+   private int _size = 0;
+   private int _capacity = INITIAL_CAPACITY;
+
+   public ColumnarRowList(ColumnDisplayDefinition[] colDefs)
+   {
+      _columns = new Column[colDefs.length];
+      for (int i = 0; i < colDefs.length; i++)
+      {
+         _columns[i] = createColumn(null == colDefs[i] ? Types.OTHER : colDefs[i].getSqlType());
+      }
+   }
+
+   private Column createColumn(int sqlType)
+   {
+      switch (sqlType)
+      {
+         case Types.TINYINT:
+         case Types.SMALLINT:
+         case Types.INTEGER:
+            return new IntColumn(_capacity);
+         case Types.BIGINT:
+            return new LongColumn(_capacity);
+         case Types.FLOAT:
+         case Types.REAL:
+         case Types.DOUBLE:
+            return new DoubleColumn(_capacity);
+         case Types.DATE:
+            return new DateColumn(_capacity);
+         case Types.TIMESTAMP:
+            return new TimestampColumn(_capacity);
+         case Types.CHAR:
+         case Types.NCHAR:
+         case Types.VARCHAR:
+         case Types.NVARCHAR:
+            return new StringColumn(_capacity);
+         default:
+            return new ObjectColumn(_capacity);
+      }
+   }
+
+   public int getColumnCount()
+   {
+      return _columns.length;
+   }
+
+   @Override
+   public int size()
+   {
+      return _size;
+   }
+
+   @Override
+   public Object[] get(int index)
+   {
+      checkIndex(index);
+      Object[] row = new Object[_columns.length];
+      for (int i = 0; i < _columns.length; i++)
+      {
+         row[i] = _columns[i].get(index);
+      }
+      return row;
+   }
+
+   public Object getValue(int row, int column)
+   {
+      checkIndex(row);
+      return _columns[column].get(row);
+   }
+
+   public void setValue(int row, int column, Object value)
+   {
+      checkIndex(row);
+      store(row, column, value);
+   }
+
+   @Override
+   public boolean add(Object[] row)
+   {
+      checkRow(row);
+      if (_size == _capacity)
+      {
+         _capacity = Math.max(INITIAL_CAPACITY, _capacity + (_capacity >> 1));
+         for (Column column : _columns)
+         {
+            column.ensureCapacity(_capacity);
+         }
+      }
+      for (int i = 0; i < _columns.length; i++)
+      {
+         store(_size, i, row[i]);
+      }
+      ++_size;
+      ++modCount;
+      return true;
+   }
+
+   @Override
+   public Object[] set(int index, Object[] row)
+   {
+      checkRow(row);
+      Object[] ret = get(index);
+      for (int i = 0; i < _columns.length; i++)
+      {
+         store(index, i, row[i]);
+      }
+      return ret;
+   }
+
+   @Override
+   public Object[] remove(int index)
+   {
+      Object[] ret = get(index);
+      for (Column column : _columns)
+      {
+         column.remove(index, _size);
+      }
+      --_size;
+      ++modCount;
+      return ret;
+   }
+
+   @Override
+   public void clear()
+   {
+      _size = 0;
+      _capacity = INITIAL_CAPACITY;
+      for (int i = 0; i < _columns.length; i++)
+      {
+         _columns[i] = _columns[i].createEmpty(_capacity);
+      }
+      ++modCount;
+   }
+
+   private void store(int index, int column, Object value)
+   {
+      if (null != value && false == _columns[column].accepts(value, _size))
+      {
+         // Fall back to storing the objects of this column.
+         ObjectColumn objectColumn = new ObjectColumn(_capacity);
+         for (int i = 0; i < _size; i++)
+         {
+            objectColumn.set(i, _columns[column].get(i));
+         }
+         _columns[column] = objectColumn;
+      }
+      _columns[column].set(index, value);
+   }
+
+   private void checkIndex(int index)
+   {
+      if (index < 0 || index >= _size)
+      {
+         throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + _size);
+      }
+   }
+
+   private void checkRow(Object[] row)
+   {
+      if (row.length != _columns.length)
+      {
+         throw new IllegalArgumentException("Row has " + row.length + " columns, expected " + _columns.length);
+      }
+   }
+
+   private static abstract class Column
+   {
+      /**
+       * @param rows the number of rows already stored
+       * @return whether this column can store the non null value.
+       */
+      abstract boolean accepts(Object value, int rows);
+
+      abstract Object get(int index);
+
+      abstract void set(int index, Object value);
+
+      abstract void ensureCapacity(int capacity);
+
+      /**
+       * Removes the row at index by moving the rows after it up.
+       */
+      abstract void remove(int index, int size);
+
+      /**
+       * @return an empty column of the same storage type.
+       */
+      abstract Column createEmpty(int capacity);
+   }
+
+   /**
+    * Base of the columns that store primitive values and keep track of nulls
+    * in a bitmap.
+    */
+   private static abstract class PrimitiveColumn extends Column
+   {
+      protected final BitSet _nulls = new BitSet();
+
+      @Override
+      Object get(int index)
+      {
+         return _nulls.get(index) ? null : getPrimitive(index);
+      }
+
+      @Override
+      void set(int index, Object value)
+      {
+         _nulls.set(index, null == value);
+         if (null != value)
+         {
+            setPrimitive(index, value);
+         }
+      }
+
+      @Override
+      void remove(int index, int size)
+      {
+         int numMoved = size - index - 1;
+         if (0 < numMoved)
+         {
+            moveDown(index, numMoved);
+         }
+         for (int i = index; i < size - 1; i++)
+         {
+            _nulls.set(i, _nulls.get(i + 1));
+         }
+         _nulls.clear(size - 1);
+      }
+
+      abstract Object getPrimitive(int index);
+
+      abstract void setPrimitive(int index, Object value);
+
+      /**
+       * Moves numMoved values following index one position down.
+       */
+      abstract void moveDown(int index, int numMoved);
+   }
+
+   private static class IntColumn extends PrimitiveColumn
+   {
+      private int[] _values;
+
+      IntColumn(int capacity)
+      {
+         _values = new int[capacity];
+      }
+
+      boolean accepts(Object value, int rows)
+      {
+         return value.getClass() == Integer.class;
+      }
+
+      Object getPrimitive(int index)
+      {
+         return Integer.valueOf(_values[index]);
+      }
+
+      void setPrimitive(int index, Object value)
+      {
+         _values[index] = ((Integer) value).intValue();
+      }
+
+      void ensureCapacity(int capacity)
+      {
+         _values = Arrays.copyOf(_values, capacity);
+      }
+
+      void moveDown(int index, int numMoved)
+      {
+         System.arraycopy(_values, index + 1, _values, index, numMoved);
+      }
+
+      Column createEmpty(int capacity)
+      {
+         return new IntColumn(capacity);
+      }
+   }
+
+   private static class LongColumn extends PrimitiveColumn
+   {
+      protected long[] _values;
+
+      LongColumn(int capacity)
+      {
+         _values = new long[capacity];
+      }
+
+      boolean accepts(Object value, int rows)
+      {
+         return value.getClass() == Long.class;
+      }
+
+      Object getPrimitive(int index)
+      {
+         return Long.valueOf(_values[index]);
+      }
+
+      void setPrimitive(int index, Object value)
+      {
+         _values[index] = ((Long) value).longValue();
+      }
+
+      void ensureCapacity(int capacity)
+      {
+         _values = Arrays.copyOf(_values, capacity);
+      }
+
+      void moveDown(int index, int numMoved)
+      {
+         System.arraycopy(_values, index + 1, _values, index, numMoved);
+      }
+
+      Column createEmpty(int capacity)
+      {
+         return new LongColumn(capacity);
+      }
+   }
+
+   private static class DoubleColumn extends PrimitiveColumn
+   {
+      private double[] _values;
+
+      DoubleColumn(int capacity)
+      {
+         _values = new double[capacity];
+      }
+
+      boolean accepts(Object value, int rows)
+      {
+         return value.getClass() == Double.class;
+      }
+
+      Object getPrimitive(int index)
+      {
+         return Double.valueOf(_values[index]);
+      }
+
+      void setPrimitive(int index, Object value)
+      {
+         _values[index] = ((Double) value).doubleValue();
+      }
+
+      void ensureCapacity(int capacity)
+      {
+         _values = Arrays.copyOf(_values, capacity);
+      }
+
+      void moveDown(int index, int numMoved)
+      {
+         System.arraycopy(_values, index + 1, _values, index, numMoved);
+      }
+
+      Column createEmpty(int capacity)
+      {
+         return new DoubleColumn(capacity);
+      }
+   }
+
+   /**
+    * Stores <TT>java.sql.Date</TT> values as milliseconds.
+    */
+   private static class DateColumn extends LongColumn
+   {
+      DateColumn(int capacity)
+      {
+         super(capacity);
+      }
+
+      boolean accepts(Object value, int rows)
+      {
+         return value.getClass() == java.sql.Date.class;
+      }
+
+      Object getPrimitive(int index)
+      {
+         return new java.sql.Date(_values[index]);
+      }
+
+      void setPrimitive(int index, Object value)
+      {
+         _values[index] = ((java.sql.Date) value).getTime();
+      }
+
+      Column createEmpty(int capacity)
+      {
+         return new DateColumn(capacity);
+      }
+   }
+
+   /**
+    * Stores <TT>java.sql.Timestamp</TT> values as milliseconds and nanoseconds.
+    */
+   private static class TimestampColumn extends LongColumn
+   {
+      private int[] _nanos;
+
+      TimestampColumn(int capacity)
+      {
+         super(capacity);
+         _nanos = new int[capacity];
+      }
+
+      boolean accepts(Object value, int rows)
+      {
+         return value.getClass() == Timestamp.class;
+      }
+
+      Object getPrimitive(int index)
+      {
+         Timestamp ret = new Timestamp(_values[index]);
+         ret.setNanos(_nanos[index]);
+         return ret;
+      }
+
+      void setPrimitive(int index, Object value)
+      {
+         Timestamp timestamp = (Timestamp) value;
+         _values[index] = timestamp.getTime();
+         _nanos[index] = timestamp.getNanos();
+      }
+
+      void ensureCapacity(int capacity)
+      {
+         super.ensureCapacity(capacity);
+         _nanos = Arrays.copyOf(_nanos, capacity);
+      }
+
+      void moveDown(int index, int numMoved)
+      {
+         super.moveDown(index, numMoved);
+         System.arraycopy(_nanos, index + 1, _nanos, index, numMoved);
+      }
+
+      Column createEmpty(int capacity)
+      {
+         return new TimestampColumn(capacity);
+      }
+   }
+
+   /**
+    * Stores each distinct string once and an index into the distinct strings
+    * per row. When most of the strings turn out to be distinct the dictionary
+    * costs more than it saves, then the column falls back to storing the
+    * strings themselves.
+    */
+   private static class StringColumn extends Column
+   {
+      private static final int NULL_CODE = -1;
+      private static final int MIN_DICTIONARY_SIZE = 1024;
+
+      private int[] _codes;
+      private final HashMap<String, Integer> _codesByString = new HashMap<String, Integer>();
+      private final ArrayList<String> _strings = new ArrayList<String>();
+
+      StringColumn(int capacity)
+      {
+         _codes = new int[capacity];
+      }
+
+      boolean accepts(Object value, int rows)
+      {
+         if (value.getClass() != String.class)
+         {
+            return false;
+         }
+         return _codesByString.containsKey(value)
+            || _strings.size() < MIN_DICTIONARY_SIZE
+            || _strings.size() * 2 < rows;
+      }
+
+      Object get(int index)
+      {
+         int code = _codes[index];
+         return NULL_CODE == code ? null : _strings.get(code);
+      }
+
+      void set(int index, Object value)
+      {
+         if (null == value)
+         {
+            _codes[index] = NULL_CODE;
+            return;
+         }
+         Integer code = _codesByString.get(value);
+         if (null == code)
+         {
+            code = Integer.valueOf(_strings.size());
+            _strings.add((String) value);
+            _codesByString.put((String) value, code);
+         }
+         _codes[index] = code.intValue();
+      }
+
+      void ensureCapacity(int capacity)
+      {
+         _codes = Arrays.copyOf(_codes, capacity);
+      }
+
+      void remove(int index, int size)
+      {
+         System.arraycopy(_codes, index + 1, _codes, index, size - index - 1);
+      }
+
+      Column createEmpty(int capacity)
+      {
+         return new StringColumn(capacity);
+      }
+   }
+
+   private static class ObjectColumn extends Column
+   {
+      private Object[] _values;
+
+      ObjectColumn(int capacity)
+      {
+         _values = new Object[capacity];
+      }
+
+      boolean accepts(Object value, int rows)
+      {
+         return true;
+      }
+
+      Object get(int index)
+      {
+         return _values[index];
+      }
+
+      void set(int index, Object value)
+      {
+         _values[index] = value;
+      }
+
+      void ensureCapacity(int capacity)
+      {
+         _values = Arrays.copyOf(_values, capacity);
+      }
+
+      void remove(int index, int size)
+      {
+         System.arraycopy(_values, index + 1, _values, index, size - index - 1);
+         _values[size - 1] = null;
+      }
+
+      Column createEmpty(int capacity)
+      {
+         return new ObjectColumn(capacity);
+      }
+   }
+}
@@ -125,6 +125,14 @@ public class DataSetScrollingPanel extends JScrollPane
 			{
 				s_log.error("Error processing a DataSet", th);
 			}
+			finally
+			{
+				// The viewer holds its own copy of the rows now.
+				if (_ds instanceof ResultSetDataSet)
+				{
+					((ResultSetDataSet) _ds).dispose();
+				}
+			}
 		}
 	}
 	
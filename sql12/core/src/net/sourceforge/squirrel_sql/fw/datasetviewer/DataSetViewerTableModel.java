@@ -33,6 +33,8 @@ public final class DataSetViewerTableModel extends AbstractTableModel
    private List<Object[]> _data = new ArrayList<Object[]>();
    private ColumnDisplayDefinition[] _colDefs = new ColumnDisplayDefinition[0];
    private IDataSetTableControls _creator = null;
+   private boolean _useColumnarStorage = false;
+   private boolean _spillToDisk = false;
 
 
    DataSetViewerTableModel(IDataSetTableControls creator)
@@ -76,7 +78,7 @@ public final class DataSetViewerTableModel extends AbstractTableModel
 				// goes away (because the cell is being re-painted).
 				return false;	// cell is not editable
 			}
-			(_data.get(row))[col] = newValue;
+			setValue(row, col, newValue);
 		}
 
 		return _creator.isColumnEditable(col, getValueAt(row, col));
@@ -90,7 +92,28 @@ public final class DataSetViewerTableModel extends AbstractTableModel
 		}
 		else
 		{
-			return _data.get(row)[col];
+			return getValue(row, col);
+		}
+	}
+
+	private Object getValue(int row, int col)
+	{
+		if (_data instanceof IRowStore)
+		{
+			return ((IRowStore) _data).getValue(row, col);
+		}
+		return _data.get(row)[col];
+	}
+
+	private void setValue(int row, int col, Object value)
+	{
+		if (_data instanceof IRowStore)
+		{
+			((IRowStore) _data).setValue(row, col, value);
+		}
+		else
+		{
+			_data.get(row)[col] = value;
 		}
 	}
 
@@ -138,6 +161,40 @@ public final class DataSetViewerTableModel extends AbstractTableModel
 	void setHeadings(ColumnDisplayDefinition[] hdgs)
 	{
 		_colDefs = hdgs;
+		if (_data.isEmpty() && null != hdgs)
+		{
+			_data.clear();
+			if (_spillToDisk)
+			{
+				_data = new SpillingRowList();
+			}
+			else if (_useColumnarStorage)
+			{
+				_data = new ColumnarRowList(hdgs);
+			}
+			else
+			{
+				_data = new ArrayList<Object[]>();
+			}
+		}
+	}
+
+	/**
+	 * If set, the rows added after the next call to setHeadings() are stored
+	 * in a <TT>ColumnarRowList</TT>.
+	 */
+	void setUseColumnarStorage(boolean useColumnarStorage)
+	{
+		_useColumnarStorage = useColumnarStorage;
+	}
+
+	/**
+	 * If set, the rows added after the next call to setHeadings() are stored
+	 * in a <TT>SpillingRowList</TT>. Takes precedence over columnar storage.
+	 */
+	void setSpillToDisk(boolean spillToDisk)
+	{
+		_spillToDisk = spillToDisk;
 	}
 
 	public void addRow(Object[] row)
@@ -165,7 +222,7 @@ public final class DataSetViewerTableModel extends AbstractTableModel
 
       for (int i = 0; i < colsToUpdate.length; i++)
       {
-         _data.get(row)[ colsToUpdate[i] ] = newValue;
+         setValue(row, colsToUpdate[i], newValue);
       }
 	}
 	
@@ -104,6 +104,11 @@ public class DataSetViewerTablePanel extends BaseDataSetViewerDestination
       }
 
       _table = new MyJTable(this, updateableModel, listSelectionMode, session);
+      if (null != session)
+      {
+         _typedModel.setUseColumnarStorage(session.getProperties().getSQLColumnarResultStorage());
+         _typedModel.setSpillToDisk(session.getProperties().getSQLSpillResultsToDisk());
+      }
       _continueReadHandler = new ContinueReadHandler(_table);
       _selectionHandler = new DataSetViewerTableListSelectionHandler(_table);
       _updateableModel = updateableModel;
@@ -1,11 +1,5 @@
-package net.sourceforge.squirrel_sql.fw.util;
+package net.sourceforge.squirrel_sql.fw.datasetviewer;
 /*
- * Copyright (C) 2001 Johan Companger
- * jcompagner@j-com.nl
- *
- * Modifications copyright (C) 2001 Colin Bell
- * colbell@users.sourceforge.net
- *
  * This library is free software; you can redistribute it and/or
  * modify it under the terms of the GNU Lesser General Public
  * License as published by the Free Software Foundation; either
@@ -20,17 +14,16 @@ package net.sourceforge.squirrel_sql.fw.util;
  * License along with this library; if not, write to the Free Software
  * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
  */
+import java.util.List;
 
 /**
- * Callback class for <TT>TaskThreadPool</TT>. Allows
- * <TT>TaskExecuter</TT> objects to make calls on the thread pool
+ * A list of rows that does not keep its rows as plain <TT>Object[]</TT>.
+ * Changes made to a row returned by <TT>get()</TT> may be lost, so values
+ * have to be changed using <TT>setValue()</TT>.
  */
-interface ITaskThreadPoolCallback {
-	void incrementFreeThreadCount();
-	void decrementFreeThreadCount();
+public interface IRowStore extends List<Object[]>
+{
+   Object getValue(int row, int column);
 
-	Runnable nextTask();
-
-	void showMessage(Throwable th);
+   void setValue(int row, int column, Object value);
 }
-
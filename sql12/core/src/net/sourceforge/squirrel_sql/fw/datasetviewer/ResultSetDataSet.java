@@ -70,6 +70,16 @@ public class ResultSetDataSet implements IDataSet {
 
    private boolean _limitDataRead = false;
 
+   private boolean _useColumnarStorage = false;
+
+   private boolean _spillToDisk = false;
+
+   /**
+    * Set for copies made by <TT>createCopy()</TT>. They have no reader,
+    * so this tells if all possible results of the SQL were read.
+    */
+   private Boolean _copiedAllPossibleResultsOfSQLRead;
+
    /**
     * Default constructor.
  * @param tableColumnInfos 
@@ -98,6 +108,26 @@ public class ResultSetDataSet implements IDataSet {
    }
    
    
+   /**
+    * If set the rows read are stored in a <TT>ColumnarRowList</TT>, which
+    * needs much less memory for large results than an <TT>Object[]</TT>
+    * per row.
+    */
+   public void setUseColumnarStorage(boolean useColumnarStorage)
+   {
+      _useColumnarStorage = useColumnarStorage;
+   }
+
+   /**
+    * If set the rows read are stored in a <TT>SpillingRowList</TT>, which
+    * keeps only a bounded number of rows in memory and writes the others
+    * to a temporary file. Takes precedence over columnar storage.
+    */
+   public void setSpillToDisk(boolean spillToDisk)
+   {
+      _spillToDisk = spillToDisk;
+   }
+
    /**
     * Content Tab may wish to limit data read for big columns. 
     * @param limitDataRead
@@ -190,6 +220,15 @@ public class ResultSetDataSet implements IDataSet {
          
          _dataSetDefinition = new DataSetDefinition(colDefs, columnIndices);
 
+         if (_spillToDisk)
+         {
+            _alData = new SpillingRowList();
+         }
+         else if (_useColumnarStorage)
+         {
+            _alData = new ColumnarRowList(colDefs);
+         }
+
          // Read the entire row, since some drivers complain if columns are
          // read out of sequence
          _rdr = new ResultSetReader(rs, dialectType);
@@ -519,6 +558,10 @@ public Object get(int columnIndex) {
    }
    
    private void reset() {
+      if (_alData instanceof SpillingRowList)
+      {
+         ((SpillingRowList) _alData).close();
+      }
       _iCurrent = -1;
       _currentRow = null;
       _columnCount = 0;
@@ -577,6 +620,29 @@ public String toString() {
    }
 
 
+   /**
+    * Creates a data set with the column definitions and rows of this data set
+    * but its own cursor. The rows are shared, neither data set may be changed afterwards.
+    * <p/>
+    * Allowed only after all results have been read. The copy has no connection
+    * to the result set it was read from.
+    */
+   public ResultSetDataSet createCopy()
+   {
+      if (false == isAllResultsRead() || _alData instanceof SpillingRowList)
+      {
+         throw new IllegalStateException("Only completely read results held in memory can be copied");
+      }
+
+      ResultSetDataSet ret = new ResultSetDataSet(tableColumnInfos);
+      ret._columnCount = _columnCount;
+      ret._dataSetDefinition = _dataSetDefinition;
+      ret._alData = _alData;
+      ret._dialectType = _dialectType;
+      ret._copiedAllPossibleResultsOfSQLRead = areAllPossibleResultsOfSQLRead();
+      return ret;
+   }
+
    public List<Object[]> getAllDataForReadOnly()
    {
       return _alData;
@@ -615,18 +681,43 @@ public String toString() {
 
    public boolean isAllResultsRead()
    {
+      if (null != _copiedAllPossibleResultsOfSQLRead)
+      {
+         return true;
+      }
       return _rdr.isAllResultsRead();
    }
 
    public boolean areAllPossibleResultsOfSQLRead()
    {
+      if (null != _copiedAllPossibleResultsOfSQLRead)
+      {
+         return _copiedAllPossibleResultsOfSQLRead;
+      }
       return _rdr.areAllPossibleResultsOfSQLRead();
    }
 
 
    public void closeStatementAndResultSet()
    {
-      _rdr.closeStatementAndResultSet();
+      if (null != _rdr)
+      {
+         _rdr.closeStatementAndResultSet();
+      }
+   }
+
+   /**
+    * Closes statement and result set and deletes the temporary file of spilled rows,
+    * see <TT>setSpillToDisk()</TT>. Called when the data set is no longer displayed.
+    * The data set must not be used afterwards.
+    */
+   public void dispose()
+   {
+      closeStatementAndResultSet();
+      if (_alData instanceof SpillingRowList)
+      {
+         ((SpillingRowList) _alData).close();
+      }
    }
 
 }
@@ -0,0 +1,544 @@
+package net.sourceforge.squirrel_sql.fw.datasetviewer;
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.RandomAccess;
+
+import net.sourceforge.squirrel_sql.fw.util.log.ILogger;
+import net.sourceforge.squirrel_sql.fw.util.log.LoggerController;
+
+/**
+ * A list of rows that keeps only a bounded number of rows in memory.
+ *
+ * Rows are kept in blocks. The block rows are appended to stays in memory,
+ * of the other blocks only the most recently used ones are. The remaining
+ * blocks are written to a temporary file in a compact binary format and read
+ * back when one of their rows is needed.
+ *
+ * Blocks holding values of a class the binary format does not know, e.g. a
+ * value read by a data type plugin, are never written to the file and stay
+ * in memory.
+ *
+ * The rows returned by <TT>get()</TT> may be written to the file at any time
+ * after the call, so values have to be changed using <TT>setValue()</TT>.
+ */
+public class SpillingRowList extends AbstractList<Object[]> implements IRowStore, RandomAccess
+{
+   private static final ILogger s_log = LoggerController.createLogger(SpillingRowList.class);
+
+   /** Number of rows in a block */
+   private static final int BLOCK_SIZE = 1000;
+
+   /** Number of blocks besides the last one kept in memory */
+   private static final int MAX_CACHED_BLOCKS = 50;
+
+   private static final byte NULL = 0;
+   private static final byte STRING = 1;
+   private static final byte INTEGER = 2;
+   private static final byte LONG = 3;
+   private static final byte DOUBLE = 4;
+   private static final byte SHORT = 5;
+   private static final byte FLOAT = 6;
+   private static final byte BYTE = 7;
+   private static final byte BOOLEAN = 8;
+   private static final byte BIG_DECIMAL = 9;
+   private static final byte BIG_INTEGER = 10;
+   private static final byte SQL_DATE = 11;
+   private static final byte SQL_TIME = 12;
+   private static final byte SQL_TIMESTAMP = 13;
+   private static final byte UTIL_DATE = 14;
+   private static final byte BYTES = 15;
+
+   private final ArrayList<Block> _blocks = new ArrayList<Block>();
+
+   /** The blocks in memory besides the last one, least recently used first */
+   private final LinkedHashMap<Block, Block> _cachedBlocks = new LinkedHashMap<Block, Block>(16, 0.75f, true);
+
+   /** The index of the first row of each block, valid if _blockStartsValid */
+   private int[] _blockStarts = new int[0];
+   private boolean _blockStartsValid = true;
+
+   private int _size = 0;
+
+   private File _file;
+   private RandomAccessFile _randomAccessFile;
+   private long _fileLength;
+
+   private static class Block
+   {
+      /** The rows of the block, null if the block is only in the file */
+      ArrayList<Object[]> rows = new ArrayList<Object[]>();
+      int rowCount;
+      /** Position of the block in the file, -1 if it was not written yet */
+      long offset = -1;
+      int length;
+      /** If the rows have changed since the block was written */
+      boolean dirty = true;
+      /** If the block contains values that cannot be written to the file */
+      boolean pinned;
+   }
+
+   @Override
+   public synchronized int size()
+   {
+      return _size;
+   }
+
+   @Override
+   public synchronized Object[] get(int index)
+   {
+      int blockIndex = getBlockIndex(index);
+      return load(_blocks.get(blockIndex)).get(index - _blockStarts[blockIndex]);
+   }
+
+   public synchronized Object getValue(int row, int column)
+   {
+      return get(row)[column];
+   }
+
+   public synchronized void setValue(int row, int column, Object value)
+   {
+      int blockIndex = getBlockIndex(row);
+      Block block = _blocks.get(blockIndex);
+      load(block).get(row - _blockStarts[blockIndex])[column] = value;
+      block.dirty = true;
+   }
+
+   @Override
+   public synchronized boolean add(Object[] row)
+   {
+      Block last = _blocks.isEmpty() ? null : _blocks.get(_blocks.size() - 1);
+      if (null == last || BLOCK_SIZE <= last.rowCount)
+      {
+         if (null != last)
+         {
+            cache(last);
+         }
+         last = new Block();
+         _blocks.add(last);
+         _blockStartsValid = false;
+      }
+      load(last).add(row);
+      ++last.rowCount;
+      last.dirty = true;
+      ++_size;
+      ++modCount;
+      return true;
+   }
+
+   @Override
+   public synchronized Object[] set(int index, Object[] row)
+   {
+      int blockIndex = getBlockIndex(index);
+      Block block = _blocks.get(blockIndex);
+      Object[] ret = load(block).set(index - _blockStarts[blockIndex], row);
+      block.dirty = true;
+      return ret;
+   }
+
+   @Override
+   public synchronized Object[] remove(int index)
+   {
+      int blockIndex = getBlockIndex(index);
+      Block block = _blocks.get(blockIndex);
+      Object[] ret = load(block).remove(index - _blockStarts[blockIndex]);
+      --block.rowCount;
+      block.dirty = true;
+      if (0 == block.rowCount && blockIndex < _blocks.size() - 1)
+      {
+         _blocks.remove(blockIndex);
+         _cachedBlocks.remove(block);
+      }
+      _blockStartsValid = false;
+      --_size;
+      ++modCount;
+      return ret;
+   }
+
+   @Override
+   public synchronized void clear()
+   {
+      close();
+      ++modCount;
+   }
+
+   /**
+    * Deletes the temporary file. The list is empty afterwards.
+    */
+   public synchronized void close()
+   {
+      _blocks.clear();
+      _cachedBlocks.clear();
+      _blockStarts = new int[0];
+      _blockStartsValid = true;
+      _size = 0;
+      if (null != _randomAccessFile)
+      {
+         try
+         {
+            _randomAccessFile.close();
+         }
+         catch (IOException e)
+         {
+            s_log.error("Failed to close " + _file, e);
+         }
+         if (false == _file.delete())
+         {
+            s_log.warn("Failed to delete " + _file);
+         }
+         _randomAccessFile = null;
+         _file = null;
+         _fileLength = 0;
+      }
+   }
+
+   @Override
+   protected void finalize() throws Throwable
+   {
+      close();
+      super.finalize();
+   }
+
+   private int getBlockIndex(int index)
+   {
+      if (index < 0 || index >= _size)
+      {
+         throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + _size);
+      }
+      if (false == _blockStartsValid)
+      {
+         _blockStarts = new int[_blocks.size()];
+         int start = 0;
+         for (int i = 0; i < _blockStarts.length; i++)
+         {
+            _blockStarts[i] = start;
+            start += _blocks.get(i).rowCount;
+         }
+         _blockStartsValid = true;
+      }
+
+      // Find the last block starting at or before index, skipping empty blocks.
+      int low = 0;
+      int high = _blockStarts.length - 1;
+      while (low < high)
+      {
+         int mid = (low + high + 1) >>> 1;
+         if (_blockStarts[mid] <= index)
+         {
+            low = mid;
+         }
+         else
+         {
+            high = mid - 1;
+         }
+      }
+      while (0 == _blocks.get(low).rowCount)
+      {
+         --low;
+      }
+      return low;
+   }
+
+   private ArrayList<Object[]> load(Block block)
+   {
+      if (null == block.rows)
+      {
+         block.rows = read(block);
+         block.dirty = false;
+      }
+      if (block != _blocks.get(_blocks.size() - 1))
+      {
+         cache(block);
+      }
+      return block.rows;
+   }
+
+   /**
+    * Marks the block as recently used and writes the least recently used
+    * blocks to the file if there are too many blocks in memory.
+    */
+   private void cache(Block block)
+   {
+      _cachedBlocks.put(block, block);
+      Iterator<Block> it = _cachedBlocks.keySet().iterator();
+      while (MAX_CACHED_BLOCKS < _cachedBlocks.size() && it.hasNext())
+      {
+         Block eldest = it.next();
+         if (eldest == block)
+         {
+            continue;
+         }
+         it.remove();
+         if (eldest.pinned)
+         {
+            continue;
+         }
+         if (eldest.dirty && false == write(eldest))
+         {
+            continue;
+         }
+         eldest.rows = null;
+      }
+   }
+
+   private boolean write(Block block)
+   {
+      try
+      {
+         ByteArrayOutputStream bytes = new ByteArrayOutputStream(block.rowCount * 64);
+         DataOutputStream out = new DataOutputStream(bytes);
+         out.writeInt(block.rows.size());
+         for (Object[] row : block.rows)
+         {
+            out.writeInt(row.length);
+            for (Object value : row)
+            {
+               if (false == writeValue(out, value))
+               {
+                  block.pinned = true;
+                  return false;
+               }
+            }
+         }
+         out.flush();
+
+         if (null == _randomAccessFile)
+         {
+            _file = File.createTempFile("squirrel-rows", ".tmp");
+            _file.deleteOnExit();
+            _randomAccessFile = new RandomAccessFile(_file, "rw");
+            _fileLength = 0;
+         }
+         // A changed block is appended, the space of its old version is not reused.
+         _randomAccessFile.getChannel().write(ByteBuffer.wrap(bytes.toByteArray()), _fileLength);
+         block.offset = _fileLength;
+         block.length = bytes.size();
+         block.dirty = false;
+         _fileLength += block.length;
+         return true;
+      }
+      catch (IOException e)
+      {
+         s_log.error("Failed to write rows to " + _file + ". Keeping them in memory.", e);
+         block.pinned = true;
+         return false;
+      }
+   }
+
+   private ArrayList<Object[]> read(Block block)
+   {
+      try
+      {
+         ByteBuffer buf = ByteBuffer.allocate(block.length);
+         FileChannel channel = _randomAccessFile.getChannel();
+         while (buf.hasRemaining())
+         {
+            if (0 > channel.read(buf, block.offset + buf.position()))
+            {
+               throw new IOException("Unexpected end of file " + _file);
+            }
+         }
+         DataInputStream in = new DataInputStream(new ByteArrayInputStream(buf.array()));
+         int rowCount = in.readInt();
+         ArrayList<Object[]> rows = new ArrayList<Object[]>(Math.max(rowCount, BLOCK_SIZE));
+         for (int i = 0; i < rowCount; i++)
+         {
+            Object[] row = new Object[in.readInt()];
+            for (int j = 0; j < row.length; j++)
+            {
+               row[j] = readValue(in);
+            }
+            rows.add(row);
+         }
+         return rows;
+      }
+      catch (IOException e)
+      {
+         throw new RuntimeException("Failed to read rows from " + _file, e);
+      }
+   }
+
+   /**
+    * @return false if the value is of a class that cannot be written.
+    */
+   private static boolean writeValue(DataOutputStream out, Object value) throws IOException
+   {
+      if (null == value)
+      {
+         out.writeByte(NULL);
+         return true;
+      }
+
+      Class<?> clazz = value.getClass();
+      if (String.class == clazz)
+      {
+         byte[] bytes = ((String) value).getBytes("UTF-8");
+         out.writeByte(STRING);
+         out.writeInt(bytes.length);
+         out.write(bytes);
+      }
+      else if (Integer.class == clazz)
+      {
+         out.writeByte(INTEGER);
+         out.writeInt((Integer) value);
+      }
+      else if (Long.class == clazz)
+      {
+         out.writeByte(LONG);
+         out.writeLong((Long) value);
+      }
+      else if (Double.class == clazz)
+      {
+         out.writeByte(DOUBLE);
+         out.writeDouble((Double) value);
+      }
+      else if (Short.class == clazz)
+      {
+         out.writeByte(SHORT);
+         out.writeShort((Short) value);
+      }
+      else if (Float.class == clazz)
+      {
+         out.writeByte(FLOAT);
+         out.writeFloat((Float) value);
+      }
+      else if (Byte.class == clazz)
+      {
+         out.writeByte(BYTE);
+         out.writeByte((Byte) value);
+      }
+      else if (Boolean.class == clazz)
+      {
+         out.writeByte(BOOLEAN);
+         out.writeBoolean((Boolean) value);
+      }
+      else if (BigDecimal.class == clazz)
+      {
+         byte[] unscaled = ((BigDecimal) value).unscaledValue().toByteArray();
+         out.writeByte(BIG_DECIMAL);
+         out.writeInt(((BigDecimal) value).scale());
+         out.writeInt(unscaled.length);
+         out.write(unscaled);
+      }
+      else if (BigInteger.class == clazz)
+      {
+         byte[] bytes = ((BigInteger) value).toByteArray();
+         out.writeByte(BIG_INTEGER);
+         out.writeInt(bytes.length);
+         out.write(bytes);
+      }
+      else if (java.sql.Date.class == clazz)
+      {
+         out.writeByte(SQL_DATE);
+         out.writeLong(((java.sql.Date) value).getTime());
+      }
+      else if (Time.class == clazz)
+      {
+         out.writeByte(SQL_TIME);
+         out.writeLong(((Time) value).getTime());
+      }
+      else if (Timestamp.class == clazz)
+      {
+         out.writeByte(SQL_TIMESTAMP);
+         out.writeLong(((Timestamp) value).getTime());
+         out.writeInt(((Timestamp) value).getNanos());
+      }
+      else if (java.util.Date.class == clazz)
+      {
+         out.writeByte(UTIL_DATE);
+         out.writeLong(((java.util.Date) value).getTime());
+      }
+      else if (byte[].class == clazz)
+      {
+         out.writeByte(BYTES);
+         out.writeInt(((byte[]) value).length);
+         out.write((byte[]) value);
+      }
+      else
+      {
+         return false;
+      }
+      return true;
+   }
+
+   private static Object readValue(DataInputStream in) throws IOException
+   {
+      byte type = in.readByte();
+      switch (type)
+      {
+         case NULL:
+            return null;
+         case STRING:
+            return new String(readBytes(in), "UTF-8");
+         case INTEGER:
+            return Integer.valueOf(in.readInt());
+         case LONG:
+            return Long.valueOf(in.readLong());
+         case DOUBLE:
+            return Double.valueOf(in.readDouble());
+         case SHORT:
+            return Short.valueOf(in.readShort());
+         case FLOAT:
+            return Float.valueOf(in.readFloat());
+         case BYTE:
+            return Byte.valueOf(in.readByte());
+         case BOOLEAN:
+            return Boolean.valueOf(in.readBoolean());
+         case BIG_DECIMAL:
+            int scale = in.readInt();
+            return new BigDecimal(new BigInteger(readBytes(in)), scale);
+         case BIG_INTEGER:
+            return new BigInteger(readBytes(in));
+         case SQL_DATE:
+            return new java.sql.Date(in.readLong());
+         case SQL_TIME:
+            return new Time(in.readLong());
+         case SQL_TIMESTAMP:
+            Timestamp timestamp = new Timestamp(in.readLong());
+            timestamp.setNanos(in.readInt());
+            return timestamp;
+         case UTIL_DATE:
+            return new java.util.Date(in.readLong());
+         case BYTES:
+            return readBytes(in);
+         default:
+            throw new IOException("Unknown value type " + type);
+      }
+   }
+
+   private static byte[] readBytes(DataInputStream in) throws IOException
+   {
+      byte[] bytes = new byte[in.readInt()];
+      in.readFully(bytes);
+      return bytes;
+   }
+}
@@ -6,6 +6,7 @@ import java.io.IOException;
 import java.lang.reflect.Method;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -461,17 +462,41 @@ public class CellComponentFactory {
             int sqlType, String sqlTypeName, int index, DialectType dialectType) throws Exception {
 
         Object result = null;
-        IDataTypeComponentFactory factory = findMatchingFactory(dialectType, sqlType, sqlTypeName);
-        if (factory!=null) {
-            IDataTypeComponent dtComp = factory.constructDataTypeComponent();
-            ColumnDisplayDefinition colDef = new ColumnDisplayDefinition(
-                rs, index, factory.getDialectType());
-            dtComp.setColumnDisplayDefinition(colDef);
-            dtComp.setTable(_table);
+        IDataTypeComponent dtComp = 
+            getPluginRegisteredDataType(rs, sqlType, sqlTypeName, index, dialectType);
+        if (dtComp!=null) {
             result = dtComp.readResultSet(rs, index, false);
         }
         return result;
     }
+
+    /**
+     * Returns the previously registered plugin DataTypeComponent that handles
+     * the column at the specified index, set up to read that column. Callers
+     * that read many rows look it up once and call its readResultSet() for
+     * each row.
+     * 
+     * @return the plugin-registered DataTypeComponent, or null if no plugin 
+     *         DataTypeComponent has been registered for the specified sqlType 
+     *         and sqlTypename.
+     * 
+     * @throws SQLException if the column definition can't be read from the
+     *         ResultSet's meta data.
+     */
+    public static IDataTypeComponent getPluginRegisteredDataType(ResultSet rs,
+            int sqlType, String sqlTypeName, int index, DialectType dialectType) throws SQLException {
+
+        IDataTypeComponentFactory factory = findMatchingFactory(dialectType, sqlType, sqlTypeName);
+        if (factory == null) {
+            return null;
+        }
+        IDataTypeComponent dtComp = factory.constructDataTypeComponent();
+        ColumnDisplayDefinition colDef = new ColumnDisplayDefinition(
+            rs, index, factory.getDialectType());
+        dtComp.setColumnDisplayDefinition(colDef);
+        dtComp.setTable(_table);
+        return dtComp;
+    }
 	 
 	 /**
 	  * On input from the DB, read the data from the ResultSet into the appropriate
@@ -1002,4 +1002,20 @@ public class CommonHibernateDialect implements HibernateDialect, StringTemplateC
 		return result.toString();
 	}
 
+	/**
+	 * @see net.sourceforge.squirrel_sql.fw.dialects.HibernateDialect#getSchemaFingerprintSQL()
+	 */
+	public String getSchemaFingerprintSQL()
+	{
+		return null;
+	}
+
+	/**
+	 * @see net.sourceforge.squirrel_sql.fw.dialects.HibernateDialect#getRowCountEstimateSQL()
+	 */
+	public String getRowCountEstimateSQL()
+	{
+		return null;
+	}
+
 }
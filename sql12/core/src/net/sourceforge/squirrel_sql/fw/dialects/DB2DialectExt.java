@@ -1268,5 +1268,17 @@ public class DB2DialectExt extends CommonHibernateDialect implements HibernateDi
 		return "BLOB(x'" + DialectUtils.toHexString(binaryData) + "')";
 	}
 
+	/**
+	 * @see net.sourceforge.squirrel_sql.fw.dialects.HibernateDialect#getSchemaFingerprintSQL()
+	 */
+	@Override
+	public String getSchemaFingerprintSQL()
+	{
+		return "select char(count(*)) || '/' || coalesce(char(max(alter_time)), '') || '/' || "
+			+ "(select char(count(*)) || '/' || coalesce(char(max(alter_time)), '') "
+			+ "from syscat.routines where routineschema = ?) "
+			+ "from syscat.tables where tabschema = ?";
+	}
+
 
 }
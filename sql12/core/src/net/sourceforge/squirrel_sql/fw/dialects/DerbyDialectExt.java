@@ -614,4 +614,15 @@ public class DerbyDialectExt extends DB2DialectExt implements HibernateDialect
 		return false;
 	}
 
+	/**
+	 * Derby has no DB2 catalog views.
+	 * 
+	 * @see net.sourceforge.squirrel_sql.fw.dialects.DB2DialectExt#getSchemaFingerprintSQL()
+	 */
+	@Override
+	public String getSchemaFingerprintSQL()
+	{
+		return null;
+	}
+
 }
@@ -1261,4 +1261,25 @@ public interface HibernateDialect extends StringTemplateConstants {
 	 *         update or delete statement.
 	 */
 	String getBinaryLiteralString(byte[] binaryData);
+
+	/**
+	 * Returns a query that computes a fingerprint of all objects of a schema. The fingerprint must change
+	 * whenever objects of the schema are created, altered or dropped, e.g. by combining the object count and
+	 * the latest DDL time stamp of the database's catalog views. The query must return one row with one
+	 * column. Every parameter placeholder is bound to the schema name.
+	 * 
+	 * @return the fingerprint query or null if this dialect cannot detect schema changes.
+	 */
+	String getSchemaFingerprintSQL();
+
+	/**
+	 * Returns a query that reads the estimated number of rows of a table from the statistics the database
+	 * keeps for its optimizer. Unlike counting the rows of a large table this takes no time. The query must
+	 * return at most one row with one numeric column, which is null or negative if there are no statistics.
+	 * The first parameter placeholder is bound to the schema name of the table, or to its catalog name if
+	 * the database has no schemas, the second one to the table name.
+	 * 
+	 * @return the estimate query or null if this dialect cannot estimate row counts.
+	 */
+	String getRowCountEstimateSQL();
 }
@@ -1187,4 +1187,14 @@ public class MySQLDialectExt extends CommonHibernateDialect implements Hibernate
 		return "x" + DialectUtils.toHexString(binaryData);
 	}
 
+	/**
+	 * @see net.sourceforge.squirrel_sql.fw.dialects.HibernateDialect#getRowCountEstimateSQL()
+	 */
+	@Override
+	public String getRowCountEstimateSQL()
+	{
+		// MySQL databases are catalogs, so the table's catalog name is bound to table_schema.
+		return "select table_rows from information_schema.tables where table_schema = ? and table_name = ?";
+	}
+
 }
@@ -1180,6 +1180,25 @@ public class OracleDialectExt extends CommonHibernateDialect implements Hibernat
 	{
 		return true;
 	}
+
+	/**
+	 * @see net.sourceforge.squirrel_sql.fw.dialects.HibernateDialect#getSchemaFingerprintSQL()
+	 */
+	@Override
+	public String getSchemaFingerprintSQL()
+	{
+		return "select count(*) || '/' || to_char(max(last_ddl_time), 'YYYYMMDDHH24MISS') "
+			+ "from all_objects where owner = ?";
+	}
+
+	/**
+	 * @see net.sourceforge.squirrel_sql.fw.dialects.HibernateDialect#getRowCountEstimateSQL()
+	 */
+	@Override
+	public String getRowCountEstimateSQL()
+	{
+		return "select num_rows from all_tables where owner = ? and table_name = ?";
+	}
 	
 	
 }
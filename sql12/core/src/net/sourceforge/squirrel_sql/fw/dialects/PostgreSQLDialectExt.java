@@ -1288,5 +1288,16 @@ public class PostgreSQLDialectExt extends CommonHibernateDialect implements Hibe
 		}
 		return super.getJavaTypeForNativeType(nativeColumnTypeName);
 	}
+
+	/**
+	 * @see net.sourceforge.squirrel_sql.fw.dialects.HibernateDialect#getRowCountEstimateSQL()
+	 */
+	@Override
+	public String getRowCountEstimateSQL()
+	{
+		// reltuples is -1 (0 before PostgreSQL 14) for tables that were never analyzed.
+		return "select c.reltuples::bigint from pg_class c "
+			+ "join pg_namespace n on n.oid = c.relnamespace where n.nspname = ? and c.relname = ?";
+	}
 	
 }
@@ -559,5 +559,15 @@ public class SQLServerDialectExt extends SybaseDialectExt implements HibernateDi
 	public boolean supportsSubSecondTimestamps() {
 		return false;
 	}
+
+	/**
+	 * @see net.sourceforge.squirrel_sql.fw.dialects.HibernateDialect#getSchemaFingerprintSQL()
+	 */
+	@Override
+	public String getSchemaFingerprintSQL()
+	{
+		return "select cast(count(*) as varchar(20)) + '/' + coalesce(convert(varchar(30), max(o.modify_date), 121), '') "
+			+ "from sys.objects o inner join sys.schemas s on o.schema_id = s.schema_id where s.name = ?";
+	}
 	
 }
@@ -20,11 +20,10 @@ package net.sourceforge.squirrel_sql.fw.gui;
  * License along with this library; if not, write to the Free Software
  * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
  */
-import java.text.Collator;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Comparator;
+import java.util.concurrent.ExecutionException;
 
+import javax.swing.SwingWorker;
 import javax.swing.event.TableModelEvent;
 import javax.swing.event.TableModelListener;
 import javax.swing.table.AbstractTableModel;
@@ -35,6 +34,12 @@ import net.sourceforge.squirrel_sql.fw.datasetviewer.RowNumberTableColumn;
 
 public class SortableTableModel extends AbstractTableModel
 {
+	/**
+	 * Models with at least this number of rows are sorted in the background.
+	 * Until the sort is finished the table shows the former order.
+	 */
+	private static final int BACKGROUND_SORT_THRESHOLD = 50000;
+
    transient private MyTableModelListener _actualModelLis = new MyTableModelListener();
 
 	/** Column currently being sorted by. -1 means unsorted. */
@@ -57,7 +62,13 @@ public class SortableTableModel extends AbstractTableModel
 	 * <TT>_actualModel[0]</TT> should be the second line then <TT>_indexes</TT>
 	 * will contain <TT>{1,0}</TT>.
 	 */
-	private Integer[] _indexes = new Integer[0];
+	private int[] _indexes = new int[0];
+
+	/**
+	 * Incremented whenever a sort is started or the rows change.
+	 * A background sort that finishes with an outdated value is discarded.
+	 */
+	private int _sortGeneration;
 
 	public SortableTableModel(TableModel model)
 	{
@@ -116,7 +127,7 @@ public class SortableTableModel extends AbstractTableModel
 		else
 		{
             if (row < _indexes.length) {
-                return _actualModel.getValueAt(_indexes[row].intValue(), col);
+                return _actualModel.getValueAt(_indexes[row], col);
             } else {
                 return null;
             }
@@ -134,7 +145,7 @@ public class SortableTableModel extends AbstractTableModel
 	 */
 	public void setValueAt(Object value, int row, int col)
 	{
-		_actualModel.setValueAt(value, _indexes[row].intValue(), col);
+		_actualModel.setValueAt(value, _indexes[row], col);
 	}
 
 	/*
@@ -164,7 +175,7 @@ public class SortableTableModel extends AbstractTableModel
 		for (int i=0; i< rows.length; ++i)
 		{
             if (rows[i] < _indexes.length) {
-                actualRows[i] = _indexes[rows[i]].intValue();
+                actualRows[i] = _indexes[rows[i]];
             }
 		}
 		((DataSetViewerTableModel)_actualModel).deleteRows(actualRows);
@@ -234,26 +245,111 @@ public class SortableTableModel extends AbstractTableModel
 	 */
 	public void sortByColumn(int column, ColumnOrder newOrder)
 	{
+		sortByColumns(new int[]{column}, new ColumnOrder[]{newOrder});
+	}
+
+	/**
+	 * Sorts the table by several columns. Rows that are equal in the first
+	 * column are ordered by the second column and so on.
+	 *
+	 * Large models are sorted in the background. The new order is applied and
+	 * the <TT>SortingListener</TT>s are notified on the event dispatch thread
+	 * when the sort is finished.
+	 *
+	 * @param	columns		columns to sort by, the most significant first
+	 * @param	orders		sort order for each column. If the first one is
+	 * 						<TT>ColumnOrder.NATURAL</TT> the model's order is restored.
+	 */
+	public void sortByColumns(int[] columns, ColumnOrder[] orders)
+	{
+		if (0 == columns.length || columns.length != orders.length)
+		{
+			throw new IllegalArgumentException("Need one ColumnOrder per column");
+		}
+
+		final int column = columns[0];
+		final ColumnOrder newOrder = orders[0];
 		_sortedColumn = column;
 		_columnOrder = newOrder;
-      if (ColumnOrder.NATURAL != newOrder)
+		final int generation = ++_sortGeneration;
+
+      if (ColumnOrder.NATURAL == newOrder)
       {
-         TableModelComparator comparator = new TableModelComparator(column, newOrder);
-         // Should the data be first cloned so that the sorting doesn't take place
-         // on the array that is used in getValue()
-         Arrays.sort(_indexes, comparator);
+         int[] indexes = new int[_indexes.length];
+         for (int i = 0; i < indexes.length; i++)
+         {
+            indexes[i] = i;
+         }
+         onSortDone(indexes, column, newOrder);
+         return;
       }
-      else
+
+      ArrayList<Integer> sortColumns = new ArrayList<Integer>();
+      ArrayList<ColumnOrder> sortOrders = new ArrayList<ColumnOrder>();
+      for (int i = 0; i < columns.length; i++)
       {
-         for (int i = 0; i < _indexes.length; i++)
+         if (ColumnOrder.NATURAL != orders[i] && false == sortColumns.contains(columns[i]))
          {
-            _indexes[i] = i;
+            sortColumns.add(columns[i]);
+            sortOrders.add(orders[i]);
          }
       }
-      fireTableDataChanged();
-      fireSortingListeners(column, _columnOrder);
+      int[] sortColumnsArr = new int[sortColumns.size()];
+      for (int i = 0; i < sortColumnsArr.length; i++)
+      {
+         sortColumnsArr[i] = sortColumns.get(i);
+      }
+
+      // The values are read here on the calling thread,
+      // the actual sort needs no access to the model.
+      final TableSortEngine engine = TableSortEngine.extract(_actualModel, sortColumnsArr, sortOrders.toArray(new ColumnOrder[sortOrders.size()]));
+
+      if (engine.getRowCount() < BACKGROUND_SORT_THRESHOLD)
+      {
+         onSortDone(engine.sort(), column, newOrder);
+         return;
+      }
+
+      new SwingWorker<int[], Object>()
+      {
+         @Override
+         protected int[] doInBackground()
+         {
+            return engine.sort();
+         }
+
+         @Override
+         protected void done()
+         {
+            if (generation != _sortGeneration || engine.getRowCount() != _indexes.length)
+            {
+               // Another sort was started or the rows changed meanwhile.
+               return;
+            }
+
+            try
+            {
+               onSortDone(get(), column, newOrder);
+            }
+            catch (InterruptedException e)
+            {
+               throw new RuntimeException(e);
+            }
+            catch (ExecutionException e)
+            {
+               throw new RuntimeException(e);
+            }
+         }
+      }.execute();
 	}
 
+   private void onSortDone(int[] indexes, int column, ColumnOrder columnOrder)
+   {
+      _indexes = indexes;
+      fireTableDataChanged();
+      fireSortingListeners(column, columnOrder);
+   }
+
    private void fireSortingListeners(int column, ColumnOrder columnOrder)
    {
       SortingListener[] listeners = _sortingListeners.toArray(new SortingListener[_sortingListeners.size()]);
@@ -275,6 +371,12 @@ public class SortableTableModel extends AbstractTableModel
 
       if(-1 != _sortedColumn)
       {
+         if (_indexes.length >= BACKGROUND_SORT_THRESHOLD)
+         {
+            // The sort finishes later. Until then the table must show the new
+            // row count, otherwise it reads rows by indexes that no longer exist.
+            fireTableDataChanged();
+         }
          sortByColumn(_sortedColumn, _columnOrder);
       }
       else
@@ -285,11 +387,13 @@ public class SortableTableModel extends AbstractTableModel
 
 	private void tableChangedIntern()
 	{
-		_indexes = new Integer[getRowCount()];
-		for (int i = 0; i < _indexes.length; ++i)
+		++_sortGeneration;
+		int[] indexes = new int[getRowCount()];
+		for (int i = 0; i < indexes.length; ++i)
 		{
-			_indexes[i] = Integer.valueOf(i);
+			indexes[i] = i;
 		}
+		_indexes = indexes;
    }
 
 	/**
@@ -306,7 +410,7 @@ public class SortableTableModel extends AbstractTableModel
 			return -1;
 		}
 
-		return _indexes[row].intValue();
+		return _indexes[row];
 	}
 
    public void removeSortingListener(SortingListener sortingListener)
@@ -320,78 +424,6 @@ public class SortableTableModel extends AbstractTableModel
    }
 
 
-   class TableModelComparator implements Comparator<Integer>
-	{
-      private int _iColumn;
-      private int _iAscending;
-      private final Collator _collator = Collator.getInstance();
-      private boolean _allDataIsString = true;
-
-      public TableModelComparator(int iColumn, ColumnOrder compColumnOrder)
-		{
-			_iColumn = iColumn;
-         if (ColumnOrder.ASC == compColumnOrder)
-			{
-				_iAscending = 1;
-			}
-			else if (ColumnOrder.DESC == compColumnOrder)
-			{
-				_iAscending = -1;
-			}
-			 _collator.setStrength(Collator.PRIMARY);
-			 _collator.setStrength(Collator.TERTIARY);
-
-			 for (int i = 0, limit = _actualModel.getRowCount(); i < limit; ++i)
-			 {
-				 final Object data = _actualModel.getValueAt(i, _iColumn);
-				 if (!(data instanceof String))
-				 {
-					 _allDataIsString = false;
-					 break;
-				 }
-			 }
-		}
-
-		/*
-		 * @see Comparator#compare(Object, Object)
-		 */
-		public int compare(final Integer i1, final Integer i2)
-		{
-			final Object data1 = _actualModel.getValueAt(i1.intValue(), _iColumn);
-			final Object data2 = _actualModel.getValueAt(i2.intValue(), _iColumn);
-			try
-			{
-				if (data1 == null && data2 == null)
-				{
-					return 0;
-				}
-				if (data1 == null)
-				{
-					return 1 * _iAscending;
-				}
-				if (data2 == null)
-				{
-					return -1 * _iAscending;
-				}
-//				Comparable c1 = (Comparable)data1;
-//				return c1.compareTo(data2) * _iAscending;
-
-				 if (!_allDataIsString)
-				 {
-					 final Comparable c1 = (Comparable)data1;
-					 return c1.compareTo(data2) * _iAscending;
-				 }
- //				return _collator.compare(data1.toString(), data2.toString()) * _iAscending;
-				 return _collator.compare((String)data1, (String)data2) * _iAscending;
-			}
-			catch (ClassCastException ex)
-			{
-				return data1.toString().compareTo(data2.toString()) * _iAscending;
-			}
-		}
-
-	}
-
 	protected class MyTableModelListener implements TableModelListener
 	{
 		public void tableChanged(TableModelEvent evt)
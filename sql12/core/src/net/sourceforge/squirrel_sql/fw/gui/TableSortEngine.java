@@ -0,0 +1,241 @@
+package net.sourceforge.squirrel_sql.fw.gui;
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+import java.text.CollationKey;
+import java.text.Collator;
+
+import javax.swing.table.TableModel;
+
+import net.sourceforge.squirrel_sql.fw.util.PermutationSort;
+
+/**
+ * Sorts the rows of a table model by one or more columns.
+ *
+ * The sort works on an <TT>int[]</TT> of model row indexes. The values of the
+ * sort columns are read from the model once by <TT>extract()</TT>, which should
+ * be called on the event dispatch thread. <TT>sort()</TT> then needs no access
+ * to the model and may run on any thread. String columns are compared by
+ * precomputed <TT>CollationKey</TT>s, integral and floating point columns by
+ * primitive values.
+ *
+ * The sort is stable. Large tables are sorted in parallel, see <TT>PermutationSort</TT>.
+ */
+class TableSortEngine
+{
+   private final SortKey[] _keys;
+   private final int _rowCount;
+
+   private TableSortEngine(SortKey[] keys, int rowCount)
+   {
+      _keys = keys;
+      _rowCount = rowCount;
+   }
+
+   /**
+    * Reads the values of the sort columns from the model.
+    *
+    * @param columns  Model indexes of the sort columns, the most significant first.
+    * @param orders   Sort order for each column. Must not be <TT>ColumnOrder.NATURAL</TT>.
+    */
+   static TableSortEngine extract(TableModel model, int[] columns, ColumnOrder[] orders)
+   {
+      int rowCount = model.getRowCount();
+      SortKey[] keys = new SortKey[columns.length];
+      for (int i = 0; i < columns.length; i++)
+      {
+         Object[] values = new Object[rowCount];
+         for (int row = 0; row < rowCount; row++)
+         {
+            values[row] = model.getValueAt(row, columns[i]);
+         }
+         keys[i] = new SortKey(values, ColumnOrder.DESC == orders[i] ? -1 : 1);
+      }
+      return new TableSortEngine(keys, rowCount);
+   }
+
+   int getRowCount()
+   {
+      return _rowCount;
+   }
+
+   /**
+    * @return The model row indexes in sorted order.
+    */
+   int[] sort()
+   {
+      for (SortKey key : _keys)
+      {
+         key.prepare();
+      }
+
+      return PermutationSort.sort(_rowCount, new PermutationSort.IndexComparator()
+      {
+         public int compare(int row1, int row2)
+         {
+            return TableSortEngine.this.compare(row1, row2);
+         }
+      });
+   }
+
+   private int compare(int row1, int row2)
+   {
+      for (SortKey key : _keys)
+      {
+         int ret = key.compare(row1, row2);
+         if (0 != ret)
+         {
+            return ret;
+         }
+      }
+      return 0;
+   }
+
+   /**
+    * The values of one sort column. <TT>prepare()</TT> converts them into the
+    * cheapest representation that keeps the ordering of the former
+    * <TT>TableModelComparator</TT>.
+    */
+   private static class SortKey
+   {
+      private static final int KIND_COMPARABLE = 0;
+      private static final int KIND_COLLATION = 1;
+      private static final int KIND_LONG = 2;
+      private static final int KIND_DOUBLE = 3;
+
+      private Object[] _values;
+      private final int _ascending;
+
+      private int _kind = KIND_COMPARABLE;
+      private boolean[] _nulls;
+      private CollationKey[] _collationKeys;
+      private long[] _longs;
+      private double[] _doubles;
+
+      SortKey(Object[] values, int ascending)
+      {
+         _values = values;
+         _ascending = ascending;
+      }
+
+      void prepare()
+      {
+         boolean allString = true;
+         boolean allIntegral = true;
+         boolean allFloating = true;
+         _nulls = new boolean[_values.length];
+
+         for (int i = 0; i < _values.length; i++)
+         {
+            Object value = _values[i];
+            if (null == value)
+            {
+               _nulls[i] = true;
+               continue;
+            }
+            allString &= value instanceof String;
+            allIntegral &= value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+            allFloating &= value instanceof Double || value instanceof Float;
+         }
+
+         if (allString)
+         {
+            Collator collator = Collator.getInstance();
+            collator.setStrength(Collator.TERTIARY);
+            _collationKeys = new CollationKey[_values.length];
+            for (int i = 0; i < _values.length; i++)
+            {
+               if (false == _nulls[i])
+               {
+                  _collationKeys[i] = collator.getCollationKey((String) _values[i]);
+               }
+            }
+            _kind = KIND_COLLATION;
+            _values = null;
+         }
+         else if (allIntegral)
+         {
+            _longs = new long[_values.length];
+            for (int i = 0; i < _values.length; i++)
+            {
+               if (false == _nulls[i])
+               {
+                  _longs[i] = ((Number) _values[i]).longValue();
+               }
+            }
+            _kind = KIND_LONG;
+            _values = null;
+         }
+         else if (allFloating)
+         {
+            _doubles = new double[_values.length];
+            for (int i = 0; i < _values.length; i++)
+            {
+               if (false == _nulls[i])
+               {
+                  _doubles[i] = ((Number) _values[i]).doubleValue();
+               }
+            }
+            _kind = KIND_DOUBLE;
+            _values = null;
+         }
+      }
+
+      int compare(int row1, int row2)
+      {
+         boolean null1 = _nulls[row1];
+         boolean null2 = _nulls[row2];
+         if (null1 || null2)
+         {
+            if (null1 && null2)
+            {
+               return 0;
+            }
+            // Nulls are greater than any value
+            return (null1 ? 1 : -1) * _ascending;
+         }
+
+         switch (_kind)
+         {
+            case KIND_COLLATION:
+               return _collationKeys[row1].compareTo(_collationKeys[row2]) * _ascending;
+            case KIND_LONG:
+               return compareLongs(_longs[row1], _longs[row2]) * _ascending;
+            case KIND_DOUBLE:
+               return Double.compare(_doubles[row1], _doubles[row2]) * _ascending;
+            default:
+               return compareObjects(_values[row1], _values[row2]) * _ascending;
+         }
+      }
+
+      private static int compareLongs(long l1, long l2)
+      {
+         return l1 < l2 ? -1 : (l1 == l2 ? 0 : 1);
+      }
+
+      @SuppressWarnings("unchecked")
+      private static int compareObjects(Object data1, Object data2)
+      {
+         try
+         {
+            return ((Comparable<Object>) data1).compareTo(data2);
+         }
+         catch (ClassCastException ex)
+         {
+            return data1.toString().compareTo(data2.toString());
+         }
+      }
+   }
+}
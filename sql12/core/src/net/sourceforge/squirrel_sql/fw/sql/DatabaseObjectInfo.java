@@ -88,6 +88,20 @@ public class DatabaseObjectInfo implements IDatabaseObjectInfo, Serializable
        _simpleName = simpleName;
        _qualifiedName = simpleName;
    }
+
+   /**
+    * Used to restore objects whose qualified name was generated before,
+    * e.g. when reading the schema cache file.
+    */
+   protected DatabaseObjectInfo(String catalog, String schema, String simpleName,
+                                String qualifiedName, DatabaseObjectType dboType)
+   {
+      _catalog = catalog;
+      _schema = schema;
+      _simpleName = simpleName;
+      _qualifiedName = qualifiedName;
+      _dboType = dboType;
+   }
    
    public String toString()
    {
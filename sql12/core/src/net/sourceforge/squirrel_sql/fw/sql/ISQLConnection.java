@@ -63,6 +63,17 @@ public interface ISQLConnection {
 
     PreparedStatement prepareStatement(String sql) throws SQLException;
 
+    /**
+     * Retrieve the time that a statement was last created by
+     * <TT>createStatement()</TT> or <TT>prepareStatement()</TT>.
+     * Statements created on the wrapped <TT>java.sql.Connection</TT>
+     * are not noticed.
+     *
+     * @return	Time in milliseconds, the time the connection was opened
+     * 			if no statement has been created yet.
+     */
+    long getLastUsedTime();
+
     /**
      * Retrieve the time that this connection was opened. Note that this time
      * is the time that this <TT>SQLConnection</TT> was created, not the time
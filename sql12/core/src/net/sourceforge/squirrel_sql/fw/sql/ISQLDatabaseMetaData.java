@@ -565,6 +565,17 @@ public interface ISQLDatabaseMetaData {
      */
     boolean supportsMultipleResultSets() throws SQLException;
 
+    /**
+     * Retrieve whether this driver supports batch updates via
+     * Statement.addBatch(String)/executeBatch(). Cached on first call.
+     *
+     * @return  <tt>true</tt> if driver supports batch updates
+     *          else <tt>false</tt>.
+     *
+     * @throws  SQLException    Thrown if an SQL error occurs.
+     */
+    boolean supportsBatchUpdates() throws SQLException;
+
     /**
      * Retrieves whether this database treats mixed case unquoted SQL
      * identifiers as case insensitive and stores them in upper case.
@@ -45,7 +45,7 @@ public class PrimaryKeyInfo extends DatabaseObjectInfo
      *             provide complete information about this key.
      */
     PrimaryKeyInfo() {
-        super(null, null, null, null, null);
+        super(null, null, null, null, (ISQLDatabaseMetaData) null);
     }
     
     /**
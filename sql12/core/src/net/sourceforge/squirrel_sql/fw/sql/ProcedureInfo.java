@@ -52,6 +52,18 @@ public class ProcedureInfo extends DatabaseObjectInfo implements IProcedureInfo
 		_procType = procType;
 	}
 
+	/**
+	 * Restores a procedure whose qualified name was generated before.
+	 */
+	public ProcedureInfo(String catalog, String schema, String simpleName,
+							String remarks, int procType,
+							String qualifiedName)
+	{
+		super(catalog, schema, simpleName, qualifiedName, DatabaseObjectType.PROCEDURE);
+		_remarks = remarks;
+		_procType = procType;
+	}
+
 	public int getProcedureType()
 	{
 		return _procType;
@@ -20,11 +20,14 @@ package net.sourceforge.squirrel_sql.fw.sql;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
 import net.sourceforge.squirrel_sql.fw.preferences.IQueryTokenizerPreferenceBean;
+import net.sourceforge.squirrel_sql.fw.util.BaseRuntimeException;
 import net.sourceforge.squirrel_sql.fw.util.StringUtilities;
 import net.sourceforge.squirrel_sql.fw.util.log.ILogger;
 import net.sourceforge.squirrel_sql.fw.util.log.LoggerController;
@@ -42,6 +45,13 @@ public class QueryTokenizer implements IQueryTokenizer
     protected boolean _removeMultiLineComment = true;
 
     protected ITokenizerFactory _tokenizerFactory = null;
+
+    /**
+     * Not null while a script is read by setScriptToTokenize(Reader).
+     */
+    private ScriptSplitter _streamingSplitter;
+    private String _nextStreamedQuery;
+    private int _streamedQueryCount;
     
     /** Logger for this class. */
     private final static ILogger s_log =
@@ -79,7 +89,7 @@ public class QueryTokenizer implements IQueryTokenizer
     }
     
 
-	private int getLenOfQuerySepIfAtLastCharOfQuerySep(String sql, int i, String querySep, boolean inLiteral)
+	private int getLenOfQuerySepIfAtLastCharOfQuerySep(StringBuilder sql, int i, String querySep, boolean inLiteral, boolean isLastChar)
 	{
 		if(inLiteral)
 		{
@@ -121,7 +131,7 @@ public class QueryTokenizer implements IQueryTokenizer
 					}
 				}
 			}
-			else if(sql.length() -1 == i)
+			else if(isLastChar)
 			{
 				if(querySepIndex + querySep.length() - 1 == i)
 				{
@@ -142,132 +152,290 @@ public class QueryTokenizer implements IQueryTokenizer
     
 	public boolean hasQuery()
 	{
+		if(null != _streamingSplitter)
+		{
+			if(null == _nextStreamedQuery)
+			{
+				_nextStreamedQuery = _streamingSplitter.nextQuery();
+				if(null != _nextStreamedQuery)
+				{
+					++_streamedQueryCount;
+				}
+			}
+			return null != _nextStreamedQuery;
+		}
+
 		return _queryIterator.hasNext();
 	}
 
 	public String nextQuery()
 	{
+		if(null != _streamingSplitter)
+		{
+			hasQuery();
+			String ret = _nextStreamedQuery;
+			_nextStreamedQuery = null;
+			return ret;
+		}
+
 		return _queryIterator.next();
 	}
 
     public void setScriptToTokenize(String script) {
+        _streamingSplitter = null;
         _queries.clear();
-        
-        String MULTI_LINE_COMMENT_END = "*/";
-        String MULTI_LINE_COMMENT_BEGIN = "/*";
 
-        script = script.replace('\r', ' ');
+        ScriptSplitter splitter = new ScriptSplitter(script);
+        for (String query = splitter.nextQuery(); null != query; query = splitter.nextQuery())
+        {
+            _queries.add(query);
+        }
+
+        _queryIterator = _queries.iterator();
+    }
+
+    /**
+     * Tokenizes the script read from reader. In contrast to setScriptToTokenize(String)
+     * the queries are read lazily by hasQuery() and nextQuery(). Only a small part of
+     * the script around the current read position is kept in memory. So scripts
+     * of any size can be executed.
+     * <p/>
+     * getQueryCount() returns the number of queries read so far. The reader is not
+     * closed by this class.
+     * <p/>
+     * Database specific tokenizing of subclasses is not applied in this mode.
+     */
+    public void setScriptToTokenize(Reader reader) {
+        _queries.clear();
+        _queryIterator = _queries.iterator();
+
+        _streamingSplitter = new ScriptSplitter(reader);
+        _nextStreamedQuery = null;
+        _streamedQueryCount = 0;
+    }
+
+    /**
+     * Splits a script into queries. The script is either given as a whole or is read
+     * piecewise from a Reader. In the latter case only a window of the script around
+     * the current position is kept. The window is large enough for all the looking
+     * backward and forward done when comments and separators are detected.
+     */
+    private class ScriptSplitter
+    {
+        private static final int READ_BUFFER_SIZE = 8192;
+
+        private static final String MULTI_LINE_COMMENT_END = "*/";
+        private static final String MULTI_LINE_COMMENT_BEGIN = "/*";
+
+        private Reader _reader;
+        private char[] _readBuffer;
+        private boolean _eof;
 
-        StringBuffer curQuery = new StringBuffer();
+        private StringBuilder _script;
+        private int _lookAround;
 
-        boolean isInLiteral = false;
-        boolean isInMultiLineComment = false;
-        boolean isInLineComment = false;
-        int literalSepCount = 0;
+        private int _i = 0;
+        private StringBuffer _curQuery = new StringBuffer();
+        private boolean _isInLiteral = false;
+        private boolean _isInMultiLineComment = false;
+        private boolean _isInLineComment = false;
+        private int _literalSepCount = 0;
 
+        ScriptSplitter(String script)
+        {
+            _script = new StringBuilder(script.replace('\r', ' '));
+            _eof = true;
+        }
 
-        for (int i = 0; i < script.length(); ++i)
+        ScriptSplitter(Reader reader)
         {
-            char c = script.charAt(i);
+            _reader = reader;
+            _readBuffer = new char[READ_BUFFER_SIZE];
+            _script = new StringBuilder(2 * READ_BUFFER_SIZE);
+            _lookAround = Math.max(Math.max(_querySep.length(), MULTI_LINE_COMMENT_BEGIN.length()), null == _lineCommentBegin ? 0 : _lineCommentBegin.length()) + 4;
+        }
 
-            if(false == isInLiteral)
+        /**
+         * @return The next query or null if the end of the script is reached.
+         */
+        String nextQuery()
+        {
+            for (; ; ++_i)
             {
-                ///////////////////////////////////////////////////////////
-                // Handling of comments
+                fillWindow();
 
-                // We look backwards
-                if(isInLineComment && script.startsWith("\n", i - "\n".length()))
+                if(_i >= _script.length())
                 {
-                    isInLineComment = false;
+                    break;
                 }
 
-                // We look backwards
-                if(isInMultiLineComment && script.startsWith(MULTI_LINE_COMMENT_END, i - MULTI_LINE_COMMENT_END.length()))
+                char c = _script.charAt(_i);
+
+                if(false == _isInLiteral)
                 {
-                    isInMultiLineComment = false;
-                }
+                    ///////////////////////////////////////////////////////////
+                    // Handling of comments
 
+                    // We look backwards
+                    if(_isInLineComment && startsWith("\n", _i - "\n".length()))
+                    {
+                        _isInLineComment = false;
+                    }
+
+                    // We look backwards
+                    if(_isInMultiLineComment && startsWith(MULTI_LINE_COMMENT_END, _i - MULTI_LINE_COMMENT_END.length()))
+                    {
+                        _isInMultiLineComment = false;
+                    }
 
-                if(false == isInLineComment && false == isInMultiLineComment)
-                {
-                    // We look forward
-                    isInMultiLineComment = script.startsWith(MULTI_LINE_COMMENT_BEGIN, i);
-                    isInLineComment = script.startsWith(_lineCommentBegin, i);
 
-                    if(isInMultiLineComment && _removeMultiLineComment)
+                    if(false == _isInLineComment && false == _isInMultiLineComment)
                     {
-                        // skip ahead so the cursor is now immediately after the begin comment string
-                        i+=MULTI_LINE_COMMENT_BEGIN.length()+1;
+                        // We look forward
+                        _isInMultiLineComment = startsWith(MULTI_LINE_COMMENT_BEGIN, _i);
+                        _isInLineComment = startsWith(_lineCommentBegin, _i);
+
+                        if(_isInMultiLineComment && _removeMultiLineComment)
+                        {
+                            // skip ahead so the cursor is now immediately after the begin comment string
+                            _i+=MULTI_LINE_COMMENT_BEGIN.length()+1;
+                        }
                     }
-                }
 
-                if((isInMultiLineComment && _removeMultiLineComment) || isInLineComment)
-                {
-                    // This is responsible that comments are not in curQuery
-                    continue;
+                    if((_isInMultiLineComment && _removeMultiLineComment) || _isInLineComment)
+                    {
+                        // This is responsible that comments are not in curQuery
+                        continue;
+                    }
+                    //
+                    ////////////////////////////////////////////////////////////
                 }
-                //
-                ////////////////////////////////////////////////////////////
-            }
 
-            curQuery.append(c);
+                _curQuery.append(c);
 
-            if ('\'' == c)
-            {
-                if(false == isInLiteral)
+                if ('\'' == c)
                 {
-                    isInLiteral = true;
+                    if(false == _isInLiteral)
+                    {
+                        _isInLiteral = true;
+                    }
+                    else
+                    {
+                        ++_literalSepCount;
+                    }
                 }
                 else
                 {
-                    ++literalSepCount;
+                    if(0 != _literalSepCount % 2)
+                    {
+                        _isInLiteral = false;
+                    }
+                    _literalSepCount = 0;
+                }
+
+
+                int querySepLen =
+                    getLenOfQuerySepIfAtLastCharOfQuerySep(_script, _i, _querySep, _isInLiteral, _eof && _script.length() - 1 == _i);
+
+                if(-1 < querySepLen && !_isInMultiLineComment)
+                {
+                    String newQuery = null;
+
+                    int newLength = _curQuery.length() - querySepLen;
+                    if(-1 < newLength && _curQuery.length() > newLength)
+                    {
+                        _curQuery.setLength(newLength);
+                        newQuery = _curQuery.toString().trim();
+                    }
+                    _curQuery.setLength(0);
+
+                    if(null != newQuery && 0 < newQuery.length())
+                    {
+                        ++_i;
+                        return newQuery;
+                    }
                 }
             }
-            else
+
+            String lastQuery = _curQuery.toString().trim();
+            _curQuery.setLength(0);
+            if(0 < lastQuery.length())
+            {
+                return lastQuery;
+            }
+
+            return null;
+        }
+
+        private boolean startsWith(String prefix, int pos)
+        {
+            if(0 > pos || _script.length() < pos + prefix.length())
+            {
+                return false;
+            }
+
+            for (int j = 0; j < prefix.length(); j++)
             {
-                if(0 != literalSepCount % 2)
+                if(prefix.charAt(j) != _script.charAt(pos + j))
                 {
-                    isInLiteral = false;
+                    return false;
                 }
-                literalSepCount = 0;
             }
+            return true;
+        }
 
+        /**
+         * Makes sure the characters around the current position are in the window.
+         */
+        private void fillWindow()
+        {
+            if(_eof || _i + _lookAround < _script.length())
+            {
+                return;
+            }
 
-            int querySepLen = 
-                getLenOfQuerySepIfAtLastCharOfQuerySep(script, i, _querySep, isInLiteral);
+            // Drop what is no longer needed to look backwards
+            int toDrop = _i - _lookAround;
+            if(0 < toDrop)
+            {
+                _script.delete(0, toDrop);
+                _i -= toDrop;
+            }
 
-            if(-1 < querySepLen && !isInMultiLineComment)
+            try
             {
-                int newLength = curQuery.length() - querySepLen;
-                if(-1 < newLength && curQuery.length() > newLength)
+                while(false == _eof && _i + _lookAround >= _script.length())
                 {
-                    curQuery.setLength(newLength);
-
-                    String newQuery = curQuery.toString().trim();
-                    if(0 < newQuery.length())
+                    int count = _reader.read(_readBuffer);
+                    if(-1 == count)
                     {
-                        _queries.add(curQuery.toString().trim());
+                        _eof = true;
+                    }
+                    else
+                    {
+                        for (int j = 0; j < count; j++)
+                        {
+                            _script.append('\r' == _readBuffer[j] ? ' ' : _readBuffer[j]);
+                        }
                     }
                 }
-                curQuery.setLength(0);
+            }
+            catch (IOException e)
+            {
+                throw new BaseRuntimeException(e);
             }
         }
-
-        String lastQuery = curQuery.toString().trim();
-        if(0 < lastQuery.length())
-        {
-            _queries.add(lastQuery.trim());
-        }
-
-        _queryIterator = _queries.iterator();
     }
-    
+
     /**
      * Returns the number of queries that the tokenizer found in the script 
      * given in the last call to setScriptToTokenize, or 0 if 
      * setScriptToTokenize has not yet been called.
      */
     public int getQueryCount() {
+        if (null != _streamingSplitter) {
+            return _streamedQueryCount;
+        }
         if (_queries == null) {
             return 0;
         }
@@ -0,0 +1,127 @@
+package net.sourceforge.squirrel_sql.fw.sql;
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+
+/**
+ * Records the parameter bindings (setXXX() and clearParameters() calls) that are made on a
+ * PreparedStatement so that they can be replayed later on a real PreparedStatement.
+ * <p/>
+ * This allows binding the values of a record in one thread while the insert is executed in another
+ * thread, or binding a batch of records once and executing them either as a JDBC batch or one by one.
+ */
+public class RecordingPreparedStatement implements InvocationHandler
+{
+	private final ArrayList<Method> _methods = new ArrayList<Method>();
+
+	private final ArrayList<Object[]> _args = new ArrayList<Object[]>();
+
+	private final PreparedStatement _proxy;
+
+	/** Bind variable values of the recorded record as used in error messages. */
+	private String _values;
+
+	public RecordingPreparedStatement()
+	{
+		_proxy =
+			(PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+				new Class<?>[] { PreparedStatement.class }, this);
+	}
+
+	/**
+	 * @return the PreparedStatement whose parameter bindings are recorded.
+	 */
+	public PreparedStatement getPreparedStatement()
+	{
+		return _proxy;
+	}
+
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+	{
+		String name = method.getName();
+
+		if (method.getDeclaringClass() == Object.class)
+		{
+			if ("equals".equals(name))
+			{
+				return proxy == args[0];
+			}
+			if ("hashCode".equals(name))
+			{
+				return System.identityHashCode(proxy);
+			}
+			return "RecordingPreparedStatement: " + _methods.size() + " recorded bindings";
+		}
+
+		if ((name.startsWith("set") && null != args && 2 <= args.length) || "clearParameters".equals(name))
+		{
+			_methods.add(method);
+			_args.add(args);
+			return null;
+		}
+
+		throw new UnsupportedOperationException("Only parameter bindings can be recorded. Method called: "
+			+ name);
+	}
+
+	/**
+	 * Applies the recorded parameter bindings to the specified PreparedStatement.
+	 *
+	 * @param ps
+	 *        the statement to bind the parameters of.
+	 * @throws SQLException
+	 *         if one of the setXXX methods fails.
+	 */
+	public void replay(PreparedStatement ps) throws SQLException
+	{
+		for (int i = 0; i < _methods.size(); i++)
+		{
+			try
+			{
+				_methods.get(i).invoke(ps, _args.get(i));
+			}
+			catch (InvocationTargetException e)
+			{
+				if (e.getCause() instanceof SQLException)
+				{
+					throw (SQLException) e.getCause();
+				}
+				throw new SQLException(e.getCause());
+			}
+			catch (IllegalAccessException e)
+			{
+				throw new SQLException(e);
+			}
+		}
+	}
+
+	public String getValues()
+	{
+		return _values;
+	}
+
+	public void setValues(String values)
+	{
+		_values = values;
+	}
+}
@@ -19,19 +19,15 @@ package net.sourceforge.squirrel_sql.fw.sql;
  * License along with this library; if not, write to the Free Software
  * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
  */
-import java.math.BigDecimal;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
-import java.sql.Types;
 
 import net.sourceforge.squirrel_sql.fw.datasetviewer.BlockMode;
 import net.sourceforge.squirrel_sql.fw.datasetviewer.ColumnDisplayDefinition;
 import net.sourceforge.squirrel_sql.fw.datasetviewer.ResultSetWrapper;
 import net.sourceforge.squirrel_sql.fw.datasetviewer.cellcomponent.CellComponentFactory;
-import net.sourceforge.squirrel_sql.fw.datasetviewer.cellcomponent.DataTypeBlob;
-import net.sourceforge.squirrel_sql.fw.datasetviewer.cellcomponent.DataTypeClob;
-import net.sourceforge.squirrel_sql.fw.datasetviewer.cellcomponent.DataTypeDate;
+import net.sourceforge.squirrel_sql.fw.datasetviewer.cellcomponent.IDataTypeComponent;
 import net.sourceforge.squirrel_sql.fw.dialects.DialectType;
 import net.sourceforge.squirrel_sql.fw.util.StringManager;
 import net.sourceforge.squirrel_sql.fw.util.StringManagerFactory;
@@ -76,6 +72,13 @@ public class ResultSetReader
 
    /** the type of dialect used to obtain the ResultSet to be read */ 
    private DialectType _dialectType = null;
+
+   /** How to read each column in <TT>doRead()</TT>. Created when the first row is read. */
+   private ResultSetValueReader[] _columnReaders;
+
+   /** How to read each column in <TT>doContentTabRead()</TT>. Created for <TT>_contentTabColDefs</TT>. */
+   private ResultSetValueReader[] _contentTabColumnReaders;
+   private ColumnDisplayDefinition[] _contentTabColDefs;
    
 	/**
     * Constructor
@@ -253,147 +256,53 @@ public class ResultSetReader
     */
    private Object[] doRead()
 	{
+		if (_columnReaders == null)
+		{
+			_columnReaders = createColumnReaders();
+		}
+		return readColumns(_columnReaders, false, false);
+	}
+
+	/**
+    * Method used to read data for the ContentsTab, where the data is used for
+    * both reading and editing.
+	 * @param limitDataRead TODO
+    */
+	private Object[] doContentTabRead(ColumnDisplayDefinition colDefs[], boolean limitDataRead)
+	{
+		if (_contentTabColumnReaders == null || _contentTabColDefs != colDefs)
+		{
+			_contentTabColumnReaders = createContentTabColumnReaders(colDefs);
+			_contentTabColDefs = colDefs;
+		}
+		return readColumns(_contentTabColumnReaders, limitDataRead, true);
+	}
+
+	/**
+	 * @param markErrorsWhenStopped If a column that failed to read is marked as error even when
+	 *                              execution was stopped, as the ContentsTab read always did.
+	 */
+	private Object[] readColumns(ResultSetValueReader[] readers, boolean limitDataRead, boolean markErrorsWhenStopped)
+	{
+		final ResultSet rs = _rs.getResultSet();
 		Object[] row = new Object[_columnCount];
 		for (int i = 0; i < _columnCount && !_stopExecution; ++i)
 		{
-			int idx = _columnIndices != null ? _columnIndices[i] : i + 1;
 			try
 			{
-				int columnType = _rsmd.getColumnType(idx);
-				String columnTypeName = safelyGetColumnTypeName(idx);
-
-            /*
-             * See if there is a plugin-registered DataTypeComponent that can
-             * handle this column.
-             */
-            row[i] = 
-                CellComponentFactory.readResultWithPluginRegisteredDataType(_rs.getResultSet(),
-                                                             columnType, 
-                                                             columnTypeName, 
-                                                             idx,
-                                                             _dialectType);
-            if (row[i] == null) {
-				
-               switch (columnType) {
-               case Types.NULL:
-                  row[i] = null;
-                  break;
-
-               case Types.BIT:
-               case Types.BOOLEAN:
-                  row[i] = readBoolean(idx);
-                  break;
-
-               case Types.TIME:
-                  row[i] = _rs.getResultSet().getTime(idx);
-                  break;
-
-               case Types.DATE:
-                  row[i] = readDate(idx);
-                  break;
-
-               case Types.TIMESTAMP:
-               case -101: // Oracle's 'TIMESTAMP WITH TIME ZONE' == -101
-               case -102: // Oracle's 'TIMESTAMP WITH LOCAL TIME ZONE' ==
-                  // -102
-                  row[i] = _rs.getResultSet().getTimestamp(idx);
-                  break;
-
-               case Types.BIGINT:
-                  row[i] = readBigint(idx);
-                  break;
-
-               case Types.DOUBLE:
-               case Types.FLOAT:
-               case Types.REAL:
-                  row[i] = readFloat(idx);
-                  break;
-
-               case Types.DECIMAL:
-               case Types.NUMERIC:
-                  row[i] = readNumeric(idx);
-                  break;
-
-               case Types.INTEGER:
-               case Types.SMALLINT:
-               case Types.TINYINT:
-                  row[i] = readInt(idx, columnTypeName);
-                  break;
-               case Types.CHAR:
-               case Types.NCHAR:
-               case Types.VARCHAR:
-               case Types.NVARCHAR:
-               case Types.LONGVARCHAR:
-               case Types.LONGNVARCHAR:
-               case Types.ROWID:
-                  row[i] = _rs.getResultSet().getString(idx);
-                  if (_rs.getResultSet().wasNull()) {
-                     row[i] = null;
-                  }
-                  break;
-
-               case Types.BINARY:
-               case Types.VARBINARY:
-               case Types.LONGVARBINARY:
-                  row[i] = _rs.getResultSet().getString(idx);
-                  break;
-
-               case Types.BLOB:
-                  // Since we are reading Meta-data about the DB, we should
-                  // never see a BLOB. If we do, the contents are not
-                  // interpretable
-                  // by Squirrel, so just tell the user that it is a BLOB and
-                  // that it
-                  // has data.
-
-                  row[i] = DataTypeBlob.staticReadResultSet(_rs.getResultSet(), idx);
-
-                  break;
-
-               case Types.CLOB:
-                  // Since we are reading Meta-data about the DB, we should
-                  // never see a CLOB. However, if we do we assume that
-                  // it is printable text and that the user wants to see it, so
-                  // read in the entire thing.
-                  row[i] = DataTypeClob.staticReadResultSet(_rs.getResultSet(), idx);
-
-                  break;
-
-               // TODO: ResultSet has it's own NCLOB support (rs.getNClob(i)).  It is probably not valid to 
-               // call getClob on an NClob column ??  So, may need to implement new DataTypeNClob type 
-               // component (see below):  
-               // 
-               //case Types.NCLOB:
-               //  row[i] = DataTypeNClob.staticReadResultSet(_rs, idx);
-                  
-               // Add begin
-               case Types.JAVA_OBJECT:
-                  row[i] = readObject(idx);
-                  break;
-               // Add end
-
-               case Types.OTHER:
-                  row[i] = readOther(idx);
-                  break;
-
-               default:
-                  if (row[i] == null) {
-                     Integer colTypeInteger = Integer.valueOf(columnType);
-                     row[i] = s_stringMgr.getString("ResultSetReader.unknown",
-                                                    colTypeInteger);
-                  }
-               }
-            }
+				row[i] = readers[i].read(rs, limitDataRead);
 			}
 			catch (Throwable th)
 			{
+                if (markErrorsWhenStopped || !_stopExecution) {
+                    _errorOccured = true;
+                    row[i] = s_stringMgr.getString("ResultSetReader.error");
+                }
                 // Don't bother the user with details about where the result fetch
                 // failed if they cancelled the query.
                 if (!_stopExecution) {
-                    _errorOccured = true;
-                    row[i] = s_stringMgr.getString("ResultSetReader.error");
                     StringBuffer msg = new StringBuffer("Error reading column data");
-                    msg.append(", column index = ").append(idx);
+                    msg.append(", column index = ").append(readers[i]._idx);
                     s_log.error(msg.toString(), th);
                 }
 			}
@@ -402,234 +311,64 @@ public class ResultSetReader
 		return row;
 	}
 
-   private Object readNumeric(int columnIdx) throws SQLException {
-      Object result = _rs.getResultSet().getObject(columnIdx);
-      if (result != null && !(result instanceof BigDecimal)) {
-         if (result instanceof Number) {
-            Number nbr = (Number) result;
-            result = new BigDecimal(nbr.doubleValue());
-         } else {
-            result = new BigDecimal(result.toString());
-         }
-      }
-      return result;
-   }
-   
-   private Object readOther(int columnIdx) throws SQLException {
-         // Since we are reading Meta-data, there really should
-         // never be
-       // a field with SQL type Other (1111).
-       // If there is, we REALLY do not know how to handle it,
-       // so do not attempt to read.
-      // ?? if (_largeObjInfo.getReadSQLOther())
-      // ?? {
-      // ?? // Running getObject on a java class attempts
-      // ?? // to load the class in memory which we don't want.
-      // ?? // getString() just gets the value without loading
-      // ?? // the class (at least under PostgreSQL).
-      // ?? //row[i] = _rs.getObject(idx);
-      // ?? row[i] = _rs.getString(idx);
-      // ?? }
-      // ?? else
-      // ?? {
-      return s_stringMgr.getString("ResultSetReader.other");
-      //      ?? }
-      
-   }
-   
-   private Object readObject(int columnIdx) throws SQLException {
-      Object result = _rs.getResultSet().getObject(columnIdx);
-      if (_rs.getResultSet().wasNull()) {
-         result = null;
-      }
-      return result;
-   }
-   
-   /**
-	 * Reads the specified column from the resultset field.
-	 * 
-	 * @param columnIdx
-	 *           the index of the column
-	 * @param columnTypeName
-	 *           the type name of the column according to the ResultSetMetaData
-	 * @return an appropriate object for the value that was read
-	 * @throws SQLException
-	 *            if an exception occurs.
-	 */
-   private Object readInt(int columnIdx, String columnTypeName) throws SQLException {
-      Object result = _rs.getResultSet().getObject(columnIdx);
-      if (_rs.getResultSet().wasNull()) {
-         return null;
-      }
-      
-      /*
-		 * Bug 1968270 (Displaying unsigned INT as signed INT in column?)
-		 * 
-		 * If we are working with a signed integer, then it should be ok to store in a Java integer which is 
-		 * always signed.  However, if we are working with an unsigned integer type, Java doesn't have this so 
-		 * use a long instead. Or if the type of the object is Long then use that instead of Integer.
-		 */
-      if (result instanceof Long) {
-      	return result;
-      }
-      if ("INTEGER UNSIGNED".equalsIgnoreCase(columnTypeName)) {
-      	return Long.valueOf(result.toString());
-      }
-      
-      if (result instanceof Integer) {
-      	return result;
-      }
-      if (result instanceof Number) {
-         	Number resultNumber = (Number)result;
-         	int intValue = resultNumber.intValue();
-            return Integer.valueOf( intValue );
-      } 
-      
-      return Integer.valueOf(result.toString());
-   }
-   
-   private Object readFloat(int columnIdx) throws SQLException {
-      Object result = _rs.getResultSet().getObject(columnIdx);
-      if (result != null && !(result instanceof Double)) {
-         if (result instanceof Number) {
-            Number nbr = (Number) result;
-            result = new Double(nbr.doubleValue());
-         } else {
-            result = new Double(result.toString());
-         }
-      }
-      return result;
-   }
-   
-   private Object readDate(int columnIdx) throws SQLException {
-      Object result = null;
-      if (DataTypeDate.getReadDateAsTimestamp()) {
-         result = _rs.getResultSet().getTimestamp(columnIdx);
-      } else {
-         result = DataTypeDate.staticReadResultSet(_rs.getResultSet(), columnIdx, false);
-      }
-      return result;
-   }
-   
-   private Object readBigint(int columnIdx) throws SQLException {
-      Object result = _rs.getResultSet().getObject(columnIdx);
-      if (result != null
-         && !(result instanceof Long))
-      {
-         if (result instanceof Number)
-         {
-            result = Long.valueOf(((Number)result).longValue());
-         }
-         else
-         {
-            result = Long.valueOf(result.toString());
-         }
-      }
-      return result;
-   }
-   
-   private Object readBoolean(int columnIdx) throws SQLException {
-      Object result = null;
-      result = _rs.getResultSet().getObject(columnIdx);
-
-      if (result != null && !(result instanceof Boolean)) {
-         if (result instanceof Number) {
-            if (((Number) result).intValue() == 0) {
-               result = Boolean.FALSE;
-            } else {
-               result = Boolean.TRUE;
-            }
-         } else {
-            result = Boolean.valueOf(result.toString());
-         }
-      }
-      return result;
-   }
-   
 	/**
-    * Method used to read data for the ContentsTab, where the data is used for
-    * both reading and editing.
-	 * @param limitDataRead TODO
-    */
-	private Object[] doContentTabRead(ColumnDisplayDefinition colDefs[], boolean limitDataRead)
+	 * Decides once per <TT>ResultSet</TT> how each column is read, so that reading a row
+	 * doesn't ask the meta data or the plugin registered data types for every value.
+	 * If deciding fails for a column, reading it fails for each row.
+	 */
+	private ResultSetValueReader[] createColumnReaders()
 	{
-		Object[] row = new Object[_columnCount];
-		for (int i = 0; i < _columnCount && !_stopExecution; ++i)
+		ResultSetValueReader[] ret = new ResultSetValueReader[_columnCount];
+		for (int i = 0; i < _columnCount; ++i)
 		{
-			int idx = _columnIndices != null ? _columnIndices[i] : i + 1;
+			int idx = getColumnIndex(i);
 			try
 			{
-				final int columnType = _rsmd.getColumnType(idx);
-				//final String columnClassName = _rsmd.getColumnClassName(idx);
-				switch (columnType)
-				{
-					case Types.NULL:
-						row[i] = null;
-						break;
-
-					// all of the following have been converted to use the DataType objects
-                    // So, why not just have case Types.NULL and default??? (this seems pointless)
-                    // RMM 20070726
-					case Types.BIT:
-					case Types.BOOLEAN:
-
-					case Types.DECIMAL:
-					case Types.NUMERIC:
-
-					case Types.INTEGER:
-					case Types.SMALLINT:
-					case Types.TINYINT:
-					case Types.BIGINT :
-
-					case Types.DOUBLE:
-					case Types.FLOAT:
-					case Types.REAL:
-
-					case Types.DATE :
-					case Types.TIME :
-					case Types.TIMESTAMP :
-
-					// TODO: Hard coded -. JDBC/ODBC bridge JDK1.4
-					// brings back -9 for nvarchar columns in
-					// MS SQL Server tables.
-					// -8 is ROWID in Oracle.
-					case Types.CHAR:
-					case Types.VARCHAR:
-					case Types.LONGVARCHAR:
-					case -9:
-					case -8:
-
-					// binary types
-					case Types.BINARY:
-					case Types.VARBINARY:
-					case Types.LONGVARBINARY:
-
-					case Types.CLOB:
-					case Types.BLOB:
-
-					case Types.OTHER:
-
-					default:
-						row[i] = CellComponentFactory.readResultSet(
-								colDefs[i], _rs.getResultSet(), idx, limitDataRead);
-
-						break;
+				int columnType = _rsmd.getColumnType(idx);
+				String columnTypeName = safelyGetColumnTypeName(idx);
+
+				ret[i] = ResultSetValueReader.forType(idx, columnType, columnTypeName);
 
+				/*
+				 * See if there is a plugin-registered DataTypeComponent that can
+				 * handle this column.
+				 */
+				IDataTypeComponent pluginDataType =
+					CellComponentFactory.getPluginRegisteredDataType(_rs.getResultSet(), columnType, columnTypeName, idx, _dialectType);
+				if (pluginDataType != null)
+				{
+					ret[i] = ResultSetValueReader.forPluginDataType(pluginDataType, ret[i]);
 				}
 			}
 			catch (Throwable th)
 			{
-				_errorOccured = true;
-				row[i] = s_stringMgr.getString("ResultSetReader.error");
-                if (!_stopExecution) {
-                    StringBuffer msg = new StringBuffer("Error reading column data");
-                    msg.append(", column index = ").append(idx);
-                    s_log.error(msg.toString(), th);
-                }
+				ret[i] = ResultSetValueReader.failed(idx, th);
 			}
 		}
+		return ret;
+	}
 
-		return row;
+	private ResultSetValueReader[] createContentTabColumnReaders(ColumnDisplayDefinition colDefs[])
+	{
+		ResultSetValueReader[] ret = new ResultSetValueReader[_columnCount];
+		for (int i = 0; i < _columnCount; ++i)
+		{
+			int idx = getColumnIndex(i);
+			try
+			{
+				ret[i] = ResultSetValueReader.forContentTab(idx, _rsmd.getColumnType(idx), CellComponentFactory.getDataTypeObject(null, colDefs[i]));
+			}
+			catch (Throwable th)
+			{
+				ret[i] = ResultSetValueReader.failed(idx, th);
+			}
+		}
+		return ret;
+	}
+
+	private int getColumnIndex(int i)
+	{
+		return _columnIndices != null ? _columnIndices[i] : i + 1;
 	}
 
     /**
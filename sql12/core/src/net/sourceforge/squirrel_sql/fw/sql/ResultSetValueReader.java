@@ -0,0 +1,500 @@
+package net.sourceforge.squirrel_sql.fw.sql;
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.Types;
+
+import net.sourceforge.squirrel_sql.fw.datasetviewer.cellcomponent.DataTypeBlob;
+import net.sourceforge.squirrel_sql.fw.datasetviewer.cellcomponent.DataTypeClob;
+import net.sourceforge.squirrel_sql.fw.datasetviewer.cellcomponent.DataTypeDate;
+import net.sourceforge.squirrel_sql.fw.datasetviewer.cellcomponent.IDataTypeComponent;
+import net.sourceforge.squirrel_sql.fw.util.StringManager;
+import net.sourceforge.squirrel_sql.fw.util.StringManagerFactory;
+
+/**
+ * Reads the value of one column of the current row of a <TT>ResultSet</TT>.
+ *
+ * <TT>ResultSetReader</TT> decides how to read a column once per <TT>ResultSet</TT>,
+ * from the column's meta data and the plugin registered data types, and keeps a reader
+ * per column. Reading a row then only calls the readers.
+ */
+abstract class ResultSetValueReader
+{
+   private static final StringManager s_stringMgr =
+      StringManagerFactory.getStringManager(ResultSetValueReader.class);
+
+   /** Index of the column in the <TT>ResultSet</TT>, starting from 1. */
+   protected final int _idx;
+
+   protected ResultSetValueReader(int idx)
+   {
+      _idx = idx;
+   }
+
+   /**
+    * @param limitDataRead Passed on to data type components, see
+    * <TT>IDataTypeComponent.readResultSet()</TT>.
+    */
+   abstract Object read(ResultSet rs, boolean limitDataRead) throws Exception;
+
+   /**
+    * @return The reader used for tabs other than the ContentsTab. Columns are read by
+    * the JDBC type of the column.
+    */
+   static ResultSetValueReader forType(int idx, int columnType, String columnTypeName)
+   {
+      switch (columnType)
+      {
+         case Types.NULL:
+            return new ConstantReader(idx, null);
+
+         case Types.BIT:
+         case Types.BOOLEAN:
+            return new BooleanReader(idx);
+
+         case Types.TIME:
+            return new TimeReader(idx);
+
+         case Types.DATE:
+            return new DateReader(idx, DataTypeDate.getReadDateAsTimestamp());
+
+         case Types.TIMESTAMP:
+         case -101: // Oracle's 'TIMESTAMP WITH TIME ZONE' == -101
+         case -102: // Oracle's 'TIMESTAMP WITH LOCAL TIME ZONE' == -102
+            return new TimestampReader(idx);
+
+         case Types.BIGINT:
+            return new BigintReader(idx);
+
+         case Types.DOUBLE:
+         case Types.FLOAT:
+         case Types.REAL:
+            return new FloatReader(idx);
+
+         case Types.DECIMAL:
+         case Types.NUMERIC:
+            return new NumericReader(idx);
+
+         case Types.INTEGER:
+         case Types.SMALLINT:
+         case Types.TINYINT:
+            return new IntReader(idx, "INTEGER UNSIGNED".equalsIgnoreCase(columnTypeName));
+
+         case Types.CHAR:
+         case Types.NCHAR:
+         case Types.VARCHAR:
+         case Types.NVARCHAR:
+         case Types.LONGVARCHAR:
+         case Types.LONGNVARCHAR:
+         case Types.ROWID:
+            return new StringReader(idx, true);
+
+         case Types.BINARY:
+         case Types.VARBINARY:
+         case Types.LONGVARBINARY:
+            return new StringReader(idx, false);
+
+         case Types.BLOB:
+            // Since we are reading Meta-data about the DB, we should
+            // never see a BLOB. If we do, the contents are not interpretable
+            // by Squirrel, so just tell the user that it is a BLOB and that it
+            // has data.
+            return new BlobReader(idx);
+
+         case Types.CLOB:
+            // Since we are reading Meta-data about the DB, we should
+            // never see a CLOB. However, if we do we assume that
+            // it is printable text and that the user wants to see it, so
+            // read in the entire thing.
+            return new ClobReader(idx);
+
+         // TODO: ResultSet has it's own NCLOB support (rs.getNClob(i)).  It is probably not valid to
+         // call getClob on an NClob column ??  So, may need to implement new DataTypeNClob type
+         // component.
+
+         case Types.JAVA_OBJECT:
+            return new ObjectReader(idx);
+
+         case Types.OTHER:
+            // Since we are reading Meta-data, there really should never be
+            // a field with SQL type Other (1111). If there is, we REALLY do
+            // not know how to handle it, so do not attempt to read.
+            return new ConstantReader(idx, s_stringMgr.getString("ResultSetReader.other"));
+
+         default:
+            return new ConstantReader(idx, s_stringMgr.getString("ResultSetReader.unknown", Integer.valueOf(columnType)));
+      }
+   }
+
+   /**
+    * @return A reader that asks the plugin registered data type first and uses
+    * fallback if the data type returns null.
+    */
+   static ResultSetValueReader forPluginDataType(IDataTypeComponent dataType, ResultSetValueReader fallback)
+   {
+      return new PluginDataTypeReader(dataType, fallback);
+   }
+
+   /**
+    * @return The reader used for the ContentsTab. The data is read by the data type object
+    * so that it can be edited and written back to the DB.
+    * @param dataType The data type object of the column. If null the column is read by getObject().
+    */
+   static ResultSetValueReader forContentTab(int idx, int columnType, IDataTypeComponent dataType)
+   {
+      if (Types.NULL == columnType)
+      {
+         return new ConstantReader(idx, null);
+      }
+      return new DataTypeReader(idx, dataType);
+   }
+
+   /**
+    * @return A reader that fails with error for each row, as reading the column did
+    * before readers were set up once per <TT>ResultSet</TT>.
+    */
+   static ResultSetValueReader failed(int idx, Throwable error)
+   {
+      return new FailedReader(idx, error);
+   }
+
+   private static class ConstantReader extends ResultSetValueReader
+   {
+      private final Object _value;
+
+      ConstantReader(int idx, Object value)
+      {
+         super(idx);
+         _value = value;
+      }
+
+      Object read(ResultSet rs, boolean limitDataRead)
+      {
+         return _value;
+      }
+   }
+
+   private static class FailedReader extends ResultSetValueReader
+   {
+      private final Throwable _error;
+
+      FailedReader(int idx, Throwable error)
+      {
+         super(idx);
+         _error = error;
+      }
+
+      Object read(ResultSet rs, boolean limitDataRead) throws Exception
+      {
+         if (_error instanceof Exception)
+         {
+            throw (Exception) _error;
+         }
+         throw (Error) _error;
+      }
+   }
+
+   private static class PluginDataTypeReader extends ResultSetValueReader
+   {
+      private final IDataTypeComponent _dataType;
+      private final ResultSetValueReader _fallback;
+
+      PluginDataTypeReader(IDataTypeComponent dataType, ResultSetValueReader fallback)
+      {
+         super(fallback._idx);
+         _dataType = dataType;
+         _fallback = fallback;
+      }
+
+      Object read(ResultSet rs, boolean limitDataRead) throws Exception
+      {
+         Object ret = _dataType.readResultSet(rs, _idx, false);
+         if (null == ret)
+         {
+            ret = _fallback.read(rs, limitDataRead);
+         }
+         return ret;
+      }
+   }
+
+   private static class DataTypeReader extends ResultSetValueReader
+   {
+      private final IDataTypeComponent _dataType;
+
+      DataTypeReader(int idx, IDataTypeComponent dataType)
+      {
+         super(idx);
+         _dataType = dataType;
+      }
+
+      Object read(ResultSet rs, boolean limitDataRead) throws Exception
+      {
+         if (null != _dataType)
+         {
+            return _dataType.readResultSet(rs, _idx, limitDataRead);
+         }
+
+         //?? Best guess: read object?
+         //?? This is probably the wrong thing to do here, but
+         //?? I don't know what else to try.
+         return rs.getObject(_idx);
+      }
+   }
+
+   private static class BooleanReader extends ResultSetValueReader
+   {
+      BooleanReader(int idx)
+      {
+         super(idx);
+      }
+
+      Object read(ResultSet rs, boolean limitDataRead) throws Exception
+      {
+         Object result = rs.getObject(_idx);
+         if (result != null && !(result instanceof Boolean))
+         {
+            if (result instanceof Number)
+            {
+               return ((Number) result).intValue() == 0 ? Boolean.FALSE : Boolean.TRUE;
+            }
+            return Boolean.valueOf(result.toString());
+         }
+         return result;
+      }
+   }
+
+   private static class TimeReader extends ResultSetValueReader
+   {
+      TimeReader(int idx)
+      {
+         super(idx);
+      }
+
+      Object read(ResultSet rs, boolean limitDataRead) throws Exception
+      {
+         return rs.getTime(_idx);
+      }
+   }
+
+   private static class DateReader extends ResultSetValueReader
+   {
+      private final boolean _readDateAsTimestamp;
+
+      DateReader(int idx, boolean readDateAsTimestamp)
+      {
+         super(idx);
+         _readDateAsTimestamp = readDateAsTimestamp;
+      }
+
+      Object read(ResultSet rs, boolean limitDataRead) throws Exception
+      {
+         if (_readDateAsTimestamp)
+         {
+            return rs.getTimestamp(_idx);
+         }
+         return DataTypeDate.staticReadResultSet(rs, _idx, false);
+      }
+   }
+
+   private static class TimestampReader extends ResultSetValueReader
+   {
+      TimestampReader(int idx)
+      {
+         super(idx);
+      }
+
+      Object read(ResultSet rs, boolean limitDataRead) throws Exception
+      {
+         return rs.getTimestamp(_idx);
+      }
+   }
+
+   private static class BigintReader extends ResultSetValueReader
+   {
+      BigintReader(int idx)
+      {
+         super(idx);
+      }
+
+      Object read(ResultSet rs, boolean limitDataRead) throws Exception
+      {
+         Object result = rs.getObject(_idx);
+         if (result != null && !(result instanceof Long))
+         {
+            if (result instanceof Number)
+            {
+               return Long.valueOf(((Number) result).longValue());
+            }
+            return Long.valueOf(result.toString());
+         }
+         return result;
+      }
+   }
+
+   private static class FloatReader extends ResultSetValueReader
+   {
+      FloatReader(int idx)
+      {
+         super(idx);
+      }
+
+      Object read(ResultSet rs, boolean limitDataRead) throws Exception
+      {
+         Object result = rs.getObject(_idx);
+         if (result != null && !(result instanceof Double))
+         {
+            if (result instanceof Number)
+            {
+               return new Double(((Number) result).doubleValue());
+            }
+            return new Double(result.toString());
+         }
+         return result;
+      }
+   }
+
+   private static class NumericReader extends ResultSetValueReader
+   {
+      NumericReader(int idx)
+      {
+         super(idx);
+      }
+
+      Object read(ResultSet rs, boolean limitDataRead) throws Exception
+      {
+         Object result = rs.getObject(_idx);
+         if (result != null && !(result instanceof BigDecimal))
+         {
+            if (result instanceof Number)
+            {
+               return new BigDecimal(((Number) result).doubleValue());
+            }
+            return new BigDecimal(result.toString());
+         }
+         return result;
+      }
+   }
+
+   private static class IntReader extends ResultSetValueReader
+   {
+      private final boolean _unsigned;
+
+      /**
+       * @param unsigned Bug 1968270 (Displaying unsigned INT as signed INT in column?)
+       * Java doesn't have unsigned integers, so unsigned values are read as Long.
+       */
+      IntReader(int idx, boolean unsigned)
+      {
+         super(idx);
+         _unsigned = unsigned;
+      }
+
+      Object read(ResultSet rs, boolean limitDataRead) throws Exception
+      {
+         Object result = rs.getObject(_idx);
+         if (rs.wasNull())
+         {
+            return null;
+         }
+
+         if (result instanceof Long)
+         {
+            return result;
+         }
+         if (_unsigned)
+         {
+            return Long.valueOf(result.toString());
+         }
+
+         if (result instanceof Integer)
+         {
+            return result;
+         }
+         if (result instanceof Number)
+         {
+            return Integer.valueOf(((Number) result).intValue());
+         }
+
+         return Integer.valueOf(result.toString());
+      }
+   }
+
+   private static class StringReader extends ResultSetValueReader
+   {
+      private final boolean _checkWasNull;
+
+      StringReader(int idx, boolean checkWasNull)
+      {
+         super(idx);
+         _checkWasNull = checkWasNull;
+      }
+
+      Object read(ResultSet rs, boolean limitDataRead) throws Exception
+      {
+         String result = rs.getString(_idx);
+         if (_checkWasNull && rs.wasNull())
+         {
+            return null;
+         }
+         return result;
+      }
+   }
+
+   private static class BlobReader extends ResultSetValueReader
+   {
+      BlobReader(int idx)
+      {
+         super(idx);
+      }
+
+      Object read(ResultSet rs, boolean limitDataRead) throws Exception
+      {
+         return DataTypeBlob.staticReadResultSet(rs, _idx);
+      }
+   }
+
+   private static class ClobReader extends ResultSetValueReader
+   {
+      ClobReader(int idx)
+      {
+         super(idx);
+      }
+
+      Object read(ResultSet rs, boolean limitDataRead) throws Exception
+      {
+         return DataTypeClob.staticReadResultSet(rs, _idx);
+      }
+   }
+
+   private static class ObjectReader extends ResultSetValueReader
+   {
+      ObjectReader(int idx)
+      {
+         super(idx);
+      }
+
+      Object read(ResultSet rs, boolean limitDataRead) throws Exception
+      {
+         Object result = rs.getObject(_idx);
+         if (rs.wasNull())
+         {
+            return null;
+         }
+         return result;
+      }
+   }
+}
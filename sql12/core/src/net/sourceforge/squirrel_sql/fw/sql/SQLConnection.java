@@ -68,6 +68,9 @@ public class SQLConnection implements ISQLConnection
 
 	private Date _timeClosed;
 
+	/** Time in millis a statement was last created on this connection. */
+	private volatile long _lastUsedTime;
+
 	/** Object to handle property change events. */
 	private transient PropertyChangeReporter _propChgReporter;
 
@@ -81,6 +84,7 @@ public class SQLConnection implements ISQLConnection
 		_conn = conn;
 		_connProps = connProps;
 		_timeOpened = Calendar.getInstance().getTime();
+		_lastUsedTime = _timeOpened.getTime();
 
 
       try
@@ -280,6 +284,7 @@ public class SQLConnection implements ISQLConnection
 	public Statement createStatement() throws SQLException
 	{
 		validateConnection();
+		_lastUsedTime = System.currentTimeMillis();
 		return _conn.createStatement();
 	}
 
@@ -289,9 +294,18 @@ public class SQLConnection implements ISQLConnection
 	public PreparedStatement prepareStatement(String sql) throws SQLException
 	{
 		validateConnection();
+		_lastUsedTime = System.currentTimeMillis();
 		return _conn.prepareStatement(sql);
 	}
 
+	/**
+	 * @see net.sourceforge.squirrel_sql.fw.sql.ISQLConnection#getLastUsedTime()
+	 */
+	public long getLastUsedTime()
+	{
+		return _lastUsedTime;
+	}
+
 	/**
 	 * Retrieve the time that this connection was opened. Note that this time is the time that this
 	 * <TT>SQLConnection</TT> was created, not the time that the <TT>java.sql.Connection</TT> object that it is
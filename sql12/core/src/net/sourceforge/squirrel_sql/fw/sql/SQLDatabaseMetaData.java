@@ -1906,6 +1906,21 @@ public class SQLDatabaseMetaData implements ISQLDatabaseMetaData
 		return value.booleanValue();
 	}
 
+	/**
+	 * @see net.sourceforge.squirrel_sql.fw.sql.ISQLDatabaseMetaData#supportsBatchUpdates()
+	 */
+	public synchronized boolean supportsBatchUpdates() throws SQLException
+	{
+		final String key = "supportsBatchUpdates";
+		Boolean value = (Boolean) _cache.get(key);
+		if (value != null) { return value.booleanValue(); }
+
+		value = Boolean.valueOf(privateGetJDBCMetaData().supportsBatchUpdates());
+		_cache.put(key, value);
+
+		return value.booleanValue();
+	}
+
 	/**
 	 * @see net.sourceforge.squirrel_sql.fw.sql.ISQLDatabaseMetaData#storesUpperCaseIdentifiers()
 	 */
@@ -0,0 +1,166 @@
+package net.sourceforge.squirrel_sql.fw.util;
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import net.sourceforge.squirrel_sql.fw.util.log.ILogger;
+import net.sourceforge.squirrel_sql.fw.util.log.LoggerController;
+
+/**
+ * Persistent index of the classes that <TT>MyURLClassLoader.getAssignableClasses()</TT>
+ * found in a jar file.
+ *
+ * An entry is keyed by the jar's path and the type the classes were checked against.
+ * It is valid only as long as size and modification time of the jar are unchanged,
+ * so replacing a plugin or driver jar causes a new scan of that jar.
+ * <p/>
+ * Whether a class of the jar can be loaded may depend on the other jars of the class loader,
+ * e.g. a driver whose dependencies are in a separate jar. So an entry also records a stamp
+ * of the class loader's class path, see <TT>MyURLClassLoader</TT>. Adding, removing or
+ * replacing any jar of the class path causes a new scan.
+ */
+public class ClassScanIndex
+{
+   private static final ILogger s_log = LoggerController.createLogger(ClassScanIndex.class);
+
+   private static final String COMMENT = "SQuirreL SQL Client class scan index. May be deleted safely.";
+
+   private final File _file;
+   private final Properties _entries = new Properties();
+   private boolean _changed;
+
+   public ClassScanIndex(File file)
+   {
+      _file = file;
+
+      if (false == _file.exists())
+      {
+         return;
+      }
+
+      InputStream is = null;
+      try
+      {
+         is = new FileInputStream(_file);
+         _entries.load(is);
+      }
+      catch (Exception e)
+      {
+         s_log.error("Failed to read class scan index " + _file.getAbsolutePath() + ". The index is rebuilt.", e);
+         _entries.clear();
+      }
+      finally
+      {
+         new IOUtilitiesImpl().closeInputStream(is);
+      }
+   }
+
+   /**
+    * @return The names of the classes assignable to type in jar or null if the jar
+    * was not scanned yet or has changed since.
+    */
+   public synchronized String[] getAssignableClassNames(File jar, Class<?> type, String classPathStamp)
+   {
+      String entry = _entries.getProperty(getKey(jar, type));
+      if (null == entry)
+      {
+         return null;
+      }
+
+      String[] parts = entry.split(" ", 4);
+      if (4 != parts.length
+         || false == parts[0].equals("" + jar.length())
+         || false == parts[1].equals("" + jar.lastModified())
+         || false == parts[2].equals(classPathStamp))
+      {
+         return null;
+      }
+
+      if (0 == parts[3].length())
+      {
+         return new String[0];
+      }
+      return parts[3].split(",");
+   }
+
+   /**
+    * @param classPathStamp Identifies the class path the jar was scanned with. Must not contain blanks.
+    */
+   public synchronized void putAssignableClassNames(File jar, Class<?> type, String classPathStamp, List<String> classNames)
+   {
+      StringBuilder entry = new StringBuilder();
+      entry.append(jar.length()).append(' ').append(jar.lastModified()).append(' ').append(classPathStamp).append(' ');
+      for (int i = 0; i < classNames.size(); i++)
+      {
+         if (0 < i)
+         {
+            entry.append(',');
+         }
+         entry.append(classNames.get(i));
+      }
+
+      Object old = _entries.setProperty(getKey(jar, type), entry.toString());
+      _changed |= false == entry.toString().equals(old);
+   }
+
+   /**
+    * Writes the index if it has changed. Entries of jars that no longer exist are dropped.
+    */
+   public synchronized void save()
+   {
+      if (false == _changed)
+      {
+         return;
+      }
+
+      for (String key : new ArrayList<String>(_entries.stringPropertyNames()))
+      {
+         if (false == new File(key.substring(key.indexOf('|') + 1)).exists())
+         {
+            _entries.remove(key);
+         }
+      }
+
+      OutputStream os = null;
+      try
+      {
+         os = new FileOutputStream(_file);
+         _entries.store(os, COMMENT);
+         _changed = false;
+      }
+      catch (IOException e)
+      {
+         s_log.error("Failed to write class scan index " + _file.getAbsolutePath(), e);
+      }
+      finally
+      {
+         new IOUtilitiesImpl().closeOutputStream(os);
+      }
+   }
+
+   private String getKey(File jar, Class<?> type)
+   {
+      return type.getName() + "|" + jar.getAbsolutePath();
+   }
+}
@@ -20,15 +20,18 @@ package net.sourceforge.squirrel_sql.fw.util;
  */
 import java.io.File;
 import java.io.IOException;
+import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.ArrayList;
+import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.CRC32;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
@@ -41,6 +44,8 @@ public class MyURLClassLoader extends URLClassLoader
 	private static final StringManager s_stringMgr =
 		StringManagerFactory.getStringManager(MyURLClassLoader.class);
 
+	private static volatile ClassScanIndex s_classScanIndex;
+
 	private Map<String, Class> _classes = new HashMap<String, Class>();
 
 	ArrayList<ClassLoaderListener> listeners = new ArrayList<ClassLoaderListener>();
@@ -102,10 +107,28 @@ public class MyURLClassLoader extends URLClassLoader
 		listeners.remove(listener);
 	}
 
+	/**
+	 * Sets the index that is used by <TT>getAssignableClasses()</TT> to skip
+	 * scanning jars that are unchanged since an earlier scan.
+	 *
+	 * @param classScanIndex
+	 *           the index to use or null to always scan the jars.
+	 */
+	public static void setClassScanIndex(ClassScanIndex classScanIndex)
+	{
+		s_classScanIndex = classScanIndex;
+	}
+
 	public Class[] getAssignableClasses(Class type, ILogger logger)
 	{
-		List<Class> classes = new ArrayList<Class>();
+		List<Class<?>> classes = new ArrayList<Class<?>>();
+		ClassScanIndex classScanIndex = s_classScanIndex;
 		URL[] urls = getURLs();
+		String classPathStamp = null;
+		if (classScanIndex != null)
+		{
+			classPathStamp = getClassPathStamp(urls, logger);
+		}
 		for (int i = 0; i < urls.length; ++i)
 		{
 			URL url = urls[i];
@@ -117,57 +140,159 @@ public class MyURLClassLoader extends URLClassLoader
          
 			if (!file.isDirectory() && file.exists() && file.canRead())
 			{
-				ZipFile zipFile = null;
-				try
-				{
-					zipFile = new ZipFile(file);
-				} catch (IOException ex)
+				String[] classNames = null;
+				if (classScanIndex != null)
 				{
-					Object[] args = { file.getAbsolutePath(), };
-					String msg = s_stringMgr.getString("MyURLClassLoader.errorLoadingFile", args);
-					logger.error(msg, ex);
-					continue;
+					classNames = classScanIndex.getAssignableClassNames(file, type, classPathStamp);
 				}
-				notifyListenersLoadedZipFile(file.getName());
 
-				for (Iterator it = new EnumerationIterator(zipFile.entries()); it.hasNext();)
+				if (classNames != null)
 				{
-					Class cls = null;
-					String entryName = ((ZipEntry) it.next()).getName();
-					String className = Utilities.changeFileNameToClassName(entryName);
-					if (className != null)
+					notifyListenersLoadedZipFile(file.getName());
+					for (int j = 0; j < classNames.length; ++j)
 					{
-						try
-						{
-							cls = Class.forName(className, false, this);
-						} catch (Throwable th)
+						Class<?> cls = loadAssignableClass(classNames[j], file, type, logger);
+						if (cls != null)
 						{
-							if (logger.isInfoEnabled())
-							{
-								// During assignable checks many classes can't be loaded but don't cause problems
-								// either. So we just issue an info.
-								Object[] args =
-									new Object[] { className, file.getAbsolutePath(), type.getName(), th.toString() };
-								// i18n[MyURLClassLoader.noAssignCheck=Failed to load {0} in {1} to check if it is
-								// assignable to {2}. Reason: {3}]
-								String msg = s_stringMgr.getString("MyURLClassLoader.noAssignCheck", args);
-
-								logger.info(msg);
-							}
+							classes.add(cls);
 						}
-						if (cls != null)
+					}
+				}
+				else
+				{
+					List<Class<?>> found = scanZipFile(file, type, logger);
+					if (found == null)
+					{
+						continue;
+					}
+					classes.addAll(found);
+
+					if (classScanIndex != null)
+					{
+						List<String> foundNames = new ArrayList<String>();
+						for (Class<?> cls : found)
 						{
-							if (type.isAssignableFrom(cls))
-							{
-								classes.add(cls);
-							}
+							foundNames.add(cls.getName());
 						}
+						classScanIndex.putAssignableClassNames(file, type, classPathStamp, foundNames);
 					}
 				}
 			}
 		}
+
+		if (classScanIndex != null)
+		{
+			classScanIndex.save();
+		}
+
 		notifyListenersFinished();
-		return classes.toArray(new Class[classes.size()]);
+		return classes.toArray(new Class<?>[classes.size()]);
+	}
+
+	/**
+	 * Classes of one jar may fail to load because a jar they depend on is missing from
+	 * the class path. So what was found in a jar is only reused for the same class path.
+	 *
+	 * @return a checksum of path, size and modification time of all files of the class path.
+	 */
+	private String getClassPathStamp(URL[] urls, ILogger logger)
+	{
+		CRC32 crc = new CRC32();
+		for (int i = 0; i < urls.length; ++i)
+		{
+			File file = getFileFromUrl(logger, urls[i]);
+			String part = (file == null ? urls[i].toString() : file.getAbsolutePath() + "|" + file.length() + "|" + file.lastModified()) + "\n";
+			try
+			{
+				crc.update(part.getBytes("UTF-8"));
+			} catch (UnsupportedEncodingException ex)
+			{
+				throw new RuntimeException(ex);
+			}
+		}
+		return Long.toHexString(crc.getValue()) + "-" + urls.length;
+	}
+
+	/**
+	 * Finds the classes in the specified jar that are assignable to type. Every class
+	 * of the jar is loaded and checked.
+	 * 
+	 * @return the classes found or null if the jar could not be opened.
+	 */
+	private List<Class<?>> scanZipFile(File file, Class<?> type, ILogger logger)
+	{
+		ZipFile zipFile = null;
+		try
+		{
+			zipFile = new ZipFile(file);
+		} catch (IOException ex)
+		{
+			Object[] args = { file.getAbsolutePath(), };
+			String msg = s_stringMgr.getString("MyURLClassLoader.errorLoadingFile", args);
+			logger.error(msg, ex);
+			return null;
+		}
+		notifyListenersLoadedZipFile(file.getName());
+
+		List<Class<?>> classes = new ArrayList<Class<?>>();
+		try
+		{
+			for (Enumeration<? extends ZipEntry> en = zipFile.entries(); en.hasMoreElements();)
+			{
+				String entryName = en.nextElement().getName();
+				String className = Utilities.changeFileNameToClassName(entryName);
+				if (className != null)
+				{
+					Class<?> cls = loadAssignableClass(className, file, type, logger);
+					if (cls != null)
+					{
+						classes.add(cls);
+					}
+				}
+			}
+		}
+		finally
+		{
+			try
+			{
+				zipFile.close();
+			} catch (IOException ex)
+			{
+				logger.error("Failed to close " + file.getAbsolutePath(), ex);
+			}
+		}
+		return classes;
+	}
+
+	/**
+	 * @return the class or null if it couldn't be loaded or is not assignable to type.
+	 */
+	private Class<?> loadAssignableClass(String className, File file, Class<?> type, ILogger logger)
+	{
+		Class<?> cls = null;
+		try
+		{
+			cls = Class.forName(className, false, this);
+		} catch (Throwable th)
+		{
+			if (logger.isInfoEnabled())
+			{
+				// During assignable checks many classes can't be loaded but don't cause problems
+				// either. So we just issue an info.
+				Object[] args =
+					new Object[] { className, file.getAbsolutePath(), type.getName(), th.toString() };
+				// i18n[MyURLClassLoader.noAssignCheck=Failed to load {0} in {1} to check if it is
+				// assignable to {2}. Reason: {3}]
+				String msg = s_stringMgr.getString("MyURLClassLoader.noAssignCheck", args);
+
+				logger.info(msg);
+			}
+		}
+		if (cls != null && type.isAssignableFrom(cls))
+		{
+			return cls;
+		}
+		return null;
 	}
 
 	/**
@@ -0,0 +1,137 @@
+package net.sourceforge.squirrel_sql.fw.util;
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Stable merge sort of the indexes <TT>0 ... size-1</TT> of some data.
+ * The result is a permutation that lists the indexes in sorted order.
+ * Large inputs are sorted in parallel on the common <TT>ForkJoinPool</TT>,
+ * so the <TT>IndexComparator</TT> must be safe for concurrent calls.
+ */
+public class PermutationSort
+{
+   /** Below this size the merge sort does not fork. */
+   private static final int PARALLEL_THRESHOLD = 8192;
+
+   public static interface IndexComparator
+   {
+      int compare(int ix1, int ix2);
+   }
+
+   private final IndexComparator _comparator;
+
+   private PermutationSort(IndexComparator comparator)
+   {
+      _comparator = comparator;
+   }
+
+   public static int[] sort(int size, IndexComparator comparator)
+   {
+      int[] indexes = new int[size];
+      for (int i = 0; i < size; i++)
+      {
+         indexes[i] = i;
+      }
+
+      PermutationSort ps = new PermutationSort(comparator);
+      int[] buf = new int[size];
+      if (size < PARALLEL_THRESHOLD)
+      {
+         ps.mergeSort(indexes, buf, 0, size);
+      }
+      else
+      {
+         ForkJoinPool.commonPool().invoke(ps.new MergeSortTask(indexes, buf, 0, size));
+      }
+      return indexes;
+   }
+
+   private void mergeSort(int[] a, int[] buf, int from, int to)
+   {
+      if (to - from < 2)
+      {
+         return;
+      }
+      int mid = (from + to) >>> 1;
+      mergeSort(a, buf, from, mid);
+      mergeSort(a, buf, mid, to);
+      merge(a, buf, from, mid, to);
+   }
+
+   private void merge(int[] a, int[] buf, int from, int mid, int to)
+   {
+      if (_comparator.compare(a[mid - 1], a[mid]) <= 0)
+      {
+         // Already in order
+         return;
+      }
+
+      System.arraycopy(a, from, buf, from, to - from);
+      int i = from, j = mid, k = from;
+      while (i < mid && j < to)
+      {
+         if (_comparator.compare(buf[j], buf[i]) < 0)
+         {
+            a[k++] = buf[j++];
+         }
+         else
+         {
+            a[k++] = buf[i++];
+         }
+      }
+      while (i < mid)
+      {
+         a[k++] = buf[i++];
+      }
+      while (j < to)
+      {
+         a[k++] = buf[j++];
+      }
+   }
+
+   private class MergeSortTask extends RecursiveAction
+   {
+      private static final long serialVersionUID = 1L;
+
+      private final int[] _a;
+      private final int[] _buf;
+      private final int _from;
+      private final int _to;
+
+      MergeSortTask(int[] a, int[] buf, int from, int to)
+      {
+         _a = a;
+         _buf = buf;
+         _from = from;
+         _to = to;
+      }
+
+      @Override
+      protected void compute()
+      {
+         if (_to - _from < PARALLEL_THRESHOLD)
+         {
+            mergeSort(_a, _buf, _from, _to);
+            return;
+         }
+         int mid = (_from + _to) >>> 1;
+         invokeAll(new MergeSortTask(_a, _buf, _from, mid), new MergeSortTask(_a, _buf, mid, _to));
+         merge(_a, _buf, _from, mid, _to);
+      }
+   }
+}
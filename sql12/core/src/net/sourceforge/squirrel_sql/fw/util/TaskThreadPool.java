@@ -20,8 +20,15 @@ package net.sourceforge.squirrel_sql.fw.util;
  * License along with this library; if not, write to the Free Software
  * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
  */
-import java.util.ArrayList;
-import java.util.List;
+import java.lang.reflect.Method;
+import java.util.Iterator;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.swing.JFrame;
 import javax.swing.JOptionPane;
@@ -30,6 +37,25 @@ import javax.swing.SwingUtilities;
 import net.sourceforge.squirrel_sql.fw.util.log.ILogger;
 import net.sourceforge.squirrel_sql.fw.util.log.LoggerController;
 
+/**
+ * Executes tasks in the background.
+ * <p/>
+ * Tasks are run in lanes with their own threads, see <TT>Priority</TT>, so that
+ * background work can't delay what the user is waiting for. The interactive and the
+ * background lane run at most a fixed number of tasks at a time, further tasks wait in
+ * the order they were added. Tasks that were added with an owner and are still waiting
+ * can be removed by <TT>cancelTasks()</TT>, e.g. when a session is closed.
+ * <p/>
+ * Tasks added without a priority may wait for other tasks, e.g. object tree expanders
+ * wait for the schema info to be loaded in the background lane. If they took threads
+ * of a bounded lane, many of them could use up all threads and the tasks they wait for
+ * or other interactive tasks could not run. So these tasks get a thread of their own
+ * in the default lane, as all tasks did before there were lanes.
+ * <p/>
+ * If the system property <TT>VIRTUAL_THREADS_PROPERTY</TT> is true and the JDK
+ * supports virtual threads, tasks run on virtual threads. This suits tasks that
+ * block in JDBC calls most of the time.
+ */
 public class TaskThreadPool
 {
 	/** Logger for this class. */
@@ -39,128 +65,372 @@ public class TaskThreadPool
     /** Internationalized strings for this class. */
     private static final StringManager s_stringMgr =
         StringManagerFactory.getStringManager(TaskThreadPool.class);
-    
-	// Count of available or free threads.
-	private int _iFree;
 
-	// Total number of threads.
-	private int _threadCount;
+	public static final String VIRTUAL_THREADS_PROPERTY = "squirrel.taskThreadPool.virtualThreads";
+
+	private static final int MAX_INTERACTIVE_THREADS = 64;
 
-	private List<Runnable> _tasks = new ArrayList<Runnable>();
+	private static final int MAX_BACKGROUND_THREADS = 4;
+
+	private static final long IDLE_THREAD_TIMEOUT_SECONDS = 60;
+
+	public enum Priority
+	{
+		/**
+		 * Tasks added without a priority. They may wait for other tasks, so each task
+		 * runs on a thread of its own right away.
+		 */
+		DEFAULT,
+
+		/**
+		 * Tasks the user waits for, e.g. executing SQL or loading an object tree tab.
+		 * They must not wait for other tasks of the pool.
+		 */
+		INTERACTIVE,
+
+		/** Tasks the user doesn't wait for, e.g. loading the schema cache. */
+		BACKGROUND
+	}
+
+	private final Lane _defaultLane;
+	private final Lane _interactiveLane;
+	private final Lane _backgroundLane;
+	private final boolean _usingVirtualThreads;
 
-	private MyCallback _callback = new MyCallback();
    private JFrame _parentForMessages = null;
 
+   public TaskThreadPool()
+   {
+      ThreadFactory virtualThreadFactory = null;
+      if (Boolean.getBoolean(VIRTUAL_THREADS_PROPERTY))
+      {
+         virtualThreadFactory = createVirtualThreadFactory();
+      }
+      _usingVirtualThreads = null != virtualThreadFactory;
+
+      _defaultLane = new Lane("Task", 0, virtualThreadFactory);
+      _interactiveLane = new Lane("Interactive task", MAX_INTERACTIVE_THREADS, virtualThreadFactory);
+      _backgroundLane = new Lane("Background task", MAX_BACKGROUND_THREADS, virtualThreadFactory);
+   }
+
    /**
 	 * Add a task to be executed by the next available thread
-	 * in this thread pool. If there is no free thread available
-	 * but the maximum number of threads hasn't been reached then
-	 * create a new thread.
+	 * in this thread pool. The task runs in the default lane and has no owner.
 	 *  
     * @param task the Runnable to give to the thread
     * @param taskName the name of the task (used to set the Thread name)
     * @throws IllegalArgumentException
     */
-   public synchronized void addTask(Runnable task, String taskName) 
+   public void addTask(Runnable task, String taskName) 
    	throws IllegalArgumentException 
    {
-   	_addTask(task, taskName);
+   	addTask(task, taskName, Priority.DEFAULT, null);
    }
    
    /**
 	 * Add a task to be executed by the next available thread
-	 * in this thread pool. If there is no free thread available
-	 * but the maximum number of threads hasn't been reached then
-	 * create a new thread.
+	 * in this thread pool. The task runs in the default lane and has no owner.
 	 *  
     * @param task
     * @throws IllegalArgumentException
     * @Deprecated Please use the form that accepts a task name instead. 
     */
-   public synchronized void addTask(Runnable task) 
+   public void addTask(Runnable task) 
 		throws IllegalArgumentException 
 	{
-   	_addTask(task, null);
+   	addTask(task, null, Priority.DEFAULT, null);
 	}
-   
-   
-	private synchronized void _addTask(Runnable task, String taskName)
-		throws IllegalArgumentException
-	{
+
+   /**
+    * Add a task to be executed by the next available thread of the lane of priority.
+    *
+    * @param task the Runnable to give to the thread
+    * @param taskName the name of the task (used to set the Thread name), may be null
+    * @param priority the lane to run the task in
+    * @param owner if not null the task is removed by <TT>cancelTasks(owner)</TT> while it waits
+    * @throws IllegalArgumentException
+    */
+   public void addTask(Runnable task, String taskName, Priority priority, Object owner)
+      throws IllegalArgumentException
+   {
 		if (task == null)
 		{
 			throw new IllegalArgumentException("Null Runnable passed");
 		}
-		_tasks.add(task);
-		// Should there me a Max Number of threads?
-		if (_iFree == 0)
-		{
-			Thread th = new Thread(new TaskExecuter(_callback));
-			if (taskName != null) {
-				th.setName(taskName);
-			}
-			th.setPriority(Thread.MIN_PRIORITY); //??
-			th.setDaemon(true);
-			th.start();
-			++_threadCount;
-			s_log.debug("Creating thread nbr: " + _threadCount);
-		}
-		else
-		{
-			synchronized (_callback)
-			{
-				s_log.debug("Reusing existing thread");
-				_callback.notify();
-			}
-		}
-	}
+		getLane(priority).execute(new QueuedTask(task, taskName, owner));
+   }
+
+   /**
+    * Removes the tasks of owner that haven't started yet. Running tasks are not interrupted.
+    *
+    * @return The number of removed tasks.
+    */
+   public int cancelTasks(Object owner)
+   {
+      return _defaultLane.cancelTasks(owner) + _interactiveLane.cancelTasks(owner) + _backgroundLane.cancelTasks(owner);
+   }
+
+   public Statistics getStatistics(Priority priority)
+   {
+      return getLane(priority).getStatistics();
+   }
+
+   public boolean isUsingVirtualThreads()
+   {
+      return _usingVirtualThreads;
+   }
 
    public void setParentForMessages(JFrame parentForMessages)
    {
       _parentForMessages = parentForMessages;
    }
 
-   private final class MyCallback implements ITaskThreadPoolCallback
-	{
-		public void incrementFreeThreadCount()
-		{
-			++_iFree;
-			s_log.debug("Returning thread. " + _iFree + " threads available");
-		}
+   private Lane getLane(Priority priority)
+   {
+      switch (priority)
+      {
+         case INTERACTIVE:
+            return _interactiveLane;
+         case BACKGROUND:
+            return _backgroundLane;
+         default:
+            return _defaultLane;
+      }
+   }
 
-		public void decrementFreeThreadCount()
-		{
-			--_iFree;
-			s_log.debug("Using a thread. " + _iFree + " threads available");
-		}
+   /**
+    * @return A factory for virtual threads or null if the JDK doesn't support them.
+    */
+   private static ThreadFactory createVirtualThreadFactory()
+   {
+      try
+      {
+         Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+         Method factoryMethod = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+         ThreadFactory ret = (ThreadFactory) factoryMethod.invoke(builder);
+         s_log.info("Tasks run on virtual threads");
+         return ret;
+      }
+      catch (Exception e)
+      {
+         s_log.info("Virtual threads are not supported by this JDK, tasks run on platform threads");
+         return null;
+      }
+   }
 
-		public synchronized Runnable nextTask()
-		{
-			if (_tasks.size() > 0)
-			{
-				return _tasks.remove(0);
-			}
-			return null;
-		}
+   private void showMessage(final Throwable th)
+   {
+      s_log.error("Error", th);
+      SwingUtilities.invokeLater(new Runnable()
+      {
+         public void run()
+         {
+            //i18n[TaskThreadPool.errorDuringTaskExecMsg=Error occurred during task execution:]
+            StringBuffer msg = 
+                new StringBuffer(
+                    s_stringMgr.getString(
+                                   "TaskThreadPool.errorDuringTaskExecMsg"));
+            msg.append("\n");
+            msg.append(th.getMessage());
+            JOptionPane.showMessageDialog(_parentForMessages, msg.toString());
+            throw new RuntimeException(th);
+         }
+      });
+   }
 
-		public void showMessage(final Throwable th)
-		{
-         s_log.error("Error", th);
-         SwingUtilities.invokeLater(new Runnable()
+   /**
+    * The numbers of a lane at the time <TT>getStatistics()</TT> was called.
+    */
+   public static class Statistics
+   {
+      private final int _queuedCount;
+      private final int _activeCount;
+      private final long _completedCount;
+      private final long _averageWaitMillis;
+      private final long _maxWaitMillis;
+      private final long _averageRunMillis;
+
+      private Statistics(int queuedCount, int activeCount, long completedCount, long averageWaitMillis,
+                         long maxWaitMillis, long averageRunMillis)
+      {
+         _queuedCount = queuedCount;
+         _activeCount = activeCount;
+         _completedCount = completedCount;
+         _averageWaitMillis = averageWaitMillis;
+         _maxWaitMillis = maxWaitMillis;
+         _averageRunMillis = averageRunMillis;
+      }
+
+      /** @return Number of tasks waiting for a thread. */
+      public int getQueuedCount()
+      {
+         return _queuedCount;
+      }
+
+      /** @return Number of tasks running. */
+      public int getActiveCount()
+      {
+         return _activeCount;
+      }
+
+      public long getCompletedCount()
+      {
+         return _completedCount;
+      }
+
+      /** @return Average time completed tasks waited for a thread. */
+      public long getAverageWaitMillis()
+      {
+         return _averageWaitMillis;
+      }
+
+      /** @return Longest time a completed task waited for a thread. */
+      public long getMaxWaitMillis()
+      {
+         return _maxWaitMillis;
+      }
+
+      public long getAverageRunMillis()
+      {
+         return _averageRunMillis;
+      }
+   }
+
+   private class Lane
+   {
+      private final ThreadPoolExecutor _executor;
+
+      private final AtomicLong _completedCount = new AtomicLong();
+      private final AtomicLong _totalWaitMillis = new AtomicLong();
+      private final AtomicLong _maxWaitMillis = new AtomicLong();
+      private final AtomicLong _totalRunMillis = new AtomicLong();
+
+      /**
+       * @param maxThreads 0 for a lane without limit that runs every task right away.
+       */
+      Lane(final String threadNamePrefix, int maxThreads, final ThreadFactory virtualThreadFactory)
+      {
+         ThreadFactory threadFactory = new ThreadFactory()
          {
-            public void run()
+            private final AtomicInteger _count = new AtomicInteger();
+
+            public Thread newThread(Runnable r)
             {
-               //i18n[TaskThreadPool.errorDuringTaskExecMsg=Error occurred during task execution:]
-               StringBuffer msg = 
-                   new StringBuffer(
-                       s_stringMgr.getString(
-                                      "TaskThreadPool.errorDuringTaskExecMsg"));
-               msg.append("\n");
-               msg.append(th.getMessage());
-               JOptionPane.showMessageDialog(_parentForMessages, msg.toString());
-               throw new RuntimeException(th);
+               Thread th;
+               if (null != virtualThreadFactory)
+               {
+                  th = virtualThreadFactory.newThread(r);
+               }
+               else
+               {
+                  th = new Thread(r);
+                  th.setPriority(Thread.MIN_PRIORITY);
+                  th.setDaemon(true);
+               }
+               th.setName(threadNamePrefix + " " + _count.incrementAndGet());
+               s_log.debug("Creating thread " + th.getName());
+               return th;
             }
-         });
-		}
-	}
+         };
+
+         if (0 == maxThreads)
+         {
+            _executor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, IDLE_THREAD_TIMEOUT_SECONDS, TimeUnit.SECONDS,
+               new SynchronousQueue<Runnable>(), threadFactory);
+         }
+         else
+         {
+            _executor = new ThreadPoolExecutor(maxThreads, maxThreads, IDLE_THREAD_TIMEOUT_SECONDS, TimeUnit.SECONDS,
+               new LinkedBlockingQueue<Runnable>(), threadFactory);
+            _executor.allowCoreThreadTimeOut(true);
+         }
+      }
+
+      void execute(QueuedTask task)
+      {
+         task._lane = this;
+         _executor.execute(task);
+      }
+
+      int cancelTasks(Object owner)
+      {
+         if (null == owner)
+         {
+            return 0;
+         }
+
+         int ret = 0;
+         for (Iterator<Runnable> it = _executor.getQueue().iterator(); it.hasNext();)
+         {
+            if (owner == ((QueuedTask) it.next())._owner)
+            {
+               it.remove();
+               ++ret;
+            }
+         }
+         return ret;
+      }
+
+      void taskCompleted(long waitMillis, long runMillis)
+      {
+         _completedCount.incrementAndGet();
+         _totalWaitMillis.addAndGet(waitMillis);
+         _totalRunMillis.addAndGet(runMillis);
+
+         for (long max = _maxWaitMillis.get(); max < waitMillis && false == _maxWaitMillis.compareAndSet(max, waitMillis);)
+         {
+            max = _maxWaitMillis.get();
+         }
+      }
+
+      Statistics getStatistics()
+      {
+         long completedCount = _completedCount.get();
+         long averageWaitMillis = 0 == completedCount ? 0 : _totalWaitMillis.get() / completedCount;
+         long averageRunMillis = 0 == completedCount ? 0 : _totalRunMillis.get() / completedCount;
+         return new Statistics(_executor.getQueue().size(), _executor.getActiveCount(), completedCount,
+            averageWaitMillis, _maxWaitMillis.get(), averageRunMillis);
+      }
+   }
+
+   private class QueuedTask implements Runnable
+   {
+      private final Runnable _task;
+      private final String _taskName;
+      private final Object _owner;
+      private final long _queuedTime = System.currentTimeMillis();
+      private Lane _lane;
+
+      QueuedTask(Runnable task, String taskName, Object owner)
+      {
+         _task = task;
+         _taskName = taskName;
+         _owner = owner;
+      }
+
+      public void run()
+      {
+         long begin = System.currentTimeMillis();
+         Thread th = Thread.currentThread();
+         String threadName = th.getName();
+         if (null != _taskName)
+         {
+            th.setName(_taskName);
+         }
+
+         try
+         {
+            _task.run();
+         }
+         catch (Throwable t)
+         {
+            showMessage(t);
+         }
+         finally
+         {
+            th.setName(threadName);
+            _lane.taskCompleted(begin - _queuedTime, System.currentTimeMillis() - begin);
+         }
+      }
+   }
 }
@@ -0,0 +1,137 @@
+package net.sourceforge.squirrel_sql.fw.xml;
+
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.SequenceInputStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Vector;
+
+/**
+ * A file that beans are appended to. Saving a growing collection, e.g. the SQL history,
+ * by appending the new beans to a journal doesn't depend on the size of the collection.
+ *
+ * The file holds the bean elements written by <TT>XMLBeanWriter</TT> without a root element.
+ * The root element is added when the file is read.
+ *
+ * If an append was torn, e.g. by a crash, the beans before the damaged element are still
+ * read and <TT>isDamaged()</TT> returns true. The caller should then replace the journal.
+ */
+public class XMLBeanJournal
+{
+	private final File _file;
+	private boolean _damaged;
+
+	public XMLBeanJournal(File file)
+	{
+		_file = file;
+	}
+
+	/**
+	 * @return The beans in the order they were appended, up to the first damaged element.
+	 * Empty if the file doesn't exist.
+	 */
+	public List<Object> load(ClassLoader cl) throws XMLException
+	{
+		_damaged = false;
+		final List<Object> ret = new ArrayList<Object>();
+		if (!_file.exists())
+		{
+			return ret;
+		}
+
+		final Vector<InputStream> streams = new Vector<InputStream>();
+		try
+		{
+			streams.add(new ByteArrayInputStream(("<" + XMLConstants.ROOT_ELEMENT_NAME + ">").getBytes("UTF-8")));
+			streams.add(new FileInputStream(_file));
+			streams.add(new ByteArrayInputStream(("</" + XMLConstants.ROOT_ELEMENT_NAME + ">").getBytes("UTF-8")));
+		}
+		catch (IOException ex)
+		{
+			throw new XMLException(ex);
+		}
+
+		InputStreamReader rdr;
+		try
+		{
+			rdr = new InputStreamReader(new SequenceInputStream(streams.elements()), "UTF-8");
+		}
+		catch (IOException ex)
+		{
+			throw new XMLException(ex);
+		}
+
+		XMLBeanReader xmlRdr = new XMLBeanReader();
+		_damaged = !xmlRdr.loadUpToFirstError(rdr, cl);
+		for (Iterator<Object> it = xmlRdr.iterator(); it.hasNext();)
+		{
+			ret.add(it.next());
+		}
+		return ret;
+	}
+
+	/**
+	 * @return true if the last <TT>load()</TT> stopped at a damaged element.
+	 */
+	public boolean isDamaged()
+	{
+		return _damaged;
+	}
+
+	/**
+	 * Appends the beans to the end of the file. Creates the file if it doesn't exist.
+	 */
+	public void append(Collection<?> beans) throws XMLException, IOException
+	{
+		if (beans.isEmpty())
+		{
+			return;
+		}
+
+		XMLBeanWriter xmlWtr = new XMLBeanWriter();
+		xmlWtr.addIteratorToRoot(beans.iterator());
+
+		Writer wtr = new OutputStreamWriter(new FileOutputStream(_file, true), "UTF-8");
+		try
+		{
+			xmlWtr.writeBeans(wtr);
+		}
+		finally
+		{
+			wtr.close();
+		}
+	}
+
+	public void delete() throws IOException
+	{
+		if (_file.exists() && !_file.delete())
+		{
+			throw new IOException("Failed to delete " + _file.getAbsolutePath());
+		}
+	}
+}
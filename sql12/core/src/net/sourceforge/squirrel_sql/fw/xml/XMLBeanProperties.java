@@ -0,0 +1,112 @@
+package net.sourceforge.squirrel_sql.fw.xml;
+
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The properties of a bean class as used by <TT>XMLBeanReader</TT> and <TT>XMLBeanWriter</TT>.
+ * Introspection is done once per class. The accessor methods are kept so that reading
+ * and writing large numbers of beans only invokes them.
+ */
+final class XMLBeanProperties
+{
+	private static final ConcurrentHashMap<Class<?>, XMLBeanProperties> s_readProperties =
+		new ConcurrentHashMap<Class<?>, XMLBeanProperties>();
+
+	private static final ConcurrentHashMap<Class<?>, XMLBeanProperties> s_writeProperties =
+		new ConcurrentHashMap<Class<?>, XMLBeanProperties>();
+
+	private final Property[] _properties;
+
+	private final HashMap<String, Property> _propertiesByName = new HashMap<String, Property>();
+
+	private XMLBeanProperties(BeanInfo info)
+	{
+		PropertyDescriptor[] propDesc = info.getPropertyDescriptors();
+		_properties = new Property[propDesc.length];
+		for (int i = 0; i < propDesc.length; ++i)
+		{
+			_properties[i] = new Property(propDesc[i]);
+			_propertiesByName.put(_properties[i].name, _properties[i]);
+		}
+	}
+
+	/**
+	 * @return The properties found by <TT>Introspector.getBeanInfo(beanClass, Introspector.USE_ALL_BEANINFO)</TT>.
+	 */
+	static XMLBeanProperties forReading(Class<?> beanClass) throws IntrospectionException
+	{
+		XMLBeanProperties ret = s_readProperties.get(beanClass);
+		if (ret == null)
+		{
+			ret = new XMLBeanProperties(Introspector.getBeanInfo(beanClass, Introspector.USE_ALL_BEANINFO));
+			s_readProperties.put(beanClass, ret);
+		}
+		return ret;
+	}
+
+	/**
+	 * @return The properties found by <TT>Introspector.getBeanInfo(beanClass, Object.class)</TT>.
+	 */
+	static XMLBeanProperties forWriting(Class<?> beanClass) throws IntrospectionException
+	{
+		XMLBeanProperties ret = s_writeProperties.get(beanClass);
+		if (ret == null)
+		{
+			ret = new XMLBeanProperties(Introspector.getBeanInfo(beanClass, Object.class));
+			s_writeProperties.put(beanClass, ret);
+		}
+		return ret;
+	}
+
+	/**
+	 * @return The properties in the order of <TT>BeanInfo.getPropertyDescriptors()</TT>.
+	 */
+	Property[] getProperties()
+	{
+		return _properties;
+	}
+
+	Property getProperty(String name)
+	{
+		return _propertiesByName.get(name);
+	}
+
+	static final class Property
+	{
+		final String name;
+		final Method getter;
+		final Method setter;
+
+		/** The parameter type of the setter or null if there is no setter. */
+		final Class<?> setterType;
+
+		Property(PropertyDescriptor propDescr)
+		{
+			name = propDescr.getName();
+			getter = propDescr.getReadMethod();
+			setter = propDescr.getWriteMethod();
+			setterType = setter == null ? null : setter.getParameterTypes()[0];
+		}
+	}
+}
@@ -18,21 +18,23 @@ package net.sourceforge.squirrel_sql.fw.xml;
  * License along with this library; if not, write to the Free Software
  * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
  */
-import java.beans.BeanInfo;
-import java.beans.Introspector;
-import java.beans.PropertyDescriptor;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.lang.reflect.Array;
-import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import net.n3.nanoxml.IXMLElement;
 import net.n3.nanoxml.IXMLParser;
@@ -44,6 +46,17 @@ import net.sourceforge.squirrel_sql.fw.util.beanwrapper.StringWrapper;
 import net.sourceforge.squirrel_sql.fw.util.log.ILogger;
 import net.sourceforge.squirrel_sql.fw.util.log.LoggerController;
 
+/**
+ * Reads the JavaBeans written by <TT>XMLBeanWriter</TT>.
+ *
+ * The XML is read as a stream by a StAX parser and the beans are created while
+ * parsing, no document tree is built. Introspection is done once per bean class, see
+ * <TT>XMLBeanProperties</TT>.
+ *
+ * Files may contain character references that XML 1.0 doesn't allow, e.g. &amp;#x1;
+ * for control characters in SQL. NanoXML wrote and read them but StAX parsers reject them.
+ * Such files are read by the former NanoXML based implementation.
+ */
 public class XMLBeanReader implements Iterable<Object>
 {
 	/** Logger for this class. */
@@ -60,6 +73,9 @@ public class XMLBeanReader implements Iterable<Object>
 
 	private final List<Object> _beanColl = new ArrayList<Object>();
 
+	/** Bean classes by the class names found in the XML. */
+	private final HashMap<String, Class<?>> _classesByName = new HashMap<String, Class<?>>();
+
 	public XMLBeanReader()
 	{
 		super();
@@ -98,7 +114,7 @@ public class XMLBeanReader implements Iterable<Object>
 		load(xmlFileName, null);
 	}
 
-	public synchronized void load(String xmlFileName, ClassLoader cl) throws FileNotFoundException,
+	public synchronized void load(final String xmlFileName, ClassLoader cl) throws FileNotFoundException,
 		IllegalArgumentException, XMLException
 	{
 		if (xmlFileName == null)
@@ -106,95 +122,359 @@ public class XMLBeanReader implements Iterable<Object>
 			throw new IllegalArgumentException("Null xmlFileName passed");
 		}
 
-		_cl = cl;
 		_beanColl.clear();
 
-		FileReader frdr = new FileReader(xmlFileName);
+		// Throws FileNotFoundException before anything is parsed.
+		final FileReader frdr = new FileReader(xmlFileName);
+
+		load(new ReaderSource()
+		{
+			private boolean _opened;
+
+			public Reader open() throws IOException
+			{
+				if (!_opened)
+				{
+					_opened = true;
+					return frdr;
+				}
+				return new FileReader(xmlFileName);
+			}
+		}, cl);
+	}
+
+	public void load(Reader rdr) throws XMLException
+	{
+		load(rdr, null);
+	}
+
+	public void load(Reader rdr, ClassLoader cl) throws XMLException
+	{
+		// The content is read once more if the fallback to NanoXML is needed.
+		final StringWriter buf = new StringWriter();
+		try
+		{
+			char[] cbuf = new char[8192];
+			for (int len = rdr.read(cbuf); len != -1; len = rdr.read(cbuf))
+			{
+				buf.write(cbuf, 0, len);
+			}
+		}
+		catch (IOException ex)
+		{
+			throw new XMLException(ex);
+		}
+
+		load(new ReaderSource()
+		{
+			public Reader open()
+			{
+				return new StringReader(buf.toString());
+			}
+		}, cl);
+	}
+
+	/**
+	 * Reads the beans up to the first error, e.g. at the end of a file that was not
+	 * written completely. Unlike <TT>load()</TT> the beans read before the error are kept.
+	 *
+	 * @return true if the whole content was read.
+	 */
+	public boolean loadUpToFirstError(Reader rdr, ClassLoader cl)
+	{
+		_cl = cl;
+		_classesByName.clear();
 		try
 		{
-			load(frdr, cl);
+			loadStreamed(rdr);
+			return true;
+		}
+		catch (Exception ex)
+		{
+			s_log.info("Reading XML stopped at an error, " + _beanColl.size() + " beans were read: " + ex.getMessage());
+			return false;
 		}
 		finally
 		{
+			closeReader(rdr);
+		}
+	}
+
+	public Iterator<Object> iterator()
+	{
+		return _beanColl.iterator();
+	}
+
+	private interface ReaderSource
+	{
+		Reader open() throws IOException;
+	}
+
+	private void load(ReaderSource src, ClassLoader cl) throws XMLException
+	{
+		_cl = cl;
+		_classesByName.clear();
+
+		final int beanCountBefore = _beanColl.size();
+		try
+		{
+			Reader rdr = src.open();
 			try
 			{
-				frdr.close();
+				loadStreamed(rdr);
+				return;
 			}
-			catch (IOException ex)
+			catch (XMLStreamException ex)
 			{
-				s_log.error("Error closing FileReader", ex);
+				s_log.info("Reading XML by the StAX parser failed, falling back to NanoXML: " + ex.getMessage());
+			}
+			finally
+			{
+				closeReader(rdr);
+			}
+
+			_beanColl.subList(beanCountBefore, _beanColl.size()).clear();
+			rdr = src.open();
+			try
+			{
+				loadDocument(rdr);
+			}
+			finally
+			{
+				closeReader(rdr);
 			}
 		}
+		catch (XMLException ex)
+		{
+			throw ex;
+		}
+		catch (Exception ex)
+		{
+			throw new XMLException(ex);
+		}
 	}
 
-	public void load(Reader rdr) throws XMLException
+	private void closeReader(Reader rdr)
 	{
-		load(rdr, null);
+		try
+		{
+			rdr.close();
+		}
+		catch (IOException ex)
+		{
+			s_log.error("Error closing Reader", ex);
+		}
 	}
 
-	public void load(Reader rdr, ClassLoader cl) throws XMLException
+	private void loadStreamed(Reader rdr) throws XMLStreamException, XMLException
 	{
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.FALSE);
+		factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+
+		XMLStreamReader xr = factory.createXMLStreamReader(rdr);
 		try
 		{
-			final IXMLParser parser = XMLParserFactory.createDefaultXMLParser();
-			parser.setReader(new StdXMLReader(rdr));
-			IXMLElement element = (IXMLElement) parser.parse();
-			// Bug 2942351 (Program doesn't launch)
-			// looking at the source for StdXMLBuilder, it appears that parser.parse() could possibly return
-			// null. So check for null here and skip if necessary.
-			if (element != null)
+			// Find the root element
+			while (xr.hasNext() && xr.next() != XMLStreamConstants.START_ELEMENT)
 			{
-				Iterator it = new EnumerationIterator(element.enumerateChildren());
-				while (it.hasNext())
+				// Empty body.
+			}
+			if (!xr.isStartElement())
+			{
+				return;
+			}
+
+			while (xr.nextTag() == XMLStreamConstants.START_ELEMENT)
+			{
+				if (getClassNameFromElement(xr) != null)
 				{
-					final IXMLElement elem = (IXMLElement) it.next();
-					if (isBeanElement(elem))
-					{
-						_beanColl.add(loadBean(elem));
-					}
+					_beanColl.add(loadBean(xr));
+				}
+				else
+				{
+					skipElement(xr);
 				}
 			}
 		}
+		finally
+		{
+			xr.close();
+		}
+	}
+
+	/**
+	 * @param xr Positioned at the start of the bean element. Is positioned at its end on return.
+	 */
+	private Object loadBean(XMLStreamReader xr) throws XMLException, XMLStreamException
+	{
+		Object bean;
+		XMLBeanProperties props;
+		try
+		{
+			Class<?> beanClass = getBeanClass(getClassNameFromElement(xr));
+			bean = beanClass.newInstance();
+			props = XMLBeanProperties.forReading(beanClass);
+		}
 		catch (Exception ex)
 		{
+			s_log.error("Unexpected exception while attempting to load xml bean " + ex.getMessage(), ex);
 			throw new XMLException(ex);
 		}
+
+		while (nextStartOrEndElement(xr) == XMLStreamConstants.START_ELEMENT)
+		{
+			final XMLBeanProperties.Property curProp = props.getProperty(xr.getLocalName());
+			if (curProp == null || curProp.setter == null)
+			{
+				skipElement(xr);
+			}
+			else if (isIndexedElement(xr))
+			{
+				final List<Object> beans = new ArrayList<Object>();
+				while (nextStartOrEndElement(xr) == XMLStreamConstants.START_ELEMENT)
+				{
+					beans.add(loadBean(xr));
+				}
+				setIndexedProperty(bean, curProp, beans.toArray(new Object[beans.size()]));
+			}
+			else if (getClassNameFromElement(xr) != null)
+			{
+				invokeSetter(bean, curProp, loadBean(xr));
+			}
+			else
+			{
+				setProperty(bean, curProp, readContent(xr));
+			}
+		}
+
+		return bean;
 	}
 
-	public Iterator<Object> iterator()
+	/**
+	 * Moves to the next start or end element. Text and comments between elements are skipped.
+	 */
+	private int nextStartOrEndElement(XMLStreamReader xr) throws XMLStreamException
 	{
-		return _beanColl.iterator();
+		int event = xr.next();
+		while (event != XMLStreamConstants.START_ELEMENT && event != XMLStreamConstants.END_ELEMENT)
+		{
+			event = xr.next();
+		}
+		return event;
 	}
 
-	private Object loadBean(IXMLElement beanElement) throws XMLException
+	/**
+	 * @return The text of the element or null if it contains only literal white space, as
+	 *         <TT>IXMLElement.getContent()</TT> did. xr is positioned at the end of the element on return.
+	 */
+	private String readContent(XMLStreamReader xr) throws XMLStreamException
 	{
-		String beanClassName = null;
-		try
+		StringBuilder content = new StringBuilder();
+		boolean hasChildren = false;
+		int depth = 1;
+		while (depth > 0)
 		{
-			beanClassName = getClassNameFromElement(beanElement);
-			beanClassName = fixClassName(beanClassName);
-			Class beanClass = null;
-			if (_cl == null)
+			switch (xr.next())
 			{
-				beanClass = Class.forName(beanClassName);
+				case XMLStreamConstants.START_ELEMENT:
+					hasChildren = true;
+					++depth;
+					break;
+				case XMLStreamConstants.END_ELEMENT:
+					--depth;
+					break;
+				case XMLStreamConstants.CHARACTERS:
+				case XMLStreamConstants.CDATA:
+				case XMLStreamConstants.SPACE:
+					if (depth == 1)
+					{
+						content.append(xr.getTextCharacters(), xr.getTextStart(), xr.getTextLength());
+					}
+					break;
 			}
-			else
+		}
+
+		// The parser turns line ends into line feeds and XMLBeanWriter writes tabs and carriage returns as
+		// character references. So unless they indent child elements, they belong to a value like a
+		// delimiter and are kept.
+		for (int i = 0; i < content.length(); ++i)
+		{
+			char c = content.charAt(i);
+			if (c != ' ' && c != '\n' && (!hasChildren || (c != '\t' && c != '\r')))
 			{
-				beanClass = Class.forName(beanClassName, true, _cl);
+				return content.toString();
 			}
-			Object bean = beanClass.newInstance();
-			BeanInfo info = Introspector.getBeanInfo(bean.getClass(), Introspector.USE_ALL_BEANINFO);
-			PropertyDescriptor[] propDesc = info.getPropertyDescriptors();
-			Map<String, PropertyDescriptor> props = new HashMap<String, PropertyDescriptor>();
-			for (int i = 0; i < propDesc.length; ++i)
+		}
+		return null;
+	}
+
+	private void skipElement(XMLStreamReader xr) throws XMLStreamException
+	{
+		int depth = 1;
+		while (depth > 0)
+		{
+			int event = xr.next();
+			if (event == XMLStreamConstants.START_ELEMENT)
+			{
+				++depth;
+			}
+			else if (event == XMLStreamConstants.END_ELEMENT)
+			{
+				--depth;
+			}
+		}
+	}
+
+	private boolean isIndexedElement(XMLStreamReader xr)
+	{
+		return "true".equals(xr.getAttributeValue(null, XMLConstants.INDEXED));
+	}
+
+	private String getClassNameFromElement(XMLStreamReader xr)
+	{
+		return xr.getAttributeValue(null, XMLConstants.CLASS_ATTRIBUTE_NAME);
+	}
+
+	/**
+	 * Reads the whole document into a NanoXML tree. Used for files the StAX parser rejects.
+	 */
+	private void loadDocument(Reader rdr) throws Exception
+	{
+		final IXMLParser parser = XMLParserFactory.createDefaultXMLParser();
+		parser.setReader(new StdXMLReader(rdr));
+		IXMLElement element = (IXMLElement) parser.parse();
+		// Bug 2942351 (Program doesn't launch)
+		// looking at the source for StdXMLBuilder, it appears that parser.parse() could possibly return
+		// null. So check for null here and skip if necessary.
+		if (element != null)
+		{
+			Iterator it = new EnumerationIterator(element.enumerateChildren());
+			while (it.hasNext())
 			{
-				props.put(propDesc[i].getName(), propDesc[i]);
+				final IXMLElement elem = (IXMLElement) it.next();
+				if (isBeanElement(elem))
+				{
+					_beanColl.add(loadBean(elem));
+				}
 			}
+		}
+	}
+
+	private Object loadBean(IXMLElement beanElement) throws XMLException
+	{
+		try
+		{
+			Class<?> beanClass = getBeanClass(getClassNameFromElement(beanElement));
+			Object bean = beanClass.newInstance();
+			XMLBeanProperties props = XMLBeanProperties.forReading(beanClass);
 			final List<IXMLElement> children = beanElement.getChildren();
 			for (Iterator<IXMLElement> it = children.iterator(); it.hasNext();)
 			{
 				final IXMLElement propElem = it.next();
-				final PropertyDescriptor curProp = props.get(propElem.getName());
+				final XMLBeanProperties.Property curProp = props.getProperty(propElem.getName());
 				if (curProp != null)
 				{
 					loadProperty(bean, curProp, propElem);
@@ -210,201 +490,178 @@ public class XMLBeanReader implements Iterable<Object>
 		}
 	}
 
-	private void loadProperty(Object bean, PropertyDescriptor propDescr, IXMLElement propElem)
+	private void loadProperty(Object bean, XMLBeanProperties.Property prop, IXMLElement propElem)
 		throws XMLException
 	{
-		final Method setter = propDescr.getWriteMethod();
-		if (setter != null)
+		if (prop.setter != null)
 		{
-			final Class parmType = setter.getParameterTypes()[0];
-			final Class arrayType = parmType.getComponentType();
-			final String value = propElem.getContent();
-
-			if (value == null && (parmType.isPrimitive()))
-			{
-				s_log.warn("Parameter type was primitive (" + parmType + "), but the value was null.  "
-					+ "Skipping invokation of method: " + setter.getName() + " in declaring class: "
-					+ setter.getDeclaringClass());
-				return;
-			}
-
 			if (isIndexedElement(propElem))
 			{
-				Object[] data = loadIndexedProperty(propElem);
-				try
+				final List<Object> beans = new ArrayList<Object>();
+				final List<IXMLElement> children = propElem.getChildren();
+				for (Iterator<IXMLElement> it = children.iterator(); it.hasNext();)
 				{
-					// Arrays of Strings are a special case.
-					// In XMLBeanWriter method ProcessProperty an array of
-					// Strings is turned into a list of StringWrapper objects
-					// in the XML (presumably so that when reading them back
-					// we have a class that we can call setters on). Thus,
-					// when reading back an array of Strings we actually read
-					// an array of StringWrappers, which gives a type mis-match
-					// in the following arrayCopy. Therefore we need to convert
-					// the data that is currently in the StringWrapper objects
-					// into actual Strings.
-					if (arrayType.getName().equals("java.lang.String"))
-					{
-						// convert data from StringWrappers to Strings
-						Object[] stringData = new Object[data.length];
-						for (int i = 0; i < data.length; i++)
-							stringData[i] = ((StringWrapper) data[i]).getString();
-						data = stringData;
-					}
-
-					Object obj = Array.newInstance(arrayType, data.length);
-					System.arraycopy(data, 0, obj, 0, data.length);
-					setter.invoke(bean, new Object[] { obj });
-				}
-				catch (Exception ex)
-				{
-					throw new XMLException(ex);
+					beans.add(loadBean(it.next()));
 				}
+				setIndexedProperty(bean, prop, beans.toArray(new Object[beans.size()]));
 			}
 			else if (isBeanElement(propElem))
 			{
-				Object data = loadBean(propElem);
-				try
-				{
-					setter.invoke(bean, new Object[] { data });
-				}
-				catch (Exception ex)
-				{
-					throw new XMLException(ex);
-				}
+				invokeSetter(bean, prop, loadBean(propElem));
 			}
-			else if (parmType == boolean.class)
+			else
 			{
-				Object data = Boolean.valueOf(value);
-				try
-				{
-					setter.invoke(bean, new Object[] { data });
-				}
-				catch (Exception ex)
-				{
-					throw new XMLException(ex);
-				}
+				setProperty(bean, prop, propElem.getContent());
+			}
+		}
+	}
+
+	private boolean isBeanElement(IXMLElement elem)
+	{
+		return elem.getAttribute(XMLConstants.CLASS_ATTRIBUTE_NAME, null) != null;
+	}
+
+	private boolean isIndexedElement(IXMLElement elem)
+	{
+		String att = elem.getAttribute(XMLConstants.INDEXED, "false");
+		return att != null && att.equals("true");
+	}
+
+	private String getClassNameFromElement(IXMLElement elem)
+	{
+		return elem.getAttribute(XMLConstants.CLASS_ATTRIBUTE_NAME, null);
+	}
+
+	private void setIndexedProperty(Object bean, XMLBeanProperties.Property prop, Object[] data)
+		throws XMLException
+	{
+		final Class arrayType = prop.setterType.getComponentType();
+		try
+		{
+			// Arrays of Strings are a special case.
+			// In XMLBeanWriter method ProcessProperty an array of
+			// Strings is turned into a list of StringWrapper objects
+			// in the XML (presumably so that when reading them back
+			// we have a class that we can call setters on). Thus,
+			// when reading back an array of Strings we actually read
+			// an array of StringWrappers, which gives a type mis-match
+			// in the following arrayCopy. Therefore we need to convert
+			// the data that is currently in the StringWrapper objects
+			// into actual Strings.
+			if (arrayType.getName().equals("java.lang.String"))
+			{
+				// convert data from StringWrappers to Strings
+				Object[] stringData = new Object[data.length];
+				for (int i = 0; i < data.length; i++)
+					stringData[i] = ((StringWrapper) data[i]).getString();
+				data = stringData;
+			}
+
+			Object obj = Array.newInstance(arrayType, data.length);
+			System.arraycopy(data, 0, obj, 0, data.length);
+			prop.setter.invoke(bean, new Object[] { obj });
+		}
+		catch (Exception ex)
+		{
+			throw new XMLException(ex);
+		}
+	}
+
+	/**
+	 * Sets a property that is neither indexed nor a bean from the element's content.
+	 */
+	private void setProperty(Object bean, XMLBeanProperties.Property prop, String value) throws XMLException
+	{
+		final Class parmType = prop.setterType;
+
+		if (value == null && (parmType.isPrimitive()))
+		{
+			s_log.warn("Parameter type was primitive (" + parmType + "), but the value was null.  "
+				+ "Skipping invokation of method: " + prop.setter.getName() + " in declaring class: "
+				+ prop.setter.getDeclaringClass());
+			return;
+		}
+
+		final Object data;
+		try
+		{
+			if (parmType == boolean.class)
+			{
+				data = Boolean.valueOf(value);
 			}
 			else if (parmType == int.class)
 			{
-				Object data = new Integer(value);
-				try
-				{
-					setter.invoke(bean, new Object[] { data });
-				}
-				catch (Exception ex)
-				{
-					throw new XMLException(ex);
-				}
+				data = Integer.valueOf(value);
 			}
 			else if (parmType == short.class)
 			{
-				Object data = new Short(value);
-				try
-				{
-					setter.invoke(bean, new Object[] { data });
-				}
-				catch (Exception ex)
-				{
-					throw new XMLException(ex);
-				}
+				data = Short.valueOf(value);
 			}
 			else if (parmType == long.class)
 			{
-				Object data = new Long(value);
-				try
-				{
-					setter.invoke(bean, new Object[] { data });
-				}
-				catch (Exception ex)
-				{
-					throw new XMLException(ex);
-				}
+				data = Long.valueOf(value);
 			}
 			else if (parmType == float.class)
 			{
-				Object data = new Float(value);
-				try
-				{
-					setter.invoke(bean, new Object[] { data });
-				}
-				catch (Exception ex)
-				{
-					throw new XMLException(ex);
-				}
+				data = Float.valueOf(value);
 			}
 			else if (parmType == double.class)
 			{
-				Object data = new Double(value);
-				try
-				{
-					setter.invoke(bean, new Object[] { data });
-				}
-				catch (Exception ex)
-				{
-					throw new XMLException(ex);
-				}
+				data = Double.valueOf(value);
 			}
 			else if (parmType == char.class)
 			{
-				Object data;
 				if (value != null && value.length() > 0)
 				{
-					data = new Character(value.charAt(0));
+					data = Character.valueOf(value.charAt(0));
 				}
 				else
 				{
-					data = new Character(' ');
-				}
-				try
-				{
-					setter.invoke(bean, new Object[] { data });
-				}
-				catch (Exception ex)
-				{
-					throw new XMLException(ex);
+					data = Character.valueOf(' ');
 				}
 			}
 			else
 			{
-				Object data = value;
-				try
-				{
-					setter.invoke(bean, new Object[] { data });
-				}
-				catch (Exception ex)
-				{
-					throw new XMLException(ex);
-				}
+				data = value;
 			}
 		}
-	}
-
-	private Object[] loadIndexedProperty(IXMLElement beanElement) throws XMLException
-	{
-		final List<Object> beans = new ArrayList<Object>();
-		final List<IXMLElement> children = beanElement.getChildren();
-		for (Iterator<IXMLElement> it = children.iterator(); it.hasNext();)
+		catch (NumberFormatException ex)
 		{
-			beans.add(loadBean(it.next()));
+			throw new XMLException(ex);
 		}
-		return beans.toArray(new Object[beans.size()]);
-	}
 
-	private boolean isBeanElement(IXMLElement elem)
-	{
-		return elem.getAttribute(XMLConstants.CLASS_ATTRIBUTE_NAME, null) != null;
+		invokeSetter(bean, prop, data);
 	}
 
-	private boolean isIndexedElement(IXMLElement elem)
+	private void invokeSetter(Object bean, XMLBeanProperties.Property prop, Object data) throws XMLException
 	{
-		String att = elem.getAttribute(XMLConstants.INDEXED, "false");
-		return att != null && att.equals("true");
+		try
+		{
+			prop.setter.invoke(bean, new Object[] { data });
+		}
+		catch (Exception ex)
+		{
+			throw new XMLException(ex);
+		}
 	}
 
-	private String getClassNameFromElement(IXMLElement elem)
+	private Class<?> getBeanClass(String beanClassName) throws ClassNotFoundException
 	{
-		return elem.getAttribute(XMLConstants.CLASS_ATTRIBUTE_NAME, null);
+		Class<?> beanClass = _classesByName.get(beanClassName);
+		if (beanClass == null)
+		{
+			String fixedClassName = fixClassName(beanClassName);
+			if (_cl == null)
+			{
+				beanClass = Class.forName(fixedClassName);
+			}
+			else
+			{
+				beanClass = Class.forName(fixedClassName, true, _cl);
+			}
+			_classesByName.put(beanClassName, beanClass);
+		}
+		return beanClass;
 	}
 
 	private String fixClassName(String className)
@@ -19,23 +19,26 @@ package net.sourceforge.squirrel_sql.fw.xml;
  * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
  */
 
-import net.n3.nanoxml.IXMLElement;
-import net.n3.nanoxml.XMLElement;
-import net.n3.nanoxml.XMLWriter;
 import net.sourceforge.squirrel_sql.fw.util.FileWrapper;
 import net.sourceforge.squirrel_sql.fw.util.beanwrapper.StringWrapper;
 
-import java.beans.BeanInfo;
-import java.beans.IntrospectionException;
-import java.beans.Introspector;
-import java.beans.PropertyDescriptor;
 import java.io.*;
-import java.lang.reflect.Method;
 import java.util.Iterator;
 
+/**
+ * Writes JavaBeans as XML that can be read by <TT>XMLBeanReader</TT>.
+ *
+ * The XML is written as a stream while the beans' properties are visited, no document
+ * tree is built. Each bean is written when it is added, so later changes to the bean
+ * are not saved. The output is the same as that of the former NanoXML based writer.
+ */
 public final class XMLBeanWriter
 {
-	private IXMLElement _rootElement;
+	private static final String INDENT = "    ";
+
+	/** The beans added so far, written as children of the root element. */
+	private final StringWriter _body = new StringWriter();
+	private final PrintWriter _out = new PrintWriter(_body);
 
 	public XMLBeanWriter() throws XMLException
 	{
@@ -45,7 +48,6 @@ public final class XMLBeanWriter
 	public XMLBeanWriter(Object bean) throws XMLException
 	{
 		super();
-		_rootElement = new XMLElement(XMLConstants.ROOT_ELEMENT_NAME);
 		if (bean != null)
 		{
 			addToRoot(bean);
@@ -62,12 +64,22 @@ public final class XMLBeanWriter
 
 	public void addToRoot(Object bean) throws XMLException
 	{
+		_out.flush();
+		final int bodyLength = _body.getBuffer().length();
 		try
 		{
-			_rootElement.addChild(createElement(bean, null));
+			writeBean(bean, null, 1);
 		}
 		catch (Exception ex)
 		{
+			// Remove what was written of the failed bean
+			_out.flush();
+			_body.getBuffer().setLength(bodyLength);
+
+			if (ex instanceof XMLException)
+			{
+				throw (XMLException) ex;
+			}
 			throw new XMLException(ex);
 		}
 	}
@@ -96,124 +108,243 @@ public final class XMLBeanWriter
 
 	private void save(FileOutputStream fos) throws IOException
 	{
-		BufferedOutputStream os = new BufferedOutputStream(fos);
+		Writer wtr = new BufferedWriter(new OutputStreamWriter(fos, "UTF-8"));
 		try
 		{
-			XMLWriter wtr = new XMLWriter(os);
-			wtr.write(_rootElement, true);
+			writeDocument(wtr);
 		}
 		finally
 		{
-			os.close();
+			wtr.close();
 		}
 	}
 
    public String getAsString() throws IOException
    {
       StringWriter sw = new StringWriter();
-      BufferedWriter bw = new BufferedWriter(sw);
-
-      new XMLWriter(bw).write(_rootElement, true);
-
-      bw.flush();
-      sw.flush();
-
-      bw.close();
-
-      sw.close();
-
+      writeDocument(sw);
       return sw.toString();
    }
 
+	/**
+	 * Writes the beans added so far without the root element. Used to append beans to
+	 * an <TT>XMLBeanJournal</TT>.
+	 */
+	void writeBeans(Writer wtr) throws IOException
+	{
+		_out.flush();
+		wtr.write(_body.getBuffer().toString());
+	}
 
-	private IXMLElement createElement(Object bean, String name) throws XMLException
+	private void writeDocument(Writer wtr) throws IOException
 	{
-		IXMLElement elem = null;
-		BeanInfo info = null;
-		try
+		_out.flush();
+		PrintWriter pw = new PrintWriter(wtr);
+		if (_body.getBuffer().length() == 0)
 		{
-			if (bean != null)
-			{
-				info = Introspector.getBeanInfo(bean.getClass(), Object.class);
-			}
+			pw.print("<" + XMLConstants.ROOT_ELEMENT_NAME + "/>");
+			pw.println();
 		}
-		catch (IntrospectionException ex)
+		else
 		{
-			throw new XMLException(ex);
+			pw.print("<" + XMLConstants.ROOT_ELEMENT_NAME + ">");
+			pw.println();
+			pw.flush();
+			writeBeans(wtr);
+			pw.print("</" + XMLConstants.ROOT_ELEMENT_NAME + ">");
+			pw.println();
 		}
-		elem = new XMLElement(name != null ? name : XMLConstants.BEAN_ELEMENT_NAME);
-		if (info != null)
+		pw.flush();
+	}
+
+	private void writeBean(Object bean, String name, int depth) throws Exception
+	{
+		final String elemName = name != null ? name : XMLConstants.BEAN_ELEMENT_NAME;
+		if (bean == null)
 		{
-			if (bean instanceof IXMLAboutToBeWritten)
+			writeIndent(depth);
+			_out.print("<" + elemName + "/>");
+			_out.println();
+			return;
+		}
+
+		final XMLBeanProperties props = XMLBeanProperties.forWriting(bean.getClass());
+		if (bean instanceof IXMLAboutToBeWritten)
+		{
+			((IXMLAboutToBeWritten) bean).aboutToBeWritten();
+		}
+
+		writeIndent(depth);
+		_out.print("<" + elemName);
+		writeAttribute(XMLConstants.CLASS_ATTRIBUTE_NAME, bean.getClass().getName());
+
+		boolean hasChildren = false;
+		for (XMLBeanProperties.Property prop : props.getProperties())
+		{
+			if (prop.getter == null)
+			{
+				continue;
+			}
+
+			final Object value;
+			try
+			{
+				value = prop.getter.invoke(bean, (Object[]) null);
+			}
+			catch (Exception ex)
 			{
-				((IXMLAboutToBeWritten) bean).aboutToBeWritten();
+				throw new XMLException(ex);
 			}
-			PropertyDescriptor[] propDesc = info.getPropertyDescriptors();
-			elem = new XMLElement(name != null ? name : XMLConstants.BEAN_ELEMENT_NAME);
-			elem.setAttribute(XMLConstants.CLASS_ATTRIBUTE_NAME, bean.getClass().getName());
-			for (int i = 0; i < propDesc.length; ++i)
+
+			if (prop.getter.getReturnType().isArray() && value == null)
 			{
-				processProperty(propDesc[i], bean, elem);
+				continue;
 			}
+
+			if (!hasChildren)
+			{
+				_out.print(">");
+				_out.println();
+				hasChildren = true;
+			}
+			writeProperty(prop, value, depth + 1);
+		}
+
+		if (hasChildren)
+		{
+			writeIndent(depth);
+			_out.print("</" + elemName + ">");
+		}
+		else
+		{
+			_out.print("/>");
 		}
-		return elem;
+		_out.println();
 	}
 
-	private void processProperty(PropertyDescriptor propDescr, Object bean, IXMLElement beanElem)
-		throws XMLException
+	private void writeProperty(XMLBeanProperties.Property prop, Object value, int depth) throws Exception
 	{
-		final Method getter = propDescr.getReadMethod();
-		if (getter != null)
+		final String propName = prop.name;
+		Class returnType = prop.getter.getReturnType();
+		if (returnType.isArray())
 		{
-			try
+			final boolean isStringArray = returnType.getName().equals("[Ljava.lang.String;");
+			Object[] props = (Object[]) value;
+
+			writeIndent(depth);
+			_out.print("<" + propName);
+			writeAttribute(XMLConstants.INDEXED, "true");
+			if (props.length == 0)
 			{
-				final String propName = propDescr.getName();
-				Class returnType = getter.getReturnType();
-				if (returnType.isArray())
-				{
-					final boolean isStringArray = returnType.getName().equals("[Ljava.lang.String;");
-					Object[] props = (Object[]) getter.invoke(bean, (Object[]) null);
-					if (props != null)
-					{
-						IXMLElement indexElem = new XMLElement(propName);
-						indexElem.setAttribute(XMLConstants.INDEXED, "true");
-						beanElem.addChild(indexElem);
-						for (int i = 0; i < props.length; ++i)
-						{
-							if (isStringArray)
-							{
-								StringWrapper sw = new StringWrapper((String) props[i]);
-								indexElem.addChild(createElement(sw, XMLConstants.BEAN_ELEMENT_NAME));
-							}
-							else
-							{
-								indexElem.addChild(createElement(props[i], XMLConstants.BEAN_ELEMENT_NAME));
-							}
-						}
-					}
-				}
-				else if (returnType == boolean.class || returnType == int.class || returnType == short.class
-					|| returnType == long.class || returnType == float.class || returnType == double.class
-					|| returnType == char.class)
-				{
-					IXMLElement propElem = new XMLElement(propName);
-					propElem.setContent("" + getter.invoke(bean, (Object[]) null));
-					beanElem.addChild(propElem);
-				}
-				else if (returnType == String.class)
+				_out.print("/>");
+				_out.println();
+				return;
+			}
+			_out.print(">");
+			_out.println();
+			for (int i = 0; i < props.length; ++i)
+			{
+				if (isStringArray)
 				{
-					IXMLElement propElem = new XMLElement(propName);
-					propElem.setContent((String) getter.invoke(bean, (Object[]) null));
-					beanElem.addChild(propElem);
+					writeBean(new StringWrapper((String) props[i]), XMLConstants.BEAN_ELEMENT_NAME, depth + 1);
 				}
 				else
 				{
-					beanElem.addChild(createElement(getter.invoke(bean, (Object[]) null), propName));
+					writeBean(props[i], XMLConstants.BEAN_ELEMENT_NAME, depth + 1);
 				}
 			}
-			catch (Exception ex)
+			writeIndent(depth);
+			_out.print("</" + propName + ">");
+			_out.println();
+		}
+		else if (returnType == boolean.class || returnType == int.class || returnType == short.class
+			|| returnType == long.class || returnType == float.class || returnType == double.class
+			|| returnType == char.class)
+		{
+			writeContentElement(propName, "" + value, depth);
+		}
+		else if (returnType == String.class)
+		{
+			writeContentElement(propName, (String) value, depth);
+		}
+		else
+		{
+			writeBean(value, propName, depth);
+		}
+	}
+
+	private void writeContentElement(String name, String content, int depth)
+	{
+		writeIndent(depth);
+		if (content == null || content.length() == 0)
+		{
+			_out.print("<" + name + "/>");
+		}
+		else
+		{
+			_out.print("<" + name + ">");
+			writeEncoded(content);
+			_out.print("</" + name + ">");
+		}
+		_out.println();
+	}
+
+	private void writeAttribute(String name, String value)
+	{
+		_out.print(" " + name + "=\"");
+		writeEncoded(value);
+		_out.print("\"");
+	}
+
+	private void writeIndent(int depth)
+	{
+		for (int i = 0; i < depth; ++i)
+		{
+			_out.print(INDENT);
+		}
+	}
+
+	/**
+	 * Markup characters are written as entities, control characters except line
+	 * feed and all non ASCII characters as character references. So the output
+	 * doesn't depend on the encoding.
+	 */
+	private void writeEncoded(String str)
+	{
+		for (int i = 0; i < str.length(); ++i)
+		{
+			char c = str.charAt(i);
+			switch (c)
 			{
-				throw new XMLException(ex);
+				case '\n':
+					_out.print(c);
+					break;
+				case '<':
+					_out.print("&lt;");
+					break;
+				case '>':
+					_out.print("&gt;");
+					break;
+				case '&':
+					_out.print("&amp;");
+					break;
+				case '\'':
+					_out.print("&apos;");
+					break;
+				case '"':
+					_out.print("&quot;");
+					break;
+				default:
+					if (c < ' ' || c > 0x7E)
+					{
+						_out.print("&#x");
+						_out.print(Integer.toString(c, 16));
+						_out.print(';');
+					}
+					else
+					{
+						_out.print(c);
+					}
 			}
 		}
 	}
@@ -18,7 +18,8 @@
 package net.sourceforge.squirrel_sql.plugins.codecompletion;
 
 import net.sourceforge.squirrel_sql.client.session.ISession;
-import net.sourceforge.squirrel_sql.client.session.schemainfo.SchemaInfoUpdateListener;
+import net.sourceforge.squirrel_sql.client.session.schemainfo.SchemaInfoDelta;
+import net.sourceforge.squirrel_sql.client.session.schemainfo.SchemaInfoDeltaListener;
 import net.sourceforge.squirrel_sql.client.session.parser.kernel.TableAliasInfo;
 import net.sourceforge.squirrel_sql.fw.sql.IProcedureInfo;
 import net.sourceforge.squirrel_sql.fw.sql.ITableInfo;
@@ -35,8 +36,8 @@ public class CodeCompletionInfoCollection
 		StringManagerFactory.getStringManager(CodeCompletionInfoCollection.class);
 
 
-   private Hashtable<String, Vector<CodeCompletionInfo>> _completionInfosByCataLogAndSchema =
-	    new Hashtable<String, Vector<CodeCompletionInfo>>();
+   private Hashtable<String, CodeCompletionInfoIndex> _completionInfosByCataLogAndSchema =
+	    new Hashtable<String, CodeCompletionInfoIndex>();
    private Vector<CodeCompletionInfo> _aliasCompletionInfos =
        new Vector<CodeCompletionInfo>();
 
@@ -63,16 +64,164 @@ public class CodeCompletionInfoCollection
 
       _prefs = (CodeCompletionPreferences) _session.getPluginObject(_plugin, CodeCompletionPlugin.PLUGIN_OBJECT_PREFS_KEY);
 
-      _session.getSchemaInfo().addSchemaInfoUpdateListener(new SchemaInfoUpdateListener()
+      _session.getSchemaInfo().addSchemaInfoUpdateListener(new SchemaInfoDeltaListener()
       {
          public void schemaInfoUpdated()
          {
             _completionInfosByCataLogAndSchema =
-                new Hashtable<String, Vector<CodeCompletionInfo>>();
+                new Hashtable<String, CodeCompletionInfoIndex>();
+         }
+
+         public void schemaInfoChanged(SchemaInfoDelta delta)
+         {
+            onSchemaInfoChanged(delta);
          }
       });
    }
 
+   /**
+    * Applies the added and removed tables and procedures to the loaded completion infos.
+    * Infos loaded for a catalog are dropped because catalog names are matched
+    * database dependent, see SchemaInfo.getITableInfos().
+    */
+   private void onSchemaInfoChanged(SchemaInfoDelta delta)
+   {
+      if(delta.getChangedSchemas().contains(null))
+      {
+         _completionInfosByCataLogAndSchema = new Hashtable<String, CodeCompletionInfoIndex>();
+         return;
+      }
+
+      HashSet<String> ucChangedSchemas = new HashSet<String>();
+      for (String schema : delta.getChangedSchemas())
+      {
+         ucChangedSchemas.add(schema.toUpperCase());
+      }
+
+      ArrayList<String> removedKeys = new ArrayList<String>();
+      for (ITableInfo table : delta.getRemovedTables())
+      {
+         removedKeys.add(getDbObjectKey(table));
+      }
+      for (IProcedureInfo proc : delta.getRemovedProcedures())
+      {
+         removedKeys.add(getDbObjectKey(proc));
+      }
+
+      for (Iterator<CodeCompletionInfoIndex> i = _completionInfosByCataLogAndSchema.values().iterator(); i.hasNext();)
+      {
+         CodeCompletionInfoIndex index = i.next();
+
+         if(null != index.getSchema() && false == ucChangedSchemas.contains(index.getSchema().toUpperCase()))
+         {
+            continue;
+         }
+
+         if(null != index.getCatalog())
+         {
+            i.remove();
+            continue;
+         }
+
+         index.removeDbObjects(removedKeys);
+
+         ArrayList<CodeCompletionInfo> addedInfos = new ArrayList<CodeCompletionInfo>();
+         ArrayList<String> addedKeys = new ArrayList<String>();
+
+         for (ITableInfo table : delta.getAddedTables())
+         {
+            if(null != index.getSchema() && false == index.getSchema().equalsIgnoreCase(table.getSchemaName()))
+            {
+               continue;
+            }
+
+            String key = getDbObjectKey(table);
+            if(null != index.getDbObjectInfo(key) || addedKeys.contains(key))
+            {
+               continue;
+            }
+
+            CodeCompletionTableInfo tableInfo = createTableInfo(table);
+            for (CodeCompletionInfo dupl : index.getInfosByName(table.getSimpleName()))
+            {
+               if(dupl instanceof CodeCompletionTableInfo)
+               {
+                  tableInfo.setHasDuplicateNameInDfifferentSchemas();
+                  ((CodeCompletionTableInfo)dupl).setHasDuplicateNameInDfifferentSchemas();
+               }
+            }
+
+            addedInfos.add(tableInfo);
+            addedKeys.add(key);
+         }
+
+         for (IProcedureInfo proc : delta.getAddedProcedures())
+         {
+            if(null != index.getSchema() && false == index.getSchema().equalsIgnoreCase(proc.getSchemaName()))
+            {
+               continue;
+            }
+
+            String key = getDbObjectKey(proc);
+            if(null != index.getDbObjectInfo(key) || addedKeys.contains(key))
+            {
+               continue;
+            }
+
+            addedInfos.add(createProcedureInfo(proc, index.getCatalog(), index.getSchema()));
+            addedKeys.add(key);
+         }
+
+         index.add(addedInfos, addedKeys);
+
+         // The columns of the tables in the changed Schemas may have changed.
+         for (CodeCompletionInfo info : index.getDbObjectInfos())
+         {
+            if(info instanceof CodeCompletionTableInfo)
+            {
+               CodeCompletionTableInfo tableInfo = (CodeCompletionTableInfo) info;
+               if(null != tableInfo.getSchema() && ucChangedSchemas.contains(tableInfo.getSchema().toUpperCase()))
+               {
+                  tableInfo.clearColumns();
+               }
+            }
+         }
+      }
+   }
+
+   private CodeCompletionTableInfo createTableInfo(ITableInfo table)
+   {
+      //SH add the session object as last parameter
+      return new CodeCompletionTableInfo(table.getSimpleName(),
+            table.getType(),
+            table.getCatalogName(),
+            table.getSchemaName(),
+            _useCompletionPrefs,
+            _prefs,
+            _session);
+   }
+
+   private CodeCompletionStoredProcedureInfo createProcedureInfo(IProcedureInfo proc, String catalog, String schema)
+   {
+      return new CodeCompletionStoredProcedureInfo(proc.getSimpleName(),
+            proc.getProcedureType(),
+            _session,
+            catalog,
+            schema,
+            _useCompletionPrefs,
+            _prefs);
+   }
+
+   private static String getDbObjectKey(ITableInfo table)
+   {
+      return "T|" + table.getCatalogName() + "|" + table.getSchemaName() + "|" + table.getSimpleName() + "|" + table.getType();
+   }
+
+   private static String getDbObjectKey(IProcedureInfo proc)
+   {
+      return "P|" + proc.getCatalogName() + "|" + proc.getSchemaName() + "|" + proc.getSimpleName();
+   }
+
 	private void load(String catalog, String schema, boolean showLoadingMessage)
 	{
       String key = (catalog + "," + schema).toUpperCase();
@@ -90,7 +239,8 @@ public class CodeCompletionInfoCollection
             return;
 			}
 
-         Vector<CodeCompletionInfo> completionInfos = new Vector<CodeCompletionInfo>();
+         ArrayList<CodeCompletionInfo> completionInfos = new ArrayList<CodeCompletionInfo>();
+         ArrayList<String> dbObjectKeys = new ArrayList<String>();
 
          ITableInfo[] tables = _session.getSchemaInfo().getITableInfos(catalog, schema);
 
@@ -103,14 +253,7 @@ public class CodeCompletionInfoCollection
 
             CodeCompletionTableInfo dupl = (CodeCompletionTableInfo) completionInfoByUcTableName.get(ucTableName);
 
-            //SH add the session object as last parameter
-            CodeCompletionTableInfo tableInfo = new CodeCompletionTableInfo(tables[i].getSimpleName(),
-                  tables[i].getType(),
-                  tables[i].getCatalogName(),
-                  tables[i].getSchemaName(),
-                  _useCompletionPrefs,
-                  _prefs,
-                  _session);
+            CodeCompletionTableInfo tableInfo = createTableInfo(tables[i]);
 
             if(null != dupl)
             {
@@ -119,23 +262,19 @@ public class CodeCompletionInfoCollection
             }
 
             completionInfos.add(tableInfo);
+            dbObjectKeys.add(getDbObjectKey(tables[i]));
             completionInfoByUcTableName.put(ucTableName, tableInfo);
          }
 
          IProcedureInfo[] storedProceduresInfos = _session.getSchemaInfo().getStoredProceduresInfos(catalog, schema);
          for (int i = 0; i < storedProceduresInfos.length; i++)
          {
-            CodeCompletionStoredProcedureInfo buf =
-               new CodeCompletionStoredProcedureInfo(storedProceduresInfos[i].getSimpleName(),
-                  storedProceduresInfos[i].getProcedureType(),
-                  _session,
-                  catalog,
-                  schema,
-                  _useCompletionPrefs,
-                  _prefs);
-            completionInfos.add(buf);
+            completionInfos.add(createProcedureInfo(storedProceduresInfos[i], catalog, schema));
+            dbObjectKeys.add(getDbObjectKey(storedProceduresInfos[i]));
          }
 
+         int dbObjectCount = completionInfos.size();
+
 
          if(null == catalog && null == schema)
          {
@@ -205,9 +344,13 @@ public class CodeCompletionInfoCollection
 
 
 
-         Collections.sort(completionInfos);
+         // Keywords, types, functions, ... are no database objects.
+         dbObjectKeys.addAll(Collections.<String>nCopies(completionInfos.size() - dbObjectCount, null));
 
-         _completionInfosByCataLogAndSchema.put(key, completionInfos);
+         CodeCompletionInfoIndex index = new CodeCompletionInfoIndex(catalog, schema);
+         index.add(completionInfos, dbObjectKeys);
+
+         _completionInfosByCataLogAndSchema.put(key, index);
 		}
 	}
 
@@ -216,7 +359,7 @@ public class CodeCompletionInfoCollection
    {
 		load(catalog, schema, true);
 
-      Vector<CodeCompletionInfo> completionInfos = getCompletionInfos(catalog, schema);
+      CodeCompletionInfoIndex completionInfos = getCompletionInfos(catalog, schema);
 
       if(null == completionInfos)
       {
@@ -231,54 +374,45 @@ public class CodeCompletionInfoCollection
 			Vector<CodeCompletionInfo> buf = new Vector<CodeCompletionInfo>();
 			buf.addAll(_aliasCompletionInfos);
 
+         buf.addAll(completionInfos.getFirstInfos(MAX_COMPLETION_INFOS));
          if(MAX_COMPLETION_INFOS < completionInfos.size())
          {
-            buf.addAll(completionInfos.subList(0,MAX_COMPLETION_INFOS));
             _session.showMessage(TOO_MANY_COMPLETION_INFOS);
          }
-         else
-         {
-            buf.addAll(completionInfos);
-         }
-
 
          return buf.toArray(new CodeCompletionInfo[0]);
       }
 
       Vector<CodeCompletionInfo> ret = new Vector<CodeCompletionInfo>();
 
+      boolean matchCamelCase = _useCompletionPrefs && _prefs.isMatchCamelCase();
+
 		for(int i=0; i < _aliasCompletionInfos.size(); ++i)
 		{
 			CodeCompletionInfo buf = _aliasCompletionInfos.get(i);
-			if(buf.matchesCompletionStringStart(trimmedPrefix, _useCompletionPrefs && _prefs.isMatchCamelCase()))
+			if(buf.matchesCompletionStringStart(trimmedPrefix, matchCamelCase))
 			{
 				ret.add(buf);
 			}
 		}
 
+      // One more than allowed to find out if the list is truncated
+      int maxCount = Math.max(1, MAX_COMPLETION_INFOS + 1 - ret.size());
+      List<CodeCompletionInfo> matches = completionInfos.getInfosStartingWith(trimmedPrefix, matchCamelCase, maxCount);
+      ret.addAll(matches);
 
-      for(int i=0; i < completionInfos.size(); ++i)
+      if(maxCount == matches.size() && MAX_COMPLETION_INFOS < ret.size())
       {
-         CodeCompletionInfo buf = completionInfos.get(i);
-         if(buf.matchesCompletionStringStart(trimmedPrefix, _useCompletionPrefs && _prefs.isMatchCamelCase()))
-         {
-            ret.add(buf);
-
-            if(MAX_COMPLETION_INFOS < ret.size())
-            {
-               _session.showMessage(TOO_MANY_COMPLETION_INFOS);
-               break;
-            }
-         }
+         _session.showMessage(TOO_MANY_COMPLETION_INFOS);
       }
 
       return ret.toArray(new CodeCompletionInfo[0]);
    }
 
-   private Vector<CodeCompletionInfo> getCompletionInfos(String catalog, String schema)
+   private CodeCompletionInfoIndex getCompletionInfos(String catalog, String schema)
    {
       String key = (catalog + "," + schema).toUpperCase();
-      Vector<CodeCompletionInfo> ret = _completionInfosByCataLogAndSchema.get(key);
+      CodeCompletionInfoIndex ret = _completionInfosByCataLogAndSchema.get(key);
 
       if(null == ret)
       {
@@ -330,7 +464,7 @@ public class CodeCompletionInfoCollection
 
    public boolean addCompletionsAtListBegin(String catalog, String schema, CodeCompletionInfo[] completions)
    {
-      Vector<CodeCompletionInfo> completionInfos = getCompletionInfos(catalog, schema);
+      CodeCompletionInfoIndex completionInfos = getCompletionInfos(catalog, schema);
 
       if(null == completionInfos)
       {
@@ -340,7 +474,7 @@ public class CodeCompletionInfoCollection
       else
       {
          Arrays.sort(completions);
-         completionInfos.addAll(0,Arrays.asList(completions));
+         completionInfos.addToListBegin(completions);
          return true;
       }
    }
@@ -0,0 +1,336 @@
+package net.sourceforge.squirrel_sql.plugins.codecompletion;
+
+import net.sourceforge.squirrel_sql.fw.completion.CamelCaseMatcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * The completion infos of one catalog/schema combination.
+ *
+ * The infos are kept sorted by their upper case compare strings so that prefix matches
+ * are found by binary search. For camel case matching a second index is sorted by the
+ * camel case initials of the compare strings (e.g. WKP for WKvPos). Only infos whose initials
+ * start with the initials of the typed string are checked by CamelCaseMatcher.
+ *
+ * Infos of tables and procedures are registered with a key that identifies the database object.
+ * This allows to apply changes of the SchemaInfo without rebuilding the index from scratch.
+ */
+class CodeCompletionInfoIndex
+{
+   private final String _catalog;
+   private final String _schema;
+
+   /**
+    * Infos that are listed before all others, e.g. completion functions.
+    */
+   private ArrayList<CodeCompletionInfo> _listBegin = new ArrayList<CodeCompletionInfo>();
+
+   private CodeCompletionInfo[] _sorted = new CodeCompletionInfo[0];
+   private String[] _ucCompareStrings = new String[0];
+
+   private String[] _initials = new String[0];
+   private Integer[] _posByInitials = new Integer[0];
+
+   private HashMap<String, CodeCompletionInfo> _infosByDbObjectKey = new HashMap<String, CodeCompletionInfo>();
+
+   CodeCompletionInfoIndex(String catalog, String schema)
+   {
+      _catalog = catalog;
+      _schema = schema;
+   }
+
+   String getCatalog()
+   {
+      return _catalog;
+   }
+
+   String getSchema()
+   {
+      return _schema;
+   }
+
+   int size()
+   {
+      return _listBegin.size() + _sorted.length;
+   }
+
+   /**
+    * @param dbObjectKeys Key of the database object for each info or null if the info is no database object.
+    * Must be of the same size as infos.
+    */
+   void add(List<CodeCompletionInfo> infos, List<String> dbObjectKeys)
+   {
+      ArrayList<CodeCompletionInfo> toAdd = new ArrayList<CodeCompletionInfo>(infos.size());
+      for (int i = 0; i < infos.size(); i++)
+      {
+         String key = dbObjectKeys.get(i);
+         if(null != key)
+         {
+            if(_infosByDbObjectKey.containsKey(key))
+            {
+               continue;
+            }
+            _infosByDbObjectKey.put(key, infos.get(i));
+         }
+         toAdd.add(infos.get(i));
+      }
+
+      Collections.sort(toAdd);
+
+      // Merge the sorted new infos into the sorted existing infos
+      ArrayList<CodeCompletionInfo> merged = new ArrayList<CodeCompletionInfo>(_sorted.length + toAdd.size());
+      int i = 0, j = 0;
+      while (i < _sorted.length && j < toAdd.size())
+      {
+         if(toAdd.get(j).compareTo(_sorted[i]) < 0)
+         {
+            merged.add(toAdd.get(j++));
+         }
+         else
+         {
+            merged.add(_sorted[i++]);
+         }
+      }
+      merged.addAll(Arrays.asList(_sorted).subList(i, _sorted.length));
+      merged.addAll(toAdd.subList(j, toAdd.size()));
+
+      setSorted(merged);
+   }
+
+   void removeDbObjects(Collection<String> dbObjectKeys)
+   {
+      HashSet<CodeCompletionInfo> toRemove = new HashSet<CodeCompletionInfo>();
+      for (String key : dbObjectKeys)
+      {
+         CodeCompletionInfo info = _infosByDbObjectKey.remove(key);
+         if(null != info)
+         {
+            toRemove.add(info);
+         }
+      }
+
+      if(toRemove.isEmpty())
+      {
+         return;
+      }
+
+      ArrayList<CodeCompletionInfo> remaining = new ArrayList<CodeCompletionInfo>(_sorted.length);
+      for (CodeCompletionInfo info : _sorted)
+      {
+         if(false == toRemove.contains(info))
+         {
+            remaining.add(info);
+         }
+      }
+
+      setSorted(remaining);
+   }
+
+   void addToListBegin(CodeCompletionInfo[] infos)
+   {
+      _listBegin.addAll(0, Arrays.asList(infos));
+   }
+
+   CodeCompletionInfo getDbObjectInfo(String dbObjectKey)
+   {
+      return _infosByDbObjectKey.get(dbObjectKey);
+   }
+
+   Collection<CodeCompletionInfo> getDbObjectInfos()
+   {
+      return _infosByDbObjectKey.values();
+   }
+
+   /**
+    * @return All infos whose compare string equals name ignoring case.
+    */
+   List<CodeCompletionInfo> getInfosByName(String name)
+   {
+      ArrayList<CodeCompletionInfo> ret = new ArrayList<CodeCompletionInfo>();
+
+      String ucName = name.toUpperCase();
+      for(int i = lowerBound(ucName); i < _sorted.length && _ucCompareStrings[i].equals(ucName); ++i)
+      {
+         ret.add(_sorted[i]);
+      }
+      return ret;
+   }
+
+   List<CodeCompletionInfo> getFirstInfos(int maxCount)
+   {
+      ArrayList<CodeCompletionInfo> ret = new ArrayList<CodeCompletionInfo>(Math.min(maxCount, size()));
+
+      for (int i = 0; i < _listBegin.size() && ret.size() < maxCount; i++)
+      {
+         ret.add(_listBegin.get(i));
+      }
+
+      for (int i = 0; i < _sorted.length && ret.size() < maxCount; i++)
+      {
+         ret.add(_sorted[i]);
+      }
+
+      return ret;
+   }
+
+   /**
+    * Returns the same infos in the same order as calling matchesCompletionStringStart() on all infos.
+    *
+    * @param maxCount The search stops when this number of infos was found.
+    */
+   List<CodeCompletionInfo> getInfosStartingWith(String prefix, boolean matchCamelCase, int maxCount)
+   {
+      ArrayList<CodeCompletionInfo> ret = new ArrayList<CodeCompletionInfo>();
+
+      for (int i = 0; i < _listBegin.size() && ret.size() < maxCount; i++)
+      {
+         if(_listBegin.get(i).matchesCompletionStringStart(prefix, matchCamelCase))
+         {
+            ret.add(_listBegin.get(i));
+         }
+      }
+
+      String ucPrefix = prefix.toUpperCase();
+      int prefixBegin = lowerBound(ucPrefix);
+      int prefixEnd = prefixBegin;
+      while (prefixEnd < _sorted.length && _ucCompareStrings[prefixEnd].startsWith(ucPrefix))
+      {
+         ++prefixEnd;
+      }
+
+      int[] camelCasePositions = new int[0];
+      if(matchCamelCase)
+      {
+         camelCasePositions = getCamelCaseMatchPositions(prefix);
+      }
+
+      // Merge the prefix matches and the camel case matches in the order of _sorted
+      int pos = prefixBegin;
+      int ccIx = 0;
+      while (ret.size() < maxCount)
+      {
+         int next;
+         if(pos < prefixEnd && (ccIx == camelCasePositions.length || pos <= camelCasePositions[ccIx]))
+         {
+            next = pos++;
+         }
+         else if(ccIx < camelCasePositions.length)
+         {
+            next = camelCasePositions[ccIx];
+         }
+         else
+         {
+            break;
+         }
+
+         while (ccIx < camelCasePositions.length && camelCasePositions[ccIx] <= next)
+         {
+            ++ccIx;
+         }
+
+         ret.add(_sorted[next]);
+      }
+
+      return ret;
+   }
+
+   /**
+    * @return Sorted positions in _sorted of the infos that match prefix as camel case.
+    */
+   private int[] getCamelCaseMatchPositions(String prefix)
+   {
+      String prefixInitials = CamelCaseMatcher.getCamelCaseInitials(prefix);
+      if(0 == prefixInitials.length())
+      {
+         return new int[0];
+      }
+
+      int low = 0;
+      int high = _posByInitials.length;
+      while (low < high)
+      {
+         int mid = (low + high) >>> 1;
+         if(_initials[_posByInitials[mid]].compareTo(prefixInitials) < 0)
+         {
+            low = mid + 1;
+         }
+         else
+         {
+            high = mid;
+         }
+      }
+
+      ArrayList<Integer> buf = new ArrayList<Integer>();
+      for(int i = low; i < _posByInitials.length && _initials[_posByInitials[i]].startsWith(prefixInitials); ++i)
+      {
+         int pos = _posByInitials[i];
+         if(CamelCaseMatcher.matchesCamelCase(prefix, _sorted[pos].getCompareString()))
+         {
+            buf.add(pos);
+         }
+      }
+
+      int[] ret = new int[buf.size()];
+      for (int i = 0; i < ret.length; i++)
+      {
+         ret[i] = buf.get(i);
+      }
+      Arrays.sort(ret);
+      return ret;
+   }
+
+   private int lowerBound(String ucString)
+   {
+      int low = 0;
+      int high = _sorted.length;
+      while (low < high)
+      {
+         int mid = (low + high) >>> 1;
+         if(_ucCompareStrings[mid].compareTo(ucString) < 0)
+         {
+            low = mid + 1;
+         }
+         else
+         {
+            high = mid;
+         }
+      }
+      return low;
+   }
+
+   private void setSorted(List<CodeCompletionInfo> sorted)
+   {
+      CodeCompletionInfo[] newSorted = sorted.toArray(new CodeCompletionInfo[sorted.size()]);
+      String[] ucCompareStrings = new String[newSorted.length];
+      final String[] initials = new String[newSorted.length];
+      Integer[] posByInitials = new Integer[newSorted.length];
+
+      for (int i = 0; i < newSorted.length; i++)
+      {
+         String compareString = newSorted[i].getCompareString();
+         ucCompareStrings[i] = compareString.toUpperCase();
+         initials[i] = CamelCaseMatcher.getCamelCaseInitials(compareString);
+         posByInitials[i] = i;
+      }
+
+      Arrays.sort(posByInitials, new Comparator<Integer>()
+      {
+         public int compare(Integer pos1, Integer pos2)
+         {
+            return initials[pos1].compareTo(initials[pos2]);
+         }
+      });
+
+      _sorted = newSorted;
+      _ucCompareStrings = ucCompareStrings;
+      _initials = initials;
+      _posByInitials = posByInitials;
+   }
+}
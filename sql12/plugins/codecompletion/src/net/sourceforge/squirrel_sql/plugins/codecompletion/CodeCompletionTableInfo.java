@@ -85,6 +85,19 @@ public class CodeCompletionTableInfo extends CodeCompletionInfo
       return _tableName;
    }
 
+   String getSchema()
+   {
+      return _schema;
+   }
+
+   /**
+    * The columns will be reloaded on the next call to getColumns().
+    */
+   void clearColumns()
+   {
+      _colInfos = null;
+   }
+
    public ArrayList<CodeCompletionInfo> getColumns(net.sourceforge.squirrel_sql.client.session.schemainfo.SchemaInfo schemaInfo, String colNamePattern)
       throws SQLException
    {
@@ -17,9 +17,13 @@ package net.sourceforge.squirrel_sql.plugins.dataimport;
  * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
  */
 import java.io.IOException;
+import java.sql.BatchUpdateException;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
 import java.sql.Types;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
@@ -29,6 +33,7 @@ import net.sourceforge.squirrel_sql.client.session.ISession;
 import net.sourceforge.squirrel_sql.fw.gui.GUIUtils;
 import net.sourceforge.squirrel_sql.fw.sql.ISQLConnection;
 import net.sourceforge.squirrel_sql.fw.sql.ITableInfo;
+import net.sourceforge.squirrel_sql.fw.sql.RecordingPreparedStatement;
 import net.sourceforge.squirrel_sql.fw.sql.SQLUtilities;
 import net.sourceforge.squirrel_sql.fw.sql.TableColumnInfo;
 import net.sourceforge.squirrel_sql.fw.util.StringManager;
@@ -188,6 +193,11 @@ public class ImportDataIntoTableExecutor
 				 ProgressBarDialog.setIndeterminate();
 			 }
 
+			 int batchSize = settings.getInsertBatchSize();
+			 boolean useBatch = 1 < batchSize && conn.getSQLMetaData().supportsBatchUpdates();
+			 boolean useSavepoints = useBatch && conn.getSQLMetaData().supportsSavepoints();
+			 List<RecordingPreparedStatement> batch = new ArrayList<RecordingPreparedStatement>();
+
 			 while (importer.next())
 			 {
 				 currentRow++;
@@ -195,61 +205,60 @@ public class ImportDataIntoTableExecutor
 				 {
 					 ProgressBarDialog.incrementBar(1);
 				 }
-				 stmt.clearParameters();
-				 int i = 1;
-				 for (TableColumnInfo column : columns)
+				 if (useBatch)
 				 {
-					 String mapping = getMapping(column);
-					 try
-					 {
-						 if (SpecialColumnMapping.SKIP.getVisibleString().equals(mapping))
-						 {
-							 continue;
-						 }
-						 else if (SpecialColumnMapping.FIXED_VALUE.getVisibleString().equals(mapping))
-						 {
-							 bindFixedColumn(stmt, i++, column);
-						 }
-						 else if (SpecialColumnMapping.AUTO_INCREMENT.getVisibleString().equals(mapping))
-						 {
-							 bindAutoincrementColumn(stmt, i++, column, currentRow);
-						 }
-						 else if (SpecialColumnMapping.NULL.getVisibleString().equals(mapping))
-						 {
-							 stmt.setNull(i++, column.getDataType());
-						 }
-						 else
-						 {
-							 bindColumn(stmt, i++, column);
-						 }
-					 }
-					 catch (UnsupportedFormatException ufe)
+					 RecordingPreparedStatement record = new RecordingPreparedStatement();
+					 bindRow(record.getPreparedStatement(), currentRow);
+					 batch.add(record);
+					 if (batch.size() == batchSize)
 					 {
-						 // i18n[ImportDataIntoTableExecutor.wrongFormat=Imported column has not the required format.\nLine is: {0}, column is: {1}]
-						 showMessageDialogOnEDT(stringMgr.getString("ImportDataIntoTableExecutor.wrongFormat", ufe.getMessage(), currentRow, i - 1, column.getColumnName()));
-						 throw ufe;
+						 executeBatch(conn, stmt, batch, currentRow - batch.size() + 1, useSavepoints);
 					 }
 				 }
-				 stmt.execute();
+				 else
+				 {
+					 stmt.clearParameters();
+					 bindRow(stmt, currentRow);
+					 stmt.execute();
+				 }
 
 				 if (false == singleTransaction)
 				 {
 					 if(0 < currentRow && 0 == currentRow % commitAfterEveryInserts)
                 {
+                   executeBatch(conn, stmt, batch, currentRow - batch.size() + 1, useSavepoints);
                    conn.commit();
                 }
 				 }
 			 }
+			 executeBatch(conn, stmt, batch, currentRow - batch.size() + 1, useSavepoints);
 			 importer.close();
 			 success = true;
 		 }
 		 catch (SQLException sqle)
 		 {
-			 //i18n[ImportDataIntoTableExecutor.sqlException=A database error occurred while inserting data]
+			 String message;
+			 if (sqle instanceof FailedBatchException)
+			 {
+				 FailedBatchException fbe = (FailedBatchException) sqle;
+				 currentRow = fbe.getFirstRow();
+				 sqle = (SQLException) sqle.getCause();
+				 //i18n[ImportDataIntoTableExecutor.batchException=A database error occurred while inserting the lines {1} to {2}: {0}\nThe database did not tell which line failed. All lines since the last commit have been rolled back.]
+				 message = stringMgr.getString("ImportDataIntoTableExecutor.batchException", sqle.getMessage(),
+					 Integer.toString(fbe.getFirstRow()), Integer.toString(fbe.getLastRow()));
+			 }
+			 else
+			 {
+				 if (sqle instanceof FailedRowException)
+				 {
+					 currentRow = ((FailedRowException) sqle).getRow();
+					 sqle = (SQLException) sqle.getCause();
+				 }
+				 //i18n[ImportDataIntoTableExecutor.sqlException=A database error occurred while inserting data]
+				 message = stringMgr.getString("ImportDataIntoTableExecutor.sqlException", sqle.getMessage(), Integer.toString(currentRow));
+			 }
 			 //i18n[ImportDataIntoTableExecutor.error=Error]
-			 _showMessageDialogOnEDT(
-					 stringMgr.getString("ImportDataIntoTableExecutor.sqlException", sqle.getMessage(), Integer.toString(currentRow)),
-					 stringMgr.getString("ImportDataIntoTableExecutor.error"));
+			 _showMessageDialogOnEDT(message, stringMgr.getString("ImportDataIntoTableExecutor.error"));
 
 
 			 String query = stmt == null ? "null" : stmt.toString();
@@ -295,6 +304,242 @@ public class ImportDataIntoTableExecutor
 		 }
 	 }
 
+	/**
+	 * Binds the values of the current line of the importer to the specified statement.
+	 *
+	 * @param stmt the statement to bind the values to
+	 * @param currentRow the number of the current line
+	 */
+	private void bindRow(PreparedStatement stmt, int currentRow)
+		throws SQLException, IOException, UnsupportedFormatException
+	{
+		int i = 1;
+		for (TableColumnInfo column : columns)
+		{
+			String mapping = getMapping(column);
+			try
+			{
+				if (SpecialColumnMapping.SKIP.getVisibleString().equals(mapping))
+				{
+					continue;
+				}
+				else if (SpecialColumnMapping.FIXED_VALUE.getVisibleString().equals(mapping))
+				{
+					bindFixedColumn(stmt, i++, column);
+				}
+				else if (SpecialColumnMapping.AUTO_INCREMENT.getVisibleString().equals(mapping))
+				{
+					bindAutoincrementColumn(stmt, i++, column, currentRow);
+				}
+				else if (SpecialColumnMapping.NULL.getVisibleString().equals(mapping))
+				{
+					stmt.setNull(i++, column.getDataType());
+				}
+				else
+				{
+					bindColumn(stmt, i++, column);
+				}
+			}
+			catch (UnsupportedFormatException ufe)
+			{
+				// i18n[ImportDataIntoTableExecutor.wrongFormat=Imported column has not the required format.\nLine is: {0}, column is: {1}]
+				showMessageDialogOnEDT(stringMgr.getString("ImportDataIntoTableExecutor.wrongFormat", ufe.getMessage(), currentRow, i - 1, column.getColumnName()));
+				throw ufe;
+			}
+		}
+	}
+
+	/**
+	 * Executes the recorded lines as one JDBC batch and clears the list. If the batch fails, the lines the
+	 * database did not insert are executed one by one, so that the failing line can be reported.
+	 *
+	 * @param batch the recorded lines, may be empty
+	 * @param firstRow the line number of the first line in batch
+	 * @param useSavepoints if the batch is rolled back to a savepoint when it fails. Otherwise the update counts
+	 *        of the BatchUpdateException tell which lines were inserted.
+	 * @throws FailedRowException if a line failed when executed on its own
+	 * @throws FailedBatchException if the batch failed without savepoint and the update counts don't tell
+	 *         which lines were inserted
+	 */
+	private void executeBatch(ISQLConnection conn, PreparedStatement stmt, List<RecordingPreparedStatement> batch,
+		int firstRow, boolean useSavepoints) throws SQLException
+	{
+		if (batch.isEmpty())
+		{
+			return;
+		}
+
+		Savepoint savepoint = null;
+		if (useSavepoints)
+		{
+			savepoint = conn.getConnection().setSavepoint();
+		}
+
+		for (RecordingPreparedStatement record : batch)
+		{
+			stmt.clearParameters();
+			record.replay(stmt);
+			stmt.addBatch();
+		}
+
+		boolean[] inserted = new boolean[batch.size()];
+		try
+		{
+			stmt.executeBatch();
+			releaseSavepoint(conn, savepoint);
+			batch.clear();
+			return;
+		}
+		catch (BatchUpdateException bue)
+		{
+			stmt.clearBatch();
+			if (null != savepoint)
+			{
+				conn.getConnection().rollback(savepoint);
+			}
+			else if (isFailedLineKnown(bue.getUpdateCounts(), batch.size()))
+			{
+				// Drivers either stop at the failing line and return the counts of the lines before it,
+				// or they continue and mark each failing line with EXECUTE_FAILED.
+				int[] updateCounts = bue.getUpdateCounts();
+				for (int i = 0; i < updateCounts.length && i < inserted.length; i++)
+				{
+					inserted[i] = Statement.EXECUTE_FAILED != updateCounts[i];
+				}
+			}
+			else
+			{
+				// Executing the lines one by one would insert the lines the driver inserted before the
+				// failure a second time. The import fails and is rolled back to the last commit.
+				int lastRow = firstRow + batch.size() - 1;
+				batch.clear();
+				throw new FailedBatchException(firstRow, lastRow, bue);
+			}
+			log.info("Batch of lines " + firstRow + " to " + (firstRow + batch.size() - 1)
+				+ " failed, executing its lines one by one: " + bue.getMessage());
+		}
+
+		for (int i = 0; i < batch.size(); i++)
+		{
+			if (inserted[i])
+			{
+				continue;
+			}
+			stmt.clearParameters();
+			batch.get(i).replay(stmt);
+			try
+			{
+				stmt.execute();
+			}
+			catch (SQLException e)
+			{
+				throw new FailedRowException(firstRow + i, e);
+			}
+		}
+		batch.clear();
+	}
+
+	/**
+	 * @return true if the update counts of a failed batch of the specified size tell which lines were inserted.
+	 *         This is not the case if the driver returns no update counts, or if it returns a count for each
+	 *         line but doesn't mark the failing lines, or marks all of them as failed.
+	 */
+	private boolean isFailedLineKnown(int[] updateCounts, int batchSize)
+	{
+		if (null == updateCounts)
+		{
+			return false;
+		}
+		if (updateCounts.length < batchSize || 1 == batchSize)
+		{
+			return true;
+		}
+
+		boolean hasFailed = false;
+		boolean hasInserted = false;
+		for (int updateCount : updateCounts)
+		{
+			if (Statement.EXECUTE_FAILED == updateCount)
+			{
+				hasFailed = true;
+			}
+			else
+			{
+				hasInserted = true;
+			}
+		}
+		return hasFailed && hasInserted;
+	}
+
+	private void releaseSavepoint(ISQLConnection conn, Savepoint savepoint)
+	{
+		if (null == savepoint)
+		{
+			return;
+		}
+		try
+		{
+			conn.getConnection().releaseSavepoint(savepoint);
+		}
+		catch (SQLException e)
+		{
+			// Some drivers, e.g. Oracle's, don't support releasing savepoints. They are released on commit.
+			if (log.isDebugEnabled())
+			{
+				log.debug("Failed to release savepoint: " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Thrown by executeBatch() when a line of a failed batch fails on its own as well.
+	 */
+	private static class FailedRowException extends SQLException
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final int _row;
+
+		FailedRowException(int row, SQLException cause)
+		{
+			super(cause.getMessage(), cause.getSQLState(), cause.getErrorCode(), cause);
+			_row = row;
+		}
+
+		int getRow()
+		{
+			return _row;
+		}
+	}
+
+	/**
+	 * Thrown by executeBatch() when a batch failed and it's not known which of its lines were inserted.
+	 */
+	private static class FailedBatchException extends SQLException
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final int _firstRow;
+		private final int _lastRow;
+
+		FailedBatchException(int firstRow, int lastRow, SQLException cause)
+		{
+			super(cause.getMessage(), cause.getSQLState(), cause.getErrorCode(), cause);
+			_firstRow = firstRow;
+			_lastRow = lastRow;
+		}
+
+		int getFirstRow()
+		{
+			return _firstRow;
+		}
+
+		int getLastRow()
+		{
+			return _lastRow;
+		}
+	}
+
 	private Thread.UncaughtExceptionHandler createUncaughtExceptionHandler()
 	{
 		return new Thread.UncaughtExceptionHandler()
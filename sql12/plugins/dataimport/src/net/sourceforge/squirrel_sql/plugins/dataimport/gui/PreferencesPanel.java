@@ -20,7 +20,9 @@ package net.sourceforge.squirrel_sql.plugins.dataimport.gui;
 import java.awt.Component;
 
 import javax.swing.JCheckBox;
+import javax.swing.JLabel;
 import javax.swing.JPanel;
+import javax.swing.JTextField;
 
 import net.sourceforge.squirrel_sql.fw.util.StringManager;
 import net.sourceforge.squirrel_sql.fw.util.StringManagerFactory;
@@ -45,6 +47,8 @@ public class PreferencesPanel extends JPanel {
     
     JCheckBox truncateCheckBox = null;
     
+    JTextField insertBatchSizeTextField = null;
+    
     /** Logger for this class. */
     private final static ILogger log = 
         LoggerController.createLogger(PreferencesPanel.class);    
@@ -68,9 +72,9 @@ public class PreferencesPanel extends JPanel {
     private void createGUI() {
 		final FormLayout layout = new FormLayout(
 				// Columns
-				"left:pref:grow",
+				"left:pref, 3dlu, left:30dlu:grow",
 				// Rows
-				"12dlu");
+				"12dlu, 3dlu, 12dlu");
 
 		PanelBuilder builder = new PanelBuilder(layout);
 		CellConstraints cc = new CellConstraints();
@@ -80,17 +84,33 @@ public class PreferencesPanel extends JPanel {
 		truncateCheckBox = new JCheckBox(stringMgr.getString("PreferencesPanel.truncateTable"));
 
 		int y = 1;
-		builder.add(truncateCheckBox, cc.xy(1, y));
+		builder.add(truncateCheckBox, cc.xyw(1, y, 3));
+
+		//i18n[PreferencesPanel.insertBatchSize=Lines to insert per batch (1 = no batching)]
+		JLabel insertBatchSizeLabel = new JLabel(stringMgr.getString("PreferencesPanel.insertBatchSize"));
+		insertBatchSizeTextField = new JTextField(5);
+		//i18n[PreferencesPanel.insertBatchSizeToolTip=Sends the inserts to the database in JDBC batches of this size. A line that fails is still reported.]
+		insertBatchSizeTextField.setToolTipText(stringMgr.getString("PreferencesPanel.insertBatchSizeToolTip"));
+
+		y += 2;
+		builder.add(insertBatchSizeLabel, cc.xy(1, y));
+		builder.add(insertBatchSizeTextField, cc.xy(3, y));
 
 		add(builder.getPanel());
     }
     
     private void loadData() {
     	truncateCheckBox.setSelected(prefs.isUseTruncate());
+    	insertBatchSizeTextField.setText(String.valueOf(prefs.getInsertBatchSize()));
     }
     
     private void save() {
         prefs.setUseTruncate(truncateCheckBox.isSelected());
+        try {
+            prefs.setInsertBatchSize(Integer.parseInt(insertBatchSizeTextField.getText().trim()));
+        } catch (NumberFormatException e) {
+            log.error("Invalid insert batch size: " + insertBatchSizeTextField.getText());
+        }
         
         PreferencesManager.savePrefs();
     }
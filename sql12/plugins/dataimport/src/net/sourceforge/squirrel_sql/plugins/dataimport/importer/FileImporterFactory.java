@@ -23,6 +23,7 @@ import java.io.IOException;
 import net.sourceforge.squirrel_sql.plugins.dataimport.ImportFileType;
 import net.sourceforge.squirrel_sql.plugins.dataimport.importer.csv.CSVFileImporter;
 import net.sourceforge.squirrel_sql.plugins.dataimport.importer.excel.ExcelFileImporter;
+import net.sourceforge.squirrel_sql.plugins.dataimport.importer.excel.XlsxFileImporter;
 
 /**
  * This factory creates a IFileImporter for the given type.
@@ -46,7 +47,11 @@ public class FileImporterFactory {
 			importer = new CSVFileImporter(importFile);
 			break;
 		case XLS:
-			importer = new ExcelFileImporter(importFile);
+			if (XlsxFileImporter.isXlsx(importFile)) {
+				importer = new XlsxFileImporter(importFile);
+			} else {
+				importer = new ExcelFileImporter(importFile);
+			}
 			break;
 			default:
 				throw new IllegalArgumentException("No such type: " + type.toString());
@@ -19,6 +19,8 @@ package net.sourceforge.squirrel_sql.plugins.dataimport.importer.excel;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 
 import javax.swing.JComboBox;
 import javax.swing.JLabel;
@@ -45,7 +47,7 @@ public class ExcelSettingsPanel extends JPanel {
 		StringManagerFactory.getStringManager(ExcelSettingsPanel.class);
 	
 	private ExcelSettingsBean settings = null;
-	private Workbook wb = null;
+	private List<String> sheetNames = null;
 	
 	private JComboBox sheetName = null;
 	
@@ -58,9 +60,9 @@ public class ExcelSettingsPanel extends JPanel {
 	public ExcelSettingsPanel(ExcelSettingsBean settings, File f) {
 		this.settings = settings;
 		try {
-			this.wb = WorkbookFactory.create(f);
+			this.sheetNames = readSheetNames(f);
 		} catch (Exception e) {
-			this.wb = null;
+			this.sheetNames = null;
 		}
 		init();
 		loadSettings();
@@ -73,10 +75,9 @@ public class ExcelSettingsPanel extends JPanel {
 			}
 		};
 		sheetName = new JComboBox();
-		if (wb != null) {
-                    int nSheets= wb.getNumberOfSheets();
-			for (int i= 0; i < nSheets; i++) {
-				sheetName.addItem(wb.getSheetAt(i).getSheetName());
+		if (sheetNames != null) {
+			for (String name : sheetNames) {
+				sheetName.addItem(name);
 			}
 		}
 		sheetName.addActionListener(stateChangedListener);
@@ -105,6 +106,22 @@ public class ExcelSettingsPanel extends JPanel {
 	}
 	
 	
+	/**
+	 * Reads the sheet names. Excel 2007 files are not loaded for this, only
+	 * their workbook part is read.
+	 */
+	private List<String> readSheetNames(File f) throws Exception {
+		if (XlsxFileImporter.isXlsx(f)) {
+			return XlsxFileImporter.getSheetNames(f);
+		}
+		Workbook wb = WorkbookFactory.create(f);
+		List<String> result = new ArrayList<String>();
+		for (int i = 0; i < wb.getNumberOfSheets(); i++) {
+			result.add(wb.getSheetAt(i).getSheetName());
+		}
+		return result;
+	}
+	
 	private void applySettings() {
 		if (sheetName.getSelectedItem() != null) {
 			settings.setSheetName(sheetName.getSelectedItem().toString());
@@ -0,0 +1,543 @@
+package net.sourceforge.squirrel_sql.plugins.dataimport.importer.excel;
+/*
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.swing.JComponent;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import net.sourceforge.squirrel_sql.plugins.dataimport.importer.IFileImporter;
+import net.sourceforge.squirrel_sql.plugins.dataimport.importer.UnsupportedFormatException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.openxml4j.opc.PackageRelationshipCollection;
+import org.apache.poi.openxml4j.opc.PackageRelationshipTypes;
+import org.apache.poi.ss.usermodel.BuiltinFormats;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.AreaReference;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.xml.sax.SAXException;
+
+/**
+ * This implementation of the <code>IFileImporter</code> interface imports
+ * Microsoft Excel 2007 (xlsx) files.
+ *
+ * Unlike the <code>ExcelFileImporter</code> it never loads the workbook. The
+ * rows of the sheet are read one at a time from the sheet's XML, so the memory
+ * needed does not grow with the size of the sheet. Only the shared strings
+ * table and the number formats of the cell styles are held in memory. Both
+ * are read with streaming parsers as well. The parts of the file are located
+ * through the package relationships, so the XML beans of the workbook are
+ * never needed.
+ */
+public class XlsxFileImporter implements IFileImporter {
+
+	private static final XMLInputFactory xmlInputFactory = createXMLInputFactory();
+
+	private static final String RELATIONSHIPS_NAMESPACE = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+	private static final String STYLES_RELATIONSHIP = RELATIONSHIPS_NAMESPACE + "/styles";
+
+	private File importFile = null;
+	private ExcelSettingsBean settings = null;
+	private OPCPackage pkg = null;
+	private PackagePart workbook = null;
+	/** The relationship ids of the sheets by sheet name, in workbook order */
+	private Map<String, String> sheets = null;
+	private ReadOnlySharedStringsTable sharedStrings = null;
+	/** The number format id of each cell style */
+	private int[] styleFormats = new int[0];
+	/** The custom number formats by id */
+	private final Map<Integer, String> customFormats = new HashMap<Integer, String>();
+
+	private InputStream sheetStream = null;
+	private XMLStreamReader reader = null;
+	private int size = -1;
+	private int pointer = -1;
+
+	/** The cells of the current row, indexed by column. A missing cell is null */
+	private String[] values = new String[16];
+	private String[] types = new String[16];
+	private int[] styleIndexes = new int[16];
+	private int width = 0;
+
+	/**
+	 * The parts of the file come from the user. DTDs and external entities are
+	 * switched off so that they can't read local files or fetch URLs.
+	 */
+	private static XMLInputFactory createXMLInputFactory() {
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+		return factory;
+	}
+
+	/**
+	 * The standard constructor
+	 *
+	 * @param importFile The import file
+	 */
+	public XlsxFileImporter(File importFile) {
+		this.importFile = importFile;
+		this.settings = new ExcelSettingsBean();
+	}
+
+	/**
+	 * Checks if the file is an Excel 2007 file, i.e. a zip file, as opposed to
+	 * an Excel 97 file.
+	 *
+	 * @param file The file to check
+	 * @return <code>true</code> if the file starts with a zip header
+	 */
+	public static boolean isXlsx(File file) {
+		byte[] header = new byte[4];
+		InputStream in = null;
+		try {
+			in = new FileInputStream(file);
+			return header.length == in.read(header)
+				&& header[0] == 'P' && header[1] == 'K' && header[2] == 3 && header[3] == 4;
+		} catch (IOException e) {
+			return false;
+		} finally {
+			closeQuietly(in);
+		}
+	}
+
+	/**
+	 * Reads the names of the sheets of an Excel 2007 file without loading
+	 * the sheets.
+	 *
+	 * @param file The Excel 2007 file
+	 * @return The sheet names in workbook order
+	 * @throws IOException If the file cannot be read
+	 */
+	public static List<String> getSheetNames(File file) throws IOException {
+		OPCPackage p = openPackage(file);
+		try {
+			return new ArrayList<String>(readSheets(getWorkbookPart(p)).keySet());
+		} finally {
+			p.revert();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.sourceforge.squirrel_sql.plugins.dataimport.importer.IFileImporter#open()
+	 */
+	public boolean open() throws IOException {
+		pkg = openPackage(importFile);
+		try {
+			workbook = getWorkbookPart(pkg);
+			sheets = readSheets(workbook);
+			sharedStrings = new ReadOnlySharedStringsTable(pkg);
+			readStyles();
+		} catch (OpenXML4JException e) {
+			close();
+			throw new IOException(e.toString());
+		} catch (SAXException e) {
+			close();
+			throw new IOException(e.toString());
+		} catch (XMLStreamException e) {
+			close();
+			throw new IOException(e.toString());
+		}
+		reset();
+		return true;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.sourceforge.squirrel_sql.plugins.dataimport.importer.IFileImporter#close()
+	 */
+	public boolean close() throws IOException {
+		closeSheet();
+		workbook = null;
+		if (pkg != null) {
+			// A package opened read only is closed by revert(), close() would try to save it.
+			pkg.revert();
+			pkg = null;
+		}
+		return true;
+	}
+
+	/* (non-Javadoc)
+	 * @see net.sourceforge.squirrel_sql.plugins.dataimport.importer.IFileImporter#getPreview(int)
+	 */
+	public String[][] getPreview(int noOfLines) throws IOException {
+		XlsxFileImporter preview = new XlsxFileImporter(importFile);
+		preview.settings = settings;
+		List<String[]> lines = new ArrayList<String[]>();
+		int columns = 0;
+		try {
+			preview.open();
+			while (lines.size() < noOfLines && preview.next()) {
+				if (lines.isEmpty()) {
+					columns = preview.width;
+				}
+				String[] line = new String[columns];
+				for (int x = 0; x < columns; x++) {
+					line[x] = preview.getString(x);
+				}
+				lines.add(line);
+			}
+		} finally {
+			preview.close();
+		}
+		return lines.toArray(new String[lines.size()][columns]);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.sourceforge.squirrel_sql.plugins.dataimport.importer.IFileImporter#reset()
+	 */
+	public boolean reset() throws IOException {
+		closeSheet();
+		sheetStream = openSheet();
+		try {
+			reader = xmlInputFactory.createXMLStreamReader(sheetStream);
+			size = -1;
+			// The dimension element, if the file has one, precedes the rows.
+			while (reader.hasNext()) {
+				if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+					if ("dimension".equals(reader.getLocalName())) {
+						size = getRowCount(reader.getAttributeValue(null, "ref"));
+					} else if ("sheetData".equals(reader.getLocalName())) {
+						break;
+					}
+				}
+			}
+		} catch (XMLStreamException e) {
+			throw new IOException(e.toString());
+		}
+		pointer = -1;
+		width = 0;
+		return true;
+	}
+
+	/**
+	 * Returns the number of rows the sheet's dimension spans. If the sheet has
+	 * empty rows, these are counted as well, so this is only an estimate.
+	 *
+	 * @see net.sourceforge.squirrel_sql.plugins.dataimport.importer.IFileImporter#getRows()
+	 */
+	public int getRows() {
+		return size;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.sourceforge.squirrel_sql.plugins.dataimport.importer.IFileImporter#next()
+	 */
+	public boolean next() throws IOException {
+		try {
+			while (reader.hasNext()) {
+				int event = reader.next();
+				if (event == XMLStreamConstants.START_ELEMENT && "row".equals(reader.getLocalName())) {
+					readRow();
+					pointer++;
+					return true;
+				}
+				if (event == XMLStreamConstants.END_ELEMENT && "sheetData".equals(reader.getLocalName())) {
+					break;
+				}
+			}
+		} catch (XMLStreamException e) {
+			throw new IOException(e.toString());
+		}
+		return false;
+	}
+
+	private void readRow() throws XMLStreamException {
+		Arrays.fill(values, 0, width, null);
+		width = 0;
+		int column = -1;
+		while (reader.hasNext()) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.END_ELEMENT && "row".equals(reader.getLocalName())) {
+				return;
+			}
+			if (event != XMLStreamConstants.START_ELEMENT) {
+				continue;
+			}
+			String name = reader.getLocalName();
+			if ("c".equals(name)) {
+				String ref = reader.getAttributeValue(null, "r");
+				column = ref == null ? column + 1 : new CellReference(ref).getCol();
+				ensureCapacity(column + 1);
+				types[column] = reader.getAttributeValue(null, "t");
+				String style = reader.getAttributeValue(null, "s");
+				styleIndexes[column] = style == null ? 0 : Integer.parseInt(style);
+				width = column + 1;
+			} else if ("v".equals(name)) {
+				values[column] = reader.getElementText();
+			} else if ("t".equals(name)) {
+				// Inline strings may consist of several runs of text.
+				String text = reader.getElementText();
+				values[column] = values[column] == null ? text : values[column] + text;
+			}
+		}
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (values.length < capacity) {
+			int newLength = Math.max(capacity, values.length * 2);
+			values = Arrays.copyOf(values, newLength);
+			types = Arrays.copyOf(types, newLength);
+			styleIndexes = Arrays.copyOf(styleIndexes, newLength);
+		}
+	}
+
+	private void checkPointer() throws IOException {
+		if (pointer < 0)
+			throw new IOException("Use next() to get to the first record.");
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.sourceforge.squirrel_sql.plugins.dataimport.importer.IFileImporter#getString(int)
+	 */
+	public String getString(int column) throws IOException {
+		checkPointer();
+		if (column >= width || values[column] == null) {
+			return null;
+		}
+		String value = values[column];
+		String type = types[column];
+		if ("s".equals(type)) {
+			return sharedStrings.getEntryAt(Integer.parseInt(value));
+		} else if ("b".equals(type)) {
+			return "0".equals(value) ? "FALSE" : "TRUE";
+		} else if (type == null || "n".equals(type)) {
+			// Same text as Cell.toString() in ExcelFileImporter: dates as dd-MMM-yyyy,
+			// other numbers as Double.toString()
+			double number = Double.parseDouble(value);
+			int style = styleIndexes[column];
+			if (style < styleFormats.length) {
+				int format = styleFormats[style];
+				String formatString = customFormats.containsKey(format) ? customFormats.get(format) : BuiltinFormats.getBuiltinFormat(format);
+				if (formatString != null && DateUtil.isADateFormat(format, formatString) && DateUtil.isValidExcelDate(number)) {
+					return new SimpleDateFormat("dd-MMM-yyyy").format(DateUtil.getJavaDate(number));
+				}
+			}
+			return String.valueOf(number);
+		}
+		// inline strings, formula results and errors
+		return value;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.sourceforge.squirrel_sql.plugins.dataimport.importer.IFileImporter#getInt(int)
+	 */
+	public Integer getInt(int column) throws IOException, UnsupportedFormatException {
+		Double value = getNumeric(column);
+		return value == null ? null : value.intValue();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.sourceforge.squirrel_sql.plugins.dataimport.importer.IFileImporter#getDate(int)
+	 */
+	public Date getDate(int column) throws IOException, UnsupportedFormatException {
+		Double value = getNumeric(column);
+		return value == null ? null : DateUtil.getJavaDate(value);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.sourceforge.squirrel_sql.plugins.dataimport.importer.IFileImporter#getLong(int)
+	 */
+	public Long getLong(int column) throws IOException, UnsupportedFormatException {
+		Double value = getNumeric(column);
+		return value == null ? null : value.longValue();
+	}
+
+	private Double getNumeric(int column) throws IOException, UnsupportedFormatException {
+		checkPointer();
+		if (column >= width || values[column] == null) {
+			return null;
+		}
+		String type = types[column];
+		if (type != null && !"n".equals(type)) {
+			throw new UnsupportedFormatException("Could not interpret value as numeric type. String of value is: " + getString(column));
+		}
+		try {
+			return Double.valueOf(values[column]);
+		} catch (NumberFormatException e) {
+			throw new UnsupportedFormatException(e);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.sourceforge.squirrel_sql.plugins.dataimport.importer.IFileImporter#getConfigurationPanel()
+	 */
+	public JComponent getConfigurationPanel() {
+		return new ExcelSettingsPanel(settings, importFile);
+	}
+
+	/**
+	 * Opens the stream of the sheet chosen in the settings, or of the first
+	 * sheet if there is no such sheet.
+	 */
+	private InputStream openSheet() throws IOException {
+		if (sheets.isEmpty()) {
+			throw new IOException("The workbook " + importFile + " contains no sheets.");
+		}
+		String id = sheets.get(settings.getSheetName());
+		if (id == null) {
+			id = sheets.values().iterator().next();
+		}
+		try {
+			return workbook.getRelatedPart(workbook.getRelationship(id)).getInputStream();
+		} catch (OpenXML4JException e) {
+			throw new IOException(e.toString());
+		}
+	}
+
+	/**
+	 * Reads the number formats of the cell styles from the styles part.
+	 */
+	private void readStyles() throws IOException, OpenXML4JException, XMLStreamException {
+		PackageRelationshipCollection relationships = workbook.getRelationshipsByType(STYLES_RELATIONSHIP);
+		if (relationships.size() == 0) {
+			// A workbook without styles has general formats only.
+			return;
+		}
+		InputStream in = workbook.getRelatedPart(relationships.getRelationship(0)).getInputStream();
+		List<Integer> formats = new ArrayList<Integer>();
+		XMLStreamReader stylesReader = xmlInputFactory.createXMLStreamReader(in);
+		try {
+			boolean inCellXfs = false;
+			while (stylesReader.hasNext()) {
+				int event = stylesReader.next();
+				if (event == XMLStreamConstants.START_ELEMENT) {
+					String name = stylesReader.getLocalName();
+					if ("numFmt".equals(name)) {
+						customFormats.put(Integer.valueOf(stylesReader.getAttributeValue(null, "numFmtId")),
+							stylesReader.getAttributeValue(null, "formatCode"));
+					} else if ("cellXfs".equals(name)) {
+						inCellXfs = true;
+					} else if (inCellXfs && "xf".equals(name)) {
+						String format = stylesReader.getAttributeValue(null, "numFmtId");
+						formats.add(format == null ? 0 : Integer.parseInt(format));
+					}
+				} else if (event == XMLStreamConstants.END_ELEMENT && "cellXfs".equals(stylesReader.getLocalName())) {
+					inCellXfs = false;
+				}
+			}
+		} finally {
+			stylesReader.close();
+			closeQuietly(in);
+		}
+		styleFormats = new int[formats.size()];
+		for (int i = 0; i < styleFormats.length; i++) {
+			styleFormats[i] = formats.get(i);
+		}
+	}
+
+	private void closeSheet() {
+		if (reader != null) {
+			try {
+				reader.close();
+			} catch (XMLStreamException e) {
+				// Do nothing
+			}
+			reader = null;
+		}
+		closeQuietly(sheetStream);
+		sheetStream = null;
+	}
+
+	private static OPCPackage openPackage(File file) throws IOException {
+		try {
+			return OPCPackage.open(file.getPath(), PackageAccess.READ);
+		} catch (OpenXML4JException e) {
+			throw new IOException(e.toString());
+		}
+	}
+
+	private static PackagePart getWorkbookPart(OPCPackage p) throws IOException {
+		PackageRelationshipCollection relationships = p.getRelationshipsByType(PackageRelationshipTypes.CORE_DOCUMENT);
+		if (relationships.size() == 0) {
+			throw new IOException("The file contains no workbook.");
+		}
+		return p.getPart(relationships.getRelationship(0));
+	}
+
+	/**
+	 * Reads the sheet names and the relationship ids of the sheet parts from
+	 * the workbook part.
+	 */
+	private static Map<String, String> readSheets(PackagePart workbook) throws IOException {
+		Map<String, String> result = new LinkedHashMap<String, String>();
+		InputStream in = workbook.getInputStream();
+		try {
+			XMLStreamReader workbookReader = xmlInputFactory.createXMLStreamReader(in);
+			try {
+				while (workbookReader.hasNext()) {
+					if (workbookReader.next() == XMLStreamConstants.START_ELEMENT
+						&& "sheet".equals(workbookReader.getLocalName())) {
+						result.put(workbookReader.getAttributeValue(null, "name"),
+							workbookReader.getAttributeValue(RELATIONSHIPS_NAMESPACE, "id"));
+					}
+				}
+			} finally {
+				workbookReader.close();
+			}
+		} catch (XMLStreamException e) {
+			throw new IOException(e.toString());
+		} finally {
+			closeQuietly(in);
+		}
+		return result;
+	}
+
+	private static int getRowCount(String ref) {
+		if (ref == null) {
+			return -1;
+		}
+		AreaReference area = new AreaReference(ref.indexOf(':') < 0 ? ref + ":" + ref : ref);
+		return area.getLastCell().getRow() - area.getFirstCell().getRow() + 1;
+	}
+
+	private static void closeQuietly(InputStream in) {
+		if (in != null) {
+			try {
+				in.close();
+			} catch (IOException e) {
+				// Do nothing
+			}
+		}
+	}
+}
@@ -28,6 +28,9 @@ public class DataImportPreferenceBean implements Cloneable, Serializable {
 	/** Use the truncate command instead of delete if the database supports it */
     private boolean useTruncate = true;
     
+    /** How many lines to insert per JDBC batch, 1 or less inserts each line on its own */
+    private int insertBatchSize = 100;
+    
     /**
      * Standard constructor
      */
@@ -61,5 +64,19 @@ public class DataImportPreferenceBean implements Cloneable, Serializable {
         return useTruncate;
     }
 
+    /**
+     * @param insertBatchSize The insertBatchSize to set.
+     */
+    public void setInsertBatchSize(int insertBatchSize) {
+        this.insertBatchSize = insertBatchSize;
+    }
+
+    /**
+     * @return Returns the insertBatchSize.
+     */
+    public int getInsertBatchSize() {
+        return insertBatchSize;
+    }
+
 }
 
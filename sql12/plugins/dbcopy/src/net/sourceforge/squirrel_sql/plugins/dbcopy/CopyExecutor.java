@@ -18,16 +18,24 @@
  */
 package net.sourceforge.squirrel_sql.plugins.dbcopy;
 
+import java.sql.BatchUpdateException;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import net.sourceforge.squirrel_sql.client.session.ISession;
 import net.sourceforge.squirrel_sql.fw.dialects.CreateScriptPreferences;
@@ -100,6 +108,16 @@ public class CopyExecutor extends I18NBaseObject {
     
     /** the finish time in millis that the copy operation began */
     private long end = 0;
+
+    /** 
+     * How many batches of records may be read from the source table ahead of
+     * the batch that is currently inserted into the destination table.
+     */
+    private static final int BATCH_QUEUE_CAPACITY = 2;
+
+    /** Marks the end of the source records in the batch queue. */
+    private static final List<RecordingPreparedStatement> END_OF_RECORDS = 
+        new ArrayList<RecordingPreparedStatement>();
     
     /**
      * Constructor.
@@ -147,7 +165,6 @@ public class CopyExecutor extends I18NBaseObject {
         setupAutoCommit(destConn);
         List<IDatabaseObjectInfo> sourceObjs = prov.getSourceDatabaseObjects();
         int[] counts = getTableCounts();
-        sendCopyStarted(counts);
 
         //String destSchema = prov.getDestDatabaseObject().getSimpleName();  used to break, when a table was selected
 
@@ -157,41 +174,71 @@ public class CopyExecutor extends I18NBaseObject {
 
        TableInfo pasteToTableInfo = prov.getPasteToTableInfo(destConn, destSchema, destCatalog);
 
-       int sourceObjectCount = 0;
+        List<ISQLConnection[]> workerConnections = new ArrayList<ISQLConnection[]>();
+        if (null == pasteToTableInfo) {
+            workerConnections = openWorkerConnections(getWorkerCount(sourceObjs));
+        }
+        try {
+            sendCopyStarted(counts, Math.max(1, workerConnections.size()));
+            if (workerConnections.size() > 1) {
+                encounteredException = 
+                    copyTablesInParallel(sourceObjs, counts, destSchema, destCatalog, 
+                                         workerConnections);
+            } else {
+                encounteredException = 
+                    copyTablesSerially(sourceObjs, counts, destSchema, destCatalog, 
+                                       pasteToTableInfo);
+            }
+        } finally {
+            closeWorkerConnections(workerConnections);
+        }
+        restoreAutoCommit(destConn);
+        if (cancelled) {
+            sendErrorEvent(ErrorEvent.USER_CANCELLED_EXCEPTION_TYPE);
+            return;
+        }
+        if (encounteredException) {
+            return;
+        }         
+        end = System.currentTimeMillis();
+        
+        ISession session = prov.getDestSession();
+        if (session.getSessionSheet() != null) {
+      	  session.getSchemaInfo().reload(DBUtil.getSchemaFromDbObject(prov.getDestDatabaseObject(), session.getSchemaInfo()));
+      	  session.getSchemaInfo().fireSchemaInfoUpdate();
+        }
+
+        notifyCopyFinished();
+    }
+
+    /**
+     * Copies the specified tables one after the other using the connections of
+     * the source and destination sessions.
+     * 
+     * @return true if an exception was encountered; false otherwise.
+     */
+    private boolean copyTablesSerially(List<IDatabaseObjectInfo> sourceObjs,
+                                       int[] counts,
+                                       String destSchema,
+                                       String destCatalog,
+                                       TableInfo pasteToTableInfo) 
+    {
+        boolean encounteredException = false;
+        int sourceObjectCount = 0;
         for (IDatabaseObjectInfo info : sourceObjs) {
             if (! (info instanceof ITableInfo)) {
                 continue;
             }
             ITableInfo sourceTI = (ITableInfo)info;
-            sendTableCopyStarted(chooseDestTableInfo(sourceTI, pasteToTableInfo), sourceObjectCount+1);
+            sendTableCopyStarted(chooseDestTableInfo(sourceTI, pasteToTableInfo), sourceObjectCount+1, 0);
             try {
-                int destTableCount = DBUtil.getTableCount(destSession,
-                                                          destCatalog,
-                                                          destSchema,
-                                                          chooseDestTableInfo(sourceTI, pasteToTableInfo).getSimpleName(),
-                                                          DialectFactory.DEST_TYPE);
-                if (destTableCount == -1) {
-                    createTable(sourceTI, chooseDestTableInfo(sourceTI, pasteToTableInfo).getSimpleName(), destSchema, destCatalog);
-                } 
-                if (destTableCount > 0) {
-                    try {
-                        if (pref.appendRecordsToExisting()) {
-                            /* Do nothing */
-                        } else if (pref.deleteTableData(chooseDestTableInfo(sourceTI, pasteToTableInfo).getSimpleName())) {
-                            // Yes || Yes to all
-                            DBUtil.deleteDataInExistingTable(destSession,
-                                                             destCatalog,
-                                                             destSchema,
-                                                             chooseDestTableInfo(sourceTI, pasteToTableInfo).getSimpleName());
-                        } else {
-                            continue; // skip this table, try the next.
-                        }
-                        
-                    } catch (UserCancelledOperationException e) {
-                        cancelled = true;
-                        break;
-                    }
-                } 
+                if (!prepareDestTable(sourceTI, 
+                                      chooseDestTableInfo(sourceTI, pasteToTableInfo), 
+                                      destSchema, 
+                                      destCatalog)) 
+                {
+                    continue; // skip this table, try the next.
+                }
                 
                 copyTable(sourceTI, pasteToTableInfo, counts[sourceObjectCount]);
                 
@@ -205,7 +252,7 @@ public class CopyExecutor extends I18NBaseObject {
                     copyConstraints(sourceObjs);
                 }
                 if (!cancelled) {
-                    sendTableCopyFinished(chooseDestTableInfo(sourceTI, pasteToTableInfo), sourceObjectCount+1);
+                    sendTableCopyFinished(chooseDestTableInfo(sourceTI, pasteToTableInfo), sourceObjectCount+1, 0);
                     sleep(prefs.getTableDelayMillis());
                 }
             } catch (SQLException e) {
@@ -226,23 +273,284 @@ public class CopyExecutor extends I18NBaseObject {
             }
             sourceObjectCount++;
         }        
-        restoreAutoCommit(destConn);
-        if (cancelled) {
-            sendErrorEvent(ErrorEvent.USER_CANCELLED_EXCEPTION_TYPE);
-            return;
+        return encounteredException;
+    }
+
+    /**
+     * Copies the specified tables using one thread per pair of source and 
+     * destination connections.  The destination tables are created (or 
+     * emptied) and the statements to copy them are built in this thread 
+     * first, since that may require asking the user.  The worker threads then
+     * copy the records.  A table is not copied before the tables that it has a 
+     * foreign key to, so this works with existing destination tables that have
+     * their constraints in place.
+     * 
+     * @param workerConnections one pair of source and destination connections
+     *                          per worker thread.
+     * @return true if an exception was encountered; false otherwise.
+     */
+    private boolean copyTablesInParallel(List<IDatabaseObjectInfo> sourceObjs,
+                                         int[] counts,
+                                         String destSchema,
+                                         String destCatalog,
+                                         List<ISQLConnection[]> workerConnections) 
+    {
+        TableCopyScheduler<TableCopy> scheduler = new TableCopyScheduler<TableCopy>();
+        try {
+            SQLDatabaseMetaData sourceMetaData = 
+                sourceSession.getSQLConnection().getSQLMetaData();
+            List<ITableInfo> sourceTables = DBUtil.convertObjectToTableList(sourceObjs);
+            Map<ITableInfo, TableCopy> tableCopies = 
+                new IdentityHashMap<ITableInfo, TableCopy>();
+            int sourceObjectCount = 0;
+            for (ITableInfo sourceTI : sourceTables) {
+                if (cancelled) {
+                    return false;
+                }
+                sourceObjectCount++;
+                if (!prepareDestTable(sourceTI, sourceTI, destSchema, destCatalog)) {
+                    continue; // skip this table, try the next.
+                }
+                TableCopy tableCopy = 
+                    prepareTableCopy(sourceTI, null, sourceObjectCount, 
+                                     counts[sourceObjectCount - 1]);
+                tableCopies.put(sourceTI, tableCopy);
+
+                List<TableCopy> parents = new ArrayList<TableCopy>();
+                for (ITableInfo parent : DBUtil.getParentTables(sourceTI, sourceTables, sourceMetaData)) {
+                    if (tableCopies.containsKey(parent)) {
+                        parents.add(tableCopies.get(parent));
+                    }
+                }
+                scheduler.add(tableCopy, parents);
+            }
+            if (!currentAutoCommitValue) {
+                // The worker connections must see the created and emptied tables.
+                commitConnection(destSession.getSQLConnection());
+            }
+
+            AtomicReference<CopyFailure> failure = new AtomicReference<CopyFailure>();
+            Thread[] workers = new Thread[workerConnections.size()];
+            for (int i = 0; i < workers.length; i++) {
+                ISQLConnection[] connections = workerConnections.get(i);
+                workers[i] = new Thread(new TableCopyWorker(scheduler,
+                                                            connections[0],
+                                                            connections[1],
+                                                            i,
+                                                            failure));
+                workers[i].setName("DBCopy Worker Thread "+(i+1));
+                workers[i].start();
+            }
+            for (int i = 0; i < workers.length; i++) {
+                while (workers[i].isAlive()) {
+                    try {
+                        workers[i].join();
+                    } catch (InterruptedException e) {
+                        // cancel() interrupts us. Stop handing out tables and 
+                        // wait for the workers to finish their current table.
+                        scheduler.abort();
+                    }
+                }
+            }
+
+            CopyFailure copyFailure = failure.get();
+            if (null != copyFailure) {
+                // The error event reports the last statement of this thread.
+                DBUtil.setLastStatement(copyFailure.statement);
+                DBUtil.setLastStatementValues(copyFailure.statementValues);
+                throw copyFailure.exception;
+            }
+            if (!cancelled) {
+                copyConstraints(sourceObjs);
+            }
+        } catch (SQLException e) {
+            sendErrorEvent(ErrorEvent.SQL_EXCEPTION_TYPE, e);
+            return true;
+        } catch (MappingException e) {
+            sendErrorEvent(ErrorEvent.MAPPING_EXCEPTION_TYPE, e);
+            return true;
+        } catch (UserCancelledOperationException e) {
+            cancelled = true;
+        } catch (Exception e) {
+            sendErrorEvent(ErrorEvent.GENERIC_EXCEPTION, e);
+            return true;
         }
-        if (encounteredException) {
-            return;
-        }         
-        end = System.currentTimeMillis();
-        
-        ISession session = prov.getDestSession();
-        if (session.getSessionSheet() != null) {
-      	  session.getSchemaInfo().reload(DBUtil.getSchemaFromDbObject(prov.getDestDatabaseObject(), session.getSchemaInfo()));
-      	  session.getSchemaInfo().fireSchemaInfoUpdate();
+        return false;
+    }
+
+    /**
+     * Creates the specified destination table if it doesn't exist yet or 
+     * deletes the records in it if the user wants them deleted.
+     * 
+     * @return false if the table should be skipped; true otherwise.
+     */
+    private boolean prepareDestTable(ITableInfo sourceTI, 
+                                     ITableInfo destTI, 
+                                     String destSchema, 
+                                     String destCatalog) 
+        throws SQLException, MappingException, UserCancelledOperationException
+    {
+        int destTableCount = DBUtil.getTableCount(destSession,
+                                                  destCatalog,
+                                                  destSchema,
+                                                  destTI.getSimpleName(),
+                                                  DialectFactory.DEST_TYPE);
+        if (destTableCount == -1) {
+            createTable(sourceTI, destTI.getSimpleName(), destSchema, destCatalog);
+        } 
+        if (destTableCount > 0) {
+            if (pref.appendRecordsToExisting()) {
+                /* Do nothing */
+            } else if (pref.deleteTableData(destTI.getSimpleName())) {
+                // Yes || Yes to all
+                DBUtil.deleteDataInExistingTable(destSession,
+                                                 destCatalog,
+                                                 destSchema,
+                                                 destTI.getSimpleName());
+            } else {
+                return false;
+            }
         }
+        return true;
+    }
 
-        notifyCopyFinished();
+    /**
+     * Returns the number of threads to copy the specified tables with.
+     */
+    private int getWorkerCount(List<IDatabaseObjectInfo> sourceObjs) {
+        if (!prefs.isCopyData()) {
+            return 1;
+        }
+        int tableCount = DBUtil.convertObjectToTableList(sourceObjs).size();
+        return Math.max(1, Math.min(prefs.getParallelCopyThreads(), tableCount));
+    }
+
+    /**
+     * Opens the source and destination connections for the worker threads of
+     * a parallel copy.  The first worker uses the connections of the sessions.
+     * When a connection cannot be opened, fewer workers are used.
+     * 
+     * @param workerCount the number of worker threads wanted.
+     * @return one pair of source and destination connections per worker.
+     */
+    private List<ISQLConnection[]> openWorkerConnections(int workerCount) {
+        List<ISQLConnection[]> result = new ArrayList<ISQLConnection[]>();
+        result.add(new ISQLConnection[] { sourceSession.getSQLConnection(), 
+                                          destSession.getSQLConnection() });
+        while (result.size() < workerCount) {
+            ISQLConnection sourceConn = sourceSession.createUnmanagedConnection();
+            if (null == sourceConn) {
+                break;
+            }
+            ISQLConnection destConn = destSession.createUnmanagedConnection();
+            if (null == destConn) {
+                closeConnection(sourceConn);
+                break;
+            }
+            try {
+                destConn.setAutoCommit(currentAutoCommitValue);
+            } catch (SQLException e) {
+                log.error("Failed to set auto-commit on worker connection - "+destConn, e);
+                closeConnection(sourceConn);
+                closeConnection(destConn);
+                break;
+            }
+            result.add(new ISQLConnection[] { sourceConn, destConn });
+        }
+        if (result.size() < workerCount) {
+            log.info("Copying with "+result.size()+" instead of "+workerCount+
+                     " threads, since no more connections could be opened.");
+        }
+        return result;
+    }
+
+    /**
+     * Closes the connections opened by openWorkerConnections, except for the 
+     * ones that belong to the sessions.
+     */
+    private void closeWorkerConnections(List<ISQLConnection[]> workerConnections) {
+        for (int i = 1; i < workerConnections.size(); i++) {
+            for (ISQLConnection con : workerConnections.get(i)) {
+                closeConnection(con);
+            }
+        }
+    }
+
+    private void closeConnection(ISQLConnection con) {
+        try {
+            con.close();
+        } catch (SQLException e) {
+            log.error("Failed to close connection - "+con, e);
+        }
+    }
+
+    /**
+     * The exception that stopped a TableCopyWorker, along with the last 
+     * statement and bind variable values of that worker.
+     */
+    private static class CopyFailure {
+        Exception exception;
+        String statement;
+        String statementValues;
+    }
+
+    /**
+     * Copies the tables handed out by a TableCopyScheduler using its own pair of
+     * source and destination connections.
+     */
+    private class TableCopyWorker implements Runnable {
+
+        private final TableCopyScheduler<TableCopy> scheduler;
+
+        private final ISQLConnection sourceConn;
+
+        private final ISQLConnection destConn;
+
+        private final int workerNumber;
+
+        /** receives the first exception of any worker */
+        private final AtomicReference<CopyFailure> failure;
+
+        TableCopyWorker(TableCopyScheduler<TableCopy> scheduler,
+                        ISQLConnection sourceConn,
+                        ISQLConnection destConn,
+                        int workerNumber,
+                        AtomicReference<CopyFailure> failure)
+        {
+            this.scheduler = scheduler;
+            this.sourceConn = sourceConn;
+            this.destConn = destConn;
+            this.workerNumber = workerNumber;
+            this.failure = failure;
+        }
+
+        public void run() {
+            try {
+                TableCopy tableCopy = null;
+                while (!cancelled && null != (tableCopy = scheduler.next())) {
+                    sendTableCopyStarted(tableCopy.destTableInfo, 
+                                         tableCopy.tableNumber, 
+                                         workerNumber);
+                    copyRecords(tableCopy, sourceConn, destConn, workerNumber);
+                    scheduler.finished(tableCopy);
+                    if (!cancelled) {
+                        sendTableCopyFinished(tableCopy.destTableInfo, 
+                                              tableCopy.tableNumber, 
+                                              workerNumber);
+                        sleep(prefs.getTableDelayMillis());
+                    }
+                }
+            } catch (InterruptedException e) {
+                // Nobody interrupts this thread; stop anyway.
+            } catch (Exception e) {
+                CopyFailure copyFailure = new CopyFailure();
+                copyFailure.exception = e;
+                copyFailure.statement = DBUtil.getLastStatement();
+                copyFailure.statementValues = DBUtil.getLastStatementValues();
+                failure.compareAndSet(null, copyFailure);
+                scheduler.abort();
+            }
+        }
     }
 
    private ITableInfo chooseDestTableInfo(ITableInfo sourceTI, TableInfo pasteToTableInfo)
@@ -425,9 +733,10 @@ public class CopyExecutor extends I18NBaseObject {
         }                
     }
     
-    private void sendCopyStarted(int[] tableCounts) {
+    private void sendCopyStarted(int[] tableCounts, int workerCount) {
         CopyEvent event = new CopyEvent(prov);
         event.setTableCounts(tableCounts);
+        event.setWorkerCount(workerCount);
         Iterator<CopyTableListener> i = listeners.iterator();
         while (i.hasNext()) {
             CopyTableListener listener = i.next();
@@ -435,8 +744,9 @@ public class CopyExecutor extends I18NBaseObject {
         }        
     }
     
-    private void sendTableCopyStarted(ITableInfo ti, int number) {
+    private void sendTableCopyStarted(ITableInfo ti, int number, int workerNumber) {
         TableEvent event = new TableEvent(prov);
+        event.setWorkerNumber(workerNumber);
         event.setTableNumber(number);
         event.setTableCount(prov.getSourceDatabaseObjects().size());
         event.setTableName(ti.getSimpleName());
@@ -447,8 +757,9 @@ public class CopyExecutor extends I18NBaseObject {
         }
     }
 
-    private void sendTableCopyFinished(ITableInfo ti, int number) {
+    private void sendTableCopyFinished(ITableInfo ti, int number, int workerNumber) {
         TableEvent event = new TableEvent(prov);
+        event.setWorkerNumber(workerNumber);
         event.setTableNumber(number);
         event.setTableCount(prov.getSourceDatabaseObjects().size());
         event.setTableName(ti.getSimpleName());
@@ -475,6 +786,8 @@ public class CopyExecutor extends I18NBaseObject {
     private void sendErrorEvent(int type, Exception e) {
         ErrorEvent event = new ErrorEvent(prov, type);
         event.setException(e);
+        event.setStatement(DBUtil.getLastStatement());
+        event.setStatementValues(DBUtil.getLastStatementValues());
         Iterator<CopyTableListener> i = listeners.iterator();
         while (i.hasNext()) {
             CopyTableListener listener = i.next();
@@ -482,8 +795,9 @@ public class CopyExecutor extends I18NBaseObject {
         }        
     }
     
-    private void sendRecordEvent(int number, int count) {
+    private void sendRecordEvent(int number, int count, int workerNumber) {
         RecordEvent event = new RecordEvent(prov, number, count);
+        event.setWorkerNumber(workerNumber);
         Iterator<CopyTableListener> i = listeners.iterator();
         while (i.hasNext()) {
             CopyTableListener listener = i.next();
@@ -535,104 +849,162 @@ public class CopyExecutor extends I18NBaseObject {
     private void copyTable(ITableInfo sourceTableInfo, TableInfo pasteToTableInfo, int sourceTableCount)
         throws MappingException, SQLException, UserCancelledOperationException
     {
-        PreparedStatement insertStmt = null;
-        ResultSet rs = null;
         if (cancelled) {
             return;
         }
         if (!PreferencesManager.getPreferences().isCopyData()) {
             return;
         }
+        TableCopy tableCopy = 
+            prepareTableCopy(sourceTableInfo, pasteToTableInfo, 0, sourceTableCount);
+        copyRecords(tableCopy, 
+                    prov.getSourceSession().getSQLConnection(),
+                    prov.getDestSession().getSQLConnection(),
+                    0);
+    }
+
+    /**
+     * What copyRecords needs to know to copy the records of one table.
+     */
+    private static class TableCopy {
+        ITableInfo destTableInfo;
+        int tableNumber;
+        int sourceTableCount;
+        String selectSQL;
+        String insertSQL;
+        int[] sourceColTypes;
+        int[] destColTypes;
+        boolean clearParameters;
+    }
+
+    /**
+     * Reads the column information of the source and destination table and 
+     * builds the statements to copy the records with, using the connections of
+     * the sessions.
+     */
+    private TableCopy prepareTableCopy(ITableInfo sourceTableInfo, 
+                                       TableInfo pasteToTableInfo, 
+                                       int tableNumber,
+                                       int sourceTableCount)
+        throws MappingException, SQLException, UserCancelledOperationException
+    {
         ISQLConnection sourceConn = prov.getSourceSession().getSQLConnection();
         ISQLConnection destConn = prov.getDestSession().getSQLConnection();
         SQLDatabaseMetaData sourceMetaData = sourceConn.getSQLMetaData();
         SQLDatabaseMetaData destMetaData = destConn.getSQLMetaData();
+        String destSchema = DBUtil.getSchemaNameFromDbObject(prov.getDestDatabaseObject());
+
+        ITableInfo destTableInfo =
+            DBUtil.getTableInfo(prov.getDestSession(),
+                                destSchema,
+                                chooseDestTableInfo(sourceTableInfo, pasteToTableInfo).getSimpleName());
+        
+        TableColumnInfo[] sourceInfos = sourceMetaData.getColumnInfo(sourceTableInfo);
+        TableColumnInfo[] destInfos = destMetaData.getColumnInfo(destTableInfo);
+        
+        destInfos = sort(sourceInfos, 
+                         destInfos, 
+                         sourceTableInfo.getQualifiedName(),
+                         destTableInfo.getQualifiedName());
+        
+        String sourceColList = DBUtil.getColumnList(sourceInfos);
+        String destColList = DBUtil.getColumnList(destInfos);
+        
+        TableCopy result = new TableCopy();
+        result.destTableInfo = destTableInfo;
+        result.tableNumber = tableNumber;
+        result.sourceTableCount = sourceTableCount;
+        result.selectSQL = DBUtil.getSelectQuery(prov,
+                                                 sourceColList, 
+                                                 sourceTableInfo);
+        result.insertSQL = DBUtil.getInsertSQL(prov, destColList,
+                                               destTableInfo,
+                                               destInfos.length);
+        
+        int columnCount = destInfos.length;
+
+        boolean isSourceOracle = 
+            DialectFactory.isOracle(sourceSession.getMetaData());
+        boolean isDestOracle = DialectFactory.isOracle(destSession.getMetaData());
+
+        // The column types don't change from record to record, so they
+        // are determined only once per table.
+        result.sourceColTypes = new int[columnCount];
+        result.destColTypes = new int[columnCount];
+        boolean foundLOBType = false;
+        for (int i = 0; i < columnCount; i++) {
+            // If source column is type 1111 (OTHER), try to use the 
+            // column type name to find a type that isn't 1111.
+            result.sourceColTypes[i] = DBUtil.replaceOtherDataType(sourceInfos[i], prov.getSourceSession());
+            result.sourceColTypes[i] = getDateReplacement(result.sourceColTypes[i], 
+                                                          isSourceOracle);
+
+            // If source column is type 1111 (OTHER), try to use the 
+            // column type name to find a type that isn't 1111.
+            result.destColTypes[i] = DBUtil.replaceOtherDataType(destInfos[i], prov.getDestSession());
+            result.destColTypes[i] = getDateReplacement(result.destColTypes[i], isDestOracle);
+
+            if (isLOBType(result.destColTypes[i])) {
+                foundLOBType = true;
+            }
+        }
+
+        // MySQL driver gets unhappy when we use the same 
+        // PreparedStatement to bind null and non-null LOB variables
+        // without clearing the parameters first.
+        result.clearParameters = 
+            foundLOBType && DialectFactory.isMySQL(destSession.getMetaData());
+        return result;
+    }
+
+    /**
+     * Copies the records of a table.
+     * 
+     * @param tableCopy the table to copy, as returned by prepareTableCopy.
+     * @param sourceConn the connection to read the source records with.
+     * @param destConn the connection to insert the records with.
+     * @param workerNumber the number of the worker thread that copies the 
+     *                     table; 0 if tables are not copied in parallel.
+     */
+    private void copyRecords(TableCopy tableCopy, 
+                             ISQLConnection sourceConn, 
+                             ISQLConnection destConn,
+                             int workerNumber)
+        throws SQLException
+    {
+        PreparedStatement insertStmt = null;
+        ResultSet rs = null;
+        if (cancelled) {
+            return;
+        }
         try {
-            String destSchema = DBUtil.getSchemaNameFromDbObject(prov.getDestDatabaseObject());
-
-            ITableInfo destTableInfo =
-                DBUtil.getTableInfo(prov.getDestSession(),
-                                    destSchema,
-                                    chooseDestTableInfo(sourceTableInfo, pasteToTableInfo).getSimpleName());
-            
-            TableColumnInfo[] sourceInfos = sourceMetaData.getColumnInfo(sourceTableInfo);
-            TableColumnInfo[] destInfos = destMetaData.getColumnInfo(destTableInfo);
-            
-            destInfos = sort(sourceInfos, 
-                             destInfos, 
-                             sourceTableInfo.getQualifiedName(),
-                             destTableInfo.getQualifiedName());
-            
-            String sourceColList = DBUtil.getColumnList(sourceInfos);
-            String destColList = DBUtil.getColumnList(destInfos);
-            
-            String selectSQL = DBUtil.getSelectQuery(prov,
-                                                     sourceColList, 
-                                                     sourceTableInfo);
-            String insertSQL = DBUtil.getInsertSQL(prov, destColList,
-                                                   destTableInfo,
-                                                   destInfos.length);
+            String selectSQL = tableCopy.selectSQL;
+            String insertSQL = tableCopy.insertSQL;
+            int sourceTableCount = tableCopy.sourceTableCount;
             insertStmt = destConn.prepareStatement(insertSQL);
-            
-            int count = 1;
-            int commitCount = prefs.getCommitCount(); 
-            int columnCount = destInfos.length;
-            String[] bindVarVals = new String[columnCount];
-                        
-            boolean foundLOBType = false;
+
             // Loop through source records...
             DBUtil.setLastStatement(selectSQL);
-            rs = DBUtil.executeQuery(prov.getSourceSession(), selectSQL);
+            DBUtil.setLastStatementValues(null);
+            rs = DBUtil.executeQuery(prov.getSourceSession(), sourceConn, selectSQL);
             DBUtil.setLastStatement(insertSQL);
-            boolean isMysql = DialectFactory.isMySQL(destSession.getMetaData());
-            boolean isSourceOracle = 
-                DialectFactory.isOracle(sourceSession.getMetaData());
-            boolean isDestOracle = DialectFactory.isOracle(destSession.getMetaData());
+
+            if (prefs.isUseBatchInserts() && destConn.getSQLMetaData().supportsBatchUpdates()) {
+                copyRecordsBatched(rs, insertStmt, destConn, tableCopy, workerNumber);
+                return;
+            }
+
+            int count = 1;
+            int commitCount = prefs.getCommitCount(); 
+            String[] bindVarVals = new String[tableCopy.destColTypes.length];
             while (rs.next() && !cancelled) {
-                // MySQL driver gets unhappy when we use the same 
-                // PreparedStatement to bind null and non-null LOB variables
-                // without clearing the parameters first.
-                if (isMysql && foundLOBType) 
-                {
-                    insertStmt.clearParameters();
-                }
-                StringBuilder lastStmtValuesBuffer = new StringBuilder();
-                lastStmtValuesBuffer.append("\n(Bind variable values: ");
-                for (int i = 0; i < columnCount; i++) {
-
-                    int sourceColType = sourceInfos[i].getDataType();
-                    // If source column is type 1111 (OTHER), try to use the 
-                    // column type name to find a type that isn't 1111.
-                    sourceColType = DBUtil.replaceOtherDataType(sourceInfos[i], prov.getSourceSession());
-                    sourceColType = getDateReplacement(sourceColType, 
-                                                       isSourceOracle);
-                    
-                    int destColType   = destInfos[i].getDataType();
-                    // If source column is type 1111 (OTHER), try to use the 
-                    // column type name to find a type that isn't 1111.
-                    destColType = DBUtil.replaceOtherDataType(destInfos[i], prov.getDestSession());
-                    destColType = getDateReplacement(destColType, isDestOracle);
-                    
-                    
-                    String bindVal = DBUtil.bindVariable(insertStmt,
-                                                         sourceColType,
-                                                         destColType,
-                                                         i+1,
-                                                         rs);
-                    bindVarVals[i] = bindVal;
-                    lastStmtValuesBuffer.append(bindVal);
-                    if (i + 1 < columnCount) {
-                        lastStmtValuesBuffer.append(", ");
-                    }
-                    if (isLOBType(destColType)) {
-                    	foundLOBType = true;
-                    }
-                }                
-                lastStmtValuesBuffer.append(")");
-                DBUtil.setLastStatementValues(lastStmtValuesBuffer.toString());
+                String values = bindRecord(insertStmt, rs, tableCopy.sourceColTypes, 
+                                           tableCopy.destColTypes, bindVarVals, 
+                                           tableCopy.clearParameters);
+                DBUtil.setLastStatementValues(values);
                 sendStatementEvent(insertSQL, bindVarVals);
                 insertStmt.executeUpdate();
-                sendRecordEvent(count, sourceTableCount);
+                sendRecordEvent(count, sourceTableCount, workerNumber);
                 count++;
                 if (!currentAutoCommitValue) {
                     if ((count % commitCount) == 0) {
@@ -650,6 +1022,249 @@ public class CopyExecutor extends I18NBaseObject {
         }
     }
     
+    /**
+     * Binds the values of the current record of the specified ResultSet to 
+     * the specified insert statement.
+     * 
+     * @param insertStmt the statement to bind the values to.
+     * @param rs the source ResultSet positioned on the record to copy.
+     * @param sourceColTypes the JDBC types of the source columns.
+     * @param destColTypes the JDBC types of the destination columns.
+     * @param bindVarVals receives the string representation of each bound value.
+     * @param clearParameters whether or not to clear the parameters of 
+     *        insertStmt before binding.
+     * @return a description of the bound values, as used in error messages.
+     * @throws SQLException
+     */
+    private String bindRecord(PreparedStatement insertStmt, 
+                              ResultSet rs,
+                              int[] sourceColTypes, 
+                              int[] destColTypes,
+                              String[] bindVarVals,
+                              boolean clearParameters) 
+        throws SQLException
+    {
+        if (clearParameters) {
+            insertStmt.clearParameters();
+        }
+        int columnCount = sourceColTypes.length;
+        StringBuilder lastStmtValuesBuffer = new StringBuilder();
+        lastStmtValuesBuffer.append("\n(Bind variable values: ");
+        for (int i = 0; i < columnCount; i++) {
+            String bindVal = DBUtil.bindVariable(insertStmt,
+                                                 sourceColTypes[i],
+                                                 destColTypes[i],
+                                                 i+1,
+                                                 rs);
+            bindVarVals[i] = bindVal;
+            lastStmtValuesBuffer.append(bindVal);
+            if (i + 1 < columnCount) {
+                lastStmtValuesBuffer.append(", ");
+            }
+        }
+        lastStmtValuesBuffer.append(")");
+        return lastStmtValuesBuffer.toString();
+    }
+
+    /**
+     * Copies the records of the specified ResultSet using JDBC batches of 
+     * prefs.getBatchSize() records.  The calling thread reads and binds the 
+     * source records, while a second thread executes the previous batch on the 
+     * destination connection.  Both threads are connected by a bounded queue, 
+     * so no more than BATCH_QUEUE_CAPACITY batches are held in memory.
+     * 
+     * @throws SQLException if reading a source record or inserting a batch 
+     *         failed.
+     */
+    private void copyRecordsBatched(ResultSet rs, 
+                                    PreparedStatement insertStmt,
+                                    ISQLConnection destConn,
+                                    TableCopy tableCopy,
+                                    int workerNumber) 
+        throws SQLException
+    {
+        int batchSize = Math.max(1, prefs.getBatchSize());
+        BatchInsertWriter writer = 
+            new BatchInsertWriter(insertStmt, destConn, tableCopy.sourceTableCount, 
+                                  workerNumber);
+        Thread writerThread = new Thread(writer);
+        writerThread.setName("DBCopy Batch Writer Thread");
+        writerThread.start();
+        
+        try {
+            String[] bindVarVals = new String[tableCopy.sourceColTypes.length];
+            List<RecordingPreparedStatement> batch = 
+                new ArrayList<RecordingPreparedStatement>(batchSize);
+            while (!cancelled && !writer.hasFailed() && rs.next()) {
+                RecordingPreparedStatement record = new RecordingPreparedStatement();
+                String values = bindRecord(record.getPreparedStatement(), rs, 
+                                           tableCopy.sourceColTypes, tableCopy.destColTypes, 
+                                           bindVarVals, tableCopy.clearParameters);
+                record.setValues(values);
+                batch.add(record);
+                sendStatementEvent(tableCopy.insertSQL, bindVarVals);
+                if (batch.size() == batchSize) {
+                    writer.put(batch, writerThread);
+                    batch = new ArrayList<RecordingPreparedStatement>(batchSize);
+                }
+                sleep(prefs.getRecordDelayMillis());
+            }
+            if (!batch.isEmpty()) {
+                writer.put(batch, writerThread);
+            }
+        } finally {
+            writer.put(END_OF_RECORDS, writerThread);
+            while (writerThread.isAlive()) {
+                try {
+                    writerThread.join();
+                } catch (InterruptedException e) {
+                    // cancel() interrupts us. The writer stops after its 
+                    // current batch, so keep waiting for it.
+                }
+            }
+        }
+        if (writer.hasFailed()) {
+            DBUtil.setLastStatementValues(writer.getFailedValues());
+        }
+        writer.throwFailure();
+    }
+
+    /**
+     * Executes the batches of records read by copyRecordsBatched on the 
+     * destination connection. 
+     */
+    private class BatchInsertWriter implements Runnable {
+
+        private final BlockingQueue<List<RecordingPreparedStatement>> queue = 
+            new ArrayBlockingQueue<List<RecordingPreparedStatement>>(BATCH_QUEUE_CAPACITY);
+
+        private final PreparedStatement insertStmt;
+
+        private final ISQLConnection destConn;
+
+        private final int sourceTableCount;
+
+        private final int workerNumber;
+
+        private volatile Throwable failure = null;
+
+        /** the bind variable values of the record that failed, if known */
+        private String failedValues = null;
+
+        BatchInsertWriter(PreparedStatement insertStmt, 
+                          ISQLConnection destConn,
+                          int sourceTableCount,
+                          int workerNumber)
+        {
+            this.insertStmt = insertStmt;
+            this.destConn = destConn;
+            this.sourceTableCount = sourceTableCount;
+            this.workerNumber = workerNumber;
+        }
+
+        /**
+         * Hands the specified batch over to the writer.  Blocks while the queue
+         * is full, unless the writer thread has terminated.
+         */
+        void put(List<RecordingPreparedStatement> batch, Thread writerThread) {
+            try {
+                while (writerThread.isAlive()) {
+                    if (queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                // cancel() interrupts the reading thread. The writer checks 
+                // the cancelled flag, so there is nothing else to do.
+            }
+        }
+
+        boolean hasFailed() {
+            return null != failure;
+        }
+
+        String getFailedValues() {
+            return failedValues;
+        }
+
+        void throwFailure() throws SQLException {
+            if (null == failure) {
+                return;
+            }
+            if (failure instanceof SQLException) {
+                throw (SQLException) failure;
+            }
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            }
+            throw new SQLException(failure);
+        }
+
+        public void run() {
+            int count = 0;
+            int uncommittedCount = 0;
+            int commitCount = prefs.getCommitCount();
+            try {
+                while (!cancelled) {
+                    List<RecordingPreparedStatement> batch = 
+                        queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (null == batch) {
+                        continue;
+                    }
+                    if (END_OF_RECORDS == batch) {
+                        break;
+                    }
+                    executeBatch(batch);
+                    for (int i = 0; i < batch.size(); i++) {
+                        count++;
+                        sendRecordEvent(count, sourceTableCount, workerNumber);
+                    }
+                    if (!currentAutoCommitValue) {
+                        uncommittedCount += batch.size();
+                        if (uncommittedCount >= commitCount) {
+                            commitConnection(destConn);
+                            uncommittedCount = 0;
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                // Nobody interrupts this thread; stop anyway.
+            } catch (Throwable t) {
+                failure = t;
+            }
+        }
+
+        private void executeBatch(List<RecordingPreparedStatement> batch) 
+            throws SQLException 
+        {
+            for (RecordingPreparedStatement record : batch) {
+                record.replay(insertStmt);
+                insertStmt.addBatch();
+            }
+            try {
+                insertStmt.executeBatch();
+            } catch (BatchUpdateException e) {
+                // Drivers that stop at the first failing record return the 
+                // update counts of the records before it.
+                int[] updateCounts = e.getUpdateCounts();
+                int failedIndex = 0;
+                if (null != updateCounts) {
+                    failedIndex = updateCounts.length;
+                    for (int i = 0; i < updateCounts.length; i++) {
+                        if (updateCounts[i] == Statement.EXECUTE_FAILED) {
+                            failedIndex = i;
+                            break;
+                        }
+                    }
+                }
+                if (failedIndex < batch.size()) {
+                    failedValues = batch.get(failedIndex).getValues();
+                }
+                throw e;
+            }
+        }
+    }
+
     /**
      * This will return a TIMESTAMP type when the specified type is a DATE and 
      * isOracle is true.  This is done so that Oracle dates that have a time 
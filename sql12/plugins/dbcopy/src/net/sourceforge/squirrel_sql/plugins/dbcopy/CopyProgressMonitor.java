@@ -22,6 +22,7 @@ import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.swing.Icon;
 import javax.swing.JFrame;
@@ -47,7 +48,6 @@ import net.sourceforge.squirrel_sql.plugins.dbcopy.event.StatementEvent;
 import net.sourceforge.squirrel_sql.plugins.dbcopy.event.TableEvent;
 import net.sourceforge.squirrel_sql.plugins.dbcopy.gui.DualProgressBarDialog;
 import net.sourceforge.squirrel_sql.plugins.dbcopy.prefs.PreferencesManager;
-import net.sourceforge.squirrel_sql.plugins.dbcopy.util.DBUtil;
 
 /**
  * A description of this class goes here...
@@ -74,6 +74,15 @@ public class CopyProgressMonitor extends I18NBaseObject
     
     private ProgressMonitor pm = null;
     
+    /** the number of threads that copy tables concurrently */
+    private volatile int workerCount = 1;
+    
+    /** the name of the table that each worker thread copies */
+    private volatile String[] workerTableNames = new String[1];
+    
+    /** how many tables were copied, when copying in parallel */
+    private final AtomicInteger tablesCopied = new AtomicInteger();
+    
     private static CommentSpec[] commentSpecs =
         new CommentSpec[]
         {
@@ -108,6 +117,9 @@ public class CopyProgressMonitor extends I18NBaseObject
              prov = e.getSessionInfoProvider();
              int numTables = prov.getSourceDatabaseObjects().size();
              int[] tableCounts = e.getTableCounts();
+             workerCount = e.getWorkerCount();
+             workerTableNames = new String[workerCount];
+             tablesCopied.set(0);
 
              createProgressDialog();
              DualProgressBarDialog.setBottomBarMinMax(0, numTables);
@@ -129,19 +141,33 @@ public class CopyProgressMonitor extends I18NBaseObject
                                            new String[] {e.getTableName(),
                                                       ""+e.getTableNumber(),
                                                       ""+e.getTableCount()});
-        DualProgressBarDialog.setBottomMessage(bottomMessage);
+        if (workerCount > 1) {
+            workerTableNames[e.getWorkerNumber()] = e.getTableName();
+            DualProgressBarDialog.setTopMessage(e.getWorkerNumber(), bottomMessage);
+        } else {
+            DualProgressBarDialog.setBottomMessage(bottomMessage);
+        }
     }
 
     /* (non-Javadoc)
      * @see net.sourceforge.squirrel_sql.plugins.dbcopy.event.CopyTableListener#recordCopied(net.sourceforge.squirrel_sql.plugins.dbcopy.event.RecordEvent)
      */
     public void recordCopied(RecordEvent e) {
-        DualProgressBarDialog.setTopBarMinMax(0, e.getRecordCount());
-        String topMessage = getMessage("CopyProgressMonitor.copyingRecords",
-                                       new String[]{""+e.getRecordNumber(), 
-                                                    ""+e.getRecordCount()});
-        DualProgressBarDialog.setTopMessage(topMessage);
-        DualProgressBarDialog.incrementTopBar(1);
+        int worker = e.getWorkerNumber();
+        DualProgressBarDialog.setTopBarMinMax(worker, 0, e.getRecordCount());
+        String topMessage = null;
+        if (workerCount > 1) {
+            topMessage = getMessage("CopyProgressMonitor.workerCopyingRecords",
+                                    new String[]{workerTableNames[worker],
+                                                 ""+e.getRecordNumber(), 
+                                                 ""+e.getRecordCount()});
+        } else {
+            topMessage = getMessage("CopyProgressMonitor.copyingRecords",
+                                    new String[]{""+e.getRecordNumber(), 
+                                                 ""+e.getRecordCount()});
+        }
+        DualProgressBarDialog.setTopMessage(worker, topMessage);
+        DualProgressBarDialog.incrementTopBar(worker, 1);
     }
 
     /* (non-Javadoc)
@@ -155,8 +181,15 @@ public class CopyProgressMonitor extends I18NBaseObject
      * @see net.sourceforge.squirrel_sql.plugins.dbcopy.event.CopyTableListener#tableCopyFinished(net.sourceforge.squirrel_sql.plugins.dbcopy.event.TableEvent)
      */
     public void tableCopyFinished(TableEvent e) {
-        DualProgressBarDialog.setTopBarValue(0);
+        DualProgressBarDialog.setTopBarValue(e.getWorkerNumber(), 0);
         DualProgressBarDialog.incrementBottomBar(1);
+        if (workerCount > 1) {
+            String bottomMessage = 
+                getMessage("CopyProgressMonitor.tablesCopied",
+                           new String[] {""+tablesCopied.incrementAndGet(),
+                                         ""+e.getTableCount()});
+            DualProgressBarDialog.setBottomMessage(bottomMessage);
+        }
     }
     
     /* (non-Javadoc)
@@ -234,8 +267,8 @@ public class CopyProgressMonitor extends I18NBaseObject
         }
         if (e.getType() == ErrorEvent.SQL_EXCEPTION_TYPE) {
             String exMessage = wordWrap(e.getException().getMessage(), 80);
-            String sql = formatter.reformat(DBUtil.getLastStatement());
-            String values = DBUtil.getLastStatementValues();
+            String sql = formatter.reformat(e.getStatement());
+            String values = e.getStatementValues();
             String sqlAndValues = sql;
             if (values != null) {
                 sqlAndValues += values;
@@ -328,7 +361,8 @@ public class CopyProgressMonitor extends I18NBaseObject
         DualProgressBarDialog.getDialog(parent,
                                         getMessage("CopyProgressMonitor.copyProgressDialogTitle"), 
                                         false, 
-                                        listener);
+                                        listener,
+                                        workerCount);
         DualProgressBarDialog.startTimer();
     }
 
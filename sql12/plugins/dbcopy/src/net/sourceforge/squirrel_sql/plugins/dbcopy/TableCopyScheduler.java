@@ -0,0 +1,106 @@
+/*
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+package net.sourceforge.squirrel_sql.plugins.dbcopy;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hands out the tables of a parallel copy to the worker threads.  A table is
+ * only handed out after all of the tables it depends on (the parent tables of
+ * its foreign keys) have been copied.  Tables are handed out in the order in
+ * which they were added, so when that order is the insertion order, every
+ * worker is busy with the table that the serial copy would have copied next.
+ *
+ * @param <T> the type of the copy tasks.
+ */
+class TableCopyScheduler<T> {
+
+    /** the tasks that have not been handed out yet, in the order added */
+    private final List<T> pending = new ArrayList<T>();
+
+    /** the tasks that each pending task waits for */
+    private final Map<T, Set<T>> dependencies = new IdentityHashMap<T, Set<T>>();
+
+    /** whether or not to stop handing out tasks */
+    private boolean aborted = false;
+
+    /**
+     * Adds a task.  Dependencies on tasks that have not been added before are
+     * ignored, which makes cycles impossible.
+     *
+     * @param task the task to add.
+     * @param dependsOn the tasks that must be finished before task is handed
+     *                  out.
+     */
+    public synchronized void add(T task, Collection<T> dependsOn) {
+        Set<T> waitFor = new HashSet<T>();
+        for (T dependency : dependsOn) {
+            if (dependency != task && dependencies.containsKey(dependency)) {
+                waitFor.add(dependency);
+            }
+        }
+        pending.add(task);
+        dependencies.put(task, waitFor);
+    }
+
+    /**
+     * Returns the next task whose dependencies are all finished.  Blocks while
+     * there are pending tasks, but none of them can be started yet.
+     *
+     * @return the next task or null if all tasks are handed out or the
+     *         scheduler was aborted.
+     * @throws InterruptedException
+     */
+    public synchronized T next() throws InterruptedException {
+        while (!aborted && !pending.isEmpty()) {
+            for (T task : pending) {
+                if (dependencies.get(task).isEmpty()) {
+                    pending.remove(task);
+                    return task;
+                }
+            }
+            wait();
+        }
+        return null;
+    }
+
+    /**
+     * Marks the specified task as finished, which may allow the tasks that
+     * depend on it to be handed out.
+     *
+     * @param task the finished task.
+     */
+    public synchronized void finished(T task) {
+        for (Set<T> waitFor : dependencies.values()) {
+            waitFor.remove(task);
+        }
+        notifyAll();
+    }
+
+    /**
+     * Stops handing out tasks.  Threads that wait in next() return null.
+     */
+    public synchronized void abort() {
+        aborted = true;
+        notifyAll();
+    }
+}
@@ -24,6 +24,9 @@ public class CopyEvent extends AbstractCopyEvent {
 
     int[] tableCounts;
     
+    /** the number of threads that copy table records concurrently */
+    int workerCount = 1;
+    
     public CopyEvent(SessionInfoProvider prov) {
         super(prov);
     }
@@ -36,4 +39,18 @@ public class CopyEvent extends AbstractCopyEvent {
         return tableCounts;
     }
     
+    /**
+     * @param workerCount The workerCount to set.
+     */
+    public void setWorkerCount(int workerCount) {
+        this.workerCount = workerCount;
+    }
+    
+    /**
+     * @return Returns the workerCount.
+     */
+    public int getWorkerCount() {
+        return workerCount;
+    }
+    
 }
@@ -38,6 +38,10 @@ public class ErrorEvent extends AbstractCopyEvent {
     
     private Exception exception = null;
     
+    private String statement = null;
+    
+    private String statementValues = null;
+    
     public ErrorEvent(SessionInfoProvider provider, int aType) {
         super(provider);
         type = aType;
@@ -70,5 +74,33 @@ public class ErrorEvent extends AbstractCopyEvent {
     public Exception getException() {
         return exception;
     }
+
+    /**
+     * @param statement The last statement executed by the thread that failed.
+     */
+    public void setStatement(String statement) {
+        this.statement = statement;
+    }
+
+    /**
+     * @return Returns the last statement executed by the thread that failed.
+     */
+    public String getStatement() {
+        return statement;
+    }
+
+    /**
+     * @param statementValues The bind variable values of the statement.
+     */
+    public void setStatementValues(String statementValues) {
+        this.statementValues = statementValues;
+    }
+
+    /**
+     * @return Returns the bind variable values of the statement.
+     */
+    public String getStatementValues() {
+        return statementValues;
+    }
     
 }
@@ -35,6 +35,12 @@ public class RecordEvent extends AbstractCopyEvent {
      * belongs to
      */ 
     private int recordCount;
+    
+    /** 
+     * the number of the worker that copied the record.  This is always 0, 
+     * unless tables are copied in parallel.
+     */
+    private int workerNumber;
        
     /**
      * 
@@ -75,6 +81,20 @@ public class RecordEvent extends AbstractCopyEvent {
         return recordCount;
     }
     
+    /**
+     * @param workerNumber The workerNumber to set.
+     */
+    public void setWorkerNumber(int workerNumber) {
+        this.workerNumber = workerNumber;
+    }
+
+    /**
+     * @return Returns the workerNumber.
+     */
+    public int getWorkerNumber() {
+        return workerNumber;
+    }
+    
     /**
     * @see java.lang.Object#toString()
     */
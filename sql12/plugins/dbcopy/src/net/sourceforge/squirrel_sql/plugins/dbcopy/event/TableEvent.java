@@ -35,6 +35,12 @@ public class TableEvent extends AbstractCopyEvent {
     /** the name of the table to be copied */
     private String tableName;
     
+    /** 
+     * the number of the worker that copies the table.  This is always 0, 
+     * unless tables are copied in parallel.
+     */
+    private int workerNumber;
+    
     public TableEvent(SessionInfoProvider provider) {
         super(provider);
     }
@@ -80,6 +86,20 @@ public class TableEvent extends AbstractCopyEvent {
     public String getTableName() {
         return tableName;
     }
+
+    /**
+     * @param workerNumber The workerNumber to set.
+     */
+    public void setWorkerNumber(int workerNumber) {
+        this.workerNumber = workerNumber;
+    }
+
+    /**
+     * @return Returns the workerNumber.
+     */
+    public int getWorkerNumber() {
+        return workerNumber;
+    }
     
     
 }
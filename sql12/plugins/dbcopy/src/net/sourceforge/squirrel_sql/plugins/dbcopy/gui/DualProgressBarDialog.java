@@ -49,8 +49,9 @@ import net.sourceforge.squirrel_sql.fw.util.log.LoggerController;
 
 public class DualProgressBarDialog {
 
-    private static JProgressBar topBar = null;
-    private static JLabel topMessage = null;
+    /** one top bar and message per worker thread of the copy */
+    private static JProgressBar[] topBars = null;
+    private static JLabel[] topMessages = null;
     private static JProgressBar bottomBar = null;
     private static JLabel bottomMessage = null;
     private static JButton cancelButton = null;
@@ -76,13 +77,25 @@ public class DualProgressBarDialog {
                                     final String title,
                                     final boolean modal,
                                     final ActionListener listener) {
+        return getDialog(owner, title, modal, listener, 1);
+    }
+    
+    /**
+     * Shows a dialog with one top bar for each worker that copies records, 
+     * and one bottom bar for the tables.
+     */
+    public static JDialog getDialog(final Frame owner, 
+                                    final String title,
+                                    final boolean modal,
+                                    final ActionListener listener,
+                                    final int workerCount) {
         if (SwingUtilities.isEventDispatchThread()) {
-            _getDialog(owner, title, modal, listener);
+            _getDialog(owner, title, modal, listener, workerCount);
         } else {
             try {
                 SwingUtilities.invokeAndWait(new Runnable() {
                     public void run() {
-                        _getDialog(owner, title, modal, listener);
+                        _getDialog(owner, title, modal, listener, workerCount);
                     }
                 });
             } catch (Exception e) {
@@ -117,13 +130,14 @@ public class DualProgressBarDialog {
     private static void _getDialog(Frame owner, 
                                    String title,
                                    boolean modal,
-                                   ActionListener listener) 
+                                   ActionListener listener,
+                                   int workerCount) 
     {
         dialog = new JDialog(owner, title, modal);
         dialog.getContentPane().setLayout(new BorderLayout());
-        dialog.getContentPane().add(buildPanel(), BorderLayout.CENTER);
+        dialog.getContentPane().add(buildPanel(workerCount), BorderLayout.CENTER);
         dialog.getContentPane().add(buildButtonPanel(listener), BorderLayout.SOUTH);
-        dialog.setSize(350,205);
+        dialog.setSize(350,205 + 40 * (workerCount - 1));
         dialog.setLocationRelativeTo(owner);
         cancelButton.addActionListener(new CancelButtonListener(dialog));
         dialog.setVisible(true);
@@ -132,39 +146,43 @@ public class DualProgressBarDialog {
     /**
      * @return
      */
-    private static JPanel buildPanel() {
+    private static JPanel buildPanel(int workerCount) {
         JPanel dataPanel = new JPanel();
         dataPanel.setBorder(BorderFactory.createEmptyBorder(0, 10, 0, 10));
         GridBagLayout gl = new GridBagLayout();
         dataPanel.setLayout(gl);
         GridBagConstraints c;
         
-        c = new GridBagConstraints();
-        c.gridx = 0;
-        c.gridy = 0;
-        c.fill = GridBagConstraints.HORIZONTAL;
-        c.anchor = GridBagConstraints.WEST;
-        // i18n[DualProgressBarDialog.copyingRecordsLabel=Copying records]
-        String topLabelText =
-            s_stringMgr.getString("DualProgressBarDialog.copyingRecordsLabel");
-        topMessage = 
-            new JLabel(topLabelText);
-        dataPanel.add(topMessage, c);
-        
-        c = new GridBagConstraints();
-        c.gridx = 0;
-        c.gridy = 1;
-        c.anchor = GridBagConstraints.WEST;
-        c.fill = GridBagConstraints.HORIZONTAL;
-        c.insets = new Insets(0,0,10,0);
-        c.weightx = 1.0;
-        topBar = new JProgressBar(0,10);
-        dataPanel.add(topBar, c);
+        topBars = new JProgressBar[workerCount];
+        topMessages = new JLabel[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            c = new GridBagConstraints();
+            c.gridx = 0;
+            c.gridy = 2 * i;
+            c.fill = GridBagConstraints.HORIZONTAL;
+            c.anchor = GridBagConstraints.WEST;
+            // i18n[DualProgressBarDialog.copyingRecordsLabel=Copying records]
+            String topLabelText =
+                s_stringMgr.getString("DualProgressBarDialog.copyingRecordsLabel");
+            topMessages[i] = 
+                new JLabel(topLabelText);
+            dataPanel.add(topMessages[i], c);
+            
+            c = new GridBagConstraints();
+            c.gridx = 0;
+            c.gridy = 2 * i + 1;
+            c.anchor = GridBagConstraints.WEST;
+            c.fill = GridBagConstraints.HORIZONTAL;
+            c.insets = new Insets(0,0,10,0);
+            c.weightx = 1.0;
+            topBars[i] = new JProgressBar(0,10);
+            dataPanel.add(topBars[i], c);
+        }
         
         
         c = new GridBagConstraints();
         c.gridx = 0;
-        c.gridy = 2;
+        c.gridy = 2 * workerCount;
         c.fill = GridBagConstraints.HORIZONTAL;
         c.anchor = GridBagConstraints.WEST;
         //i18n[DualProgressBarDialog.copyingTablesLabel=Copying table]
@@ -175,7 +193,7 @@ public class DualProgressBarDialog {
         
         c = new GridBagConstraints();
         c.gridx = 0;
-        c.gridy = 3;
+        c.gridy = 2 * workerCount + 1;
         c.anchor = GridBagConstraints.WEST;
         c.fill = GridBagConstraints.HORIZONTAL;
         c.insets = new Insets(0,0,10,0);
@@ -184,7 +202,7 @@ public class DualProgressBarDialog {
         
         c = new GridBagConstraints();
         c.gridx = 0;
-        c.gridy = 4;
+        c.gridy = 2 * workerCount + 2;
         c.ipadx = 5;
         c.anchor = GridBagConstraints.CENTER;
         c.fill = GridBagConstraints.HORIZONTAL;
@@ -227,6 +245,11 @@ public class DualProgressBarDialog {
     }
         
     public static void setTopMessage(final String message) {
+        setTopMessage(0, message);
+    }
+    
+    public static void setTopMessage(int worker, final String message) {
+        final JLabel topMessage = topMessages[worker];
         if (SwingUtilities.isEventDispatchThread()) {
             topMessage.setText(message);            
         } else {
@@ -251,6 +274,11 @@ public class DualProgressBarDialog {
     }
 
     public static void setTopBarMinMax(final int min, final int max) {
+        setTopBarMinMax(0, min, max);
+    }
+    
+    public static void setTopBarMinMax(int worker, final int min, final int max) {
+        final JProgressBar topBar = topBars[worker];
         if (topBar.getMinimum() == min 
                 && topBar.getMaximum() == max) 
         {
@@ -289,6 +317,11 @@ public class DualProgressBarDialog {
     }
     
     public static void setTopBarValue(final int value) {
+        setTopBarValue(0, value);
+    }
+
+    public static void setTopBarValue(int worker, final int value) {
+        final JProgressBar topBar = topBars[worker];
         if (SwingUtilities.isEventDispatchThread()) {
             topBar.setValue(value);            
         } else {
@@ -319,6 +352,11 @@ public class DualProgressBarDialog {
     }
     
     public static void incrementTopBar(final int value) {
+        incrementTopBar(0, value);
+    }
+    
+    public static void incrementTopBar(int worker, final int value) {
+        final JProgressBar topBar = topBars[worker];
         final int newValue = topBar.getValue() + value;
         remainingCalc.incrementCurrentItem();
         GUIUtils.processOnSwingEventThread(new Runnable() {
@@ -527,7 +565,7 @@ public class DualProgressBarDialog {
         private long secondsElapsed = 0;
         private long secondsRemaining = 0;
         
-        public void incrementCurrentItem() {
+        public synchronized void incrementCurrentItem() {
             if (currentItem < totalItems) {
                 currentItem++;
             } 
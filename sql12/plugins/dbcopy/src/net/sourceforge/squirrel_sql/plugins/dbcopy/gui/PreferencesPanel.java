@@ -61,6 +61,16 @@ public class PreferencesPanel extends JPanel  {
     
     JTextField commitRecordCountTextField = null;
     
+    JCheckBox useBatchInsertsCheckBox = null;
+    
+    JLabel batchSizeLabel = null;
+    
+    JTextField batchSizeTextField = null;
+    
+    JLabel parallelCopyThreadsLabel = null;
+    
+    JTextField parallelCopyThreadsTextField = null;
+    
     JCheckBox saveScriptCheckBox = null;
     
     JCheckBox copyTableRecords = null;
@@ -160,16 +170,24 @@ public class PreferencesPanel extends JPanel  {
         addRecordCountLabel(result, 0, 11);
         addCommitRecordCountTextField(result, 1, 11);
         
-        addDelayCheckBox(result, 0, 12);
+        addUseBatchInsertsCheckBox(result, 0, 12);
+        
+        addBatchSizeLabel(result, 0, 13);
+        addBatchSizeTextField(result, 1, 13);
+        
+        addParallelCopyThreadsLabel(result, 0, 14);
+        addParallelCopyThreadsTextField(result, 1, 14);
+        
+        addDelayCheckBox(result, 0, 15);
         
-        addDelayTablesLabel(result, 0, 13);
-        addDelayTablesTextField(result, 1, 13);
+        addDelayTablesLabel(result, 0, 16);
+        addDelayTablesTextField(result, 1, 16);
 
-        addDelayRecordsLabel(result, 0, 14);
-        addDelayRecordsTextField(result, 1, 14);        
+        addDelayRecordsLabel(result, 0, 17);
+        addDelayRecordsTextField(result, 1, 17);        
         
-        addWriteScriptCheckBox(result, 0, 15);
-        addAppendRecordsToExistingCheckBox(result, 0, 16);
+        addWriteScriptCheckBox(result, 0, 18);
+        addAppendRecordsToExistingCheckBox(result, 0, 19);
 
         return result;
     }    
@@ -476,6 +494,89 @@ public class PreferencesPanel extends JPanel  {
         panel.add(commitRecordCountTextField, c);                
     }
     
+    private void addUseBatchInsertsCheckBox(JPanel panel, int col, int row) {
+        GridBagConstraints c = new GridBagConstraints();
+        c.gridx = col;
+        c.gridy = row;
+        c.gridwidth = 2;   // Span across two columns
+        c.insets = new Insets(10,0,0,0);
+        c.anchor = GridBagConstraints.WEST;
+        String cbLabelStr = 
+            s_stringMgr.getString("PreferencesPanel.useBatchInsertsLabel");
+        String cbToolTipText = 
+            s_stringMgr.getString("PreferencesPanel.useBatchInsertsToolTip");
+        useBatchInsertsCheckBox = new JCheckBox(cbLabelStr);
+        useBatchInsertsCheckBox.setToolTipText(cbToolTipText);
+        useBatchInsertsCheckBox.addActionListener(new ActionListener() {
+            public void actionPerformed(ActionEvent e) {
+                batchSizeLabel.setEnabled(useBatchInsertsCheckBox.isSelected());
+                batchSizeTextField.setEnabled(useBatchInsertsCheckBox.isSelected());
+            }
+        });
+        panel.add(useBatchInsertsCheckBox, c);
+    }
+    
+    private void addBatchSizeLabel(JPanel panel, int col, int row) {
+        GridBagConstraints c = new GridBagConstraints();
+        c.gridx = col;
+        c.gridy = row;  
+        c.insets = new Insets(5,25,0,0);
+        String labelStr = 
+            s_stringMgr.getString("PreferencesPanel.batchSizeLabel");
+        batchSizeLabel = new JLabel(labelStr);
+        batchSizeLabel.setHorizontalAlignment(JLabel.RIGHT);
+        String toolTipText = 
+            s_stringMgr.getString("PreferencesPanel.batchSizeToolTip");
+        batchSizeLabel.setToolTipText(toolTipText);
+        panel.add(batchSizeLabel, c);                
+    }
+    
+    private void addBatchSizeTextField(JPanel panel, int col, int row) {
+        GridBagConstraints c = new GridBagConstraints();
+        c.gridx = col;
+        c.gridy = row;  
+        c.ipadx = 40;      // Increases component width by 20 pixels
+        c.insets = new Insets(5,5,0,0);
+        c.anchor = GridBagConstraints.WEST;
+        batchSizeTextField = new JTextField(10);
+        batchSizeTextField.setHorizontalAlignment(JTextField.RIGHT);
+        String toolTipText = 
+            s_stringMgr.getString("PreferencesPanel.batchSizeToolTip");
+        batchSizeTextField.setToolTipText(toolTipText);
+        panel.add(batchSizeTextField, c);                
+    }
+    
+    private void addParallelCopyThreadsLabel(JPanel panel, int col, int row) {
+        GridBagConstraints c = new GridBagConstraints();
+        c.gridx = col;
+        c.gridy = row;  
+        c.insets = new Insets(10,0,0,0);
+        c.anchor = GridBagConstraints.WEST;
+        String labelStr = 
+            s_stringMgr.getString("PreferencesPanel.parallelCopyThreadsLabel");
+        parallelCopyThreadsLabel = new JLabel(labelStr);
+        parallelCopyThreadsLabel.setHorizontalAlignment(JLabel.LEFT);
+        String toolTipText = 
+            s_stringMgr.getString("PreferencesPanel.parallelCopyThreadsToolTip");
+        parallelCopyThreadsLabel.setToolTipText(toolTipText);
+        panel.add(parallelCopyThreadsLabel, c);                
+    }
+    
+    private void addParallelCopyThreadsTextField(JPanel panel, int col, int row) {
+        GridBagConstraints c = new GridBagConstraints();
+        c.gridx = col;
+        c.gridy = row;  
+        c.ipadx = 40;      // Increases component width by 20 pixels
+        c.insets = new Insets(10,5,0,0);
+        c.anchor = GridBagConstraints.WEST;
+        parallelCopyThreadsTextField = new JTextField(10);
+        parallelCopyThreadsTextField.setHorizontalAlignment(JTextField.RIGHT);
+        String toolTipText = 
+            s_stringMgr.getString("PreferencesPanel.parallelCopyThreadsToolTip");
+        parallelCopyThreadsTextField.setToolTipText(toolTipText);
+        panel.add(parallelCopyThreadsTextField, c);                
+    }
+    
     private void addDelayCheckBox(JPanel panel, int col, int row) {
         GridBagConstraints c = new GridBagConstraints();
         c.gridx = col;
@@ -640,6 +741,11 @@ public class PreferencesPanel extends JPanel  {
             commitRecordCountTextField.setEnabled(true);     
             commitAfterCreateTableCheckBox.setEnabled(true);
         }
+        useBatchInsertsCheckBox.setSelected(_prefs.isUseBatchInserts());
+        batchSizeTextField.setText(""+_prefs.getBatchSize());
+        batchSizeLabel.setEnabled(_prefs.isUseBatchInserts());
+        batchSizeTextField.setEnabled(_prefs.isUseBatchInserts());
+        parallelCopyThreadsTextField.setText(""+_prefs.getParallelCopyThreads());
         truncateCheckBox.setSelected(_prefs.isUseTruncate());
         copyTableRecords.setSelected(_prefs.isCopyData());
         selectFetchSizeLabel.setEnabled(_prefs.isCopyData());
@@ -680,6 +786,7 @@ public class PreferencesPanel extends JPanel  {
         _prefs.setCheckKeywords(checkKeywordsCheckBox.isSelected());
         _prefs.setTestColumnNames(testColumnNamesCheckBox.isSelected());
         _prefs.setDelayBetweenObjects(delayBetweenObjects.isSelected());
+        _prefs.setUseBatchInserts(useBatchInsertsCheckBox.isSelected());
         try {
             String value = bufferSizeTextField.getText();
             _prefs.setFileCacheBufferSize(Integer.parseInt(value));
@@ -692,6 +799,18 @@ public class PreferencesPanel extends JPanel  {
         } catch (Exception e) {
             // Do nothing.
         }        
+        try {
+            String value = batchSizeTextField.getText();
+            _prefs.setBatchSize(Integer.parseInt(value));
+        } catch (Exception e) {
+            // Do nothing.
+        }
+        try {
+            String value = parallelCopyThreadsTextField.getText();
+            _prefs.setParallelCopyThreads(Math.max(1, Integer.parseInt(value)));
+        } catch (Exception e) {
+            // Do nothing.
+        }
         try {
             String value = selectFetchSizeTextField.getText();
             _prefs.setSelectFetchSize(Integer.parseInt(value));
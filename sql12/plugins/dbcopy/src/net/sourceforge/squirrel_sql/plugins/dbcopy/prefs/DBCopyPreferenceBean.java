@@ -47,6 +47,15 @@ public class DBCopyPreferenceBean implements Cloneable,
     /** How many statements to issue before committing when auto-commit is off */
     private int commitCount = 100;
     
+    /** whether or not to insert records using JDBC batches */
+    private boolean useBatchInserts = false;
+    
+    /** How many records to insert per JDBC batch */
+    private int batchSize = 500;
+    
+    /** How many tables to copy at the same time, each with its own connections */
+    private int parallelCopyThreads = 1;
+    
     /** whether or not to write each SQL executed to a script file */
     private boolean writeScript = false;
     
@@ -218,6 +227,48 @@ public class DBCopyPreferenceBean implements Cloneable,
         return commitCount;
     }
 
+    /**
+     * @param useBatchInserts The useBatchInserts to set.
+     */
+    public void setUseBatchInserts(boolean useBatchInserts) {
+        this.useBatchInserts = useBatchInserts;
+    }
+
+    /**
+     * @return Returns the useBatchInserts.
+     */
+    public boolean isUseBatchInserts() {
+        return useBatchInserts;
+    }
+
+    /**
+     * @param batchSize The batchSize to set.
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @return Returns the batchSize.
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * @param parallelCopyThreads The parallelCopyThreads to set.
+     */
+    public void setParallelCopyThreads(int parallelCopyThreads) {
+        this.parallelCopyThreads = parallelCopyThreads;
+    }
+
+    /**
+     * @return Returns the parallelCopyThreads.
+     */
+    public int getParallelCopyThreads() {
+        return parallelCopyThreads;
+    }
+
     /**
      * @param writeScript The writeScript to set.
      */
@@ -80,10 +80,13 @@ public class DBUtil extends I18NBaseObject
 	/** The name of the table to create when testing column names in dest db */
 	private static final String TEST_TABLE_NAME = "dbcopytest";
 
-	/** The last statement executed that we'll show to the user if error */
-	private static String lastStatement = null;
+	/**
+	 * The last statement executed by the current thread that we'll show to the user if error. Each copy worker
+	 * thread has its own.
+	 */
+	private static final ThreadLocal<String> lastStatement = new ThreadLocal<String>();
 
-	private static String lastStatementValues = null;
+	private static final ThreadLocal<String> lastStatementValues = new ThreadLocal<String>();
 
 	public static void setPreferences(DBCopyPreferenceBean bean)
 	{
@@ -247,6 +250,57 @@ public class DBUtil extends I18NBaseObject
 		return result;
 	}
 
+	/**
+	 * Returns the tables of the specified list that the specified table has a foreign key to. A foreign key of
+	 * the table to itself is ignored.
+	 * 
+	 * @param ti
+	 *        the table to get the parent tables of.
+	 * @param tables
+	 *        the tables to look for parent tables in.
+	 * @param md
+	 *        the metadata used to get the imported keys of ti, if they are not already cached.
+	 * @return the parent tables of ti that are in tables.
+	 * @throws SQLException
+	 */
+	public static List<ITableInfo> getParentTables(ITableInfo ti, List<ITableInfo> tables,
+	      SQLDatabaseMetaData md) throws SQLException
+	{
+		List<ITableInfo> result = new ArrayList<ITableInfo>();
+		ForeignKeyInfo[] importedKeys = SQLUtilities.getImportedKeys(ti, md);
+		if (importedKeys == null)
+		{
+			return result;
+		}
+		for (ForeignKeyInfo fkInfo : importedKeys)
+		{
+			for (ITableInfo table : tables)
+			{
+				if (table != ti && !result.contains(table)
+				      && table.getSimpleName().equalsIgnoreCase(fkInfo.getPrimaryKeyTableName())
+				      && sameName(table.getSchemaName(), fkInfo.getPrimaryKeySchemaName())
+				      && sameName(table.getCatalogName(), fkInfo.getPrimaryKeyCatalogName()))
+				{
+					result.add(table);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Compares two schema or catalog names. A null name, as reported by drivers which don't support schemas or
+	 * catalogs, matches any name.
+	 */
+	private static boolean sameName(String name1, String name2)
+	{
+		if (name1 == null || name2 == null)
+		{
+			return true;
+		}
+		return name1.equalsIgnoreCase(name2);
+	}
+
 	public static boolean tableHasForeignKey(String destCatalog, String destSchema, String destTableName,
 	      ForeignKeyInfo fkInfo, SessionInfoProvider prov)
 	{
@@ -354,7 +408,7 @@ public class DBUtil extends I18NBaseObject
 				String msg = s_stringMgr.getString("DBUtil.info.executeupdate", SQL);
 				log.debug(msg);
 			}
-			lastStatement = SQL;
+			lastStatement.set(SQL);
 			result = stmt.executeUpdate(SQL);
 		} finally
 		{
@@ -377,7 +431,24 @@ public class DBUtil extends I18NBaseObject
 	 */
 	public static ResultSet executeQuery(ISession session, String sql) throws SQLException
 	{
-		ISQLConnection sqlcon = session.getSQLConnection();
+		return executeQuery(session, session.getSQLConnection(), sql);
+	}
+
+	/**
+	 * Executes the specified sql statement on the specified connection, which needn't be the connection of the
+	 * specified session, and returns the ResultSet.
+	 * 
+	 * @param session
+	 *        the session whose database the connection is connected to. Used to determine the fetch size.
+	 * @param sqlcon
+	 *        the connection to execute the sql statement on.
+	 * @param sql
+	 * @return
+	 * @throws SQLException
+	 */
+	public static ResultSet executeQuery(ISession session, ISQLConnection sqlcon, String sql)
+	      throws SQLException
+	{
 		if (sqlcon == null || sql == null)
 		{
 			return null;
@@ -432,7 +503,7 @@ public class DBUtil extends I18NBaseObject
 		}
 		try
 		{
-			lastStatement = sql;
+			lastStatement.set(sql);
 			rs = stmt.executeQuery(sql);
 		} catch (SQLException e)
 		{
@@ -2015,29 +2086,29 @@ public class DBUtil extends I18NBaseObject
 
 	/**
 	 * @param lastStatement
-	 *        the lastStatement to set
+	 *        the lastStatement of the current thread to set
 	 */
 	public static void setLastStatement(String lastStatement)
 	{
-		DBUtil.lastStatement = lastStatement;
+		DBUtil.lastStatement.set(lastStatement);
 	}
 
 	/**
-	 * @return the lastStatement
+	 * @return the lastStatement of the current thread
 	 */
 	public static String getLastStatement()
 	{
-		return lastStatement;
+		return lastStatement.get();
 	}
 
 	public static void setLastStatementValues(String values)
 	{
-		lastStatementValues = values;
+		lastStatementValues.set(values);
 	}
 
 	public static String getLastStatementValues()
 	{
-		return lastStatementValues;
+		return lastStatementValues.get();
 	}
 	
 	public static List<ITableInfo> convertObjectToTableList(List<IDatabaseObjectInfo> objectInfoList) 
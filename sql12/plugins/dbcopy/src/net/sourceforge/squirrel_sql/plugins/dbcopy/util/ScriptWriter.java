@@ -57,7 +57,7 @@ public class ScriptWriter {
      * Writes the specified stmt to the script file.
      * @param stmt
      */
-    public static void write(String stmt) {
+    public static synchronized void write(String stmt) {
         if (!prefs.isWriteScript() || out == null) {
             return;
         }
@@ -94,7 +94,7 @@ public class ScriptWriter {
         return result.toString();
     }
     
-    public static void open(ISession source, ISession dest) {
+    public static synchronized void open(ISession source, ISession dest) {
         if (!prefs.isWriteScript()) {
             return;
         }        
@@ -114,7 +114,7 @@ public class ScriptWriter {
         }
     }
     
-    public static void close() {
+    public static synchronized void close() {
         if (!prefs.isWriteScript() || out == null) {
             return;
         }